@@ -0,0 +1,229 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.accesscontrol;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import joynr.infrastructure.DacTypes.ControlEntry;
+import joynr.infrastructure.DacTypes.MasterAccessControlEntry;
+import joynr.infrastructure.DacTypes.OwnerAccessControlEntry;
+
+/**
+ * In-memory index of the access control entries of one ACL, organized as nested maps
+ * domain -> interface -> operation -> uid. It answers the lookups of the
+ * DomainAccessControlStore without running cache queries.
+ *
+ * Writers are serialized, readers do not lock. Empty maps are pruned on removal so that
+ * iterations only visit populated branches.
+ */
+class AccessControlEntryIndex<T extends ControlEntry> {
+    private static final String WILDCARD = "*";
+
+    private final Object writeLock = new Object();
+    private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, T>>>> domains = new ConcurrentHashMap<>();
+
+    static void checkKey(String uid, String domain, String interfaceName, String operation) {
+        if (uid == null || domain == null || interfaceName == null || operation == null) {
+            throw new IllegalArgumentException("uid, domain, interface and operation of an access control entry must not be null");
+        }
+    }
+
+    static String getOperation(ControlEntry ace) {
+        if (ace instanceof MasterAccessControlEntry) {
+            return ((MasterAccessControlEntry) ace).getOperation();
+        } else if (ace instanceof OwnerAccessControlEntry) {
+            return ((OwnerAccessControlEntry) ace).getOperation();
+        }
+        throw new IllegalArgumentException("not an access control entry: " + ace);
+    }
+
+    void put(T ace) {
+        String operation = getOperation(ace);
+        checkKey(ace.getUid(), ace.getDomain(), ace.getInterfaceName(), operation);
+        synchronized (writeLock) {
+            ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, T>>> interfaces = domains.get(ace.getDomain());
+            if (interfaces == null) {
+                interfaces = new ConcurrentHashMap<>();
+                domains.put(ace.getDomain(), interfaces);
+            }
+            ConcurrentMap<String, ConcurrentMap<String, T>> operations = interfaces.get(ace.getInterfaceName());
+            if (operations == null) {
+                operations = new ConcurrentHashMap<>();
+                interfaces.put(ace.getInterfaceName(), operations);
+            }
+            ConcurrentMap<String, T> uids = operations.get(operation);
+            if (uids == null) {
+                uids = new ConcurrentHashMap<>();
+                operations.put(operation, uids);
+            }
+            uids.put(ace.getUid(), ace);
+        }
+    }
+
+    boolean remove(String uid, String domain, String interfaceName, String operation) {
+        if (uid == null || domain == null || interfaceName == null || operation == null) {
+            return false;
+        }
+        synchronized (writeLock) {
+            ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, T>>> interfaces = domains.get(domain);
+            if (interfaces == null) {
+                return false;
+            }
+            ConcurrentMap<String, ConcurrentMap<String, T>> operations = interfaces.get(interfaceName);
+            if (operations == null) {
+                return false;
+            }
+            ConcurrentMap<String, T> uids = operations.get(operation);
+            if (uids == null || uids.remove(uid) == null) {
+                return false;
+            }
+            if (uids.isEmpty()) {
+                operations.remove(operation);
+                if (operations.isEmpty()) {
+                    interfaces.remove(interfaceName);
+                    if (interfaces.isEmpty()) {
+                        domains.remove(domain);
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    void clear() {
+        synchronized (writeLock) {
+            domains.clear();
+        }
+    }
+
+    /**
+     * @return the entry of the given uid, or the entry of the wildcard uid if the given uid has
+     * no entry for exactly this operation.
+     */
+    T get(String uid, String domain, String interfaceName, String operation) {
+        Map<String, T> uids = getUids(domain, interfaceName, operation);
+        if (uids == null) {
+            return null;
+        }
+        T ace = uid == null ? null : uids.get(uid);
+        if (ace == null) {
+            ace = uids.get(WILDCARD);
+        }
+        return ace;
+    }
+
+    /**
+     * @return the entries of the given uid for all operations of the interface, or the entries
+     * of the wildcard uid if the given uid has no entry for this interface at all.
+     */
+    List<T> getAll(String uid, String domain, String interfaceName) {
+        List<T> aces = new ArrayList<T>();
+        Map<String, ConcurrentMap<String, T>> operations = getOperations(domain, interfaceName);
+        if (operations == null) {
+            return aces;
+        }
+        List<T> wildcardAces = new ArrayList<T>();
+        for (Map<String, T> uids : operations.values()) {
+            T ace = uid == null ? null : uids.get(uid);
+            if (ace != null) {
+                aces.add(ace);
+            } else if (aces.isEmpty()) {
+                ace = uids.get(WILDCARD);
+                if (ace != null) {
+                    wildcardAces.add(ace);
+                }
+            }
+        }
+        return aces.isEmpty() ? wildcardAces : aces;
+    }
+
+    List<T> getAll(String domain, String interfaceName) {
+        List<T> aces = new ArrayList<T>();
+        Map<String, ConcurrentMap<String, T>> operations = getOperations(domain, interfaceName);
+        if (operations != null) {
+            for (Map<String, T> uids : operations.values()) {
+                aces.addAll(uids.values());
+            }
+        }
+        return aces;
+    }
+
+    /**
+     * @return all entries of the given uid followed by all entries of the wildcard uid.
+     */
+    List<T> getAllForUid(String uid) {
+        List<T> aces = new ArrayList<T>();
+        List<T> wildcardAces = new ArrayList<T>();
+        for (Map<String, ConcurrentMap<String, ConcurrentMap<String, T>>> interfaces : domains.values()) {
+            for (Map<String, ConcurrentMap<String, T>> operations : interfaces.values()) {
+                for (Map<String, T> uids : operations.values()) {
+                    T ace = uid == null ? null : uids.get(uid);
+                    if (ace != null) {
+                        aces.add(ace);
+                    }
+                    T wildcardAce = WILDCARD.equals(uid) ? null : uids.get(WILDCARD);
+                    if (wildcardAce != null) {
+                        wildcardAces.add(wildcardAce);
+                    }
+                }
+            }
+        }
+        aces.addAll(wildcardAces);
+        return aces;
+    }
+
+    /**
+     * @return all entries of exactly the given uid in the given domain, without wildcard entries.
+     */
+    List<T> getAllForUidAndDomain(String uid, String domain) {
+        List<T> aces = new ArrayList<T>();
+        if (uid == null || domain == null) {
+            return aces;
+        }
+        Map<String, ConcurrentMap<String, ConcurrentMap<String, T>>> interfaces = domains.get(domain);
+        if (interfaces != null) {
+            for (Map<String, ConcurrentMap<String, T>> operations : interfaces.values()) {
+                for (Map<String, T> uids : operations.values()) {
+                    T ace = uids.get(uid);
+                    if (ace != null) {
+                        aces.add(ace);
+                    }
+                }
+            }
+        }
+        return aces;
+    }
+
+    private Map<String, ConcurrentMap<String, T>> getOperations(String domain, String interfaceName) {
+        if (domain == null || interfaceName == null) {
+            return null;
+        }
+        Map<String, ConcurrentMap<String, ConcurrentMap<String, T>>> interfaces = domains.get(domain);
+        return interfaces == null ? null : interfaces.get(interfaceName);
+    }
+
+    private Map<String, T> getUids(String domain, String interfaceName, String operation) {
+        Map<String, ConcurrentMap<String, T>> operations = getOperations(domain, interfaceName);
+        return (operations == null || operation == null) ? null : operations.get(operation);
+    }
+}
@@ -20,7 +20,9 @@ package io.joynr.accesscontrol;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nonnull;
 
@@ -44,7 +46,6 @@ import net.sf.ehcache.config.CacheConfiguration;
 import net.sf.ehcache.config.SearchAttribute;
 import net.sf.ehcache.config.Searchable;
 import net.sf.ehcache.search.Attribute;
-import net.sf.ehcache.search.Direction;
 import net.sf.ehcache.search.Query;
 import net.sf.ehcache.search.Result;
 import net.sf.ehcache.search.Results;
@@ -52,11 +53,18 @@ import net.sf.ehcache.search.Results;
 /**
  * Uses EhCache to implement a GlobalDomainAccessStore.
  * Add/Remove operations can be expensive. Get operations should be fast.
+ *
+ * Access control entries are additionally kept in an {@link AccessControlEntryIndex} per ACL,
+ * which answers all ACE lookups without cache queries and without locking. The index follows
+ * the cache instance: if an ACL cache is removed from the CacheManager, the index is rebuilt
+ * from the new cache on the next access. Entries must therefore only be modified through this
+ * store, not directly in the caches.
  */
 public class DomainAccessControlStoreEhCache implements DomainAccessControlStore {
     private static final Logger logger = LoggerFactory.getLogger(DomainAccessControlStoreEhCache.class);
     private static final String WILDCARD = "*";
     private final CacheManager cacheManager;
+    private final Map<CacheId, IndexedAcl<?>> indexedAcls = new EnumMap<CacheId, IndexedAcl<?>>(CacheId.class);
 
     public enum CacheId {
 
@@ -74,10 +82,19 @@ public class DomainAccessControlStoreEhCache implements DomainAccessControlStore
         }
     }
 
+    private static class IndexedAcl<T extends ControlEntry> {
+        private final AccessControlEntryIndex<T> index = new AccessControlEntryIndex<T>();
+        // the cache instance the index has been built from
+        private volatile Cache indexedCache;
+    }
+
     @Inject
     public DomainAccessControlStoreEhCache(CacheManager ehCacheManager,
                                            DomainAccessControlProvisioning domainAccessControlProvisioning) {
         this.cacheManager = ehCacheManager;
+        indexedAcls.put(CacheId.MASTER_ACL, new IndexedAcl<MasterAccessControlEntry>());
+        indexedAcls.put(CacheId.MEDIATOR_ACL, new IndexedAcl<MasterAccessControlEntry>());
+        indexedAcls.put(CacheId.OWNER_ACL, new IndexedAcl<OwnerAccessControlEntry>());
         Collection<DomainRoleEntry> domainRoleEntries = domainAccessControlProvisioning.getDomainRoleEntries();
         for (DomainRoleEntry provisionedDomainRoleEntry : domainRoleEntries) {
             updateDomainRole(provisionedDomainRoleEntry);
@@ -107,26 +124,9 @@ public class DomainAccessControlStoreEhCache implements DomainAccessControlStore
     @Override
     public DomainRoleEntry getDomainRole(String uid, Role role) {
         Cache cache = getCache(CacheId.DOMAIN_ROLES);
-        Attribute<String> uidAttribute = cache.getSearchAttribute(UserRoleKey.USER_ID);
-        Attribute<Role> roleAttribute = cache.getSearchAttribute(UserRoleKey.ROLE);
-        // query is the fastest if you search for keys and if you need value then call Cache.get(key)
-        Query queryRequestedUid = cache.createQuery()
-                                       .addCriteria(uidAttribute.eq(uid))
-                                       .addCriteria(roleAttribute.eq(role))
-                                       .includeKeys()
-                                       .end();
-        Results results = queryRequestedUid.execute();
-        DomainRoleEntry domainRole = null;
-        if (!results.all().isEmpty()) {
-            // Note: since (uid, role) is the primary key in domain role table
-            // results is either empty or contains exactly one entry
-            assert (results.all().size() == 1);
-            domainRole = (DomainAccessControlStoreEhCache.<DomainRoleEntry> getElementValue(cache.get(results.all()
-                                                                                                             .get(0)
-                                                                                                             .getKey())));
-        }
-
-        return domainRole;
+        // (uid, role) is the primary key in domain role table, no query needed
+        Element element = cache.get(new UserRoleKey(uid, role));
+        return element == null ? null : DomainAccessControlStoreEhCache.<DomainRoleEntry> getElementValue(element);
     }
 
     @Override
@@ -146,8 +146,15 @@ public class DomainAccessControlStoreEhCache implements DomainAccessControlStore
 
     @Override
     public Boolean removeDomainRole(String uid, Role role) {
-        UserRoleKey dreKey = new UserRoleKey(uid, role);
-        return removeAce(CacheId.DOMAIN_ROLES, dreKey);
+        Cache cache = getCache(CacheId.DOMAIN_ROLES);
+        boolean removeResult = false;
+        try {
+            removeResult = cache.remove(new UserRoleKey(uid, role));
+        } catch (IllegalArgumentException | IllegalStateException | CacheException e) {
+            logger.error("remove " + CacheId.DOMAIN_ROLES + " failed.", e);
+        }
+
+        return removeResult;
     }
 
     @Override
@@ -197,11 +204,7 @@ public class DomainAccessControlStoreEhCache implements DomainAccessControlStore
 
     @Override
     public Boolean removeMasterAccessControlEntry(String uid, String domain, String interfaceName, String operation) {
-        UserDomainInterfaceOperationKey aceKey = new UserDomainInterfaceOperationKey(uid,
-                                                                                     domain,
-                                                                                     interfaceName,
-                                                                                     operation);
-        return removeAce(CacheId.MASTER_ACL, aceKey);
+        return removeAce(CacheId.MASTER_ACL, uid, domain, interfaceName, operation);
     }
 
     @Override
@@ -262,11 +265,7 @@ public class DomainAccessControlStoreEhCache implements DomainAccessControlStore
 
     @Override
     public Boolean removeMediatorAccessControlEntry(String uid, String domain, String interfaceName, String operation) {
-        UserDomainInterfaceOperationKey aceKey = new UserDomainInterfaceOperationKey(uid,
-                                                                                     domain,
-                                                                                     interfaceName,
-                                                                                     operation);
-        return removeAce(CacheId.MEDIATOR_ACL, aceKey);
+        return removeAce(CacheId.MEDIATOR_ACL, uid, domain, interfaceName, operation);
     }
 
     @Override
@@ -329,11 +328,7 @@ public class DomainAccessControlStoreEhCache implements DomainAccessControlStore
 
     @Override
     public Boolean removeOwnerAccessControlEntry(String uid, String domain, String interfaceName, String operation) {
-        UserDomainInterfaceOperationKey aceKey = new UserDomainInterfaceOperationKey(uid,
-                                                                                     domain,
-                                                                                     interfaceName,
-                                                                                     operation);
-        return removeAce(CacheId.OWNER_ACL, aceKey);
+        return removeAce(CacheId.OWNER_ACL, uid, domain, interfaceName, operation);
     }
 
     private <T extends ControlEntry> T getAce(CacheId cacheId,
@@ -341,161 +336,116 @@ public class DomainAccessControlStoreEhCache implements DomainAccessControlStore
                                               String domain,
                                               String interfaceName,
                                               String operation) {
-        Cache cache = getCache(cacheId);
-        Attribute<String> uidAttribute = cache.getSearchAttribute(UserDomainInterfaceOperationKey.USER_ID);
-        Attribute<String> domainAttribute = cache.getSearchAttribute(UserDomainInterfaceOperationKey.DOMAIN);
-        Attribute<String> interfaceAttribute = cache.getSearchAttribute(UserDomainInterfaceOperationKey.INTERFACE);
-        Attribute<String> operationAttribute = cache.getSearchAttribute(UserDomainInterfaceOperationKey.OPERATION);
-        Query queryAllOperations = cache.createQuery()
-                                        .addCriteria(uidAttribute.eq(uid).or(uidAttribute.eq(WILDCARD)))
-                                        .addCriteria(domainAttribute.eq(domain))
-                                        .addCriteria(interfaceAttribute.eq(interfaceName))
-                                        .addCriteria(operationAttribute.eq(operation))
-                                        // have specific user ids appear before wildcards
-                                        .addOrderBy(uidAttribute, Direction.DESCENDING)
-                                        .includeKeys()
-                                        .end();
-        Results results = queryAllOperations.execute();
-        T ace = null;
-        if (!results.all().isEmpty()) {
-            ace = DomainAccessControlStoreEhCache.<T> getElementValue(cache.get(results.all().get(0).getKey()));
-        }
-
-        return ace;
+        return this.<T> getIndex(cacheId).get(uid, domain, interfaceName, operation);
     }
 
     private <T extends ControlEntry> List<T> getAces(String uid, CacheId cacheId) {
-        Cache cache = getCache(cacheId);
-        List<T> aces = new ArrayList<T>();
-        // here search on uid take place
-        Attribute<String> uidAttribute = cache.getSearchAttribute(UserDomainInterfaceOperationKey.USER_ID);
-        // query is the fastest if you search for keys and if you need value then call Cache.get(key)
-        Query queryRequestedUid = cache.createQuery().addCriteria(uidAttribute.eq(uid).or(uidAttribute.eq(WILDCARD)))
-        // have specific user ids appear before wildcards
-                                       .addOrderBy(uidAttribute, Direction.DESCENDING)
-                                       .includeKeys()
-                                       .end();
-        Results results = queryRequestedUid.execute();
-        for (Result result : results.all()) {
-            aces.add(DomainAccessControlStoreEhCache.<T> getElementValue(cache.get(result.getKey())));
-        }
-
-        return aces;
+        // entries of the specific user id appear before wildcards
+        return this.<T> getIndex(cacheId).getAllForUid(uid);
     }
 
     private <T extends ControlEntry> List<T> getAces(String domain, String interfaceName, CacheId cacheId) {
-        Cache cache = getCache(cacheId);
-        List<T> aces = new ArrayList<T>();
-        // here search on domain and interface take place
-        Attribute<String> domainAttribute = cache.getSearchAttribute(UserDomainInterfaceOperationKey.DOMAIN);
-        Attribute<String> interfaceAttribute = cache.getSearchAttribute(UserDomainInterfaceOperationKey.INTERFACE);
-        // query is the fastest if you search for keys and if you need value then call Cache.get(key)
-        Query queryDomainInterface = cache.createQuery()
-                                          .addCriteria(domainAttribute.eq(domain)
-                                                                      .and(interfaceAttribute.eq(interfaceName)))
-                                          .includeKeys()
-                                          .end();
-        Results results = queryDomainInterface.execute();
-        for (Result result : results.all()) {
-            T ace = DomainAccessControlStoreEhCache.<T> getElementValue(cache.get(result.getKey()));
-            aces.add(ace);
-        }
-
-        return aces;
+        return this.<T> getIndex(cacheId).getAll(domain, interfaceName);
     }
 
     private <T extends ControlEntry> List<T> getAces(CacheId cacheId, String uid, String domain, String interfaceName) {
-        Cache cache = getCache(cacheId);
-        Attribute<String> uidAttribute = cache.getSearchAttribute(UserDomainInterfaceOperationKey.USER_ID);
-        Attribute<String> domainAttribute = cache.getSearchAttribute(UserDomainInterfaceOperationKey.DOMAIN);
-        Attribute<String> interfaceAttribute = cache.getSearchAttribute(UserDomainInterfaceOperationKey.INTERFACE);
-        Query queryAllOperations = cache.createQuery()
-                                        .addCriteria(uidAttribute.eq(uid).or(uidAttribute.eq(WILDCARD)))
-                                        .addCriteria(domainAttribute.eq(domain))
-                                        .addCriteria(interfaceAttribute.eq(interfaceName))
-                                        // have specific user ids appear before wildcards
-                                        .addOrderBy(uidAttribute, Direction.DESCENDING)
-                                        .includeKeys()
-                                        .end();
-        Results results = queryAllOperations.execute();
-        List<T> aces = new ArrayList<T>();
-        String currentUid = null;
-        for (Result result : results.all()) {
-            T ace = DomainAccessControlStoreEhCache.<T> getElementValue(cache.get(result.getKey()));
-
-            // Don't add uid wildcards if a specific uid has been added to the results
-            if (currentUid == null) {
-                currentUid = ace.getUid();
-            } else if (!currentUid.equals(ace.getUid())) {
-                break;
-            }
-
-            aces.add(ace);
-        }
-
-        return aces;
+        // uid wildcards are only returned if no entry for the specific uid exists
+        return this.<T> getIndex(cacheId).getAll(uid, domain, interfaceName);
     }
 
     private <T extends ControlEntry> List<T> getEditableAces(String uid, CacheId cacheId, Role role) {
         List<T> aces = new ArrayList<T>();
         // find out first on which domains uid has specified role
-        Cache drtCache = getCache(CacheId.DOMAIN_ROLES);
-        UserRoleKey dreKey = new UserRoleKey(uid, role);
-        String[] uidDomains = null;
-        // read domains from DRE
-        if (drtCache.isKeyInCache(dreKey)) {
-            DomainRoleEntry dre = DomainAccessControlStoreEhCache.<DomainRoleEntry> getElementValue(drtCache.get(dreKey));
-            uidDomains = dre.getDomains();
-        }
+        DomainRoleEntry dre = getDomainRole(uid, role);
+        String[] uidDomains = dre == null ? null : dre.getDomains();
         // if uid has no domains with specified role return empty list
         if (uidDomains == null || uidDomains.length == 0) {
             return aces;
         }
 
-        Cache cache = getCache(cacheId);
-        // here should search on uid and domain take place
-        Attribute<String> uidAttribute = cache.getSearchAttribute(UserDomainInterfaceOperationKey.USER_ID);
-        Attribute<String> domainAttribute = cache.getSearchAttribute(UserDomainInterfaceOperationKey.DOMAIN);
+        AccessControlEntryIndex<T> index = getIndex(cacheId);
         for (String domain : uidDomains) {
-            Query query = cache.createQuery()
-                               .addCriteria(uidAttribute.eq(uid).and(domainAttribute.eq(domain)))
-                               .includeKeys()
-                               .end();
-            Results results = query.execute();
-            for (Result result : results.all()) {
-                aces.add(DomainAccessControlStoreEhCache.<T> getElementValue(cache.get(result.getKey())));
-            }
-
+            aces.addAll(index.getAllForUidAndDomain(uid, domain));
         }
 
         return aces;
     }
 
-    private <T extends ControlEntry> Boolean updateAce(T accessControlEntry, CacheId cacheId, Object aceKey) {
-        Cache cache = getCache(cacheId);
+    private <T extends ControlEntry> Boolean updateAce(T accessControlEntry,
+                                                       CacheId cacheId,
+                                                       UserDomainInterfaceOperationKey aceKey) {
+        IndexedAcl<T> indexedAcl = getIndexedAcl(cacheId);
         boolean updateSuccess = false;
-        try {
-            cache.put(new Element(aceKey, accessControlEntry));
-            updateSuccess = true;
-        } catch (IllegalArgumentException | IllegalStateException | CacheException e) {
-            logger.error("update " + cacheId + "failed.", e);
+        synchronized (indexedAcl) {
+            try {
+                AccessControlEntryIndex.checkKey(accessControlEntry.getUid(),
+                                                 accessControlEntry.getDomain(),
+                                                 accessControlEntry.getInterfaceName(),
+                                                 AccessControlEntryIndex.getOperation(accessControlEntry));
+                indexedCache(indexedAcl, cacheId).put(new Element(aceKey, accessControlEntry));
+                indexedAcl.index.put(accessControlEntry);
+                updateSuccess = true;
+            } catch (IllegalArgumentException | IllegalStateException | CacheException e) {
+                logger.error("update " + cacheId + "failed.", e);
+            }
         }
 
         return updateSuccess;
     }
 
-    private boolean removeAce(CacheId cacheId, Object aceKey) {
-        Cache cache = getCache(cacheId);
+    private boolean removeAce(CacheId cacheId, String uid, String domain, String interfaceName, String operation) {
+        IndexedAcl<ControlEntry> indexedAcl = getIndexedAcl(cacheId);
         boolean removeResult = false;
-        try {
-            removeResult = cache.remove(aceKey);
-        } catch (IllegalArgumentException | IllegalStateException | CacheException e) {
-            logger.error("remove " + cacheId + " failed.", e);
+        synchronized (indexedAcl) {
+            try {
+                UserDomainInterfaceOperationKey aceKey = new UserDomainInterfaceOperationKey(uid,
+                                                                                             domain,
+                                                                                             interfaceName,
+                                                                                             operation);
+                removeResult = indexedCache(indexedAcl, cacheId).remove(aceKey);
+                indexedAcl.index.remove(uid, domain, interfaceName, operation);
+            } catch (IllegalArgumentException | IllegalStateException | CacheException e) {
+                logger.error("remove " + cacheId + " failed.", e);
+            }
         }
 
         return removeResult;
     }
 
+    @SuppressWarnings("unchecked")
+    private <T extends ControlEntry> IndexedAcl<T> getIndexedAcl(CacheId cacheId) {
+        return (IndexedAcl<T>) indexedAcls.get(cacheId);
+    }
+
+    private <T extends ControlEntry> AccessControlEntryIndex<T> getIndex(CacheId cacheId) {
+        IndexedAcl<T> indexedAcl = getIndexedAcl(cacheId);
+        if (indexedAcl.indexedCache != getCache(cacheId)) {
+            synchronized (indexedAcl) {
+                indexedCache(indexedAcl, cacheId);
+            }
+        }
+        return indexedAcl.index;
+    }
+
+    /**
+     * Returns the current cache of the ACL and rebuilds the index if the cache has been
+     * replaced since the index was built. Must be called while holding the lock of indexedAcl.
+     */
+    private <T extends ControlEntry> Cache indexedCache(IndexedAcl<T> indexedAcl, CacheId cacheId) {
+        Cache cache = getCache(cacheId);
+        if (indexedAcl.indexedCache != cache) {
+            indexedAcl.index.clear();
+            for (Object key : cache.getKeys()) {
+                Element element = cache.get(key);
+                if (element != null) {
+                    indexedAcl.index.put(DomainAccessControlStoreEhCache.<T> getElementValue(element));
+                }
+            }
+            indexedAcl.indexedCache = cache;
+        }
+        return cache;
+    }
+
     protected Cache getCache(CacheId cacheId) {
         Cache cache = cacheManager.getCache(cacheId.getIdAsString());
         if (cache == null) {
@@ -20,10 +20,12 @@ package io.joynr.capabilities;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -36,26 +38,29 @@ import com.google.inject.Inject;
 import io.joynr.arbitration.DiscoveryQos;
 import io.joynr.exceptions.JoynrCommunicationException;
 import joynr.system.RoutingTypes.Address;
+import joynr.system.RoutingTypes.ChannelAddress;
+import joynr.system.RoutingTypes.MqttAddress;
 import joynr.types.DiscoveryEntry;
 import joynr.types.GlobalDiscoveryEntry;
 
 /**
  * The DiscoveryEntryStore stores a list of providers and the interfaces
  * they offer.
+ * <p>
+ * Lookups do not take any lock: the entries are indexed by participantId and by
+ * a case insensitive domain/interface key in concurrent maps. Modifications are
+ * serialized so that both indexes stay consistent.
  */
 public class DiscoveryEntryStoreInMemory implements DiscoveryEntryStore {
 
     private static final Logger logger = LoggerFactory.getLogger(DiscoveryEntryStoreInMemory.class);
 
-    Map<String, Long> registeredCapabilitiesTime = new HashMap<String, Long>();
-    Map<String, List<String>> interfaceAddressToCapabilityMapping = new HashMap<String, List<String>>();
-    Map<String, String> participantIdToCapabilityMapping = new HashMap<String, String>();
-    Map<String, DiscoveryEntry> capabilityKeyToCapabilityMapping = new HashMap<String, DiscoveryEntry>();
-    Map<Address, List<String>> endPointAddressToCapabilityMapping = new HashMap<Address, List<String>>();
+    private final ConcurrentMap<String, StoredDiscoveryEntry> participantIdToDiscoveryEntry = new ConcurrentHashMap<>();
+    private final ConcurrentMap<DomainInterfaceKey, Set<StoredDiscoveryEntry>> domainInterfaceToDiscoveryEntries = new ConcurrentHashMap<>();
 
     // Do not sychronize on a Boolean
     // Fixes FindBug warning: DL: Synchronization on Boolean
-    private Object storeLock = new Object();
+    private final Object storeLock = new Object();
 
     @Inject
     public DiscoveryEntryStoreInMemory(CapabilitiesProvisioning staticProvisioning) {
@@ -69,7 +74,7 @@ public class DiscoveryEntryStoreInMemory implements DiscoveryEntryStore {
      * capabilities .DiscoveryEntry)
      */
     @Override
-    public synchronized void add(DiscoveryEntry discoveryEntry) {
+    public void add(DiscoveryEntry discoveryEntry) {
         if (discoveryEntry.getDomain() == null || discoveryEntry.getInterfaceName() == null
                 || discoveryEntry.getParticipantId() == null) {
             String message = "discoveryEntry being registered is not complete: " + discoveryEntry;
@@ -77,39 +82,24 @@ public class DiscoveryEntryStoreInMemory implements DiscoveryEntryStore {
             throw new JoynrCommunicationException(message);
         }
 
+        StoredDiscoveryEntry storedEntry = new StoredDiscoveryEntry(discoveryEntry,
+                                                                    new DomainInterfaceKey(discoveryEntry.getDomain(),
+                                                                                           discoveryEntry.getInterfaceName()),
+                                                                    System.currentTimeMillis());
         synchronized (storeLock) {
-            String discoveryEntryId = domainInterfaceParticipantIdKey(discoveryEntry.getDomain(),
-                                                                      discoveryEntry.getInterfaceName(),
-                                                                      discoveryEntry.getParticipantId());
-            DiscoveryEntry entry = capabilityKeyToCapabilityMapping.get(discoveryEntryId);
-            // check if a DiscoveryEntry with the same Id already exists
-            if (entry != null) {
-                remove(discoveryEntry.getParticipantId());
+            // an existing DiscoveryEntry with the same participantId is replaced
+            StoredDiscoveryEntry previousEntry = participantIdToDiscoveryEntry.put(discoveryEntry.getParticipantId(),
+                                                                                   storedEntry);
+            if (previousEntry != null) {
+                removeFromDomainInterfaceIndex(previousEntry);
             }
 
-            // update participantId to capability mapping
-            capabilityKeyToCapabilityMapping.put(discoveryEntryId, discoveryEntry);
-
-            // update time mapping
-            registeredCapabilitiesTime.put(discoveryEntryId, System.currentTimeMillis());
-
-            // update interfaceDomain to capability mapping
-            String domainInterfaceId = domainInterfaceKey(discoveryEntry.getDomain(), discoveryEntry.getInterfaceName());
-
-            // if domainInterfaceId not in the mapping, map it to an empty map,
-            // otherwise use the mapping that is  already there
-            List<String> newMapping = new ArrayList<String>();
-            List<String> mapping = interfaceAddressToCapabilityMapping.putIfAbsent(domainInterfaceId, newMapping);
-            if (mapping == null) {
-                mapping = newMapping;
+            Set<StoredDiscoveryEntry> entries = domainInterfaceToDiscoveryEntries.get(storedEntry.domainInterfaceKey);
+            if (entries == null) {
+                entries = Collections.newSetFromMap(new ConcurrentHashMap<StoredDiscoveryEntry, Boolean>());
+                domainInterfaceToDiscoveryEntries.put(storedEntry.domainInterfaceKey, entries);
             }
-
-            mapping.add(discoveryEntryId);
-
-            // update participantId to capability mapping
-            String participantId = discoveryEntry.getParticipantId();
-
-            participantIdToCapabilityMapping.put(participantId, discoveryEntryId);
+            entries.add(storedEntry);
         }
     }
 
@@ -127,7 +117,11 @@ public class DiscoveryEntryStoreInMemory implements DiscoveryEntryStore {
         boolean removedSuccessfully = false;
 
         synchronized (storeLock) {
-            removedSuccessfully = removeDiscoveryEntryFromStore(participantId);
+            StoredDiscoveryEntry storedEntry = participantIdToDiscoveryEntry.remove(participantId);
+            if (storedEntry != null) {
+                removeFromDomainInterfaceIndex(storedEntry);
+                removedSuccessfully = true;
+            }
         }
         if (!removedSuccessfully) {
             logger.error("Could not find discoveryEntry to remove with Id: {}", participantId);
@@ -135,50 +129,16 @@ public class DiscoveryEntryStoreInMemory implements DiscoveryEntryStore {
         return removedSuccessfully;
     }
 
-    private boolean removeDiscoveryEntryFromStore(String participantId) {
-        String discoveryEntryId = participantIdToCapabilityMapping.get(participantId);
-        if (discoveryEntryId == null) {
-            return false;
-        }
-        DiscoveryEntry capability = capabilityKeyToCapabilityMapping.get(discoveryEntryId);
-
-        if (capability == null) {
-            return false;
-        }
-
-        String domainInterfaceId = domainInterfaceKey(capability.getDomain(), capability.getInterfaceName());
-        DiscoveryEntry entry = capabilityKeyToCapabilityMapping.remove(discoveryEntryId);
-        // check if a discoveryEntry with the same ID already exists
-        if (entry == null) {
-            return false;
-        }
-
-        // update time mapping
-        registeredCapabilitiesTime.remove(discoveryEntryId);
-
-        // update interfaceDomain to capability mapping
-        List<String> mapping = interfaceAddressToCapabilityMapping.get(domainInterfaceId);
-        if (mapping != null) {
-            if (!mapping.remove(discoveryEntryId)) {
-                logger.error("Could not find capability to remove from interfaceDomainToCapabilityMapping: {}",
-                             discoveryEntryId);
-            }
-            if (mapping.isEmpty()) {
-                interfaceAddressToCapabilityMapping.remove(domainInterfaceId);
-            }
-        } else {
+    private void removeFromDomainInterfaceIndex(StoredDiscoveryEntry storedEntry) {
+        Set<StoredDiscoveryEntry> entries = domainInterfaceToDiscoveryEntries.get(storedEntry.domainInterfaceKey);
+        if (entries == null || !entries.remove(storedEntry)) {
             logger.error("Could not find capability to remove from interfaceDomainToCapabilityMapping: {}",
-                         discoveryEntryId);
+                         storedEntry.discoveryEntry.getParticipantId());
+            return;
         }
-
-        // update participantId to capability mapping
-        if (participantIdToCapabilityMapping.remove(participantId) == null) {
-            logger.error("Could not find capability to remove from participantIdToCapabilityMapping: {}",
-                         discoveryEntryId);
+        if (entries.isEmpty()) {
+            domainInterfaceToDiscoveryEntries.remove(storedEntry.domainInterfaceKey);
         }
-
-        return true;
-
     }
 
     @Override
@@ -197,50 +157,37 @@ public class DiscoveryEntryStoreInMemory implements DiscoveryEntryStore {
     public Collection<DiscoveryEntry> lookup(final String[] domains, final String interfaceName, long cacheMaxAge) {
         ArrayList<DiscoveryEntry> capabilitiesList = new ArrayList<DiscoveryEntry>();
 
-        synchronized (storeLock) {
-            for (String domain : domains) {
-                String domainInterfacekey = domainInterfaceKey(domain, interfaceName);
-                List<String> matchingDiscoveryEntries = interfaceAddressToCapabilityMapping.get(domainInterfacekey);
-                if (matchingDiscoveryEntries != null) {
-                    // check that sure cache age is OK
-                    for (String capId : matchingDiscoveryEntries) {
-                        DiscoveryEntry discoveryEntry = capabilityKeyToCapabilityMapping.get(capId);
-
-                        if (discoveryEntry instanceof GlobalDiscoveryEntry
-                                && !checkAge(registeredCapabilitiesTime.get(capId), cacheMaxAge)) {
-                            continue;
-                        }
-
-                        capabilitiesList.add(discoveryEntry);
+        for (String domain : domains) {
+            Set<StoredDiscoveryEntry> matchingDiscoveryEntries = domainInterfaceToDiscoveryEntries.get(new DomainInterfaceKey(domain,
+                                                                                                                              interfaceName));
+            if (matchingDiscoveryEntries != null) {
+                // check that sure cache age is OK
+                for (StoredDiscoveryEntry storedEntry : matchingDiscoveryEntries) {
+                    if (storedEntry.isAcceptable(cacheMaxAge)) {
+                        capabilitiesList.add(storedEntry.discoveryEntry);
                     }
                 }
             }
         }
 
-        logger.debug("Capabilities found: {}", capabilitiesList.toString());
+        logger.debug("Capabilities found: {}", capabilitiesList);
         return capabilitiesList;
     }
 
     @Override
     @CheckForNull
     public DiscoveryEntry lookup(String participantId, long cacheMaxAge) {
+        StoredDiscoveryEntry storedEntry = participantIdToDiscoveryEntry.get(participantId);
+        if (storedEntry == null) {
+            return null;
+        }
 
-        synchronized (storeLock) {
-            String discoveryEntryId = participantIdToCapabilityMapping.get(participantId);
-            if (discoveryEntryId == null) {
-                return null;
-            }
-
-            DiscoveryEntry discoveryEntry = capabilityKeyToCapabilityMapping.get(discoveryEntryId);
-
-            logger.debug("Capability for participantId {} found: {}", participantId, discoveryEntry);
-            if (discoveryEntry instanceof GlobalDiscoveryEntry
-                    && !checkAge(registeredCapabilitiesTime.get(discoveryEntryId), cacheMaxAge)) {
-                return null;
-            }
-
-            return discoveryEntry;
+        logger.debug("Capability for participantId {} found: {}", participantId, storedEntry.discoveryEntry);
+        if (!storedEntry.isAcceptable(cacheMaxAge)) {
+            return null;
         }
+
+        return storedEntry.discoveryEntry;
     }
 
     @Override
@@ -253,28 +200,136 @@ public class DiscoveryEntryStoreInMemory implements DiscoveryEntryStore {
 
     @Override
     public boolean hasDiscoveryEntry(@Nonnull DiscoveryEntry discoveryEntry) {
+        DomainInterfaceKey domainInterfaceKey = new DomainInterfaceKey(discoveryEntry.getDomain(),
+                                                                       discoveryEntry.getInterfaceName());
+        String participantId = discoveryEntry.getParticipantId();
+        if (participantId != null) {
+            StoredDiscoveryEntry storedEntry = participantIdToDiscoveryEntry.get(participantId);
+            if (storedEntry != null && storedEntry.domainInterfaceKey.equals(domainInterfaceKey)) {
+                return true;
+            }
+        }
+        // like domain and interface, the participantId is compared case insensitively
+        Set<StoredDiscoveryEntry> entries = domainInterfaceToDiscoveryEntries.get(domainInterfaceKey);
+        if (entries == null) {
+            return false;
+        }
+        String lowerCaseParticipantId = String.valueOf(participantId).toLowerCase(Locale.ENGLISH);
+        for (StoredDiscoveryEntry storedEntry : entries) {
+            if (lowerCaseParticipantId.equals(storedEntry.discoveryEntry.getParticipantId().toLowerCase(Locale.ENGLISH))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Updates the last seen date of all global discovery entries which have been registered by the given cluster
+     * controller, i.e. whose MQTT topic or channel id equals clusterControllerId.
+     * <p>
+     * Stored entries are read without locking, hence they are not modified: a touched entry is replaced by a copy
+     * with the new last seen date.
+     */
+    @Override
+    public void touch(String clusterControllerId) {
+        long now = System.currentTimeMillis();
         synchronized (storeLock) {
-            String discoveryEntryId = domainInterfaceParticipantIdKey(discoveryEntry.getDomain(),
-                                                                      discoveryEntry.getInterfaceName(),
-                                                                      discoveryEntry.getParticipantId());
-            return registeredCapabilitiesTime.containsKey(discoveryEntryId);
+            for (StoredDiscoveryEntry storedEntry : participantIdToDiscoveryEntry.values()) {
+                if (!(storedEntry.discoveryEntry instanceof GlobalDiscoveryEntry)) {
+                    continue;
+                }
+                GlobalDiscoveryEntry globalDiscoveryEntry = (GlobalDiscoveryEntry) storedEntry.discoveryEntry;
+                try {
+                    if (clusterControllerId.equals(getClusterControllerId(globalDiscoveryEntry))) {
+                        GlobalDiscoveryEntry touchedEntry = new GlobalDiscoveryEntry(globalDiscoveryEntry);
+                        touchedEntry.setLastSeenDateMs(now);
+                        replace(storedEntry, new StoredDiscoveryEntry(touchedEntry,
+                                                                      storedEntry.domainInterfaceKey,
+                                                                      storedEntry.registeredTime));
+                    }
+                } catch (RuntimeException e) {
+                    logger.error("Error updating last seen date of {} for cluster controller with ID {}",
+                                 globalDiscoveryEntry.getParticipantId(),
+                                 clusterControllerId,
+                                 e);
+                }
+            }
         }
     }
 
-    String domainInterfaceParticipantIdKey(String domain, String interfaceName, String participantId) {
-        return (domainInterfaceKey(domain, interfaceName) + "|" + participantId).toLowerCase();
+    // must be called while holding storeLock
+    private void replace(StoredDiscoveryEntry storedEntry, StoredDiscoveryEntry newEntry) {
+        participantIdToDiscoveryEntry.put(newEntry.discoveryEntry.getParticipantId(), newEntry);
+        Set<StoredDiscoveryEntry> entries = domainInterfaceToDiscoveryEntries.get(newEntry.domainInterfaceKey);
+        // add before removing, so that concurrent lookups do not miss the entry
+        entries.add(newEntry);
+        entries.remove(storedEntry);
     }
 
-    String domainInterfaceKey(String domain, String interfaceName) {
-        return (domain + "|" + interfaceName).toLowerCase();
+    @CheckForNull
+    private static String getClusterControllerId(GlobalDiscoveryEntry globalDiscoveryEntry) {
+        Address address = CapabilityUtils.getAddressFromGlobalDiscoveryEntry(globalDiscoveryEntry);
+        if (address instanceof MqttAddress) {
+            return ((MqttAddress) address).getTopic();
+        } else if (address instanceof ChannelAddress) {
+            return ((ChannelAddress) address).getChannelId();
+        }
+        return null;
     }
 
-    private boolean checkAge(Long timeStamp, long maxAcceptedAge) {
-        return timeStamp != null && ((System.currentTimeMillis() - timeStamp) <= maxAcceptedAge);
+    /**
+     * Case insensitive key of a domain/interface pair. The hash code is computed once.
+     */
+    static final class DomainInterfaceKey {
+        private final String domain;
+        private final String interfaceName;
+        private final int hashCode;
+
+        DomainInterfaceKey(String domain, String interfaceName) {
+            // toLowerCase does not allocate for keys which are already lower case
+            this.domain = String.valueOf(domain).toLowerCase(Locale.ENGLISH);
+            this.interfaceName = String.valueOf(interfaceName).toLowerCase(Locale.ENGLISH);
+            this.hashCode = 31 * this.domain.hashCode() + this.interfaceName.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof DomainInterfaceKey)) {
+                return false;
+            }
+            DomainInterfaceKey other = (DomainInterfaceKey) obj;
+            return hashCode == other.hashCode && domain.equals(other.domain)
+                    && interfaceName.equals(other.interfaceName);
+        }
+
+        @Override
+        public String toString() {
+            return domain + "|" + interfaceName;
+        }
     }
 
-    @Override
-    public void touch(String clusterControllerId) {
-        // TODO Auto-generated method stub
+    private static final class StoredDiscoveryEntry {
+        private final DiscoveryEntry discoveryEntry;
+        private final DomainInterfaceKey domainInterfaceKey;
+        private final long registeredTime;
+
+        StoredDiscoveryEntry(DiscoveryEntry discoveryEntry, DomainInterfaceKey domainInterfaceKey, long registeredTime) {
+            this.discoveryEntry = discoveryEntry;
+            this.domainInterfaceKey = domainInterfaceKey;
+            this.registeredTime = registeredTime;
+        }
+
+        boolean isAcceptable(long cacheMaxAge) {
+            return !(discoveryEntry instanceof GlobalDiscoveryEntry)
+                    || (System.currentTimeMillis() - registeredTime) <= cacheMaxAge;
+        }
     }
 }
@@ -0,0 +1,226 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.capabilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import joynr.system.RoutingTypes.MqttAddress;
+import joynr.types.DiscoveryEntry;
+import joynr.types.GlobalDiscoveryEntry;
+import joynr.types.ProviderQos;
+import joynr.types.Version;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectMapper.DefaultTyping;
+
+public class DiscoveryEntryStoreInMemoryTest {
+
+    private static final String INTERFACE_NAME = "test/Interface";
+
+    private DiscoveryEntryStoreInMemory store;
+
+    @Before
+    public void setUp() {
+        store = new DiscoveryEntryStoreInMemory(mock(CapabilitiesProvisioning.class));
+    }
+
+    private static DiscoveryEntry createDiscoveryEntry(String domain, String interfaceName, String participantId) {
+        return new DiscoveryEntry(new Version(47, 11),
+                                  domain,
+                                  interfaceName,
+                                  participantId,
+                                  new ProviderQos(),
+                                  System.currentTimeMillis(),
+                                  System.currentTimeMillis() + 100000,
+                                  "publicKeyId");
+    }
+
+    @Test
+    public void lookupIgnoresCaseOfDomainAndInterface() {
+        DiscoveryEntry entry = createDiscoveryEntry("Domain", INTERFACE_NAME, "participant");
+        store.add(entry);
+
+        assertEquals(Arrays.asList(entry), store.lookup(new String[]{ "dOMAIN" }, INTERFACE_NAME.toUpperCase()));
+        assertEquals(entry, store.lookup("participant", Long.MAX_VALUE));
+        assertTrue(store.hasDiscoveryEntry(createDiscoveryEntry("domain", INTERFACE_NAME, "participant")));
+        assertFalse(store.hasDiscoveryEntry(createDiscoveryEntry("otherDomain", INTERFACE_NAME, "participant")));
+    }
+
+    @Test
+    public void hasDiscoveryEntryIgnoresCaseOfParticipantId() {
+        store.add(createDiscoveryEntry("domain", INTERFACE_NAME, "Participant"));
+
+        assertTrue(store.hasDiscoveryEntry(createDiscoveryEntry("DOMAIN", INTERFACE_NAME, "pARTICIPANT")));
+        assertFalse(store.hasDiscoveryEntry(createDiscoveryEntry("domain", INTERFACE_NAME, "otherParticipant")));
+    }
+
+    @Test
+    public void lookupReturnsEntriesOfAllDomains() {
+        DiscoveryEntry entry1 = createDiscoveryEntry("domain1", INTERFACE_NAME, "participant1");
+        DiscoveryEntry entry2 = createDiscoveryEntry("domain2", INTERFACE_NAME, "participant2");
+        DiscoveryEntry entry3 = createDiscoveryEntry("domain2", "other/Interface", "participant3");
+        store.add(Arrays.asList(entry1, entry2, entry3));
+
+        Collection<DiscoveryEntry> result = store.lookup(new String[]{ "domain1", "domain2" }, INTERFACE_NAME);
+        assertEquals(2, result.size());
+        assertTrue(result.contains(entry1));
+        assertTrue(result.contains(entry2));
+    }
+
+    @Test
+    public void addingEntryWithSameParticipantIdReplacesPreviousEntry() {
+        DiscoveryEntry entry = createDiscoveryEntry("domain1", INTERFACE_NAME, "participant");
+        DiscoveryEntry movedEntry = createDiscoveryEntry("domain2", INTERFACE_NAME, "participant");
+        store.add(entry);
+        store.add(movedEntry);
+
+        assertTrue(store.lookup(new String[]{ "domain1" }, INTERFACE_NAME).isEmpty());
+        assertEquals(Arrays.asList(movedEntry), store.lookup(new String[]{ "domain2" }, INTERFACE_NAME));
+        assertEquals(movedEntry, store.lookup("participant", Long.MAX_VALUE));
+    }
+
+    @Test
+    public void removedEntryIsNotFound() {
+        DiscoveryEntry entry = createDiscoveryEntry("domain", INTERFACE_NAME, "participant");
+        store.add(entry);
+
+        assertTrue(store.remove("participant"));
+        assertFalse(store.remove("participant"));
+        assertTrue(store.lookup(new String[]{ "domain" }, INTERFACE_NAME).isEmpty());
+        assertNull(store.lookup("participant", Long.MAX_VALUE));
+        assertFalse(store.hasDiscoveryEntry(entry));
+    }
+
+    @Test
+    public void globalEntryOlderThanCacheMaxAgeIsNotReturned() throws Exception {
+        GlobalDiscoveryEntry globalEntry = new GlobalDiscoveryEntry(new Version(47, 11),
+                                                                    "domain",
+                                                                    INTERFACE_NAME,
+                                                                    "participant",
+                                                                    new ProviderQos(),
+                                                                    System.currentTimeMillis(),
+                                                                    System.currentTimeMillis() + 100000,
+                                                                    "publicKeyId",
+                                                                    "address");
+        store.add(globalEntry);
+        Thread.sleep(10);
+
+        assertTrue(store.lookup(new String[]{ "domain" }, INTERFACE_NAME, 0).isEmpty());
+        assertNull(store.lookup("participant", 0));
+        assertEquals(Arrays.<DiscoveryEntry> asList(globalEntry),
+                     store.lookup(new String[]{ "domain" }, INTERFACE_NAME, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void touchUpdatesLastSeenDateOfEntriesOfClusterController() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.enableDefaultTypingAsProperty(DefaultTyping.JAVA_LANG_OBJECT, "_typeName");
+        Field objectMapperField = CapabilityUtils.class.getDeclaredField("objectMapper");
+        objectMapperField.setAccessible(true);
+        objectMapperField.set(CapabilityUtils.class, objectMapper);
+
+        GlobalDiscoveryEntry touchedEntry = CapabilityUtils.newGlobalDiscoveryEntry(new Version(47, 11),
+                                                                                    "domain",
+                                                                                    INTERFACE_NAME,
+                                                                                    "participant1",
+                                                                                    new ProviderQos(),
+                                                                                    0L,
+                                                                                    Long.MAX_VALUE,
+                                                                                    "publicKeyId",
+                                                                                    new MqttAddress("tcp://broker:1883",
+                                                                                                    "cc1"));
+        GlobalDiscoveryEntry otherEntry = CapabilityUtils.newGlobalDiscoveryEntry(new Version(47, 11),
+                                                                                  "domain",
+                                                                                  INTERFACE_NAME,
+                                                                                  "participant2",
+                                                                                  new ProviderQos(),
+                                                                                  0L,
+                                                                                  Long.MAX_VALUE,
+                                                                                  "publicKeyId",
+                                                                                  new MqttAddress("tcp://broker:1883",
+                                                                                                  "cc2"));
+        store.add(Arrays.asList(touchedEntry, otherEntry));
+
+        long beforeTouch = System.currentTimeMillis();
+        store.touch("cc1");
+
+        assertTrue(store.lookup("participant1", Long.MAX_VALUE).getLastSeenDateMs() >= beforeTouch);
+        assertEquals((Long) 0L, store.lookup("participant2", Long.MAX_VALUE).getLastSeenDateMs());
+        // entries are replaced instead of being modified while concurrent lookups may read them
+        assertEquals((Long) 0L, touchedEntry.getLastSeenDateMs());
+        assertEquals(2, store.lookup(new String[]{ "domain" }, INTERFACE_NAME, Long.MAX_VALUE).size());
+    }
+
+    @Test(timeout = 10000)
+    public void concurrentLookupsSeeStableEntriesWhileOthersAreAddedAndRemoved() throws Exception {
+        final DiscoveryEntry stableEntry = createDiscoveryEntry("domain", INTERFACE_NAME, "stable");
+        store.add(stableEntry);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int thread = 0; thread < 2; thread++) {
+                final String prefix = "participant" + thread + "_";
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int i = 0; i < 1000; i++) {
+                            store.add(createDiscoveryEntry("domain", INTERFACE_NAME, prefix + i));
+                            store.remove(prefix + i);
+                        }
+                        return true;
+                    }
+                }));
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int i = 0; i < 1000; i++) {
+                            if (!store.lookup(new String[]{ "domain" }, INTERFACE_NAME).contains(stableEntry)) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(Arrays.asList(stableEntry), store.lookup(new String[]{ "domain" }, INTERFACE_NAME));
+    }
+}
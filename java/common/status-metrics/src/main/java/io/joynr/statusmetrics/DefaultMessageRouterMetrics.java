@@ -0,0 +1,58 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.statusmetrics;
+
+public class DefaultMessageRouterMetrics implements MessageRouterMetrics {
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void messageQueued(String messageType) {
+    }
+
+    @Override
+    public void messageDequeued(String messageType, long timeInQueueNs) {
+    }
+
+    @Override
+    public void messageRetried(String messageType) {
+    }
+
+    @Override
+    public void messageDropped(String messageType, DropReason reason) {
+    }
+
+    @Override
+    public void messageTransmitted(String messageType, String addressType, long transmitLatencyNs) {
+    }
+
+    @Override
+    public void messageTransmissionFailed(String messageType, String addressType) {
+    }
+
+    @Override
+    public void highWatermarkReached(int queueSize) {
+    }
+
+    @Override
+    public void lowWatermarkReached(int queueSize) {
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.statusmetrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds with log-linear buckets: every power of two
+ * is divided into {@value #SUB_BUCKET_COUNT} linear sub-buckets, so the relative error of a
+ * reported value is below 3.2%. Values above 2^41 ns (about 36 minutes) are recorded in the
+ * highest bucket; the exact maximum is tracked separately.
+ *
+ * Recording a value is a single atomic increment of its bucket plus the update of the striped
+ * total, so it neither allocates nor blocks.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final StripedCounter totalNs = new StripedCounter();
+    private final AtomicLong maxNs = new AtomicLong();
+
+    public void record(long valueNs) {
+        if (valueNs < 0) {
+            valueNs = 0;
+        }
+        buckets.incrementAndGet(bucketIndex(valueNs));
+        totalNs.add(valueNs);
+        long currentMax = maxNs.get();
+        while (valueNs > currentMax && !maxNs.compareAndSet(currentMax, valueNs)) {
+            currentMax = maxNs.get();
+        }
+    }
+
+    public Snapshot getSnapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+        return new Snapshot(counts, count, totalNs.sum(), maxNs.get());
+    }
+
+    static int bucketIndex(long valueNs) {
+        if (valueNs < SUB_BUCKET_COUNT) {
+            return (int) valueNs;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(valueNs);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) (valueNs >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long highestValueInBucket(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lowestValue = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lowestValue + (1L << shift) - 1;
+    }
+
+    /**
+     * Copy of the histogram at a point in time. The buckets are read one after the other while
+     * other threads keep recording, so count, mean and maximum may be slightly out of sync.
+     */
+    public static class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalNs;
+        private final long maxNs;
+
+        Snapshot(long[] counts, long count, long totalNs, long maxNs) {
+            this.counts = counts;
+            this.count = count;
+            this.totalNs = totalNs;
+            this.maxNs = maxNs;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMaxNs() {
+            return maxNs;
+        }
+
+        public double getMeanNs() {
+            return count == 0 ? 0 : (double) totalNs / count;
+        }
+
+        /**
+         * @param percentile A value between 0 and 100.
+         * @return The highest value which is equivalent (within the histogram's precision) to the
+         * value at the given percentile, or 0 if nothing has been recorded.
+         */
+        public long getValueAtPercentileNs(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueInBucket(i), maxNs);
+                }
+            }
+            return maxNs;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + ", mean=" + (long) getMeanNs() + "ns, p50=" + getValueAtPercentileNs(50)
+                    + "ns, p99=" + getValueAtPercentileNs(99) + "ns, max=" + maxNs + "ns";
+        }
+    }
+}
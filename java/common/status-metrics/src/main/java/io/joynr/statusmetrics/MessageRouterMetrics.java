@@ -0,0 +1,90 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.statusmetrics;
+
+/**
+ * Receives events from the hot path of the message router. Implementations are called from
+ * the message worker threads and from the threads routing or retrying messages, hence they
+ * must be thread safe and must not block.
+ *
+ * The router asks {@link #isEnabled()} once when it is created. If it returns false, no other
+ * method is called and no timestamps are taken, so the default implementation costs nothing.
+ * Bind {@link MessageRouterMetricsRecorder} (or an own implementation) via Guice to collect
+ * the metrics.
+ */
+public interface MessageRouterMetrics {
+    enum DropReason {
+        /** The ttl of the message expired before it could be transmitted. */
+        EXPIRED,
+        /** The message was dropped after the maximum number of retries. */
+        MAX_RETRIES,
+        /** The transmission failed permanently, e.g. because there is no route to the recipient. */
+        NOT_SENT,
+        /** The message was rejected because the message queue reached its capacity. */
+        QUEUE_FULL
+    }
+
+    boolean isEnabled();
+
+    /**
+     * A message has been put into the message queue, either for the first time or for a retry.
+     *
+     * @param messageType The type of the message, see joynr.Message.VALUE_MESSAGE_TYPE_*
+     */
+    void messageQueued(String messageType);
+
+    /**
+     * A message worker has taken a message from the message queue.
+     *
+     * @param messageType The type of the message.
+     * @param timeInQueueNs Time between the message becoming due and its removal from the queue.
+     */
+    void messageDequeued(String messageType, long timeInQueueNs);
+
+    void messageRetried(String messageType);
+
+    void messageDropped(String messageType, DropReason reason);
+
+    /**
+     * The messaging stub reported a successful transmission of a message to one destination.
+     *
+     * @param messageType The type of the message.
+     * @param addressType The simple class name of the destination address, e.g. MqttAddress.
+     * @param transmitLatencyNs Time between handing the message to the stub and its success callback.
+     */
+    void messageTransmitted(String messageType, String addressType, long transmitLatencyNs);
+
+    void messageTransmissionFailed(String messageType, String addressType);
+
+    /**
+     * The message queue has grown to the high watermark and the messaging skeletons are asked to
+     * stop receiving messages.
+     *
+     * @param queueSize The number of queued messages.
+     */
+    void highWatermarkReached(int queueSize);
+
+    /**
+     * The message queue has shrunk to the low watermark after the high watermark had been reached
+     * and the messaging skeletons are asked to receive messages again.
+     *
+     * @param queueSize The number of queued messages.
+     */
+    void lowWatermarkReached(int queueSize);
+}
@@ -0,0 +1,181 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.statusmetrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Collects the message router metrics in striped counters and lock-free latency histograms,
+ * keyed by message type and destination address type. The recorded values can be polled with
+ * {@link #getSnapshot()}; they are never reset.
+ *
+ * To enable the metrics, bind a single instance of this class via Guice:
+ * <pre>
+ * bind(MessageRouterMetrics.class).toInstance(recorder);
+ * </pre>
+ */
+public class MessageRouterMetricsRecorder implements MessageRouterMetrics {
+    static final String UNKNOWN = "unknown";
+
+    private final ConcurrentMap<String, MessageTypeRecorder> messageTypeRecorders = new ConcurrentHashMap<>();
+    private final StripedCounter highWatermarkReached = new StripedCounter();
+    private final StripedCounter lowWatermarkReached = new StripedCounter();
+    private volatile boolean receivingPaused = false;
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void messageQueued(String messageType) {
+        getMessageTypeRecorder(messageType).queued.increment();
+    }
+
+    @Override
+    public void messageDequeued(String messageType, long timeInQueueNs) {
+        MessageTypeRecorder recorder = getMessageTypeRecorder(messageType);
+        recorder.dequeued.increment();
+        recorder.timeInQueue.record(timeInQueueNs);
+    }
+
+    @Override
+    public void messageRetried(String messageType) {
+        getMessageTypeRecorder(messageType).retried.increment();
+    }
+
+    @Override
+    public void messageDropped(String messageType, DropReason reason) {
+        getMessageTypeRecorder(messageType).dropped[reason.ordinal()].increment();
+    }
+
+    @Override
+    public void messageTransmitted(String messageType, String addressType, long transmitLatencyNs) {
+        DestinationRecorder recorder = getMessageTypeRecorder(messageType).getDestinationRecorder(addressType);
+        recorder.transmitted.increment();
+        recorder.transmitLatency.record(transmitLatencyNs);
+    }
+
+    @Override
+    public void messageTransmissionFailed(String messageType, String addressType) {
+        getMessageTypeRecorder(messageType).getDestinationRecorder(addressType).failed.increment();
+    }
+
+    @Override
+    public void highWatermarkReached(int queueSize) {
+        highWatermarkReached.increment();
+        receivingPaused = true;
+    }
+
+    @Override
+    public void lowWatermarkReached(int queueSize) {
+        lowWatermarkReached.increment();
+        receivingPaused = false;
+    }
+
+    public MessageRouterMetricsSnapshot getSnapshot() {
+        Map<String, MessageRouterMetricsSnapshot.MessageTypeMetrics> messageTypeMetrics = new HashMap<>();
+        for (Map.Entry<String, MessageTypeRecorder> entry : messageTypeRecorders.entrySet()) {
+            messageTypeMetrics.put(entry.getKey(), entry.getValue().getSnapshot());
+        }
+        return new MessageRouterMetricsSnapshot(System.currentTimeMillis(),
+                                                messageTypeMetrics,
+                                                highWatermarkReached.sum(),
+                                                lowWatermarkReached.sum(),
+                                                receivingPaused);
+    }
+
+    private MessageTypeRecorder getMessageTypeRecorder(String messageType) {
+        if (messageType == null) {
+            messageType = UNKNOWN;
+        }
+        MessageTypeRecorder recorder = messageTypeRecorders.get(messageType);
+        if (recorder == null) {
+            MessageTypeRecorder newRecorder = new MessageTypeRecorder();
+            recorder = messageTypeRecorders.putIfAbsent(messageType, newRecorder);
+            if (recorder == null) {
+                recorder = newRecorder;
+            }
+        }
+        return recorder;
+    }
+
+    private static class MessageTypeRecorder {
+        private final StripedCounter queued = new StripedCounter();
+        private final StripedCounter dequeued = new StripedCounter();
+        private final StripedCounter retried = new StripedCounter();
+        private final StripedCounter[] dropped = new StripedCounter[DropReason.values().length];
+        private final LatencyHistogram timeInQueue = new LatencyHistogram();
+        private final ConcurrentMap<String, DestinationRecorder> destinationRecorders = new ConcurrentHashMap<>();
+
+        MessageTypeRecorder() {
+            for (int i = 0; i < dropped.length; i++) {
+                dropped[i] = new StripedCounter();
+            }
+        }
+
+        DestinationRecorder getDestinationRecorder(String addressType) {
+            if (addressType == null) {
+                addressType = UNKNOWN;
+            }
+            DestinationRecorder recorder = destinationRecorders.get(addressType);
+            if (recorder == null) {
+                DestinationRecorder newRecorder = new DestinationRecorder();
+                recorder = destinationRecorders.putIfAbsent(addressType, newRecorder);
+                if (recorder == null) {
+                    recorder = newRecorder;
+                }
+            }
+            return recorder;
+        }
+
+        MessageRouterMetricsSnapshot.MessageTypeMetrics getSnapshot() {
+            // read dequeued before queued so that the derived queue depth never becomes negative
+            long dequeuedCount = dequeued.sum();
+            long queuedCount = queued.sum();
+            long[] droppedCounts = new long[dropped.length];
+            for (int i = 0; i < dropped.length; i++) {
+                droppedCounts[i] = dropped[i].sum();
+            }
+            Map<String, MessageRouterMetricsSnapshot.DestinationMetrics> destinationMetrics = new HashMap<>();
+            for (Map.Entry<String, DestinationRecorder> entry : destinationRecorders.entrySet()) {
+                DestinationRecorder recorder = entry.getValue();
+                destinationMetrics.put(entry.getKey(),
+                                       new MessageRouterMetricsSnapshot.DestinationMetrics(recorder.transmitted.sum(),
+                                                                                           recorder.failed.sum(),
+                                                                                           recorder.transmitLatency.getSnapshot()));
+            }
+            return new MessageRouterMetricsSnapshot.MessageTypeMetrics(queuedCount,
+                                                                       dequeuedCount,
+                                                                       retried.sum(),
+                                                                       droppedCounts,
+                                                                       timeInQueue.getSnapshot(),
+                                                                       destinationMetrics);
+        }
+    }
+
+    private static class DestinationRecorder {
+        private final StripedCounter transmitted = new StripedCounter();
+        private final StripedCounter failed = new StripedCounter();
+        private final LatencyHistogram transmitLatency = new LatencyHistogram();
+    }
+}
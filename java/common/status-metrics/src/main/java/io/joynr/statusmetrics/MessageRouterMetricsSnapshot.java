@@ -0,0 +1,185 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.statusmetrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+import io.joynr.statusmetrics.MessageRouterMetrics.DropReason;
+
+/**
+ * Immutable view of the message router metrics, created by
+ * {@link MessageRouterMetricsRecorder#getSnapshot()}. All counters are totals since the
+ * recorder was created; compute rates by comparing two snapshots.
+ */
+public class MessageRouterMetricsSnapshot {
+    private final long timestampMs;
+    private final Map<String, MessageTypeMetrics> messageTypeMetrics;
+    private final long highWatermarkReached;
+    private final long lowWatermarkReached;
+    private final boolean receivingPaused;
+
+    MessageRouterMetricsSnapshot(long timestampMs,
+                                 Map<String, MessageTypeMetrics> messageTypeMetrics,
+                                 long highWatermarkReached,
+                                 long lowWatermarkReached,
+                                 boolean receivingPaused) {
+        this.timestampMs = timestampMs;
+        this.messageTypeMetrics = Collections.unmodifiableMap(messageTypeMetrics);
+        this.highWatermarkReached = highWatermarkReached;
+        this.lowWatermarkReached = lowWatermarkReached;
+        this.receivingPaused = receivingPaused;
+    }
+
+    /**
+     * @return The time the snapshot was taken in unix time (ms since 01.01.1970)
+     */
+    public long getTimestampMs() {
+        return timestampMs;
+    }
+
+    /**
+     * @return The number of messages which are currently waiting in the message queue,
+     * including messages scheduled for a delayed retry.
+     */
+    public long getQueueDepth() {
+        long queueDepth = 0;
+        for (MessageTypeMetrics metrics : messageTypeMetrics.values()) {
+            queueDepth += metrics.getQueueDepth();
+        }
+        return queueDepth;
+    }
+
+    /**
+     * @return How often the message queue has grown to its high watermark, see
+     * io.joynr.messaging.ConfigurableMessagingSettings#PROPERTY_ROUTING_QUEUE_CAPACITY
+     */
+    public long getHighWatermarkReached() {
+        return highWatermarkReached;
+    }
+
+    /**
+     * @return How often the message queue has shrunk to its low watermark after the high
+     * watermark had been reached.
+     */
+    public long getLowWatermarkReached() {
+        return lowWatermarkReached;
+    }
+
+    /**
+     * @return Whether the messaging skeletons are currently asked to stop receiving messages
+     * because the high watermark has been reached.
+     */
+    public boolean isReceivingPaused() {
+        return receivingPaused;
+    }
+
+    /**
+     * @return The metrics per message type, see joynr.Message.VALUE_MESSAGE_TYPE_*
+     */
+    public Map<String, MessageTypeMetrics> getMessageTypeMetrics() {
+        return messageTypeMetrics;
+    }
+
+    public static class MessageTypeMetrics {
+        private final long queued;
+        private final long dequeued;
+        private final long retried;
+        private final long[] dropped;
+        private final LatencyHistogram.Snapshot timeInQueue;
+        private final Map<String, DestinationMetrics> destinationMetrics;
+
+        MessageTypeMetrics(long queued,
+                           long dequeued,
+                           long retried,
+                           long[] dropped,
+                           LatencyHistogram.Snapshot timeInQueue,
+                           Map<String, DestinationMetrics> destinationMetrics) {
+            this.queued = queued;
+            this.dequeued = dequeued;
+            this.retried = retried;
+            this.dropped = dropped;
+            this.timeInQueue = timeInQueue;
+            this.destinationMetrics = Collections.unmodifiableMap(destinationMetrics);
+        }
+
+        public long getQueued() {
+            return queued;
+        }
+
+        public long getDequeued() {
+            return dequeued;
+        }
+
+        public long getQueueDepth() {
+            return queued - dequeued;
+        }
+
+        public long getRetried() {
+            return retried;
+        }
+
+        public long getDropped(DropReason reason) {
+            return dropped[reason.ordinal()];
+        }
+
+        /**
+         * @return Histogram of the time between a message becoming due and a message worker
+         * taking it from the queue.
+         */
+        public LatencyHistogram.Snapshot getTimeInQueue() {
+            return timeInQueue;
+        }
+
+        /**
+         * @return The transmission metrics per destination address type, e.g. MqttAddress.
+         */
+        public Map<String, DestinationMetrics> getDestinationMetrics() {
+            return destinationMetrics;
+        }
+    }
+
+    public static class DestinationMetrics {
+        private final long transmitted;
+        private final long failed;
+        private final LatencyHistogram.Snapshot transmitLatency;
+
+        DestinationMetrics(long transmitted, long failed, LatencyHistogram.Snapshot transmitLatency) {
+            this.transmitted = transmitted;
+            this.failed = failed;
+            this.transmitLatency = transmitLatency;
+        }
+
+        public long getTransmitted() {
+            return transmitted;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        /**
+         * @return Histogram of the time between handing a message to the messaging stub and the
+         * stub reporting its successful transmission.
+         */
+        public LatencyHistogram.Snapshot getTransmitLatency() {
+            return transmitLatency;
+        }
+    }
+}
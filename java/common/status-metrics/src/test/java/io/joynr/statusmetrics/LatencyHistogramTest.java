@@ -0,0 +1,95 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.statusmetrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+    @Test
+    public void bucketsCoverAllValuesWithBoundedRelativeError() {
+        int previousIndex = -1;
+        for (long value = 0; value < (1L << 41); value = value < 1000 ? value + 1 : value + value / 7) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(index >= previousIndex);
+            assertTrue(index < LatencyHistogram.BUCKET_COUNT);
+            long highestValue = LatencyHistogram.highestValueInBucket(index);
+            assertTrue(value <= highestValue);
+            assertTrue(highestValue - value <= value / LatencyHistogram.SUB_BUCKET_COUNT);
+            previousIndex = index;
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void snapshotReportsPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.getSnapshot();
+
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1000000, snapshot.getMaxNs());
+        assertEquals(500500, snapshot.getMeanNs(), 0.001);
+        assertWithinPrecision(500000, snapshot.getValueAtPercentileNs(50));
+        assertWithinPrecision(990000, snapshot.getValueAtPercentileNs(99));
+        assertEquals(1000000, snapshot.getValueAtPercentileNs(100));
+    }
+
+    @Test
+    public void emptySnapshot() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().getSnapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMeanNs(), 0.001);
+        assertEquals(0, snapshot.getValueAtPercentileNs(99));
+    }
+
+    @Test
+    public void concurrentRecordingLosesNoValues() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final int valuesPerThread = 10000;
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int value = 0; value < valuesPerThread; value++) {
+                        histogram.record(value);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(threads.length * valuesPerThread, histogram.getSnapshot().getCount());
+        assertEquals(valuesPerThread - 1, histogram.getSnapshot().getMaxNs());
+    }
+
+    private void assertWithinPrecision(long expected, long actual) {
+        assertTrue("expected " + expected + " but was " + actual, Math.abs(expected - actual) <= expected
+                / LatencyHistogram.SUB_BUCKET_COUNT);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.statusmetrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import io.joynr.statusmetrics.MessageRouterMetrics.DropReason;
+import io.joynr.statusmetrics.MessageRouterMetricsSnapshot.MessageTypeMetrics;
+
+public class MessageRouterMetricsRecorderTest {
+    private static final String REQUEST = "request";
+    private static final String REPLY = "reply";
+    private static final String MQTT_ADDRESS = "MqttAddress";
+
+    private MessageRouterMetricsRecorder recorder = new MessageRouterMetricsRecorder();
+
+    @Test
+    public void countsArePerMessageType() {
+        recorder.messageQueued(REQUEST);
+        recorder.messageQueued(REQUEST);
+        recorder.messageQueued(REPLY);
+        recorder.messageDequeued(REQUEST, 1000);
+        recorder.messageRetried(REQUEST);
+        recorder.messageDropped(REPLY, DropReason.EXPIRED);
+
+        MessageRouterMetricsSnapshot snapshot = recorder.getSnapshot();
+        MessageTypeMetrics requestMetrics = snapshot.getMessageTypeMetrics().get(REQUEST);
+        MessageTypeMetrics replyMetrics = snapshot.getMessageTypeMetrics().get(REPLY);
+
+        assertEquals(2, snapshot.getQueueDepth());
+        assertEquals(2, requestMetrics.getQueued());
+        assertEquals(1, requestMetrics.getDequeued());
+        assertEquals(1, requestMetrics.getRetried());
+        assertEquals(1, requestMetrics.getTimeInQueue().getCount());
+        assertEquals(0, requestMetrics.getDropped(DropReason.EXPIRED));
+        assertEquals(1, replyMetrics.getQueueDepth());
+        assertEquals(1, replyMetrics.getDropped(DropReason.EXPIRED));
+        assertEquals(0, replyMetrics.getDropped(DropReason.MAX_RETRIES));
+    }
+
+    @Test
+    public void transmissionsArePerAddressType() {
+        recorder.messageTransmitted(REQUEST, MQTT_ADDRESS, 5000);
+        recorder.messageTransmitted(REQUEST, MQTT_ADDRESS, 7000);
+        recorder.messageTransmissionFailed(REQUEST, MQTT_ADDRESS);
+        recorder.messageTransmitted(REQUEST, "WebSocketAddress", 100);
+
+        MessageTypeMetrics requestMetrics = recorder.getSnapshot().getMessageTypeMetrics().get(REQUEST);
+        MessageRouterMetricsSnapshot.DestinationMetrics mqttMetrics = requestMetrics.getDestinationMetrics()
+                                                                                    .get(MQTT_ADDRESS);
+
+        assertEquals(2, requestMetrics.getDestinationMetrics().size());
+        assertEquals(2, mqttMetrics.getTransmitted());
+        assertEquals(1, mqttMetrics.getFailed());
+        assertEquals(6000, mqttMetrics.getTransmitLatency().getMeanNs(), 0.001);
+        assertEquals(7000, mqttMetrics.getTransmitLatency().getMaxNs());
+    }
+
+    @Test
+    public void snapshotIsNotUpdatedByLaterEvents() {
+        recorder.messageQueued(REQUEST);
+        MessageRouterMetricsSnapshot snapshot = recorder.getSnapshot();
+        recorder.messageQueued(REQUEST);
+
+        assertEquals(1, snapshot.getMessageTypeMetrics().get(REQUEST).getQueued());
+        assertTrue(snapshot.getTimestampMs() <= System.currentTimeMillis());
+    }
+
+    @Test
+    public void watermarksAreRecorded() {
+        assertFalse(recorder.getSnapshot().isReceivingPaused());
+
+        recorder.highWatermarkReached(80);
+        MessageRouterMetricsSnapshot pausedSnapshot = recorder.getSnapshot();
+        recorder.lowWatermarkReached(50);
+        recorder.highWatermarkReached(80);
+        recorder.lowWatermarkReached(50);
+        MessageRouterMetricsSnapshot resumedSnapshot = recorder.getSnapshot();
+
+        assertTrue(pausedSnapshot.isReceivingPaused());
+        assertEquals(1, pausedSnapshot.getHighWatermarkReached());
+        assertEquals(0, pausedSnapshot.getLowWatermarkReached());
+        assertFalse(resumedSnapshot.isReceivingPaused());
+        assertEquals(2, resumedSnapshot.getHighWatermarkReached());
+        assertEquals(2, resumedSnapshot.getLowWatermarkReached());
+    }
+
+    @Test
+    public void unknownMessageTypeIsRecorded() {
+        recorder.messageQueued(null);
+
+        assertEquals(1, recorder.getSnapshot()
+                                .getMessageTypeMetrics()
+                                .get(MessageRouterMetricsRecorder.UNKNOWN)
+                                .getQueued());
+    }
+}
@@ -23,6 +23,7 @@ import io.joynr.messaging.AtmosphereMessagingModule;
 import io.joynr.messaging.ConfigurableMessagingSettings;
 import io.joynr.messaging.mqtt.paho.client.MqttPahoModule;
 import io.joynr.messaging.websocket.WebsocketModule;
+import io.joynr.messaging.websocket.sharedmemory.SharedMemoryServerModule;
 
 import java.io.IOException;
 import java.net.URI;
@@ -139,6 +140,9 @@ public class ClusterController {
                 }
                 backendTransportModules = Modules.combine(backendTransportModules, new MqttPahoModule());
             }
+            if (transport.contains("sharedmemory")) {
+                backendTransportModules = Modules.combine(backendTransportModules, new SharedMemoryServerModule());
+            }
             runtimeModule = Modules.override(runtimeModule).with(backendTransportModules);
         }
 
@@ -230,7 +234,7 @@ public class ClusterController {
         Option optionTransport = Option.builder("t")
                                        .required(false)
                                        .argName("transport")
-                                       .desc("the transport (optional, combination of http or atmosphere and mqtt with colon as separator)")
+                                       .desc("the transport (optional, combination of http or atmosphere, mqtt and sharedmemory with colon as separator)")
                                        .longOpt("transport")
                                        .hasArg(true)
                                        .numberOfArgs(1)
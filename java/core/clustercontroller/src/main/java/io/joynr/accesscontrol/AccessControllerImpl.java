@@ -29,6 +29,8 @@ import io.joynr.runtime.SystemServicesSettings;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import joynr.ImmutableMessage;
 import joynr.Message;
@@ -46,11 +48,26 @@ import com.google.inject.name.Named;
 
 public class AccessControllerImpl implements AccessController {
     private static final Logger logger = LoggerFactory.getLogger(AccessControllerImpl.class);
+    // bounds the number of cached recipients, e.g. if many short living providers are called
+    static final int MAX_CACHED_RECIPIENTS = 10000;
 
     private final LocalCapabilitiesDirectory localCapabilitiesDirectory;
     private final LocalDomainAccessController localDomainAccessController;
 
     private Set<String> whitelistedParticipantIds = new HashSet<String>();
+    // the domain and interface of a participant do not change, so the capability lookup is only
+    // required for the first message to a recipient
+    private final ConcurrentMap<String, RecipientInterface> recipientInterfaces = new ConcurrentHashMap<>();
+
+    private static final class RecipientInterface {
+        private final String domain;
+        private final String interfaceName;
+
+        RecipientInterface(String domain, String interfaceName) {
+            this.domain = domain;
+            this.interfaceName = interfaceName;
+        }
+    }
 
     @Inject
     AccessControllerImpl(LocalCapabilitiesDirectory localCapabilitiesDirectory,
@@ -72,6 +89,7 @@ public class AccessControllerImpl implements AccessController {
 
             @Override
             public void capabilityRemoved(DiscoveryEntry removedCapability) {
+                recipientInterfaces.remove(removedCapability.getParticipantId());
                 localDomainAccessController.unsubscribeFromAceChanges(removedCapability.getDomain(),
                                                                       removedCapability.getInterfaceName());
             }
@@ -114,6 +132,12 @@ public class AccessControllerImpl implements AccessController {
             return;
         }
 
+        RecipientInterface recipientInterface = recipientInterfaces.get(message.getRecipient());
+        if (recipientInterface != null) {
+            getConsumerPermission(message, recipientInterface, hasConsumerPermissionCallback);
+            return;
+        }
+
         // Check permission at the interface level
         // First get the domain and interface that is being called from appropriate capability entry
         getCapabilityEntry(message, new CapabilityCallback() {
@@ -125,35 +149,13 @@ public class AccessControllerImpl implements AccessController {
                     return;
                 }
 
-                final String domain = discoveryEntry.getDomain();
-                final String interfaceName = discoveryEntry.getInterfaceName();
-                final String msgCreatorUid = message.getCreatorUserId();
-
-                GetConsumerPermissionCallback consumerPermissionCallback = new GetConsumerPermissionCallback() {
-                    @Override
-                    public void getConsumerPermission(Permission permission) {
-                        boolean permissionIsYes = false;
-                        if (permission == Permission.YES) {
-                            permissionIsYes = true;
-                        }
-
-                        hasConsumerPermissionCallback.hasConsumerPermission(permissionIsYes);
-                    }
-
-                    @Override
-                    public void getConsumerPermissionFailed() {
-                        logger.error("Failed to query permission for message {}", message.getId());
-                        hasConsumerPermissionCallback.hasConsumerPermission(false);
-                    }
-                };
-
-                // try determine permission without expensive message deserialization
-                // since obtaining trust level from message header is still not supported use TrustLevel.HIGH
-                localDomainAccessController.getConsumerPermission(msgCreatorUid,
-                                                                  domain,
-                                                                  interfaceName,
-                                                                  TrustLevel.HIGH,
-                                                                  consumerPermissionCallback);
+                RecipientInterface recipientInterface = new RecipientInterface(discoveryEntry.getDomain(),
+                                                                               discoveryEntry.getInterfaceName());
+                if (recipientInterfaces.size() >= MAX_CACHED_RECIPIENTS) {
+                    recipientInterfaces.clear();
+                }
+                recipientInterfaces.put(message.getRecipient(), recipientInterface);
+                getConsumerPermission(message, recipientInterface, hasConsumerPermissionCallback);
             }
 
             @Override
@@ -164,6 +166,37 @@ public class AccessControllerImpl implements AccessController {
         });
     }
 
+    private void getConsumerPermission(final ImmutableMessage message,
+                                       RecipientInterface recipientInterface,
+                                       final HasConsumerPermissionCallback hasConsumerPermissionCallback) {
+        GetConsumerPermissionCallback consumerPermissionCallback = new GetConsumerPermissionCallback() {
+            @Override
+            public void getConsumerPermission(Permission permission) {
+                boolean permissionIsYes = false;
+                if (permission == Permission.YES) {
+                    permissionIsYes = true;
+                }
+
+                hasConsumerPermissionCallback.hasConsumerPermission(permissionIsYes);
+            }
+
+            @Override
+            public void getConsumerPermissionFailed() {
+                logger.error("Failed to query permission for message {}", message.getId());
+                hasConsumerPermissionCallback.hasConsumerPermission(false);
+            }
+        };
+
+        // try determine permission without expensive message deserialization
+        // since obtaining trust level from message header is still not supported use TrustLevel.HIGH
+        // the decision is cached per domain, interface and creator uid by the LocalDomainAccessController
+        localDomainAccessController.getConsumerPermission(message.getCreatorUserId(),
+                                                          recipientInterface.domain,
+                                                          recipientInterface.interfaceName,
+                                                          TrustLevel.HIGH,
+                                                          consumerPermissionCallback);
+    }
+
     @Override
     public boolean hasProviderPermission(String userId, TrustLevel trustLevel, String domain, String interfaceName) {
         assert false : "Not yet implemented";
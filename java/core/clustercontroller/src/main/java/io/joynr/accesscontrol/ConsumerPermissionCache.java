@@ -0,0 +1,154 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.accesscontrol;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import joynr.infrastructure.DacTypes.Permission;
+import joynr.infrastructure.DacTypes.TrustLevel;
+
+/**
+ * Memoizes consumer permission decisions per domain and interface, keyed by uid, operation and
+ * trust level. Whenever the access control entries of a domain and interface change in the
+ * local store, the decisions for that domain and interface have to be invalidated.
+ *
+ * A decision computed concurrently with an invalidation is stored in the already invalidated
+ * {@link InterfacePermissions} and is therefore never returned afterwards, as long as callers
+ * get the InterfacePermissions before reading the store.
+ */
+public class ConsumerPermissionCache {
+    // bounds the number of decisions per domain and interface, e.g. if many different uids are used
+    static final int MAX_PERMISSIONS_PER_INTERFACE = 1024;
+
+    private final ConcurrentMap<DomainInterfaceKey, InterfacePermissions> interfacePermissions = new ConcurrentHashMap<>();
+
+    public InterfacePermissions getInterfacePermissions(String domain, String interfaceName) {
+        DomainInterfaceKey key = new DomainInterfaceKey(domain, interfaceName);
+        InterfacePermissions permissions = interfacePermissions.get(key);
+        if (permissions == null) {
+            InterfacePermissions newPermissions = new InterfacePermissions();
+            permissions = interfacePermissions.putIfAbsent(key, newPermissions);
+            if (permissions == null) {
+                permissions = newPermissions;
+            }
+        }
+        return permissions;
+    }
+
+    public void invalidate(String domain, String interfaceName) {
+        interfacePermissions.remove(new DomainInterfaceKey(domain, interfaceName));
+    }
+
+    public void invalidateAll() {
+        interfacePermissions.clear();
+    }
+
+    public static class InterfacePermissions {
+        private final ConcurrentMap<PermissionKey, Permission> permissions = new ConcurrentHashMap<>();
+
+        InterfacePermissions() {
+        }
+
+        public Permission get(String uid, String operation, TrustLevel trustLevel) {
+            return permissions.get(new PermissionKey(uid, operation, trustLevel));
+        }
+
+        public void put(String uid, String operation, TrustLevel trustLevel, Permission permission) {
+            if (permission == null) {
+                return;
+            }
+            if (permissions.size() >= MAX_PERMISSIONS_PER_INTERFACE) {
+                permissions.clear();
+            }
+            permissions.put(new PermissionKey(uid, operation, trustLevel), permission);
+        }
+    }
+
+    private static final class DomainInterfaceKey {
+        private final String domain;
+        private final String interfaceName;
+        private final int hashCode;
+
+        DomainInterfaceKey(String domain, String interfaceName) {
+            this.domain = domain;
+            this.interfaceName = interfaceName;
+            this.hashCode = 31 * hashOf(domain) + hashOf(interfaceName);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof DomainInterfaceKey)) {
+                return false;
+            }
+            DomainInterfaceKey other = (DomainInterfaceKey) obj;
+            return hashCode == other.hashCode && equal(domain, other.domain)
+                    && equal(interfaceName, other.interfaceName);
+        }
+    }
+
+    private static final class PermissionKey {
+        private final String uid;
+        private final String operation;
+        private final TrustLevel trustLevel;
+        private final int hashCode;
+
+        PermissionKey(String uid, String operation, TrustLevel trustLevel) {
+            this.uid = uid;
+            this.operation = operation;
+            this.trustLevel = trustLevel;
+            this.hashCode = 31 * (31 * hashOf(uid) + hashOf(operation))
+                    + (trustLevel == null ? 0 : trustLevel.ordinal() + 1);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PermissionKey)) {
+                return false;
+            }
+            PermissionKey other = (PermissionKey) obj;
+            return hashCode == other.hashCode && trustLevel == other.trustLevel && equal(uid, other.uid)
+                    && equal(operation, other.operation);
+        }
+    }
+
+    private static int hashOf(String value) {
+        return value == null ? 0 : value.hashCode();
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
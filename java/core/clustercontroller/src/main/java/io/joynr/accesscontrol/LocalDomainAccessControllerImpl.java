@@ -18,12 +18,11 @@
  */
 package io.joynr.accesscontrol;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.CheckForNull;
 
@@ -72,11 +71,13 @@ public class LocalDomainAccessControllerImpl implements LocalDomainAccessControl
     private final String discoveryDirectoriesDomain;
     private AccessControlAlgorithm accessControlAlgorithm = new AccessControlAlgorithm();
     private static final String WILDCARD = "*";
-    private Map<UserDomainInterfaceOperationKey, AceSubscription> subscriptionsMap = new HashMap<UserDomainInterfaceOperationKey, AceSubscription>();
-    private Set<UserDomainInterfaceOperationKey> ongoingSubscriptions = new HashSet<UserDomainInterfaceOperationKey>();
+    private ConcurrentMap<UserDomainInterfaceOperationKey, AceSubscription> subscriptionsMap = new ConcurrentHashMap<UserDomainInterfaceOperationKey, AceSubscription>();
+    // at most one query of the global access control entries is in flight per domain and interface
+    private ConcurrentMap<UserDomainInterfaceOperationKey, PendingAceQuery> pendingAceQueries = new ConcurrentHashMap<UserDomainInterfaceOperationKey, PendingAceQuery>();
     private GlobalDomainAccessControllerClient globalDomainAccessControllerClient;
 
     private DomainAccessControlStore localDomainAccessStore;
+    private final ConsumerPermissionCache consumerPermissionCache = new ConsumerPermissionCache();
     private String systemServicesDomain;
 
     // Class that holds subscription ids.
@@ -109,6 +110,42 @@ public class LocalDomainAccessControllerImpl implements LocalDomainAccessControl
         }
     }
 
+    // Permission request which waits for the access control entries of its domain and interface.
+    static class ParkedPermissionRequest {
+        private final String userId;
+        private final TrustLevel trustLevel;
+        private final GetConsumerPermissionCallback callback;
+
+        ParkedPermissionRequest(String userId, TrustLevel trustLevel, GetConsumerPermissionCallback callback) {
+            this.userId = userId;
+            this.trustLevel = trustLevel;
+            this.callback = callback;
+        }
+    }
+
+    // Collects the permission requests which arrive while the access control entries of a domain
+    // and interface are queried. No thread is blocked while a request is parked.
+    static class PendingAceQuery {
+        private List<ParkedPermissionRequest> parkedRequests = new ArrayList<ParkedPermissionRequest>();
+
+        /**
+         * @return false if the query has already completed, the request has to be retried then.
+         */
+        synchronized boolean park(ParkedPermissionRequest request) {
+            if (parkedRequests == null) {
+                return false;
+            }
+            parkedRequests.add(request);
+            return true;
+        }
+
+        synchronized List<ParkedPermissionRequest> complete() {
+            List<ParkedPermissionRequest> requests = parkedRequests;
+            parkedRequests = null;
+            return requests;
+        }
+    }
+
     @Inject
     public LocalDomainAccessControllerImpl(@Named(MessagingPropertyKeys.CAPABILITIES_DIRECTORY_DISCOVERY_ENTRY) GlobalDiscoveryEntry capabilitiesDirectoryEntry,
                                            DomainAccessControlStore localDomainAccessStore,
@@ -124,10 +161,7 @@ public class LocalDomainAccessControllerImpl implements LocalDomainAccessControl
     @Override
     public boolean hasRole(String userId, String domain, Role role) {
         boolean hasRole = false;
-        DomainRoleEntry dre;
-        synchronized (localDomainAccessStore) {
-            dre = localDomainAccessStore.getDomainRole(userId, role);
-        }
+        DomainRoleEntry dre = localDomainAccessStore.getDomainRole(userId, role);
         if (dre != null) {
             List<String> domains = Arrays.asList(dre.getDomains());
             if (domains.contains(domain)) {
@@ -162,26 +196,46 @@ public class LocalDomainAccessControllerImpl implements LocalDomainAccessControl
             return;
         }
 
-        if (subscriptionsMap.get(subscriptionKey) == null) {
-            if (!ongoingSubscriptions.contains(subscriptionKey)) {
-                queryDomainRoles(userId);
-                queryAccessControlEntries(domain, interfaceName, new QueryAccessControlEntriesCallback() {
-                    @Override
-                    public void queryAccessControlEntriesSucceeded() {
-                        subscriptionsMap.put(subscriptionKey, subscribeForAceChange(domain, interfaceName));
-                        ongoingSubscriptions.remove(subscriptionKey);
-                        getConsumerPermissionWithCachedEntries(userId, domain, interfaceName, trustLevel, callback);
-                    }
+        if (subscriptionsMap.containsKey(subscriptionKey)) {
+            getConsumerPermissionWithCachedEntries(userId, domain, interfaceName, trustLevel, callback);
+            return;
+        }
 
-                    @Override
-                    public void queryAccessControlEntriesFailed() {
-                        callback.getConsumerPermissionFailed();
-                    }
-                });
+        ParkedPermissionRequest request = new ParkedPermissionRequest(userId, trustLevel, callback);
+        final PendingAceQuery newQuery = new PendingAceQuery();
+        PendingAceQuery pendingQuery = pendingAceQueries.putIfAbsent(subscriptionKey, newQuery);
+        if (pendingQuery != null) {
+            if (!pendingQuery.park(request)) {
+                // the pending query completed in the meantime
+                getConsumerPermission(userId, domain, interfaceName, trustLevel, callback);
             }
-        } else {
-            getConsumerPermissionWithCachedEntries(userId, domain, interfaceName, trustLevel, callback);
+            return;
         }
+
+        newQuery.park(request);
+        queryDomainRoles(userId);
+        queryAccessControlEntries(domain, interfaceName, new QueryAccessControlEntriesCallback() {
+            @Override
+            public void queryAccessControlEntriesSucceeded() {
+                subscriptionsMap.put(subscriptionKey, subscribeForAceChange(domain, interfaceName));
+                pendingAceQueries.remove(subscriptionKey, newQuery);
+                for (ParkedPermissionRequest parkedRequest : newQuery.complete()) {
+                    getConsumerPermissionWithCachedEntries(parkedRequest.userId,
+                                                           domain,
+                                                           interfaceName,
+                                                           parkedRequest.trustLevel,
+                                                           parkedRequest.callback);
+                }
+            }
+
+            @Override
+            public void queryAccessControlEntriesFailed() {
+                pendingAceQueries.remove(subscriptionKey, newQuery);
+                for (ParkedPermissionRequest parkedRequest : newQuery.complete()) {
+                    parkedRequest.callback.getConsumerPermissionFailed();
+                }
+            }
+        });
     }
 
     private void getConsumerPermissionWithCachedEntries(String userId,
@@ -189,21 +243,33 @@ public class LocalDomainAccessControllerImpl implements LocalDomainAccessControl
                                                         String interfaceName,
                                                         TrustLevel trustLevel,
                                                         GetConsumerPermissionCallback callback) {
-        List<MasterAccessControlEntry> masterAces;
-        List<MasterAccessControlEntry> mediatorAces;
-        List<OwnerAccessControlEntry> ownerAces;
-
-        synchronized (localDomainAccessStore) {
-            masterAces = localDomainAccessStore.getMasterAccessControlEntries(userId, domain, interfaceName);
-            mediatorAces = localDomainAccessStore.getMediatorAccessControlEntries(userId, domain, interfaceName);
-            ownerAces = localDomainAccessStore.getOwnerAccessControlEntries(userId, domain, interfaceName);
+        // the interface level decision is cached without an operation, see getConsumerPermission below
+        ConsumerPermissionCache.InterfacePermissions cachedPermissions = consumerPermissionCache.getInterfacePermissions(domain,
+                                                                                                                         interfaceName);
+        Permission permission = cachedPermissions.get(userId, null, trustLevel);
+        if (permission != null) {
+            callback.getConsumerPermission(permission);
+            return;
         }
 
+        // the store lookups do not lock, see DomainAccessControlStoreEhCache
+        List<MasterAccessControlEntry> masterAces = localDomainAccessStore.getMasterAccessControlEntries(userId,
+                                                                                                         domain,
+                                                                                                         interfaceName);
+        List<MasterAccessControlEntry> mediatorAces = localDomainAccessStore.getMediatorAccessControlEntries(userId,
+                                                                                                             domain,
+                                                                                                             interfaceName);
+        List<OwnerAccessControlEntry> ownerAces = localDomainAccessStore.getOwnerAccessControlEntries(userId,
+                                                                                                      domain,
+                                                                                                      interfaceName);
+
         if ((masterAces != null && masterAces.size() > 1) || (mediatorAces != null && mediatorAces.size() > 1)
                 || (ownerAces != null && ownerAces.size() > 1)) {
             callback.getConsumerPermission(null);
         } else {
-            callback.getConsumerPermission(getConsumerPermission(userId, domain, interfaceName, WILDCARD, trustLevel));
+            permission = getConsumerPermission(userId, domain, interfaceName, WILDCARD, trustLevel);
+            cachedPermissions.put(userId, null, trustLevel, permission);
+            callback.getConsumerPermission(permission);
         }
     }
 
@@ -229,17 +295,31 @@ public class LocalDomainAccessControllerImpl implements LocalDomainAccessControl
                                             String operation,
                                             TrustLevel trustLevel) {
         LOG.debug("getConsumerPermission on domain {}, interface {}", domain, interfaceName);
-        MasterAccessControlEntry masterAce;
-        MasterAccessControlEntry mediatorAce;
-        OwnerAccessControlEntry ownerAce;
-
-        synchronized (localDomainAccessStore) {
-            masterAce = localDomainAccessStore.getMasterAccessControlEntry(userId, domain, interfaceName, operation);
-            mediatorAce = localDomainAccessStore.getMediatorAccessControlEntry(userId, domain, interfaceName, operation);
-            ownerAce = localDomainAccessStore.getOwnerAccessControlEntry(userId, domain, interfaceName, operation);
+        // get the cached permissions before reading the store, so that a concurrent invalidation
+        // discards the permission computed below
+        ConsumerPermissionCache.InterfacePermissions cachedPermissions = consumerPermissionCache.getInterfacePermissions(domain,
+                                                                                                                         interfaceName);
+        Permission permission = cachedPermissions.get(userId, operation, trustLevel);
+        if (permission != null) {
+            return permission;
         }
 
-        return accessControlAlgorithm.getConsumerPermission(masterAce, mediatorAce, ownerAce, trustLevel);
+        MasterAccessControlEntry masterAce = localDomainAccessStore.getMasterAccessControlEntry(userId,
+                                                                                                domain,
+                                                                                                interfaceName,
+                                                                                                operation);
+        MasterAccessControlEntry mediatorAce = localDomainAccessStore.getMediatorAccessControlEntry(userId,
+                                                                                                    domain,
+                                                                                                    interfaceName,
+                                                                                                    operation);
+        OwnerAccessControlEntry ownerAce = localDomainAccessStore.getOwnerAccessControlEntry(userId,
+                                                                                             domain,
+                                                                                             interfaceName,
+                                                                                             operation);
+
+        permission = accessControlAlgorithm.getConsumerPermission(masterAce, mediatorAce, ownerAce, trustLevel);
+        cachedPermissions.put(userId, operation, trustLevel, permission);
+        return permission;
     }
 
     @Override
@@ -506,8 +586,10 @@ public class LocalDomainAccessControllerImpl implements LocalDomainAccessControl
                                                                                               domain,
                                                                                               interfaceName,
                                                                                               null);
-        AceSubscription subscriptions = subscriptionsMap.get(subscriptionKey);
+        AceSubscription subscriptions = subscriptionsMap.remove(subscriptionKey);
         if (subscriptions != null) {
+            // the local entries are no longer kept up to date
+            consumerPermissionCache.invalidate(domain, interfaceName);
             try {
                 globalDomainAccessControllerClient.unsubscribeFromMasterAccessControlEntryChangedBroadcast(subscriptions.getMasterSubscriptionId());
                 globalDomainAccessControllerClient.unsubscribeFromMediatorAccessControlEntryChangedBroadcast(subscriptions.getMediatorSubscriptionId());
@@ -543,19 +625,25 @@ public class LocalDomainAccessControllerImpl implements LocalDomainAccessControl
         long wsbExpiryDate = System.currentTimeMillis() + QOS_DURATION_MS;
         MulticastSubscriptionQos broadcastSubscriptionQos = new MulticastSubscriptionQos();
         broadcastSubscriptionQos.setExpiryDateMs(wsbExpiryDate);
-        Future<String> mastersubscriptionId = globalDomainAccessControllerClient.subscribeToMasterAccessControlEntryChangedBroadcast(new LdacMasterAccessControlEntryChangedBroadcastListener(localDomainAccessStore),
+        LdacMasterAccessControlEntryChangedBroadcastListener masterAceListener = new LdacMasterAccessControlEntryChangedBroadcastListener(localDomainAccessStore,
+                                                                                                                                          consumerPermissionCache);
+        Future<String> mastersubscriptionId = globalDomainAccessControllerClient.subscribeToMasterAccessControlEntryChangedBroadcast(masterAceListener,
                                                                                                                                      broadcastSubscriptionQos,
                                                                                                                                      SINGLE_LEVEL_WILDCARD,
                                                                                                                                      sanitiseForPartition(domain),
                                                                                                                                      sanitiseForPartition(interfaceName));
 
-        Future<String> mediatorsubscriptionId = globalDomainAccessControllerClient.subscribeToMediatorAccessControlEntryChangedBroadcast(new LdacMediatorAccessControlEntryChangedBroadcastListener(localDomainAccessStore),
+        LdacMediatorAccessControlEntryChangedBroadcastListener mediatorAceListener = new LdacMediatorAccessControlEntryChangedBroadcastListener(localDomainAccessStore,
+                                                                                                                                                consumerPermissionCache);
+        Future<String> mediatorsubscriptionId = globalDomainAccessControllerClient.subscribeToMediatorAccessControlEntryChangedBroadcast(mediatorAceListener,
                                                                                                                                          broadcastSubscriptionQos,
                                                                                                                                          SINGLE_LEVEL_WILDCARD,
                                                                                                                                          sanitiseForPartition(domain),
                                                                                                                                          sanitiseForPartition(interfaceName));
 
-        Future<String> ownersubscriptionId = globalDomainAccessControllerClient.subscribeToOwnerAccessControlEntryChangedBroadcast(new LdacOwnerAccessControlEntryChangedBroadcastListener(localDomainAccessStore),
+        LdacOwnerAccessControlEntryChangedBroadcastListener ownerAceListener = new LdacOwnerAccessControlEntryChangedBroadcastListener(localDomainAccessStore,
+                                                                                                                                       consumerPermissionCache);
+        Future<String> ownersubscriptionId = globalDomainAccessControllerClient.subscribeToOwnerAccessControlEntryChangedBroadcast(ownerAceListener,
                                                                                                                                    broadcastSubscriptionQos,
                                                                                                                                    SINGLE_LEVEL_WILDCARD,
                                                                                                                                    sanitiseForPartition(domain),
@@ -585,8 +673,8 @@ public class LocalDomainAccessControllerImpl implements LocalDomainAccessControl
         }, userId);
     }
 
-    private void queryAccessControlEntries(String domain,
-                                           String interfaceName,
+    private void queryAccessControlEntries(final String domain,
+                                           final String interfaceName,
                                            QueryAccessControlEntriesCallback callback) {
         LOG.debug("queryAccessControlEntries on domain {}, interface {}", domain, interfaceName);
 
@@ -608,6 +696,7 @@ public class LocalDomainAccessControllerImpl implements LocalDomainAccessControl
                         }
                     }
                 }
+                consumerPermissionCache.invalidate(domain, interfaceName);
                 querySync.registerSuccess();
             }
         }, domain, interfaceName);
@@ -628,6 +717,7 @@ public class LocalDomainAccessControllerImpl implements LocalDomainAccessControl
                         }
                     }
                 }
+                consumerPermissionCache.invalidate(domain, interfaceName);
                 querySync.registerSuccess();
             }
         }, domain, interfaceName);
@@ -648,6 +738,7 @@ public class LocalDomainAccessControllerImpl implements LocalDomainAccessControl
                         }
                     }
                 }
+                consumerPermissionCache.invalidate(domain, interfaceName);
                 querySync.registerSuccess();
             }
         }, domain, interfaceName);
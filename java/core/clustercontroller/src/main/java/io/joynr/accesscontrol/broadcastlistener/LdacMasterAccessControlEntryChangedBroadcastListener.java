@@ -18,6 +18,7 @@
  */
 package io.joynr.accesscontrol.broadcastlistener;
 
+import io.joynr.accesscontrol.ConsumerPermissionCache;
 import io.joynr.accesscontrol.DomainAccessControlStore;
 import io.joynr.exceptions.SubscriptionException;
 import joynr.infrastructure.GlobalDomainAccessControllerBroadcastInterface.MasterAccessControlEntryChangedBroadcastAdapter;
@@ -32,9 +33,12 @@ public class LdacMasterAccessControlEntryChangedBroadcastListener extends
     private static final Logger LOG = LoggerFactory.getLogger(LdacMasterAccessControlEntryChangedBroadcastListener.class);
 
     private DomainAccessControlStore localDomainAccessStore;
+    private ConsumerPermissionCache consumerPermissionCache;
 
-    public LdacMasterAccessControlEntryChangedBroadcastListener(DomainAccessControlStore domainAccessControlStore) {
+    public LdacMasterAccessControlEntryChangedBroadcastListener(DomainAccessControlStore domainAccessControlStore,
+                                                                ConsumerPermissionCache consumerPermissionCache) {
         this.localDomainAccessStore = domainAccessControlStore;
+        this.consumerPermissionCache = consumerPermissionCache;
     }
 
     @Override
@@ -50,6 +54,7 @@ public class LdacMasterAccessControlEntryChangedBroadcastListener extends
                                                                   newMasterAce.getOperation());
             LOG.debug("Removed master ACE: {}", newMasterAce.toString());
         }
+        consumerPermissionCache.invalidate(newMasterAce.getDomain(), newMasterAce.getInterfaceName());
     }
 
     @Override
@@ -18,6 +18,7 @@
  */
 package io.joynr.accesscontrol.broadcastlistener;
 
+import io.joynr.accesscontrol.ConsumerPermissionCache;
 import io.joynr.accesscontrol.DomainAccessControlStore;
 import io.joynr.exceptions.SubscriptionException;
 import joynr.infrastructure.GlobalDomainAccessControllerBroadcastInterface.MediatorAccessControlEntryChangedBroadcastAdapter;
@@ -32,9 +33,12 @@ public class LdacMediatorAccessControlEntryChangedBroadcastListener extends
     private static final Logger LOG = LoggerFactory.getLogger(LdacMediatorAccessControlEntryChangedBroadcastListener.class);
 
     private DomainAccessControlStore localDomainAccessStore;
+    private ConsumerPermissionCache consumerPermissionCache;
 
-    public LdacMediatorAccessControlEntryChangedBroadcastListener(DomainAccessControlStore domainAccessControlStore) {
+    public LdacMediatorAccessControlEntryChangedBroadcastListener(DomainAccessControlStore domainAccessControlStore,
+                                                                  ConsumerPermissionCache consumerPermissionCache) {
         this.localDomainAccessStore = domainAccessControlStore;
+        this.consumerPermissionCache = consumerPermissionCache;
     }
 
     @Override
@@ -50,6 +54,7 @@ public class LdacMediatorAccessControlEntryChangedBroadcastListener extends
                                                                     newMediatorAce.getOperation());
             LOG.debug("Removed mediator ACE: {}", newMediatorAce.toString());
         }
+        consumerPermissionCache.invalidate(newMediatorAce.getDomain(), newMediatorAce.getInterfaceName());
     }
 
     @Override
@@ -22,6 +22,7 @@ import io.joynr.exceptions.JoynrChannelMissingException;
 import io.joynr.exceptions.JoynrCommunicationException;
 import io.joynr.exceptions.JoynrDelayMessageException;
 import io.joynr.exceptions.JoynrMessageNotSentException;
+import io.joynr.exceptions.JoynrRuntimeException;
 import io.joynr.exceptions.JoynrShutdownException;
 import io.joynr.messaging.FailureAction;
 import io.joynr.messaging.MessageReceiver;
@@ -38,13 +39,23 @@ import joynr.system.RoutingTypes.ChannelAddress;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.inject.Inject;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.StatusLine;
 import org.apache.http.client.config.RequestConfig;
-import org.apache.http.client.config.RequestConfig.Builder;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
@@ -56,17 +67,37 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+/**
+ * Sends messages to HTTP channels. The POST requests are executed asynchronously by a pool of sender threads which
+ * share the pooled connections of the HTTP client, so many messages can be in flight at the same time while the
+ * calling message router worker continues. The {@link SuccessAction} or {@link FailureAction} of a message is
+ * executed by the sender thread once the request has completed.
+ * <p>
+ * If more than one message per POST is allowed (see {@link HttpConstants#getHTTP_MAX_MESSAGES_PER_POST()}),
+ * messages for the same channel are queued and all messages which accumulate while a POST to this channel is in
+ * flight are sent together as a sequence of SMRF messages in the next POST. The queue of a channel holds at most one
+ * POST worth of messages; if it is full, the caller waits until the sender thread has taken the next batch.
+ * <p>
+ * Messages which are handed over after {@link #shutdown()} are not sent; their {@link FailureAction} is executed with
+ * a {@link JoynrMessageNotSentException}.
+ */
 public class HttpMessageSender implements ShutdownListener {
     private static final Logger logger = LoggerFactory.getLogger(HttpMessageSender.class);
     private static final int DELAY_RECEIVER_NOT_STARTED_MS = 100;
     private static final String RECEIVER_NOT_STARTED_REASON = "cannot send until receiver is started";
+    private static final String SHUTDOWN_REASON = "message not sent: HttpMessageSender is shut down";
+    private static final long QUEUE_OFFER_INTERVAL_MS = 100;
     private final UrlResolver urlResolver;
     private final HttpRequestFactory httpRequestFactory;
     private final HttpConstants httpConstants;
     private final CloseableHttpClient httpclient;
-    private final RequestConfig defaultRequestConfig;
+    private final RequestConfig sendMessageRequestConfig;
     private final ObjectMapper objectMapper;
+    private final ExecutorService messageSenderExecutor;
+    private final int maxMessagesPerPost;
+    private final ConcurrentMap<String, ChannelQueue> channelQueues = new ConcurrentHashMap<>();
     private MessageReceiver messageReceiver;
 
     @Inject
@@ -84,26 +115,84 @@ public class HttpMessageSender implements ShutdownListener {
         this.httpclient = httpclient;
         this.httpRequestFactory = httpRequestFactory;
         this.httpConstants = httpConstants;
-        this.defaultRequestConfig = defaultRequestConfig;
+        this.sendMessageRequestConfig = RequestConfig.copy(defaultRequestConfig)
+                                                     .setConnectionRequestTimeout(httpConstants.getSEND_MESSAGE_REQUEST_TIMEOUT())
+                                                     .build();
         this.objectMapper = objectMapper;
         this.urlResolver = urlResolver;
+        this.maxMessagesPerPost = Math.max(1, httpConstants.getHTTP_MAX_MESSAGES_PER_POST());
+        int senderThreads = Math.max(1, httpConstants.getHTTP_MESSAGE_SENDER_THREADS());
+        // if all sender threads are busy and the queue is full, the caller sends the message itself, which slows
+        // down the message router instead of buffering messages without limit. After shutdown the rejected tasks
+        // execute the failure actions of their messages.
+        this.messageSenderExecutor = new ThreadPoolExecutor(senderThreads,
+                                                            senderThreads,
+                                                            0L,
+                                                            TimeUnit.MILLISECONDS,
+                                                            new LinkedBlockingQueue<Runnable>(senderThreads),
+                                                            new ThreadFactoryBuilder().setNameFormat("joynr.HttpMessageSender-%d")
+                                                                                      .build(),
+                                                            new SendTaskRejectionHandler());
         shutdownNotifier.registerForShutdown(this);
     }
 
-    public void sendMessage(ChannelAddress address,
-                            byte[] serializedMessage,
-                            SuccessAction successAction,
-                            FailureAction failureAction) {
+    public void sendMessage(final ChannelAddress address,
+                            final byte[] serializedMessage,
+                            final SuccessAction successAction,
+                            final FailureAction failureAction) {
         // check if messageReceiver is ready to receive replies otherwise delay request by at least 100 ms
         if (!messageReceiver.isReady()) {
             long delay_ms = DELAY_RECEIVER_NOT_STARTED_MS;
             failureAction.execute(new JoynrDelayMessageException(delay_ms, RECEIVER_NOT_STARTED_REASON));
+            return;
         }
 
-        String sendUrl = urlResolver.getSendUrl(address.getMessagingEndpointUrl());
+        final String sendUrl = urlResolver.getSendUrl(address.getMessagingEndpointUrl());
 
         logger.trace("SENDING: channelId: {} message: {}", sendUrl, serializedMessage);
 
+        if (maxMessagesPerPost > 1) {
+            getChannelQueue(sendUrl, address).add(new PendingMessage(serializedMessage, successAction, failureAction));
+            return;
+        }
+
+        messageSenderExecutor.execute(new SendTask() {
+            @Override
+            public void run() {
+                JoynrRuntimeException error = post(sendUrl, address, serializedMessage);
+                if (error == null) {
+                    logger.trace("SENT: channelId {} message: {}", sendUrl, serializedMessage);
+                    successAction.execute();
+                } else {
+                    failureAction.execute(error);
+                }
+            }
+
+            @Override
+            void reject(JoynrRuntimeException error) {
+                failureAction.execute(error);
+            }
+        });
+    }
+
+    private ChannelQueue getChannelQueue(String sendUrl, ChannelAddress address) {
+        ChannelQueue channelQueue = channelQueues.get(sendUrl);
+        if (channelQueue == null) {
+            ChannelQueue newChannelQueue = new ChannelQueue(sendUrl, address);
+            channelQueue = channelQueues.putIfAbsent(sendUrl, newChannelQueue);
+            if (channelQueue == null) {
+                channelQueue = newChannelQueue;
+            }
+        }
+        return channelQueue;
+    }
+
+    /**
+     * Posts the given body to the send URL.
+     *
+     * @return null if the body has been delivered, otherwise the error to be passed to the failure actions
+     */
+    private JoynrRuntimeException post(String sendUrl, ChannelAddress address, byte[] body) {
         HttpContext context = new BasicHttpContext();
 
         // execute http command to send
@@ -113,12 +202,8 @@ public class HttpMessageSender implements ShutdownListener {
             HttpPost httpPost = httpRequestFactory.createHttpPost(URI.create(sendUrl));
             httpPost.addHeader(new BasicHeader(httpConstants.getHEADER_CONTENT_TYPE(),
                                                httpConstants.getAPPLICATION_JSON() + ";charset=UTF-8"));
-            httpPost.setEntity(new ByteArrayEntity(serializedMessage));
-
-            // Clone the default config
-            Builder requestConfigBuilder = RequestConfig.copy(defaultRequestConfig);
-            requestConfigBuilder.setConnectionRequestTimeout(httpConstants.getSEND_MESSAGE_REQUEST_TIMEOUT());
-            httpPost.setConfig(requestConfigBuilder.build());
+            httpPost.setEntity(new ByteArrayEntity(body));
+            httpPost.setConfig(sendMessageRequestConfig);
 
             response = httpclient.execute(httpPost, context);
 
@@ -129,42 +214,36 @@ public class HttpMessageSender implements ShutdownListener {
             switch (statusCode) {
             case HttpURLConnection.HTTP_OK:
             case HttpURLConnection.HTTP_CREATED:
-                logger.trace("SENT: channelId {} message: {}", sendUrl, serializedMessage);
-                successAction.execute();
-                break;
+                EntityUtils.consume(response.getEntity());
+                return null;
             case HttpURLConnection.HTTP_BAD_REQUEST:
                 HttpEntity entity = response.getEntity();
                 if (entity == null) {
-                    failureAction.execute(new JoynrCommunicationException("Error in HttpMessageSender. No further reason found in message body"));
-                    return;
+                    return new JoynrCommunicationException("Error in HttpMessageSender. No further reason found in message body");
                 }
-                String body = EntityUtils.toString(entity, "UTF-8");
+                String responseBody = EntityUtils.toString(entity, "UTF-8");
 
-                JoynrMessagingError error = objectMapper.readValue(body, JoynrMessagingError.class);
+                JoynrMessagingError error = objectMapper.readValue(responseBody, JoynrMessagingError.class);
                 JoynrMessagingErrorCode joynrMessagingErrorCode = JoynrMessagingErrorCode.getJoynrMessagingErrorCode(error.getCode());
                 logger.error(error.toString());
                 switch (joynrMessagingErrorCode) {
                 case JOYNRMESSAGINGERROR_CHANNELNOTFOUND:
-                    failureAction.execute(new JoynrChannelMissingException("Channel does not exist. Status: "
-                            + statusCode + " error: " + error.getCode() + "reason:" + error.getReason()));
-                    break;
+                    return new JoynrChannelMissingException("Channel does not exist. Status: " + statusCode
+                            + " error: " + error.getCode() + "reason:" + error.getReason());
                 default:
-                    failureAction.execute(new JoynrCommunicationException("Error in HttpMessageSender: " + statusText
-                            + body + " error: " + error.getCode() + "reason:" + error.getReason()));
-                    break;
+                    return new JoynrCommunicationException("Error in HttpMessageSender: " + statusText + responseBody
+                            + " error: " + error.getCode() + "reason:" + error.getReason());
                 }
-                break;
             default:
-                failureAction.execute(new JoynrCommunicationException("Unknown Error in HttpMessageSender: "
-                        + statusText + " statusCode: " + statusCode));
-                break;
+                return new JoynrCommunicationException("Unknown Error in HttpMessageSender: " + statusText
+                        + " statusCode: " + statusCode);
             }
         } catch (JoynrShutdownException e) {
-            failureAction.execute(new JoynrMessageNotSentException("Message not sent to: " + address, e));
+            return new JoynrMessageNotSentException("Message not sent to: " + address, e);
         } catch (Exception e) {
             // An exception occured - this could still be a communication error (e.g Connection refused)
-            failureAction.execute(new JoynrCommunicationException(e.getClass().getName()
-                    + "Exception while communicating. error: " + e.getMessage()));
+            return new JoynrCommunicationException(e.getClass().getName() + "Exception while communicating. error: "
+                    + e.getMessage());
         } finally {
             if (response != null) {
                 try {
@@ -177,10 +256,157 @@ public class HttpMessageSender implements ShutdownListener {
 
     @Override
     public void shutdown() {
+        messageSenderExecutor.shutdown();
         try {
             httpclient.close();
         } catch (IOException e) {
             logger.error("error closing HTTP client: {}", e.getMessage());
         }
     }
+
+    /**
+     * A task of the sender executor which can fail its messages if it cannot be executed.
+     */
+    private abstract static class SendTask implements Runnable {
+        abstract void reject(JoynrRuntimeException error);
+    }
+
+    /**
+     * Runs rejected tasks in the calling thread while the executor is running, and rejects them once it is shut down.
+     */
+    private static class SendTaskRejectionHandler implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (!executor.isShutdown()) {
+                task.run();
+            } else if (task instanceof SendTask) {
+                ((SendTask) task).reject(new JoynrMessageNotSentException(SHUTDOWN_REASON));
+            } else {
+                logger.error("task {} rejected: HttpMessageSender is shut down", task);
+            }
+        }
+    }
+
+    private static class PendingMessage {
+        private final byte[] serializedMessage;
+        private final SuccessAction successAction;
+        private final FailureAction failureAction;
+
+        PendingMessage(byte[] serializedMessage, SuccessAction successAction, FailureAction failureAction) {
+            this.serializedMessage = serializedMessage;
+            this.successAction = successAction;
+            this.failureAction = failureAction;
+        }
+    }
+
+    /**
+     * Messages waiting to be sent to one channel. At most one POST per channel is in flight; it takes up to
+     * {@link HttpMessageSender#maxMessagesPerPost} messages from the queue, which holds no more than that.
+     */
+    private class ChannelQueue extends SendTask {
+        private final String sendUrl;
+        private final ChannelAddress address;
+        private final BlockingQueue<PendingMessage> messages;
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        ChannelQueue(String sendUrl, ChannelAddress address) {
+            this.sendUrl = sendUrl;
+            this.address = address;
+            this.messages = new LinkedBlockingQueue<>(maxMessagesPerPost);
+        }
+
+        /**
+         * Queues the message, waiting while the queue is full until the sender thread has taken the next batch.
+         */
+        void add(PendingMessage message) {
+            try {
+                while (!messages.offer(message, QUEUE_OFFER_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                    if (messageSenderExecutor.isShutdown()) {
+                        message.failureAction.execute(new JoynrMessageNotSentException(SHUTDOWN_REASON));
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                message.failureAction.execute(new JoynrMessageNotSentException("message not sent: interrupted while waiting for channel queue of "
+                        + sendUrl));
+                return;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                messageSenderExecutor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            // keep draining the queue in this thread as long as messages arrive while a POST is in flight
+            do {
+                List<PendingMessage> batch = new ArrayList<>();
+                int bodyLength = 0;
+                PendingMessage message;
+                while (batch.size() < maxMessagesPerPost && (message = messages.poll()) != null) {
+                    batch.add(message);
+                    bodyLength += message.serializedMessage.length;
+                }
+                try {
+                    if (!batch.isEmpty()) {
+                        send(batch, bodyLength);
+                    }
+                } finally {
+                    scheduled.set(false);
+                }
+            } while (!messages.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+
+        @Override
+        void reject(JoynrRuntimeException error) {
+            try {
+                PendingMessage message;
+                while ((message = messages.poll()) != null) {
+                    message.failureAction.execute(error);
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            // messages added while draining were not scheduled; rejecting them again fails them as well
+            if (!messages.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void send(List<PendingMessage> batch, int bodyLength) {
+            byte[] body;
+            if (batch.size() == 1) {
+                body = batch.get(0).serializedMessage;
+            } else {
+                // the bounce proxy splits the sequence of SMRF messages again
+                body = new byte[bodyLength];
+                int offset = 0;
+                for (PendingMessage pendingMessage : batch) {
+                    System.arraycopy(pendingMessage.serializedMessage,
+                                     0,
+                                     body,
+                                     offset,
+                                     pendingMessage.serializedMessage.length);
+                    offset += pendingMessage.serializedMessage.length;
+                }
+            }
+
+            JoynrRuntimeException error = post(sendUrl, address, body);
+            if (error == null) {
+                logger.trace("SENT: channelId {} messages: {}", sendUrl, batch.size());
+            }
+            for (PendingMessage pendingMessage : batch) {
+                if (error == null) {
+                    pendingMessage.successAction.execute();
+                } else {
+                    pendingMessage.failureAction.execute(error);
+                }
+            }
+        }
+    }
 }
@@ -67,6 +67,12 @@ public class HttpConstants {
     @Inject
     @Named("joynr.http.session_id_name")
     private String HTTP_SESSION_ID_NAME;
+    @Inject
+    @Named("joynr.http.message_sender_threads")
+    private int HTTP_MESSAGE_SENDER_THREADS;
+    @Inject
+    @Named("joynr.http.max_messages_per_post")
+    private int HTTP_MAX_MESSAGES_PER_POST;
 
     // per connection
 
@@ -121,4 +127,12 @@ public class HttpConstants {
     public String getHTTP_SESSION_ID_NAME() {
         return HTTP_SESSION_ID_NAME;
     }
+
+    public int getHTTP_MESSAGE_SENDER_THREADS() {
+        return HTTP_MESSAGE_SENDER_THREADS;
+    }
+
+    public int getHTTP_MAX_MESSAGES_PER_POST() {
+        return HTTP_MAX_MESSAGES_PER_POST;
+    }
 }
@@ -25,17 +25,15 @@ import io.joynr.messaging.MessageArrivedListener;
 import io.joynr.messaging.MessagingSettings;
 import io.joynr.messaging.datatypes.JoynrMessagingError;
 import io.joynr.messaging.datatypes.JoynrMessagingErrorCode;
-import io.joynr.messaging.util.Utilities;
+import io.joynr.messaging.util.SmrfStreamReader;
 import io.joynr.smrf.EncodingException;
 import io.joynr.smrf.UnsuppportedVersionException;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.text.SimpleDateFormat;
-import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -54,8 +52,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.base.Charsets;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Callable to keep a long polling channel alive and to process incoming messages.
@@ -98,7 +94,8 @@ public class LongPollChannel {
                            HttpConstants httpConstants,
                            String channelId,
                            String receiverId,
-                           HttpRequestFactory httpRequestFactory) {
+                           HttpRequestFactory httpRequestFactory,
+                           ExecutorService messageReceiverExecutor) {
         // CHECKSTYLE:ON
         this.httpclient = httpclient;
         this.defaultRequestConfig = defaultRequestConfig;
@@ -109,8 +106,7 @@ public class LongPollChannel {
         this.httpConstants = httpConstants;
         this.receiverId = receiverId;
         this.httpRequestFactory = httpRequestFactory;
-        ThreadFactory namedThreadFactory = new ThreadFactoryBuilder().setNameFormat("joynr.LongPollChannel-%d").build();
-        messageReceiverExecutor = Executors.newCachedThreadPool(namedThreadFactory);
+        this.messageReceiverExecutor = messageReceiverExecutor;
     }
 
     /**
@@ -173,11 +169,18 @@ public class LongPollChannel {
                 @Override
                 public String handleResponse(HttpResponse response) throws IOException {
                     HttpEntity entity = response.getEntity();
-                    String body = entity == null ? null : EntityUtils.toString(entity, "UTF-8");
                     statusCode = response.getStatusLine().getStatusCode();
                     statusText = response.getStatusLine().getReasonPhrase();
                     logger.debug("Long poll returned: {} reason: url {}", statusCode, asciiString);
-                    return body;
+                    if (statusCode == HttpStatus.SC_OK) {
+                        // messages are dispatched while the response is read; the client consumes the rest of
+                        // the entity afterwards so the connection can be reused
+                        if (entity != null) {
+                            notifyDispatcher(entity.getContent());
+                        }
+                        return null;
+                    }
+                    return entity == null ? null : EntityUtils.toString(entity, "UTF-8");
                 }
             });
         } catch (IllegalStateException e) {
@@ -191,7 +194,6 @@ public class LongPollChannel {
 
         switch (statusCode) {
         case HttpStatus.SC_OK:
-            notifyDispatcher(responseBody);
             break;
         case HttpStatus.SC_NOT_FOUND:
             logger.error(responseBody);
@@ -222,34 +224,48 @@ public class LongPollChannel {
 
     }
 
-    private void notifyDispatcher(String responseBody) {
-        if (responseBody == null || responseBody.length() <= 0) {
-            return;
-        }
-
+    private void notifyDispatcher(InputStream responseBody) throws IOException {
         // the response body could contain multiple SMRF messages
-        List<ImmutableMessage> listOfMessages;
+        SmrfStreamReader smrfStreamReader = new SmrfStreamReader(responseBody);
+        int receivedMessages = 0;
         try {
-            listOfMessages = Utilities.splitSMRF(responseBody.getBytes(Charsets.UTF_8));
+            ImmutableMessage message;
+            while ((message = smrfStreamReader.readMessage()) != null) {
+                dispatch(message);
+                receivedMessages++;
+            }
         } catch (EncodingException | UnsuppportedVersionException e) {
             logger.error("Failed to split and deserialize SMRF messages: {}", e.getMessage());
-            return;
         }
 
-        logger.info("LongPollingChannel CHANNEL: {} messages received: {}", listOfMessages.size());
+        logger.info("LongPollingChannel CHANNEL: {} messages received: {}", id, receivedMessages);
+    }
 
-        for (final ImmutableMessage message : listOfMessages) {
-            messageReceiverExecutor.execute(new Runnable() {
+    private void dispatch(final ImmutableMessage message) {
+        messageReceiverExecutor.execute(new DispatchTask(message));
+    }
 
-                @Override
-                public void run() {
-                    logger.info("ARRIVED {} messageId: {} type: {} from: {} to: {} header: {}", new Object[]{
-                            httpget.getURI().toString(), message.getId(), message.getType(), message.getSender(),
-                            message.getRecipient(), message.getHeaders().toString() });
-                    logger.debug("\r\n<<<<<<<<<<<<<<<<<\r\n:{}", message);
-                    messageArrivedListener.messageArrived(message);
-                }
-            });
+    /**
+     * Hands a received message over to the message arrived listener.
+     */
+    class DispatchTask implements Runnable {
+        private final ImmutableMessage message;
+
+        DispatchTask(ImmutableMessage message) {
+            this.message = message;
+        }
+
+        ImmutableMessage getMessage() {
+            return message;
+        }
+
+        @Override
+        public void run() {
+            logger.info("ARRIVED {} messageId: {} type: {} from: {} to: {} header: {}",
+                        new Object[]{ httpget.getURI().toString(), message.getId(), message.getType(),
+                                message.getSender(), message.getRecipient(), message.getHeaders().toString() });
+            logger.debug("\r\n<<<<<<<<<<<<<<<<<\r\n:{}", message);
+            messageArrivedListener.messageArrived(message);
         }
     }
 
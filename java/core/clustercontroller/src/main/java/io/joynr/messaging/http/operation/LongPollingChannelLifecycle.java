@@ -20,6 +20,7 @@ package io.joynr.messaging.http.operation;
 
 import io.joynr.exceptions.JoynrChannelMissingException;
 import io.joynr.exceptions.JoynrShutdownException;
+import io.joynr.messaging.ConfigurableMessagingSettings;
 import io.joynr.messaging.MessageArrivedListener;
 import io.joynr.messaging.MessagingPropertyKeys;
 import io.joynr.messaging.MessagingSettings;
@@ -32,11 +33,17 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
+import joynr.ImmutableMessage;
+
 import org.apache.http.Header;
 import org.apache.http.StatusLine;
 import org.apache.http.client.ClientProtocolException;
@@ -71,8 +78,18 @@ public class LongPollingChannelLifecycle {
     @Inject
     private MessagingSettings settings;
 
+    @Inject(optional = true)
+    @Named(ConfigurableMessagingSettings.PROPERTY_LONG_POLL_RECEIVER_THREADS)
+    private int longPollReceiverThreads = ConfigurableMessagingSettings.DEFAULT_LONG_POLL_RECEIVER_THREADS;
+
+    @Inject(optional = true)
+    @Named(ConfigurableMessagingSettings.PROPERTY_LONG_POLL_RECEIVER_QUEUE_SIZE)
+    private int longPollReceiverQueueSize = ConfigurableMessagingSettings.DEFAULT_LONG_POLL_RECEIVER_QUEUE_SIZE;
+
     ThreadFactory namedThreadFactory = new ThreadFactoryBuilder().setNameFormat("joynr.LongPoll-%d").build();
     private ExecutorService channelMonitorExecutorService = Executors.newFixedThreadPool(1, namedThreadFactory);
+    // shared by all long poll channels of this lifecycle to dispatch the received messages
+    private ExecutorService messageReceiverExecutor;
     private LongPollChannel longPolling;
     private final ObjectMapper objectMapper;
     private boolean longPollingDisabled;
@@ -114,6 +131,9 @@ public class LongPollingChannelLifecycle {
         }
 
         started = true;
+        if (messageReceiverExecutor == null) {
+            messageReceiverExecutor = createMessageReceiverExecutor();
+        }
 
         Callable<Void> channelLifecycleCallable = new Callable<Void>() {
             @Override
@@ -156,6 +176,42 @@ public class LongPollingChannelLifecycle {
 
     }
 
+    private ExecutorService createMessageReceiverExecutor() {
+        ThreadFactory receiverThreadFactory = new ThreadFactoryBuilder().setNameFormat("joynr.LongPollChannel-%d")
+                                                                        .build();
+        // if the queue is full, the long poll thread dispatches the message itself and stops reading the response
+        // until it is done, so a burst of messages does not pile up in memory
+        return new ThreadPoolExecutor(longPollReceiverThreads,
+                                      longPollReceiverThreads,
+                                      0L,
+                                      TimeUnit.MILLISECONDS,
+                                      new LinkedBlockingQueue<Runnable>(longPollReceiverQueueSize),
+                                      receiverThreadFactory,
+                                      new MessageReceiverRejectionHandler());
+    }
+
+    /**
+     * Runs rejected tasks in the long poll thread while the executor is running, and logs the messages which are
+     * dropped because the executor has been shut down.
+     */
+    private static class MessageReceiverRejectionHandler implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (!executor.isShutdown()) {
+                task.run();
+            } else if (task instanceof LongPollChannel.DispatchTask) {
+                ImmutableMessage message = ((LongPollChannel.DispatchTask) task).getMessage();
+                logger.error("message dropped: long polling is shut down. messageId: {} type: {} from: {} to: {}",
+                             message.getId(),
+                             message.getType(),
+                             message.getSender(),
+                             message.getRecipient());
+            } else {
+                logger.error("task {} rejected: long polling is shut down", task);
+            }
+        }
+    }
+
     public void checkServerTime() {
 
         CloseableHttpResponse response = null;
@@ -237,7 +293,8 @@ public class LongPollingChannelLifecycle {
                                                            httpConstants,
                                                            channelId,
                                                            receiverId,
-                                                           httpRequestFactory);
+                                                           httpRequestFactory,
+                                                           messageReceiverExecutor);
                 }
                 longPolling.setChannelUrl(channelUrl);
 
@@ -323,6 +380,10 @@ public class LongPollingChannelLifecycle {
             longPolling.shutdown();
         }
 
+        if (messageReceiverExecutor != null) {
+            messageReceiverExecutor.shutdown();
+        }
+
         if (longPollingFuture != null) {
             longPollingFuture.cancel(true);
         }
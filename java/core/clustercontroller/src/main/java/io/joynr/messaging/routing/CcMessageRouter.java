@@ -18,7 +18,6 @@
  */
 package io.joynr.messaging.routing;
 
-import java.util.concurrent.DelayQueue;
 import java.util.concurrent.ScheduledExecutorService;
 
 import javax.inject.Inject;
@@ -34,6 +33,7 @@ import io.joynr.messaging.ConfigurableMessagingSettings;
 import io.joynr.messaging.MessagingSkeletonFactory;
 import io.joynr.runtime.ClusterControllerRuntimeModule;
 import io.joynr.runtime.ShutdownNotifier;
+import io.joynr.statusmetrics.MessageRouterMetrics;
 import io.joynr.statusmetrics.StatusReceiver;
 import joynr.ImmutableMessage;
 
@@ -57,9 +57,11 @@ public class CcMessageRouter extends AbstractMessageRouter {
                            MulticastReceiverRegistry multicastReceiverRegistry,
                            AccessController accessController,
                            @Named(ClusterControllerRuntimeModule.PROPERTY_ACCESSCONTROL_ENABLE) boolean enableAccessControl,
-                           DelayQueue<DelayableImmutableMessage> messageQueue,
+                           MessageQueue messageQueue,
                            ShutdownNotifier shutdownNotifier,
-                           StatusReceiver statusReceiver) {
+                           StatusReceiver statusReceiver,
+                           MessageRouterMetrics messageRouterMetrics,
+                           MessageAdmissionController messageAdmissionController) {
         super(routingTable,
               scheduler,
               sendMsgRetryIntervalMs,
@@ -72,7 +74,9 @@ public class CcMessageRouter extends AbstractMessageRouter {
               multicastReceiverRegistry,
               messageQueue,
               shutdownNotifier,
-              statusReceiver);
+              statusReceiver,
+              messageRouterMetrics,
+              messageAdmissionController);
 
         this.accessController = accessController;
         this.enableAccessControl = enableAccessControl;
@@ -31,6 +31,7 @@ import static org.mockito.Mockito.doAnswer;
 import io.joynr.arbitration.DiscoveryQos;
 import io.joynr.capabilities.CapabilitiesProvisioning;
 import io.joynr.capabilities.CapabilityCallback;
+import io.joynr.capabilities.CapabilityListener;
 import io.joynr.capabilities.LocalCapabilitiesDirectory;
 import joynr.ImmutableMessage;
 import joynr.Message;
@@ -43,6 +44,7 @@ import joynr.types.Version;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
@@ -75,6 +77,7 @@ public class AccessControllerTest {
     private String testInterface = "testInterface";
     private String testPublicKeyId = "testPublicKeyId";
     private HasConsumerPermissionCallback callback = Mockito.mock(HasConsumerPermissionCallback.class);
+    private DiscoveryEntryWithMetaInfo discoveryEntry;
 
     @Before
     public void setup() {
@@ -97,16 +100,15 @@ public class AccessControllerTest {
         when(messageMock.getCreatorUserId()).thenReturn(DUMMY_USERID);
         when(messageMock.getId()).thenReturn("someId");
 
-        final DiscoveryEntryWithMetaInfo discoveryEntry = new DiscoveryEntryWithMetaInfo(new Version(47, 11),
-                                                                                         testDomain,
-                                                                                         testInterface,
-                                                                                         toParticipantId,
-                                                                                         new ProviderQos(),
-                                                                                         System.currentTimeMillis(),
-                                                                                         System.currentTimeMillis()
-                                                                                                 + ONE_MINUTE_IN_MS,
-                                                                                         testPublicKeyId,
-                                                                                         false);
+        discoveryEntry = new DiscoveryEntryWithMetaInfo(new Version(47, 11),
+                                                        testDomain,
+                                                        testInterface,
+                                                        toParticipantId,
+                                                        new ProviderQos(),
+                                                        System.currentTimeMillis(),
+                                                        System.currentTimeMillis() + ONE_MINUTE_IN_MS,
+                                                        testPublicKeyId,
+                                                        false);
 
         doAnswer(new Answer<Object>() {
             @Override
@@ -121,8 +123,7 @@ public class AccessControllerTest {
 
     }
 
-    @Test
-    public void testAccessWithInterfaceLevelAccessControl() {
+    private void grantInterfaceLevelAccess() {
         doAnswer(new Answer<Object>() {
             @Override
             public Object answer(InvocationOnMock invocation) throws Throwable {
@@ -136,8 +137,34 @@ public class AccessControllerTest {
                                                                    eq(testInterface),
                                                                    eq(TrustLevel.HIGH),
                                                                    any(GetConsumerPermissionCallback.class));
+    }
+
+    @Test
+    public void testAccessWithInterfaceLevelAccessControl() {
+        grantInterfaceLevelAccess();
 
         accessController.hasConsumerPermission(messageMock, callback);
         verify(callback, Mockito.times(1)).hasConsumerPermission(true);
     }
+
+    @Test
+    public void testCapabilityLookupIsCachedPerRecipient() {
+        grantInterfaceLevelAccess();
+        ArgumentCaptor<CapabilityListener> capabilityListener = ArgumentCaptor.forClass(CapabilityListener.class);
+        verify(localCapabilitiesDirectory).addCapabilityListener(capabilityListener.capture());
+
+        accessController.hasConsumerPermission(messageMock, callback);
+        accessController.hasConsumerPermission(messageMock, callback);
+        verify(callback, Mockito.times(2)).hasConsumerPermission(true);
+        verify(localCapabilitiesDirectory, Mockito.times(1)).lookup(eq(toParticipantId),
+                                                                    any(DiscoveryQos.class),
+                                                                    any(CapabilityCallback.class));
+
+        capabilityListener.getValue().capabilityRemoved(discoveryEntry);
+        accessController.hasConsumerPermission(messageMock, callback);
+        verify(callback, Mockito.times(3)).hasConsumerPermission(true);
+        verify(localCapabilitiesDirectory, Mockito.times(2)).lookup(eq(toParticipantId),
+                                                                    any(DiscoveryQos.class),
+                                                                    any(CapabilityCallback.class));
+    }
 }
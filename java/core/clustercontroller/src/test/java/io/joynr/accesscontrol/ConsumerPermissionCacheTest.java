@@ -0,0 +1,83 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.accesscontrol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import joynr.infrastructure.DacTypes.Permission;
+import joynr.infrastructure.DacTypes.TrustLevel;
+
+public class ConsumerPermissionCacheTest {
+    private static final String UID1 = "uid1";
+    private static final String DOMAIN1 = "domain1";
+    private static final String INTERFACE1 = "interface1";
+    private static final String INTERFACE2 = "interface2";
+    private static final String OPERATION1 = "operation1";
+
+    private ConsumerPermissionCache cache = new ConsumerPermissionCache();
+
+    @Test
+    public void permissionIsKeyedByUidOperationAndTrustLevel() {
+        cache.getInterfacePermissions(DOMAIN1, INTERFACE1).put(UID1, OPERATION1, TrustLevel.HIGH, Permission.YES);
+
+        ConsumerPermissionCache.InterfacePermissions permissions = cache.getInterfacePermissions(DOMAIN1, INTERFACE1);
+        assertEquals(Permission.YES, permissions.get(UID1, OPERATION1, TrustLevel.HIGH));
+        assertNull(permissions.get(UID1, OPERATION1, TrustLevel.LOW));
+        assertNull(permissions.get("uid2", OPERATION1, TrustLevel.HIGH));
+        assertNull(permissions.get(UID1, "*", TrustLevel.HIGH));
+        assertNull(cache.getInterfacePermissions(DOMAIN1, INTERFACE2).get(UID1, OPERATION1, TrustLevel.HIGH));
+    }
+
+    @Test
+    public void invalidateRemovesOnlyPermissionsOfInterface() {
+        cache.getInterfacePermissions(DOMAIN1, INTERFACE1).put(UID1, OPERATION1, TrustLevel.HIGH, Permission.YES);
+        cache.getInterfacePermissions(DOMAIN1, INTERFACE2).put(UID1, OPERATION1, TrustLevel.HIGH, Permission.NO);
+
+        cache.invalidate(DOMAIN1, INTERFACE1);
+
+        assertNull(cache.getInterfacePermissions(DOMAIN1, INTERFACE1).get(UID1, OPERATION1, TrustLevel.HIGH));
+        assertEquals(Permission.NO,
+                     cache.getInterfacePermissions(DOMAIN1, INTERFACE2).get(UID1, OPERATION1, TrustLevel.HIGH));
+    }
+
+    @Test
+    public void permissionComputedDuringInvalidationIsDiscarded() {
+        ConsumerPermissionCache.InterfacePermissions permissions = cache.getInterfacePermissions(DOMAIN1, INTERFACE1);
+        cache.invalidate(DOMAIN1, INTERFACE1);
+        permissions.put(UID1, OPERATION1, TrustLevel.HIGH, Permission.YES);
+
+        assertNull(cache.getInterfacePermissions(DOMAIN1, INTERFACE1).get(UID1, OPERATION1, TrustLevel.HIGH));
+    }
+
+    @Test
+    public void numberOfPermissionsPerInterfaceIsBounded() {
+        ConsumerPermissionCache.InterfacePermissions permissions = cache.getInterfacePermissions(DOMAIN1, INTERFACE1);
+        for (int i = 0; i <= ConsumerPermissionCache.MAX_PERMISSIONS_PER_INTERFACE; i++) {
+            permissions.put("uid" + i, OPERATION1, TrustLevel.HIGH, Permission.YES);
+        }
+
+        assertNull(permissions.get("uid0", OPERATION1, TrustLevel.HIGH));
+        assertEquals(Permission.YES, permissions.get("uid" + ConsumerPermissionCache.MAX_PERMISSIONS_PER_INTERFACE,
+                                                     OPERATION1,
+                                                     TrustLevel.HIGH));
+    }
+}
@@ -51,6 +51,8 @@ public class GdacBroadcastListenerTest {
 
     @Mock
     private DomainAccessControlStore domainAccessControlStore;
+    @Mock
+    private ConsumerPermissionCache consumerPermissionCache;
 
     @Before
     public void setup() {
@@ -91,52 +93,64 @@ public class GdacBroadcastListenerTest {
 
     @Test
     public void testMasterAceChangedListenerForUpdateAce() {
-        LdacMasterAccessControlEntryChangedBroadcastListener dreChangedListener = new LdacMasterAccessControlEntryChangedBroadcastListener(domainAccessControlStore);
+        LdacMasterAccessControlEntryChangedBroadcastListener dreChangedListener = new LdacMasterAccessControlEntryChangedBroadcastListener(domainAccessControlStore,
+                                                                                                                                           consumerPermissionCache);
         dreChangedListener.onReceive(ChangeType.UPDATE, masterAce);
         verify(domainAccessControlStore).updateMasterAccessControlEntry(eq(masterAce));
+        verify(consumerPermissionCache).invalidate(masterAce.getDomain(), masterAce.getInterfaceName());
     }
 
     @Test
     public void testMasterAceChangedListenerForRemoveAce() {
-        LdacMasterAccessControlEntryChangedBroadcastListener dreChangedListener = new LdacMasterAccessControlEntryChangedBroadcastListener(domainAccessControlStore);
+        LdacMasterAccessControlEntryChangedBroadcastListener dreChangedListener = new LdacMasterAccessControlEntryChangedBroadcastListener(domainAccessControlStore,
+                                                                                                                                           consumerPermissionCache);
         dreChangedListener.onReceive(ChangeType.REMOVE, masterAce);
         verify(domainAccessControlStore).removeMasterAccessControlEntry(masterAce.getUid(),
                                                                         masterAce.getDomain(),
                                                                         masterAce.getInterfaceName(),
                                                                         masterAce.getOperation());
+        verify(consumerPermissionCache).invalidate(masterAce.getDomain(), masterAce.getInterfaceName());
     }
 
     @Test
     public void testMediatorAceChangedListenerForUpdateAce() {
-        LdacMediatorAccessControlEntryChangedBroadcastListener dreChangedListener = new LdacMediatorAccessControlEntryChangedBroadcastListener(domainAccessControlStore);
+        LdacMediatorAccessControlEntryChangedBroadcastListener dreChangedListener = new LdacMediatorAccessControlEntryChangedBroadcastListener(domainAccessControlStore,
+                                                                                                                                               consumerPermissionCache);
         dreChangedListener.onReceive(ChangeType.UPDATE, masterAce);
         verify(domainAccessControlStore).updateMediatorAccessControlEntry(eq(masterAce));
+        verify(consumerPermissionCache).invalidate(masterAce.getDomain(), masterAce.getInterfaceName());
     }
 
     @Test
     public void testMediatorAceChangedListenerForRemoveAce() {
-        LdacMediatorAccessControlEntryChangedBroadcastListener dreChangedListener = new LdacMediatorAccessControlEntryChangedBroadcastListener(domainAccessControlStore);
+        LdacMediatorAccessControlEntryChangedBroadcastListener dreChangedListener = new LdacMediatorAccessControlEntryChangedBroadcastListener(domainAccessControlStore,
+                                                                                                                                               consumerPermissionCache);
         dreChangedListener.onReceive(ChangeType.REMOVE, masterAce);
         verify(domainAccessControlStore).removeMediatorAccessControlEntry(masterAce.getUid(),
                                                                           masterAce.getDomain(),
                                                                           masterAce.getInterfaceName(),
                                                                           masterAce.getOperation());
+        verify(consumerPermissionCache).invalidate(masterAce.getDomain(), masterAce.getInterfaceName());
     }
 
     @Test
     public void testOnwerAceChangedListenerForUpdateAce() {
-        LdacOwnerAccessControlEntryChangedBroadcastListener dreChangedListener = new LdacOwnerAccessControlEntryChangedBroadcastListener(domainAccessControlStore);
+        LdacOwnerAccessControlEntryChangedBroadcastListener dreChangedListener = new LdacOwnerAccessControlEntryChangedBroadcastListener(domainAccessControlStore,
+                                                                                                                                         consumerPermissionCache);
         dreChangedListener.onReceive(ChangeType.UPDATE, ownerAce);
         verify(domainAccessControlStore).updateOwnerAccessControlEntry(eq(ownerAce));
+        verify(consumerPermissionCache).invalidate(ownerAce.getDomain(), ownerAce.getInterfaceName());
     }
 
     @Test
     public void testOnwerAceChangedListenerForRemoveAce() {
-        LdacOwnerAccessControlEntryChangedBroadcastListener dreChangedListener = new LdacOwnerAccessControlEntryChangedBroadcastListener(domainAccessControlStore);
+        LdacOwnerAccessControlEntryChangedBroadcastListener dreChangedListener = new LdacOwnerAccessControlEntryChangedBroadcastListener(domainAccessControlStore,
+                                                                                                                                         consumerPermissionCache);
         dreChangedListener.onReceive(ChangeType.REMOVE, ownerAce);
         verify(domainAccessControlStore).removeOwnerAccessControlEntry(ownerAce.getUid(),
                                                                        ownerAce.getDomain(),
                                                                        ownerAce.getInterfaceName(),
                                                                        ownerAce.getOperation());
+        verify(consumerPermissionCache).invalidate(ownerAce.getDomain(), ownerAce.getInterfaceName());
     }
 }
@@ -23,18 +23,23 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 import io.joynr.arbitration.DiscoveryQos;
 import io.joynr.discovery.LocalDiscoveryAggregator;
 import io.joynr.dispatching.Dispatcher;
+import io.joynr.exceptions.JoynrRuntimeException;
 import io.joynr.messaging.MessagingQos;
+import io.joynr.proxy.Callback;
 import io.joynr.proxy.ProxyBuilderFactoryImpl;
 import io.joynr.proxy.ProxyInvocationHandler;
 import io.joynr.proxy.ProxyInvocationHandlerFactory;
@@ -54,7 +59,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
 @RunWith(MockitoJUnitRunner.class)
 public class LocalDomainAccessControllerTest {
@@ -210,4 +217,67 @@ public class LocalDomainAccessControllerTest {
                                                                        OPEARATION1,
                                                                        TrustLevel.HIGH));
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testConcurrentConsumerPermissionRequestsShareAceQuery() throws Throwable {
+        final Map<String, Callback<Object>> aceQueryCallbacks = new HashMap<String, Callback<Object>>();
+        final int[] numberOfAceQueries = new int[1];
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                String methodName = ((Method) invocation.getArguments()[1]).getName();
+                if (methodName.matches("get(Master|Mediator|Owner)AccessControlEntries")) {
+                    numberOfAceQueries[0]++;
+                    aceQueryCallbacks.put(methodName, (Callback<Object>) ((Object[]) invocation.getArguments()[2])[0]);
+                }
+                return null;
+            }
+        }).when(proxyInvocationHandlerMock).invoke(any(Object.class), any(Method.class), any(Object[].class));
+
+        GetConsumerPermissionCallback firstCallback = mock(GetConsumerPermissionCallback.class);
+        GetConsumerPermissionCallback secondCallback = mock(GetConsumerPermissionCallback.class);
+        localDomainAccessController.getConsumerPermission(UID1, DOMAIN1, INTERFACE1, TrustLevel.HIGH, firstCallback);
+        localDomainAccessController.getConsumerPermission(UID1, DOMAIN1, INTERFACE1, TrustLevel.HIGH, secondCallback);
+
+        assertEquals(3, numberOfAceQueries[0]);
+        verify(firstCallback, times(0)).getConsumerPermission(any(Permission.class));
+        verify(secondCallback, times(0)).getConsumerPermission(any(Permission.class));
+
+        ownerAce.setOperation(WILDCARD);
+        aceQueryCallbacks.get("getMasterAccessControlEntries").onSuccess(new MasterAccessControlEntry[0]);
+        aceQueryCallbacks.get("getMediatorAccessControlEntries").onSuccess(new MasterAccessControlEntry[0]);
+        aceQueryCallbacks.get("getOwnerAccessControlEntries").onSuccess(new OwnerAccessControlEntry[]{ ownerAce });
+
+        verify(firstCallback).getConsumerPermission(Permission.YES);
+        verify(secondCallback).getConsumerPermission(Permission.YES);
+
+        GetConsumerPermissionCallback thirdCallback = mock(GetConsumerPermissionCallback.class);
+        localDomainAccessController.getConsumerPermission(UID1, DOMAIN1, INTERFACE1, TrustLevel.HIGH, thirdCallback);
+        assertEquals(3, numberOfAceQueries[0]);
+        verify(thirdCallback).getConsumerPermission(Permission.YES);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testFailedAceQueryIsReportedToAllParkedRequests() throws Throwable {
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                String methodName = ((Method) invocation.getArguments()[1]).getName();
+                if (methodName.matches("get(Master|Mediator|Owner)AccessControlEntries")) {
+                    ((Callback<Object>) ((Object[]) invocation.getArguments()[2])[0]).onFailure(new JoynrRuntimeException("test"));
+                }
+                return null;
+            }
+        }).when(proxyInvocationHandlerMock).invoke(any(Object.class), any(Method.class), any(Object[].class));
+
+        GetConsumerPermissionCallback callback = mock(GetConsumerPermissionCallback.class);
+        localDomainAccessController.getConsumerPermission(UID1, DOMAIN1, INTERFACE1, TrustLevel.HIGH, callback);
+        verify(callback).getConsumerPermissionFailed();
+
+        // a failed query is not cached
+        localDomainAccessController.getConsumerPermission(UID1, DOMAIN1, INTERFACE1, TrustLevel.HIGH, callback);
+        verify(callback, times(2)).getConsumerPermissionFailed();
+    }
 }
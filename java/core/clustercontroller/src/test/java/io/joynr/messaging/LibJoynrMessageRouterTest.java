@@ -18,10 +18,13 @@
  */
 package io.joynr.messaging;
 
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -37,19 +40,26 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import io.joynr.common.ExpiryDate;
+import io.joynr.exceptions.JoynrMessageNotSentException;
+import io.joynr.exceptions.JoynrShutdownException;
 import io.joynr.messaging.inprocess.InProcessAddress;
 import io.joynr.messaging.routing.AddressManager;
 import io.joynr.messaging.routing.DelayableImmutableMessage;
 import io.joynr.messaging.routing.LibJoynrMessageRouter;
+import io.joynr.messaging.routing.MessageAdmissionController;
+import io.joynr.messaging.routing.MessageQueue;
 import io.joynr.messaging.routing.MessagingStubFactory;
 import io.joynr.messaging.routing.MulticastReceiverRegistry;
 import io.joynr.messaging.routing.RoutingTable;
 import io.joynr.runtime.ShutdownNotifier;
+import io.joynr.statusmetrics.DefaultMessageRouterMetrics;
 import io.joynr.statusmetrics.StatusReceiver;
 import joynr.ImmutableMessage;
 import joynr.Message;
@@ -85,8 +95,10 @@ public class LibJoynrMessageRouterTest {
     private ImmutableMessage message;
     @Mock
     private ShutdownNotifier shutdownNotifier;
+    @Mock
+    private MessageAdmissionController messageAdmissionController;
 
-    private DelayQueue<DelayableImmutableMessage> messageQueue = new DelayQueue<>();
+    private MessageQueue messageQueue = new MessageQueue(new DelayQueue<DelayableImmutableMessage>());
     private LibJoynrMessageRouter messageRouter;
     private String unknownParticipantId = "unknownParticipantId";
     private Long sendMsgRetryIntervalMs = 10L;
@@ -109,6 +121,7 @@ public class LibJoynrMessageRouterTest {
         when(messageRouterParent.getReplyToAddress()).thenReturn(globalAddress);
         when(messagingStubFactory.create(any(Address.class))).thenReturn(messagingStub);
         when(parentAddress.getChannelId()).thenReturn("LibJoynrMessageRouterTestChannel");
+        when(messageAdmissionController.admit(any(ImmutableMessage.class))).thenReturn(true);
 
         messageRouter = new LibJoynrMessageRouter(routingTable,
                                                   incomingAddress,
@@ -123,7 +136,9 @@ public class LibJoynrMessageRouterTest {
                                                   multicastReceiverRegistry,
                                                   messageQueue,
                                                   shutdownNotifier,
-                                                  mock(StatusReceiver.class));
+                                                  mock(StatusReceiver.class),
+                                                  new DefaultMessageRouterMetrics(),
+                                                  messageAdmissionController);
         messageRouter.setParentRouter(messageRouterParent, parentAddress, "parentParticipantId", "proxyParticipantId");
     }
 
@@ -150,6 +165,37 @@ public class LibJoynrMessageRouterTest {
                                  eq(allowUpdate));
     }
 
+    @Test
+    public void rejectsMessageIfNotAdmitted() throws Exception {
+        when(messageAdmissionController.admit(message)).thenReturn(false);
+        try {
+            messageRouter.route(message);
+            fail("expected JoynrMessageNotSentException");
+        } catch (JoynrMessageNotSentException e) {
+            // expected
+        }
+        Thread.sleep(100);
+        verify(messageAdmissionController).admit(message);
+        verify(messageRouterParent, never()).resolveNextHop(eq(unknownParticipantId));
+    }
+
+    @Test
+    public void releasesAdmissionIfTransmitFailsDueToShutdown() throws Exception {
+        when(message.getId()).thenReturn("messageId");
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                FailureAction failureAction = (FailureAction) invocation.getArguments()[2];
+                failureAction.execute(new JoynrShutdownException("shutting down"));
+                return null;
+            }
+        }).when(messagingStub).transmit(eq(message), any(SuccessAction.class), any(FailureAction.class));
+
+        messageRouter.route(message);
+
+        verify(messageAdmissionController, timeout(1000)).messageProcessed("messageId");
+    }
+
     @Test
     public void passesNextHopToParent() {
         final boolean isGloballyVisible = true;
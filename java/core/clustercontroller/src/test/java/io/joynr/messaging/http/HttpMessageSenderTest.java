@@ -0,0 +1,253 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.http;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.localserver.LocalTestServer;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestHandler;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+
+import io.joynr.common.JoynrPropertiesModule;
+import io.joynr.exceptions.JoynrCommunicationException;
+import io.joynr.exceptions.JoynrMessageNotSentException;
+import io.joynr.messaging.ConfigurableMessagingSettings;
+import io.joynr.messaging.FailureAction;
+import io.joynr.messaging.JsonMessageSerializerModule;
+import io.joynr.messaging.MessageReceiver;
+import io.joynr.messaging.MessagingSettings;
+import io.joynr.messaging.SuccessAction;
+import io.joynr.messaging.http.operation.ApacheHttpRequestFactory;
+import io.joynr.messaging.http.operation.HttpClientProvider;
+import io.joynr.messaging.http.operation.HttpDefaultRequestConfigProvider;
+import io.joynr.messaging.http.operation.HttpRequestFactory;
+import io.joynr.runtime.ShutdownNotifier;
+import joynr.system.RoutingTypes.ChannelAddress;
+
+public class HttpMessageSenderTest {
+
+    private static final String CHANNEL_PATH = "/bounceproxy/channels/channelId/";
+
+    private LocalTestServer server;
+    private ShutdownNotifier shutdownNotifier;
+    private HttpMessageSender httpMessageSender;
+    private ChannelAddress address;
+    private final List<byte[]> receivedBodies = new CopyOnWriteArrayList<>();
+    private volatile int responseStatus = HttpStatus.SC_CREATED;
+    private volatile CountDownLatch firstRequestReceived = new CountDownLatch(1);
+    private volatile CountDownLatch releaseFirstResponse = new CountDownLatch(0);
+
+    private void setUp(int maxMessagesPerPost) throws Exception {
+        server = new LocalTestServer(null, null);
+        server.register(CHANNEL_PATH + "message/", new HttpRequestHandler() {
+            @Override
+            public void handle(HttpRequest request, HttpResponse response, HttpContext context) throws HttpException,
+                                                                                               IOException {
+                receivedBodies.add(EntityUtils.toByteArray(((HttpEntityEnclosingRequest) request).getEntity()));
+                firstRequestReceived.countDown();
+                try {
+                    releaseFirstResponse.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                response.setStatusCode(responseStatus);
+            }
+        });
+        server.start();
+        address = new ChannelAddress("http://" + server.getServiceAddress().getHostName() + ":"
+                + server.getServiceAddress().getPort() + CHANNEL_PATH, "channelId");
+
+        Properties properties = new Properties();
+        properties.put("joynr.http.max_messages_per_post", String.valueOf(maxMessagesPerPost));
+        final MessageReceiver messageReceiver = mock(MessageReceiver.class);
+        when(messageReceiver.isReady()).thenReturn(true);
+        shutdownNotifier = new ShutdownNotifier();
+
+        Injector injector = Guice.createInjector(new AbstractModule() {
+            @Override
+            public void configure() {
+                bind(MessageReceiver.class).toInstance(messageReceiver);
+                bind(ShutdownNotifier.class).toInstance(shutdownNotifier);
+                bind(HttpRequestFactory.class).to(ApacheHttpRequestFactory.class);
+                bind(CloseableHttpClient.class).toProvider(HttpClientProvider.class).in(Singleton.class);
+                bind(RequestConfig.class).toProvider(HttpDefaultRequestConfigProvider.class).in(Singleton.class);
+                bind(MessagingSettings.class).to(ConfigurableMessagingSettings.class);
+            }
+        }, new JoynrPropertiesModule(properties), new JsonMessageSerializerModule());
+        httpMessageSender = injector.getInstance(HttpMessageSender.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        shutdownNotifier.shutdown();
+        server.stop();
+    }
+
+    @Test
+    public void messagesAreSentAsynchronously() throws Exception {
+        setUp(1);
+        releaseFirstResponse = new CountDownLatch(1);
+        SuccessAction successAction = mock(SuccessAction.class);
+        FailureAction failureAction = mock(FailureAction.class);
+
+        httpMessageSender.sendMessage(address, new byte[]{ 1 }, successAction, failureAction);
+
+        // the caller returns while the request is still in flight
+        assertTrue(firstRequestReceived.await(5, TimeUnit.SECONDS));
+        verify(successAction, never()).execute();
+        releaseFirstResponse.countDown();
+
+        verify(successAction, timeout(5000)).execute();
+        verify(failureAction, never()).execute(any(Throwable.class));
+        assertArrayEquals(new byte[]{ 1 }, receivedBodies.get(0));
+    }
+
+    @Test
+    public void failedPostExecutesFailureAction() throws Exception {
+        setUp(1);
+        responseStatus = HttpStatus.SC_INTERNAL_SERVER_ERROR;
+        SuccessAction successAction = mock(SuccessAction.class);
+        FailureAction failureAction = mock(FailureAction.class);
+
+        httpMessageSender.sendMessage(address, new byte[]{ 1 }, successAction, failureAction);
+
+        verify(failureAction, timeout(5000)).execute(any(JoynrCommunicationException.class));
+        verify(successAction, never()).execute();
+    }
+
+    @Test
+    public void messagesQueuedDuringPostAreCoalesced() throws Exception {
+        setUp(10);
+        releaseFirstResponse = new CountDownLatch(1);
+        SuccessAction successAction = mock(SuccessAction.class);
+        FailureAction failureAction = mock(FailureAction.class);
+
+        httpMessageSender.sendMessage(address, new byte[]{ 1 }, successAction, failureAction);
+        assertTrue(firstRequestReceived.await(5, TimeUnit.SECONDS));
+        httpMessageSender.sendMessage(address, new byte[]{ 2 }, successAction, failureAction);
+        httpMessageSender.sendMessage(address, new byte[]{ 3, 4 }, successAction, failureAction);
+        releaseFirstResponse.countDown();
+
+        verify(successAction, timeout(5000).times(3)).execute();
+        verify(failureAction, never()).execute(any(Throwable.class));
+        assertEquals(2, receivedBodies.size());
+        assertArrayEquals(new byte[]{ 1 }, receivedBodies.get(0));
+        assertArrayEquals(new byte[]{ 2, 3, 4 }, receivedBodies.get(1));
+    }
+
+    @Test
+    public void callerWaitsWhileChannelQueueIsFull() throws Exception {
+        setUp(2);
+        releaseFirstResponse = new CountDownLatch(1);
+        SuccessAction successAction = mock(SuccessAction.class);
+        FailureAction failureAction = mock(FailureAction.class);
+
+        httpMessageSender.sendMessage(address, new byte[]{ 1 }, successAction, failureAction);
+        assertTrue(firstRequestReceived.await(5, TimeUnit.SECONDS));
+        httpMessageSender.sendMessage(address, new byte[]{ 2 }, successAction, failureAction);
+        httpMessageSender.sendMessage(address, new byte[]{ 3 }, successAction, failureAction);
+
+        final CountDownLatch fourthMessageQueued = new CountDownLatch(1);
+        final SuccessAction fourthSuccessAction = mock(SuccessAction.class);
+        final FailureAction fourthFailureAction = mock(FailureAction.class);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                httpMessageSender.sendMessage(address, new byte[]{ 4 }, fourthSuccessAction, fourthFailureAction);
+                fourthMessageQueued.countDown();
+            }
+        }).start();
+
+        // the queue holds one POST worth of messages, so the caller waits until the in-flight POST has completed
+        assertFalse(fourthMessageQueued.await(300, TimeUnit.MILLISECONDS));
+        releaseFirstResponse.countDown();
+        assertTrue(fourthMessageQueued.await(5, TimeUnit.SECONDS));
+
+        verify(successAction, timeout(5000).times(3)).execute();
+        verify(fourthSuccessAction, timeout(5000)).execute();
+        verify(failureAction, never()).execute(any(Throwable.class));
+        verify(fourthFailureAction, never()).execute(any(Throwable.class));
+        assertEquals(3, receivedBodies.size());
+        assertArrayEquals(new byte[]{ 1 }, receivedBodies.get(0));
+        assertArrayEquals(new byte[]{ 2, 3 }, receivedBodies.get(1));
+        assertArrayEquals(new byte[]{ 4 }, receivedBodies.get(2));
+    }
+
+    @Test
+    public void messageSentAfterShutdownExecutesFailureAction() throws Exception {
+        setUp(1);
+        shutdownNotifier.shutdown();
+        SuccessAction successAction = mock(SuccessAction.class);
+        FailureAction failureAction = mock(FailureAction.class);
+
+        httpMessageSender.sendMessage(address, new byte[]{ 1 }, successAction, failureAction);
+
+        verify(failureAction).execute(any(JoynrMessageNotSentException.class));
+        verify(successAction, never()).execute();
+        assertTrue(receivedBodies.isEmpty());
+    }
+
+    @Test
+    public void queuedMessagesSentAfterShutdownExecuteFailureActions() throws Exception {
+        setUp(10);
+        shutdownNotifier.shutdown();
+        SuccessAction successAction = mock(SuccessAction.class);
+        FailureAction failureAction = mock(FailureAction.class);
+
+        httpMessageSender.sendMessage(address, new byte[]{ 1 }, successAction, failureAction);
+        // the rejected channel queue is no longer marked as scheduled, so later messages are failed as well
+        httpMessageSender.sendMessage(address, new byte[]{ 2 }, successAction, failureAction);
+
+        verify(failureAction, times(2)).execute(any(JoynrMessageNotSentException.class));
+        verify(successAction, never()).execute();
+        assertTrue(receivedBodies.isEmpty());
+    }
+}
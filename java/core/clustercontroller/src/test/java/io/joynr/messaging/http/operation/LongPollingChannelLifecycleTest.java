@@ -33,12 +33,18 @@ import io.joynr.messaging.ReceiverStatusListener;
 import java.io.IOException;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import joynr.ImmutableMessage;
+import joynr.Message;
+import joynr.MutableMessage;
 
 import org.apache.http.HttpException;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.localserver.LocalTestServer;
 import org.apache.http.protocol.HttpContext;
@@ -48,6 +54,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
@@ -75,6 +82,8 @@ public class LongPollingChannelLifecycleTest {
     private ReceiverStatusListener mockReceiverStatusListener;
 
     private int createChannelResponseCode;
+    private byte[] longPollResponseBody = new byte[0];
+    private final AtomicBoolean longPollResponseSent = new AtomicBoolean(false);
 
     @Before
     public void setUp() throws Exception {
@@ -88,6 +97,23 @@ public class LongPollingChannelLifecycleTest {
                 response.setHeader("Location", bounceProxyUrl + "channels/" + channelId);
             }
         });
+        server.register(CHANNELPATH + channelId, new HttpRequestHandler() {
+
+            @Override
+            public void handle(HttpRequest request, HttpResponse response, HttpContext context) throws HttpException,
+                                                                                               IOException {
+                response.setStatusCode(HttpStatus.SC_OK);
+                if (!longPollResponseSent.getAndSet(true)) {
+                    response.setEntity(new ByteArrayEntity(longPollResponseBody));
+                } else {
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        });
         server.start();
         serviceAddress = "http://" + server.getServiceAddress().getHostName() + ":"
                 + server.getServiceAddress().getPort();
@@ -121,6 +147,36 @@ public class LongPollingChannelLifecycleTest {
         testCreateChannel();
     }
 
+    @Test
+    public void testMessagesOfLongPollResponseAreDispatched() throws Exception {
+        createChannelResponseCode = HttpStatus.SC_CREATED;
+        byte[] message1 = createSerializedMessage("sender1");
+        byte[] message2 = createSerializedMessage("sender2");
+        longPollResponseBody = new byte[message1.length + message2.length];
+        System.arraycopy(message1, 0, longPollResponseBody, 0, message1.length);
+        System.arraycopy(message2, 0, longPollResponseBody, message1.length, message2.length);
+
+        longpollingChannelLifecycle.startLongPolling(mockMessageArrivedListener, mockReceiverStatusListener);
+
+        ArgumentCaptor<ImmutableMessage> messageCaptor = ArgumentCaptor.forClass(ImmutableMessage.class);
+        Mockito.verify(mockMessageArrivedListener, Mockito.timeout(5000).times(2))
+               .messageArrived(messageCaptor.capture());
+        Assert.assertTrue(messageCaptor.getAllValues().get(0).getSender().startsWith("sender"));
+        Assert.assertTrue(messageCaptor.getAllValues().get(1).getSender().startsWith("sender"));
+        Assert.assertNotEquals(messageCaptor.getAllValues().get(0).getSender(), messageCaptor.getAllValues()
+                                                                                             .get(1)
+                                                                                             .getSender());
+    }
+
+    private byte[] createSerializedMessage(String sender) throws Exception {
+        MutableMessage message = new MutableMessage();
+        message.setType(Message.VALUE_MESSAGE_TYPE_ONE_WAY);
+        message.setSender(sender);
+        message.setRecipient("recipient");
+        message.setPayload(new byte[]{ 0, 1, 2 });
+        return message.getImmutableMessage().getSerializedMessage();
+    }
+
     private void testCreateChannel() {
         longpollingChannelLifecycle.startLongPolling(mockMessageArrivedListener, mockReceiverStatusListener);
 
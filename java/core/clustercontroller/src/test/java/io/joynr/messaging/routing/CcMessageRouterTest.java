@@ -30,6 +30,7 @@ import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -38,6 +39,7 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.lessThan;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -81,13 +83,19 @@ import io.joynr.messaging.MessagingSkeletonFactory;
 import io.joynr.messaging.SuccessAction;
 import io.joynr.messaging.channel.ChannelMessagingSkeleton;
 import io.joynr.messaging.channel.ChannelMessagingStubFactory;
-import io.joynr.messaging.util.MulticastWildcardRegexFactory;
 import io.joynr.messaging.routing.CcMessageRouter;
 import io.joynr.runtime.ClusterControllerRuntimeModule;
 import io.joynr.statusmetrics.MessageWorkerStatus;
+import io.joynr.statusmetrics.MessageRouterMetrics;
+import io.joynr.statusmetrics.MessageRouterMetrics.DropReason;
+import io.joynr.statusmetrics.MessageRouterMetricsRecorder;
+import io.joynr.statusmetrics.MessageRouterMetricsSnapshot;
 import io.joynr.statusmetrics.StatusReceiver;
 import io.joynr.runtime.ShutdownNotifier;
 import io.joynr.messaging.routing.TestGlobalAddressModule;
+import io.joynr.messaging.serialize.JsonPayloadCodec;
+import io.joynr.messaging.serialize.PayloadCodec;
+import io.joynr.messaging.serialize.PayloadCodecRegistry;
 import joynr.ImmutableMessage;
 import joynr.Message;
 import joynr.MulticastPublication;
@@ -115,7 +123,7 @@ public class CcMessageRouterTest {
     private final int maximumParallelSends = 1;
 
     private RoutingTable routingTable = spy(new RoutingTableImpl());
-    InMemoryMulticastReceiverRegistry multicastReceiverRegistry = new InMemoryMulticastReceiverRegistry(new MulticastWildcardRegexFactory());
+    InMemoryMulticastReceiverRegistry multicastReceiverRegistry = new InMemoryMulticastReceiverRegistry();
     private AddressManager addressManager = spy(new AddressManager(routingTable,
                                                                    new AddressManager.PrimaryGlobalTransportHolder(null),
                                                                    Sets.<MulticastAddressCalculator> newHashSet(),
@@ -131,6 +139,7 @@ public class CcMessageRouterTest {
     private StatusReceiver statusReceiver;
     @Mock
     private ShutdownNotifier shutdownNotifier;
+    private MessageRouterMetricsRecorder messageRouterMetrics = new MessageRouterMetricsRecorder();
 
     private MessageRouter messageRouter;
     private MutableMessage joynrMessage;
@@ -173,6 +182,7 @@ public class CcMessageRouterTest {
 
                 bind(AccessController.class).toInstance(Mockito.mock(AccessController.class));
                 bind(StatusReceiver.class).toInstance(statusReceiver);
+                bind(MessageRouterMetrics.class).toInstance(messageRouterMetrics);
 
                 MapBinder<Class<? extends Address>, AbstractMiddlewareMessagingStubFactory<? extends IMessagingStub, ? extends Address>> messagingStubFactory;
                 messagingStubFactory = MapBinder.newMapBinder(binder(),
@@ -215,7 +225,9 @@ public class CcMessageRouterTest {
         messageRouter = injector.getInstance(MessageRouter.class);
 
         ObjectMapper objectMapper = new ObjectMapper();
-        messageFactory = new MutableMessageFactory(objectMapper, new HashSet<JoynrMessageProcessor>());
+        PayloadCodecRegistry payloadCodecRegistry = new PayloadCodecRegistry(new JsonPayloadCodec(objectMapper),
+                                                                             Collections.<String, PayloadCodec> emptyMap());
+        messageFactory = new MutableMessageFactory(payloadCodecRegistry, new HashSet<JoynrMessageProcessor>());
 
         final boolean isGloballyVisible = true; // toParticipantId is globally visible
         final long expiryDateMs = Long.MAX_VALUE;
@@ -259,6 +271,51 @@ public class CcMessageRouterTest {
         fail("scheduling an expired message should throw");
     }
 
+    @Test
+    public void testMetricsRecordTransmittedMessage() throws Exception {
+        joynrMessage.setTtlMs(ExpiryDate.fromRelativeTtl(100000000).getValue());
+        joynrMessage.setTtlAbsolute(true);
+        ImmutableMessage immutableMessage = joynrMessage.getImmutableMessage();
+        ArgumentCaptor<SuccessAction> successActionCaptor = ArgumentCaptor.forClass(SuccessAction.class);
+
+        messageRouter.route(immutableMessage);
+        verify(messagingStubMock, timeout(1000)).transmit(eq(immutableMessage),
+                                                          successActionCaptor.capture(),
+                                                          any(FailureAction.class));
+        successActionCaptor.getValue().execute();
+
+        MessageRouterMetricsSnapshot.MessageTypeMetrics metrics = messageRouterMetrics.getSnapshot()
+                                                                                      .getMessageTypeMetrics()
+                                                                                      .get(Message.VALUE_MESSAGE_TYPE_REQUEST);
+        assertEquals(1, metrics.getQueued());
+        assertEquals(0, metrics.getQueueDepth());
+        assertEquals(1, metrics.getTimeInQueue().getCount());
+        MessageRouterMetricsSnapshot.DestinationMetrics destinationMetrics = metrics.getDestinationMetrics()
+                                                                                    .get(ChannelAddress.class.getSimpleName());
+        assertEquals(1, destinationMetrics.getTransmitted());
+        assertEquals(1, destinationMetrics.getTransmitLatency().getCount());
+    }
+
+    @Test
+    public void testMetricsRecordExpiredMessage() throws Exception {
+        joynrMessage.setTtlMs(ExpiryDate.fromRelativeTtl(1).getValue());
+        joynrMessage.setTtlAbsolute(true);
+        ImmutableMessage immutableMessage = joynrMessage.getImmutableMessage();
+
+        Thread.sleep(5);
+        try {
+            messageRouter.route(immutableMessage);
+            fail("scheduling an expired message should throw");
+        } catch (JoynrMessageNotSentException e) {
+        }
+
+        MessageRouterMetricsSnapshot.MessageTypeMetrics metrics = messageRouterMetrics.getSnapshot()
+                                                                                      .getMessageTypeMetrics()
+                                                                                      .get(Message.VALUE_MESSAGE_TYPE_REQUEST);
+        assertEquals(1, metrics.getDropped(DropReason.EXPIRED));
+        assertEquals(0, metrics.getQueued());
+    }
+
     @Test
     public void testRetryForNoParticipantFound() throws Exception {
         joynrMessage.setTtlMs(ExpiryDate.fromRelativeTtl(100000).getValue());
@@ -748,6 +805,78 @@ public class CcMessageRouterTest {
         assertTrue(passedDelaybleMessage.getAllValues().get(0).getDelay(TimeUnit.MILLISECONDS) <= 0);
     }
 
+    @Test(timeout = 5000)
+    public void testSlowDestinationDoesNotBlockOtherDestinationsWithPerDestinationQueues() throws Exception {
+        final int numberOfWorkers = 4;
+        final int slowMessageLoad = 20;
+        Module perDestinationModule = Modules.override(testModule).with(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Integer.class).annotatedWith(Names.named(ConfigurableMessagingSettings.PROPERTY_MESSAGING_MAXIMUM_PARALLEL_SENDS))
+                                   .toInstance(numberOfWorkers);
+                bindConstant().annotatedWith(Names.named(ConfigurableMessagingSettings.PROPERTY_ROUTING_QUEUE_MODE))
+                              .to(ConfigurableMessagingSettings.ROUTING_QUEUE_MODE_PER_DESTINATION);
+            }
+
+            @Provides
+            @Named(MessageRouter.SCHEDULEDTHREADPOOL)
+            ScheduledExecutorService provideMessageSchedulerThreadPoolExecutor() {
+                return new ScheduledThreadPoolExecutor(numberOfWorkers + 1);
+            }
+        });
+        messageRouter = Guice.createInjector(perDestinationModule).getInstance(MessageRouter.class);
+
+        ChannelAddress slowAddress = new ChannelAddress("http://slowUrl", "slowChannel");
+        IMessagingStub slowMessagingStub = mock(IMessagingStub.class);
+        when(middlewareMessagingStubFactoryMock.create(eq(slowAddress))).thenReturn(slowMessagingStub);
+        final Semaphore slowDestinationReleased = new Semaphore(0);
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                // simulates a blocking transmit to an unreachable destination
+                slowDestinationReleased.acquire();
+                return null;
+            }
+        }).when(slowMessagingStub).transmit(any(ImmutableMessage.class),
+                                            any(SuccessAction.class),
+                                            any(FailureAction.class));
+
+        Set<Address> slowAddressSet = new HashSet<>();
+        slowAddressSet.add(slowAddress);
+        for (int i = 0; i < slowMessageLoad; i++) {
+            ImmutableMessage slowMessage = mock(ImmutableMessage.class);
+            when(slowMessage.isTtlAbsolute()).thenReturn(true);
+            when(slowMessage.getTtlMs()).thenReturn(ExpiryDate.fromRelativeTtl(60000L).getValue());
+            when(slowMessage.getRecipient()).thenReturn("slowParticipant");
+            when(slowMessage.getId()).thenReturn("slow-" + i);
+            Mockito.doReturn(slowAddressSet).when(addressManager).getAddresses(slowMessage);
+            messageRouter.route(slowMessage);
+        }
+
+        joynrMessage.setTtlMs(ExpiryDate.fromRelativeTtl(60000L).getValue());
+        joynrMessage.setTtlAbsolute(true);
+        ImmutableMessage immutableMessage = joynrMessage.getImmutableMessage();
+        final Semaphore fastMessageTransmitted = new Semaphore(0);
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                fastMessageTransmitted.release();
+                return null;
+            }
+        }).when(messagingStubMock).transmit(eq(immutableMessage), any(SuccessAction.class), any(FailureAction.class));
+        messageRouter.route(immutableMessage);
+
+        try {
+            assertTrue(fastMessageTransmitted.tryAcquire(1000, TimeUnit.MILLISECONDS));
+            // only one worker at a time is allowed to be stuck on the slow destination
+            verify(slowMessagingStub, times(1)).transmit(any(ImmutableMessage.class),
+                                                         any(SuccessAction.class),
+                                                         any(FailureAction.class));
+        } finally {
+            slowDestinationReleased.release(slowMessageLoad);
+        }
+    }
+
     @Test
     public void testShutdown() throws InterruptedException {
         verify(shutdownNotifier).registerForShutdown((CcMessageRouter) messageRouter);
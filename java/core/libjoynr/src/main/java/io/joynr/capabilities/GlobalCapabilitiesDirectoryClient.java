@@ -18,11 +18,25 @@
  */
 package io.joynr.capabilities;
 
+import static io.joynr.runtime.JoynrInjectionConstants.JOYNR_SCHEDULER_CLEANUP;
 import static io.joynr.runtime.SystemServicesSettings.PROPERTY_CAPABILITIES_FRESHNESS_UPDATE_INTERVAL_MS;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
@@ -40,11 +54,27 @@ import io.joynr.proxy.ProxyBuilderFactory;
 import joynr.infrastructure.GlobalCapabilitiesDirectoryProxy;
 import joynr.types.GlobalDiscoveryEntry;
 
+/**
+ * Client of the global capabilities directory.
+ * <p>
+ * Adds, removes and lookups by domains are coalesced: the first request is sent immediately and
+ * opens a batch window. Requests arriving within the window are sent together at its end, or as
+ * soon as the maximum batch size is reached, using the bulk methods of the GlobalCapabilitiesDirectory.
+ * Pending adds are sent before a remove and pending removes before an add, so that the
+ * GlobalCapabilitiesDirectory receives them in the order in which they were requested.
+ * Lookups for the same domains and interface, or for the same participantId, which are issued while
+ * such a lookup is in flight, share its result instead of sending another request.
+ */
 public class GlobalCapabilitiesDirectoryClient {
+    private static final Logger logger = LoggerFactory.getLogger(GlobalCapabilitiesDirectoryClient.class);
+
     private static final long DEFAULT_TTL_ADD_AND_REMOVE = 30L * 24L * 60L * 60L * 1000L;
+    private static final long DEFAULT_BATCH_WINDOW_MS = 10;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 100;
     private final String domain;
     private final DiscoveryQos discoveryQos;
     private final ProxyBuilderFactory proxyBuilderFactory;
+    private final ScheduledExecutorService scheduler;
     private GlobalCapabilitiesDirectoryProxy touchProxy;
     private GlobalCapabilitiesDirectoryProxy addAndRemoveProxy;
     @Inject
@@ -58,11 +88,46 @@ public class GlobalCapabilitiesDirectoryClient {
     @Named(ConfigurableMessagingSettings.PROPERTY_DISCOVERY_GLOBAL_ADD_AND_REMOVE_TTL_MS)
     private long ttlAddAndRemoveMs = DEFAULT_TTL_ADD_AND_REMOVE;
 
+    @Inject(optional = true)
+    @Named(ConfigurableMessagingSettings.PROPERTY_DISCOVERY_GLOBAL_BATCH_WINDOW_MS)
+    private long batchWindowMs = DEFAULT_BATCH_WINDOW_MS;
+
+    @Inject(optional = true)
+    @Named(ConfigurableMessagingSettings.PROPERTY_DISCOVERY_GLOBAL_MAX_BATCH_SIZE)
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+    private final Batcher<AddRequest> addBatcher = new Batcher<AddRequest>() {
+        @Override
+        protected void send(List<AddRequest> batch) {
+            sendAdd(batch);
+        }
+    };
+
+    private final Batcher<RemoveRequest> removeBatcher = new Batcher<RemoveRequest>() {
+        @Override
+        protected void send(List<RemoveRequest> batch) {
+            sendRemove(batch);
+        }
+    };
+
+    private final Batcher<DomainsLookup> domainsLookupBatcher = new Batcher<DomainsLookup>() {
+        @Override
+        protected void send(List<DomainsLookup> batch) {
+            sendDomainsLookup(batch);
+        }
+    };
+
+    // lookups in flight, accessed while holding the lock of the map
+    private final Map<DomainsLookupKey, DomainsLookup> pendingDomainsLookups = new HashMap<>();
+    private final Map<String, List<Callback<GlobalDiscoveryEntry>>> pendingParticipantIdLookups = new HashMap<>();
+
     @Inject
     public GlobalCapabilitiesDirectoryClient(ProxyBuilderFactory proxyBuilderFactory,
-                                             @Named(MessagingPropertyKeys.CAPABILITIES_DIRECTORY_DISCOVERY_ENTRY) GlobalDiscoveryEntry capabilitiesDirectoryEntry) {
+                                             @Named(MessagingPropertyKeys.CAPABILITIES_DIRECTORY_DISCOVERY_ENTRY) GlobalDiscoveryEntry capabilitiesDirectoryEntry,
+                                             @Named(JOYNR_SCHEDULER_CLEANUP) ScheduledExecutorService scheduler) {
         this.proxyBuilderFactory = proxyBuilderFactory;
         this.domain = capabilitiesDirectoryEntry.getDomain();
+        this.scheduler = scheduler;
         this.discoveryQos = new DiscoveryQos(30000,
                                              ArbitrationStrategy.HighestPriority,
                                              DiscoveryQos.NO_MAX_AGE,
@@ -84,52 +149,411 @@ public class GlobalCapabilitiesDirectoryClient {
     }
 
     public void add(Callback<Void> callback, GlobalDiscoveryEntry globalDiscoveryEntry) {
-        getAddAndRemoveProxy().add(callback, globalDiscoveryEntry);
+        removeBatcher.flush();
+        addBatcher.submit(new AddRequest(callback, globalDiscoveryEntry));
     }
 
     public void remove(Callback<Void> callback, String participantId) {
-        getAddAndRemoveProxy().remove(callback, participantId);
+        addBatcher.flush();
+        removeBatcher.submit(new RemoveRequest(callback, participantId));
     }
 
     public void remove(Callback<Void> callback, List<String> participantIds) {
-        getAddAndRemoveProxy().remove(callback, participantIds.toArray(new String[participantIds.size()]));
+        addBatcher.flush();
+        removeBatcher.submit(new RemoveRequest(callback, participantIds));
     }
 
-    public void lookup(Callback<GlobalDiscoveryEntry> callback, String participantId, long ttl) {
-        getProxy(ttl).lookup(callback, participantId);
+    public void lookup(Callback<GlobalDiscoveryEntry> callback, final String participantId, long ttl) {
+        synchronized (pendingParticipantIdLookups) {
+            List<Callback<GlobalDiscoveryEntry>> callbacks = pendingParticipantIdLookups.get(participantId);
+            if (callbacks != null) {
+                callbacks.add(callback);
+                return;
+            }
+            callbacks = new ArrayList<>();
+            callbacks.add(callback);
+            pendingParticipantIdLookups.put(participantId, callbacks);
+        }
+        try {
+            getProxy(ttl).lookup(new Callback<GlobalDiscoveryEntry>() {
+                @Override
+                public void onFailure(JoynrRuntimeException error) {
+                    for (Callback<GlobalDiscoveryEntry> callback : completeParticipantIdLookup(participantId)) {
+                        callback.onFailure(error);
+                    }
+                }
+
+                @Override
+                public void onSuccess(GlobalDiscoveryEntry result) {
+                    for (Callback<GlobalDiscoveryEntry> callback : completeParticipantIdLookup(participantId)) {
+                        callback.onSuccess(result);
+                    }
+                }
+            }, participantId);
+        } catch (JoynrRuntimeException e) {
+            for (Callback<GlobalDiscoveryEntry> pendingCallback : completeParticipantIdLookup(participantId)) {
+                pendingCallback.onFailure(e);
+            }
+        }
+    }
+
+    private List<Callback<GlobalDiscoveryEntry>> completeParticipantIdLookup(String participantId) {
+        synchronized (pendingParticipantIdLookups) {
+            return pendingParticipantIdLookups.remove(participantId);
+        }
     }
 
     public void lookup(final Callback<List<GlobalDiscoveryEntry>> callback,
                        String[] domains,
                        String interfaceName,
                        long ttl) {
-        getProxy(ttl).lookup(new Callback<GlobalDiscoveryEntry[]>() {
-            @Override
-            public void onFailure(JoynrRuntimeException error) {
-                callback.onFailure(error);
+        DomainsLookupKey key = new DomainsLookupKey(domains, interfaceName);
+        DomainsLookup lookup;
+        synchronized (pendingDomainsLookups) {
+            lookup = pendingDomainsLookups.get(key);
+            if (lookup != null) {
+                lookup.callbacks.add(callback);
+                return;
+            }
+            lookup = new DomainsLookup(key, domains, interfaceName, ttl, callback);
+            pendingDomainsLookups.put(key, lookup);
+        }
+        domainsLookupBatcher.submit(lookup);
+    }
+
+    public void touch() {
+        if (touchProxy == null) {
+            touchProxy = getProxy(freshnessUpdateIntervalMs);
+        }
+        touchProxy.touch(localChannelId);
+    }
+
+    private void sendAdd(List<AddRequest> batch) {
+        try {
+            if (batch.size() == 1) {
+                getAddAndRemoveProxy().add(batch.get(0).callback, batch.get(0).globalDiscoveryEntry);
+                return;
+            }
+            GlobalDiscoveryEntry[] globalDiscoveryEntries = new GlobalDiscoveryEntry[batch.size()];
+            List<Callback<Void>> callbacks = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                globalDiscoveryEntries[i] = batch.get(i).globalDiscoveryEntry;
+                callbacks.add(batch.get(i).callback);
             }
+            logger.debug("adding {} global discovery entries in one request", globalDiscoveryEntries.length);
+            getAddAndRemoveProxy().add(new VoidCallbacks(callbacks), globalDiscoveryEntries);
+        } catch (JoynrRuntimeException e) {
+            for (AddRequest request : batch) {
+                request.callback.onFailure(e);
+            }
+        }
+    }
 
-            @Override
-            public void onSuccess(GlobalDiscoveryEntry[] result) {
-                List<GlobalDiscoveryEntry> globalDiscoveryEntryList;
+    private void sendRemove(List<RemoveRequest> batch) {
+        try {
+            if (batch.size() == 1 && batch.get(0).participantId != null) {
+                getAddAndRemoveProxy().remove(batch.get(0).callback, batch.get(0).participantId);
+                return;
+            }
+            if (batch.size() == 1) {
+                List<String> participantIds = batch.get(0).participantIds;
+                getAddAndRemoveProxy().remove(batch.get(0).callback,
+                                              participantIds.toArray(new String[participantIds.size()]));
+                return;
+            }
+            List<String> participantIds = new ArrayList<>();
+            List<Callback<Void>> callbacks = new ArrayList<>(batch.size());
+            for (RemoveRequest request : batch) {
+                participantIds.addAll(request.participantIds);
+                callbacks.add(request.callback);
+            }
+            logger.debug("removing {} global discovery entries in one request", participantIds.size());
+            getAddAndRemoveProxy().remove(new VoidCallbacks(callbacks),
+                                          participantIds.toArray(new String[participantIds.size()]));
+        } catch (JoynrRuntimeException e) {
+            for (RemoveRequest request : batch) {
+                request.callback.onFailure(e);
+            }
+        }
+    }
 
-                if (result == null) {
-                    globalDiscoveryEntryList = new ArrayList<GlobalDiscoveryEntry>();
+    private void sendDomainsLookup(List<DomainsLookup> batch) {
+        Map<String, List<DomainsLookup>> lookupsByInterface = new LinkedHashMap<>();
+        for (DomainsLookup lookup : batch) {
+            List<DomainsLookup> lookups = lookupsByInterface.get(lookup.interfaceName);
+            if (lookups == null) {
+                lookups = new ArrayList<>();
+                lookupsByInterface.put(lookup.interfaceName, lookups);
+            }
+            lookups.add(lookup);
+        }
+        for (Map.Entry<String, List<DomainsLookup>> entry : lookupsByInterface.entrySet()) {
+            final List<DomainsLookup> lookups = entry.getValue();
+            String[] domains;
+            long ttl;
+            if (lookups.size() == 1) {
+                domains = lookups.get(0).domains;
+                ttl = lookups.get(0).ttl;
+            } else {
+                Set<String> mergedDomains = new LinkedHashSet<>();
+                ttl = 0;
+                for (DomainsLookup lookup : lookups) {
+                    mergedDomains.addAll(Arrays.asList(lookup.domains));
+                    ttl = Math.max(ttl, lookup.ttl);
+                }
+                domains = mergedDomains.toArray(new String[mergedDomains.size()]);
+                logger.debug("looking up {} domains of interface {} for {} lookups in one request",
+                             domains.length,
+                             entry.getKey(),
+                             lookups.size());
+            }
+            try {
+                getProxy(ttl).lookup(new Callback<GlobalDiscoveryEntry[]>() {
+                    @Override
+                    public void onFailure(JoynrRuntimeException error) {
+                        for (DomainsLookup lookup : lookups) {
+                            lookup.fail(error);
+                        }
+                    }
+
+                    @Override
+                    public void onSuccess(GlobalDiscoveryEntry[] result) {
+                        List<GlobalDiscoveryEntry> globalDiscoveryEntryList;
+
+                        if (result == null) {
+                            globalDiscoveryEntryList = new ArrayList<GlobalDiscoveryEntry>();
+                        } else {
+                            globalDiscoveryEntryList = Arrays.asList(result);
+                        }
+                        if (lookups.size() == 1) {
+                            lookups.get(0).succeed(globalDiscoveryEntryList);
+                            return;
+                        }
+                        for (DomainsLookup lookup : lookups) {
+                            lookup.succeed(lookup.filterByDomain(globalDiscoveryEntryList));
+                        }
+                    }
+
+                }, domains, entry.getKey());
+            } catch (JoynrRuntimeException e) {
+                for (DomainsLookup lookup : lookups) {
+                    lookup.fail(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects requests within the batch window and hands them over in batches.
+     */
+    private abstract class Batcher<T> {
+        private List<T> pendingRequests = new ArrayList<>();
+        private boolean windowOpen;
+
+        void submit(T request) {
+            List<T> batch = null;
+            synchronized (this) {
+                if (!windowOpen) {
+                    windowOpen = batchWindowMs > 0 && scheduleEndOfWindow();
+                    batch = Collections.singletonList(request);
                 } else {
-                    globalDiscoveryEntryList = Arrays.asList(result);
+                    pendingRequests.add(request);
+                    if (pendingRequests.size() >= maxBatchSize) {
+                        batch = takePendingRequests();
+                    }
                 }
-                callback.onSuccess(globalDiscoveryEntryList);
             }
+            if (batch != null) {
+                send(batch);
+            }
+        }
 
-        }, domains, interfaceName);
+        /**
+         * Sends the pending requests now, e.g. before a request of another kind which must not overtake them.
+         */
+        void flush() {
+            List<T> batch;
+            synchronized (this) {
+                if (pendingRequests.isEmpty()) {
+                    return;
+                }
+                batch = takePendingRequests();
+            }
+            send(batch);
+        }
+
+        private List<T> takePendingRequests() {
+            List<T> batch = pendingRequests;
+            pendingRequests = new ArrayList<>();
+            return batch;
+        }
+
+        private boolean scheduleEndOfWindow() {
+            try {
+                scheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        endOfWindow();
+                    }
+                }, batchWindowMs, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (RejectedExecutionException e) {
+                logger.debug("batching of global capabilities directory requests not possible: {}", e.getMessage());
+                return false;
+            }
+        }
+
+        private void endOfWindow() {
+            List<T> batch;
+            synchronized (this) {
+                batch = takePendingRequests();
+                // keep the window open as long as requests arrive
+                windowOpen = !batch.isEmpty() && scheduleEndOfWindow();
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    send(batch);
+                } catch (RuntimeException e) {
+                    logger.error("error sending batch of global capabilities directory requests", e);
+                }
+            }
+        }
 
+        protected abstract void send(List<T> batch);
     }
 
-    public void touch() {
-        if (touchProxy == null) {
-            touchProxy = getProxy(freshnessUpdateIntervalMs);
+    private static class AddRequest {
+        private final Callback<Void> callback;
+        private final GlobalDiscoveryEntry globalDiscoveryEntry;
+
+        AddRequest(Callback<Void> callback, GlobalDiscoveryEntry globalDiscoveryEntry) {
+            this.callback = callback;
+            this.globalDiscoveryEntry = globalDiscoveryEntry;
+        }
+    }
+
+    private static class RemoveRequest {
+        private final Callback<Void> callback;
+        private final List<String> participantIds;
+        // set if a single participantId was removed, which is sent as such if it is not batched
+        private final String participantId;
+
+        RemoveRequest(Callback<Void> callback, List<String> participantIds) {
+            this.callback = callback;
+            this.participantIds = participantIds;
+            this.participantId = null;
+        }
+
+        RemoveRequest(Callback<Void> callback, String participantId) {
+            this.callback = callback;
+            this.participantIds = Collections.singletonList(participantId);
+            this.participantId = participantId;
         }
-        touchProxy.touch(localChannelId);
     }
 
+    /**
+     * Forwards the result of a bulk add or remove to the callbacks of all coalesced requests.
+     */
+    private static class VoidCallbacks extends Callback<Void> {
+        private final List<Callback<Void>> callbacks;
+
+        VoidCallbacks(List<Callback<Void>> callbacks) {
+            this.callbacks = callbacks;
+        }
+
+        @Override
+        public void onSuccess(Void result) {
+            for (Callback<Void> callback : callbacks) {
+                callback.onSuccess(result);
+            }
+        }
+
+        @Override
+        public void onFailure(JoynrRuntimeException error) {
+            for (Callback<Void> callback : callbacks) {
+                callback.onFailure(error);
+            }
+        }
+    }
+
+    private static class DomainsLookupKey {
+        private final Set<String> domains;
+        private final String interfaceName;
+
+        DomainsLookupKey(String[] domains, String interfaceName) {
+            this.domains = new HashSet<>(Arrays.asList(domains));
+            this.interfaceName = interfaceName;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * domains.hashCode() + (interfaceName == null ? 0 : interfaceName.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof DomainsLookupKey)) {
+                return false;
+            }
+            DomainsLookupKey other = (DomainsLookupKey) obj;
+            return domains.equals(other.domains)
+                    && (interfaceName == null ? other.interfaceName == null : interfaceName.equals(other.interfaceName));
+        }
+    }
+
+    private class DomainsLookup {
+        private final DomainsLookupKey key;
+        private final String[] domains;
+        private final String interfaceName;
+        private final long ttl;
+        // domains are compared case-insensitively when the result of a merged lookup is split up
+        private final Set<String> lowerCaseDomains = new HashSet<>();
+        // guarded by pendingDomainsLookups
+        private final List<Callback<List<GlobalDiscoveryEntry>>> callbacks = new ArrayList<>();
+
+        DomainsLookup(DomainsLookupKey key,
+                      String[] domains,
+                      String interfaceName,
+                      long ttl,
+                      Callback<List<GlobalDiscoveryEntry>> callback) {
+            this.key = key;
+            this.domains = domains;
+            this.interfaceName = interfaceName;
+            this.ttl = ttl;
+            for (String domain : domains) {
+                lowerCaseDomains.add(domain.toLowerCase());
+            }
+            callbacks.add(callback);
+        }
+
+        List<GlobalDiscoveryEntry> filterByDomain(List<GlobalDiscoveryEntry> globalDiscoveryEntries) {
+            List<GlobalDiscoveryEntry> result = new ArrayList<>();
+            for (GlobalDiscoveryEntry globalDiscoveryEntry : globalDiscoveryEntries) {
+                String domain = globalDiscoveryEntry.getDomain();
+                if (domain != null && lowerCaseDomains.contains(domain.toLowerCase())) {
+                    result.add(globalDiscoveryEntry);
+                }
+            }
+            return result;
+        }
+
+        private List<Callback<List<GlobalDiscoveryEntry>>> complete() {
+            synchronized (pendingDomainsLookups) {
+                pendingDomainsLookups.remove(key);
+                return new ArrayList<>(callbacks);
+            }
+        }
+
+        void succeed(List<GlobalDiscoveryEntry> globalDiscoveryEntries) {
+            for (Callback<List<GlobalDiscoveryEntry>> callback : complete()) {
+                callback.onSuccess(globalDiscoveryEntries);
+            }
+        }
+
+        void fail(JoynrRuntimeException error) {
+            for (Callback<List<GlobalDiscoveryEntry>> callback : complete()) {
+                callback.onFailure(error);
+            }
+        }
+    }
 }
@@ -19,6 +19,7 @@
 package io.joynr.dispatching;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -30,7 +31,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.google.common.base.Charsets;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
@@ -42,6 +44,10 @@ import io.joynr.exceptions.JoynrRuntimeException;
 import io.joynr.messaging.MessagingPropertyKeys;
 import io.joynr.messaging.MessagingQos;
 import io.joynr.messaging.routing.MessageRouter;
+import io.joynr.messaging.serialize.JsonPayloadCodec;
+import io.joynr.messaging.serialize.PayloadCodec;
+import io.joynr.messaging.serialize.PayloadCodecRegistry;
+import io.joynr.messaging.serialize.PublicationTypeResolver;
 import io.joynr.messaging.sender.MessageSender;
 import io.joynr.provider.ProviderCallback;
 import io.joynr.smrf.EncodingException;
@@ -68,7 +74,9 @@ public class DispatcherImpl implements Dispatcher {
     private PublicationManager publicationManager;
     private final MessageRouter messageRouter;
     private final MessageSender messageSender;
-    private ObjectMapper objectMapper;
+    private final PayloadCodecRegistry payloadCodecRegistry;
+    // lets the payload codecs deserialize publications directly into the out parameter types of the subscriptions
+    private final Map<String, PublicationTypeResolver> publicationDeserializationAttributes;
     private boolean overrideCompress;
 
     @Inject
@@ -80,7 +88,7 @@ public class DispatcherImpl implements Dispatcher {
                           MessageRouter messageRouter,
                           MessageSender messageSender,
                           MutableMessageFactory messageFactory,
-                          ObjectMapper objectMapper,
+                          PayloadCodecRegistry payloadCodecRegistry,
                           @Named(MessagingPropertyKeys.PROPERTY_MESSAGING_COMPRESS_REPLIES) boolean overrideCompress) {
         this.requestReplyManager = requestReplyManager;
         this.subscriptionManager = subscriptionManager;
@@ -88,7 +96,9 @@ public class DispatcherImpl implements Dispatcher {
         this.messageRouter = messageRouter;
         this.messageSender = messageSender;
         this.messageFactory = messageFactory;
-        this.objectMapper = objectMapper;
+        this.payloadCodecRegistry = payloadCodecRegistry;
+        this.publicationDeserializationAttributes = Collections.<String, PublicationTypeResolver> singletonMap(PublicationTypeResolver.ATTRIBUTE_KEY,
+                                                                                                               new SubscriptionTypeResolver());
         this.overrideCompress = overrideCompress;
     }
 
@@ -204,31 +214,42 @@ public class DispatcherImpl implements Dispatcher {
             return;
         }
 
-        String payload;
+        byte[] payload;
 
         try {
-            payload = new String(message.getUnencryptedBody(), Charsets.UTF_8);
+            payload = message.getUnencryptedBody();
         } catch (EncodingException e) {
             logger.error("Error reading SMRF message. msgId: {}. from: {} to: {}. Reason: {}. Discarding joynr message.",
                          new Object[]{ message.getSender(), message.getRecipient(), message.getId(), e.getMessage() });
             return;
         }
 
+        PayloadCodec payloadCodec = payloadCodecRegistry.getCodec(message.getPayloadCodec());
+        if (payloadCodec == null) {
+            logger.error("Unsupported payload codec {}. msgId: {}. from: {} to: {}. Discarding joynr message.",
+                         message.getPayloadCodec(),
+                         message.getId(),
+                         message.getSender(),
+                         message.getRecipient());
+            return;
+        }
+        payloadCodecRegistry.registerAcceptedCodec(message.getSender(), message.getAcceptedPayloadCodec());
+
         String type = message.getType();
         try {
             if (Message.VALUE_MESSAGE_TYPE_REPLY.equals(type)) {
-                Reply reply = objectMapper.readValue(payload, Reply.class);
-                logger.trace("Parsed reply from message payload :" + payload);
+                Reply reply = payloadCodec.deserialize(payload, Reply.class);
+                traceParsedPayload("reply", payload, payloadCodec);
                 handle(reply);
             } else if (Message.VALUE_MESSAGE_TYPE_SUBSCRIPTION_REPLY.equals(type)) {
-                SubscriptionReply subscriptionReply = objectMapper.readValue(payload, SubscriptionReply.class);
-                logger.trace("Parsed subscription reply from message payload :" + payload);
+                SubscriptionReply subscriptionReply = payloadCodec.deserialize(payload, SubscriptionReply.class);
+                traceParsedPayload("subscription reply", payload, payloadCodec);
                 handle(subscriptionReply);
             } else if (Message.VALUE_MESSAGE_TYPE_REQUEST.equals(type)) {
-                final Request request = objectMapper.readValue(payload, Request.class);
+                final Request request = payloadCodec.deserialize(payload, Request.class);
                 request.setCreatorUserId(message.getCreatorUserId());
                 request.setContext(message.getContext());
-                logger.trace("Parsed request from message payload :" + payload);
+                traceParsedPayload("request", payload, payloadCodec);
                 handle(request,
                        message.getSender(),
                        message.getRecipient(),
@@ -236,28 +257,32 @@ public class DispatcherImpl implements Dispatcher {
                        customHeaders,
                        message.isCompressed());
             } else if (Message.VALUE_MESSAGE_TYPE_ONE_WAY.equals(type)) {
-                OneWayRequest oneWayRequest = objectMapper.readValue(payload, OneWayRequest.class);
+                OneWayRequest oneWayRequest = payloadCodec.deserialize(payload, OneWayRequest.class);
                 oneWayRequest.setCreatorUserId(message.getCreatorUserId());
                 oneWayRequest.setContext(message.getContext());
-                logger.trace("Parsed one way request from message payload :" + payload);
+                traceParsedPayload("one way request", payload, payloadCodec);
                 handle(oneWayRequest, message.getRecipient(), expiryDate);
             } else if (Message.VALUE_MESSAGE_TYPE_SUBSCRIPTION_REQUEST.equals(type)
                     || Message.VALUE_MESSAGE_TYPE_BROADCAST_SUBSCRIPTION_REQUEST.equals(type)
                     || Message.VALUE_MESSAGE_TYPE_MULTICAST_SUBSCRIPTION_REQUEST.equals(type)) {
-                SubscriptionRequest subscriptionRequest = objectMapper.readValue(payload, SubscriptionRequest.class);
-                logger.trace("Parsed subscription request from message payload :" + payload);
+                SubscriptionRequest subscriptionRequest = payloadCodec.deserialize(payload, SubscriptionRequest.class);
+                traceParsedPayload("subscription request", payload, payloadCodec);
                 handle(subscriptionRequest, message.getSender(), message.getRecipient());
             } else if (Message.VALUE_MESSAGE_TYPE_SUBSCRIPTION_STOP.equals(type)) {
-                SubscriptionStop subscriptionStop = objectMapper.readValue(payload, SubscriptionStop.class);
-                logger.trace("Parsed subscription stop from message payload :" + payload);
+                SubscriptionStop subscriptionStop = payloadCodec.deserialize(payload, SubscriptionStop.class);
+                traceParsedPayload("subscription stop", payload, payloadCodec);
                 handle(subscriptionStop);
             } else if (Message.VALUE_MESSAGE_TYPE_PUBLICATION.equals(type)) {
-                SubscriptionPublication publication = objectMapper.readValue(payload, SubscriptionPublication.class);
-                logger.trace("Parsed publication from message payload :" + payload);
+                SubscriptionPublication publication = payloadCodec.deserialize(payload,
+                                                                               SubscriptionPublication.class,
+                                                                               publicationDeserializationAttributes);
+                traceParsedPayload("publication", payload, payloadCodec);
                 handle(publication);
             } else if (Message.VALUE_MESSAGE_TYPE_MULTICAST.equals(type)) {
-                MulticastPublication multicastPublication = objectMapper.readValue(payload, MulticastPublication.class);
-                logger.trace("Parsed multicast publication from message payload: {}", payload);
+                MulticastPublication multicastPublication = payloadCodec.deserialize(payload,
+                                                                                     MulticastPublication.class,
+                                                                                     publicationDeserializationAttributes);
+                traceParsedPayload("multicast publication", payload, payloadCodec);
                 handle(multicastPublication);
             }
         } catch (IOException e) {
@@ -270,6 +295,18 @@ public class DispatcherImpl implements Dispatcher {
         }
     }
 
+    private void traceParsedPayload(String messageKind, byte[] payload, PayloadCodec payloadCodec) {
+        if (!logger.isTraceEnabled()) {
+            return;
+        }
+        if (JsonPayloadCodec.NAME.equals(payloadCodec.getName())) {
+            logger.trace("Parsed {} from message payload: {}", messageKind, new String(payload, Charsets.UTF_8));
+        } else {
+            logger.trace("Parsed {} from {} bytes of {} message payload", new Object[]{ messageKind, payload.length,
+                    payloadCodec.getName() });
+        }
+    }
+
     private void handle(final Request request,
                         final String fromParticipantId,
                         final String toParticipantId,
@@ -337,36 +374,41 @@ public class DispatcherImpl implements Dispatcher {
         }
 
         String type = message.getType();
-        String payload;
+        byte[] payload;
 
         try {
-            payload = new String(message.getUnencryptedBody(), Charsets.UTF_8);
+            payload = message.getUnencryptedBody();
         } catch (EncodingException e) {
             logger.error("Error extracting payload for message {}. Reason: {}",
                          new Object[]{ message.getId(), e.getMessage() });
             return;
         }
 
+        PayloadCodec payloadCodec = payloadCodecRegistry.getCodec(message.getPayloadCodec());
+        if (payloadCodec == null) {
+            logger.error("Error extracting payload for message {}. Reason: unsupported payload codec {}",
+                         message.getId(),
+                         message.getPayloadCodec());
+            return;
+        }
+
         try {
             if (type.equals(Message.VALUE_MESSAGE_TYPE_REQUEST)) {
-                Request request = objectMapper.readValue(payload, Request.class);
+                Request request = payloadCodec.deserialize(payload, Request.class);
                 requestReplyManager.handleError(request, error);
             }
         } catch (IOException e) {
-            logger.error("Error extracting payload for message " + message.getId() + ", raw payload: " + payload,
-                         e.getMessage());
+            logger.error("Error extracting payload for message " + message.getId() + ", raw payload: "
+                    + new String(payload, Charsets.UTF_8), e.getMessage());
         }
     }
 
+    // the values have already been deserialized into the out parameter types, see SubscriptionTypeResolver
     private Object[] getPublicationValues(Class<?>[] parameterTypes, List<?> publicizedValues) {
-        if (parameterTypes.length != publicizedValues.size()) {
+        if (parameterTypes == null || parameterTypes.length != publicizedValues.size()) {
             throw new JoynrRuntimeException("number of received out parameter values do not match with the number of out parameter types.");
         }
-        Object[] values = new Object[parameterTypes.length];
-        for (int i = 0; i < parameterTypes.length; i++) {
-            values[i] = objectMapper.convertValue(publicizedValues.get(i), parameterTypes[i]);
-        }
-        return values;
+        return publicizedValues.toArray();
     }
 
     private void handle(final SubscriptionPublication publication) {
@@ -382,18 +424,7 @@ public class DispatcherImpl implements Dispatcher {
                 if (error != null) {
                     subscriptionManager.handleAttributePublicationError(subscriptionId, error);
                 } else {
-                    Class<?> receivedType = subscriptionManager.getAttributeType(subscriptionId);
-
-                    Object attributeValue;
-                    if (TypeReference.class.isAssignableFrom(receivedType)) {
-                        TypeReference<?> typeRef = (TypeReference<?>) receivedType.newInstance();
-                        attributeValue = objectMapper.convertValue(((List<?>) publication.getResponse()).get(0),
-                                                                   typeRef);
-                    } else {
-                        attributeValue = objectMapper.convertValue(((List<?>) publication.getResponse()).get(0),
-                                                                   receivedType);
-                    }
-
+                    Object attributeValue = ((List<?>) publication.getResponse()).get(0);
                     subscriptionManager.handleAttributePublication(subscriptionId, attributeValue);
                 }
             }
@@ -425,4 +456,49 @@ public class DispatcherImpl implements Dispatcher {
         MutableMessage message = messageFactory.createMulticast(fromParticipantId, multicastPublication, messagingQos);
         messageSender.sendMessage(message);
     }
+
+    /**
+     * Resolves the out parameter types of incoming publications from the registered subscriptions.
+     */
+    private class SubscriptionTypeResolver implements PublicationTypeResolver {
+        @Override
+        public JavaType[] getSubscriptionPublicationTypes(String subscriptionId, TypeFactory typeFactory) {
+            if (subscriptionManager.isBroadcast(subscriptionId)) {
+                return toJavaTypes(subscriptionManager.getUnicastPublicationOutParameterTypes(subscriptionId),
+                                   typeFactory);
+            }
+            Class<?> attributeType = subscriptionManager.getAttributeType(subscriptionId);
+            if (attributeType == null) {
+                return null;
+            }
+            if (TypeReference.class.isAssignableFrom(attributeType)) {
+                try {
+                    TypeReference<?> typeRef = (TypeReference<?>) attributeType.newInstance();
+                    return new JavaType[]{ typeFactory.constructType(typeRef) };
+                } catch (InstantiationException | IllegalAccessException e) {
+                    logger.error("Unable to resolve attribute type {} of subscription {}",
+                                 attributeType,
+                                 subscriptionId);
+                    return null;
+                }
+            }
+            return new JavaType[]{ typeFactory.constructType(attributeType) };
+        }
+
+        @Override
+        public JavaType[] getMulticastPublicationTypes(String multicastId, TypeFactory typeFactory) {
+            return toJavaTypes(subscriptionManager.getMulticastPublicationOutParameterTypes(multicastId), typeFactory);
+        }
+
+        private JavaType[] toJavaTypes(Class<?>[] types, TypeFactory typeFactory) {
+            if (types == null) {
+                return null;
+            }
+            JavaType[] javaTypes = new JavaType[types.length];
+            for (int i = 0; i < types.length; i++) {
+                javaTypes[i] = typeFactory.constructType(types[i]);
+            }
+            return javaTypes;
+        }
+    }
 }
@@ -22,17 +22,20 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.Set;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Charsets;
 import com.google.common.collect.Maps;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 
 import io.joynr.common.ExpiryDate;
+import io.joynr.dispatching.subscription.SharedPublicationResponse;
 import io.joynr.messaging.ConfigurableMessagingSettings;
 import io.joynr.messaging.JoynrMessageProcessor;
 import io.joynr.messaging.MessagingQos;
 import io.joynr.messaging.MessagingQosEffort;
+import io.joynr.messaging.serialize.JsonPayloadCodec;
+import io.joynr.messaging.serialize.PayloadCodec;
+import io.joynr.messaging.serialize.PayloadCodecRegistry;
 import joynr.BroadcastSubscriptionRequest;
 import joynr.Message;
 import joynr.MulticastPublication;
@@ -51,7 +54,7 @@ import org.slf4j.LoggerFactory;
 public class MutableMessageFactory {
     private static final String REQUEST_REPLY_ID_CUSTOM_HEADER = "z4";
     private final Set<JoynrMessageProcessor> messageProcessors;
-    private ObjectMapper objectMapper;
+    private final PayloadCodecRegistry payloadCodecRegistry;
     @Inject(optional = true)
     @Named(ConfigurableMessagingSettings.PROPERTY_TTL_UPLIFT_MS)
     private long ttlUpliftMs = 0;
@@ -59,8 +62,8 @@ public class MutableMessageFactory {
     private static final Logger logger = LoggerFactory.getLogger(MutableMessageFactory.class);
 
     @Inject
-    public MutableMessageFactory(ObjectMapper objectMapper, Set<JoynrMessageProcessor> messageProcessors) {
-        this.objectMapper = objectMapper;
+    public MutableMessageFactory(PayloadCodecRegistry payloadCodecRegistry, Set<JoynrMessageProcessor> messageProcessors) {
+        this.payloadCodecRegistry = payloadCodecRegistry;
         this.messageProcessors = messageProcessors;
     }
 
@@ -95,7 +98,8 @@ public class MutableMessageFactory {
         message.setRecipient(toParticipantId);
         message.setTtlAbsolute(true);
         message.setTtlMs(expiryDate.getValue());
-        message.setPayload(serializePayload(payload));
+        serializePayload(message, payload);
+        message.setAcceptedPayloadCodec(payloadCodecRegistry.getAcceptedCodecName());
         message.setCustomHeaders(messagingQos.getCustomMessageHeaders());
         message.setCompressed(messagingQos.getCompress());
         for (JoynrMessageProcessor processor : messageProcessors) {
@@ -222,22 +226,45 @@ public class MutableMessageFactory {
                              messagingQos);
     }
 
-    private byte[] serializePayload(Object payload) {
+    private void serializePayload(MutableMessage message, Object payload) {
         // when using javax.annotatoins.NonNull annotation on capablities parameter it will
         // cause a NoSuchMethodError
         assert (payload != null);
 
-        String serializedPayload;
+        if (payload.getClass() == String.class) {
+            message.setPayload(((String) payload).getBytes(Charsets.UTF_8));
+            return;
+        }
+        PayloadCodec payloadCodec;
+        if (Message.VALUE_MESSAGE_TYPE_MULTICAST.equals(message.getType())) {
+            // multicasts are received by all subscribers of the multicast, hence they are always sent as JSON
+            payloadCodec = payloadCodecRegistry.getCodec(JsonPayloadCodec.NAME);
+        } else {
+            payloadCodec = payloadCodecRegistry.getCodecForRecipient(message.getRecipient());
+        }
+        byte[] serializedPayload;
         try {
-            if (payload.getClass() == String.class) {
-                serializedPayload = (String) payload;
+            if (payload instanceof SubscriptionPublication
+                    && ((SubscriptionPublication) payload).getResponse() instanceof SharedPublicationResponse) {
+                // the response is shared by the publications of several subscriptions
+                SubscriptionPublication publication = (SubscriptionPublication) payload;
+                serializedPayload = ((SharedPublicationResponse) publication.getResponse()).serializePublication(publication.getSubscriptionId(),
+                                                                                                                 payloadCodec);
             } else {
-                serializedPayload = objectMapper.writeValueAsString(payload);
-                logger.trace("serializePayload as: {}", serializedPayload);
+                // serialize directly into encoded bytes to avoid an intermediate String and its copy
+                serializedPayload = payloadCodec.serialize(payload);
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        return serializedPayload.getBytes(Charsets.UTF_8);
+        if (JsonPayloadCodec.NAME.equals(payloadCodec.getName())) {
+            if (logger.isTraceEnabled()) {
+                logger.trace("serializePayload as: {}", new String(serializedPayload, Charsets.UTF_8));
+            }
+        } else {
+            message.setPayloadCodec(payloadCodec.getName());
+            logger.trace("serializePayload as {} bytes of {}", serializedPayload.length, payloadCodec.getName());
+        }
+        message.setPayload(serializedPayload);
     }
 }
@@ -0,0 +1,102 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.dispatching;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+import io.joynr.dispatcher.rpc.ReflectionUtils;
+
+/**
+ * Invokes a single method of a provider. The method handle is created once when the provider is registered, hence
+ * requests can be dispatched to the provider without any reflective lookup or invocation.
+ */
+public class ProviderMethodInvoker {
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private final Method method;
+    private final Class<?>[] parameterTypes;
+    private final String[] parameterDatatypeNames;
+    private final Class<?>[] boxedParameterTypes;
+    private final MethodHandle methodHandle;
+
+    ProviderMethodInvoker(Method method, Object target) throws IllegalAccessException {
+        this.method = method;
+        parameterTypes = method.getParameterTypes();
+        parameterDatatypeNames = ReflectionUtils.toDatatypeNames(parameterTypes);
+        boxedParameterTypes = new Class<?>[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            boxedParameterTypes[i] = MethodType.methodType(parameterTypes[i]).wrap().returnType();
+        }
+        if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            method.setAccessible(true);
+        }
+        methodHandle = MethodHandles.lookup()
+                                    .unreflect(method)
+                                    .bindTo(target)
+                                    .asSpreader(Object[].class, parameterTypes.length)
+                                    .asType(INVOKER_TYPE);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public int getParameterCount() {
+        return parameterTypes.length;
+    }
+
+    String[] getParameterDatatypeNames() {
+        return parameterDatatypeNames;
+    }
+
+    boolean matches(String[] paramDatatypes) {
+        return Arrays.equals(parameterDatatypeNames, paramDatatypes);
+    }
+
+    /**
+     * @param params the arguments of the method call, may be null if the method has no parameters
+     * @return the return value of the provider method
+     * @throws IllegalArgumentException if the arguments do not match the parameters of the method
+     * @throws InvocationTargetException if the provider method throws an exception
+     */
+    public Object invoke(Object[] params) throws InvocationTargetException {
+        Object[] arguments = (params == null) ? NO_ARGUMENTS : params;
+        if (arguments.length != boxedParameterTypes.length) {
+            throw new IllegalArgumentException("wrong number of arguments");
+        }
+        for (int i = 0; i < arguments.length; i++) {
+            if (!boxedParameterTypes[i].isInstance(arguments[i])
+                    && (arguments[i] != null || parameterTypes[i].isPrimitive())) {
+                throw new IllegalArgumentException("argument type mismatch");
+            }
+        }
+        try {
+            return (Object) methodHandle.invokeExact(arguments);
+        } catch (Throwable throwable) {
+            throw new InvocationTargetException(throwable);
+        }
+    }
+}
@@ -18,20 +18,77 @@
  */
 package io.joynr.dispatching;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.joynr.JoynrVersion;
+import io.joynr.exceptions.JoynrRuntimeException;
 import io.joynr.provider.AbstractJoynrProvider;
 import io.joynr.provider.CallContext;
 import io.joynr.provider.JoynrProvider;
+import io.joynr.util.AnnotationUtil;
+import joynr.types.Version;
 
 public class RequestCaller implements JoynrProvider {
+    private static final Logger logger = LoggerFactory.getLogger(RequestCaller.class);
 
     private Object provider;
     private Object proxy;
+    // Map<MethodName, invokers of all overloads of the method>
+    private final Map<String, ProviderMethodInvoker[]> methodInvokers;
+    private final Version interfaceVersion;
 
     public RequestCaller(Object proxy, Object provider) {
         this.proxy = proxy;
         this.provider = provider;
+        this.methodInvokers = createMethodInvokers(proxy, provider);
+        JoynrVersion joynrVersion = AnnotationUtil.getAnnotation(proxy.getClass(), JoynrVersion.class);
+        this.interfaceVersion = (joynrVersion == null) ? null : new Version(joynrVersion.major(), joynrVersion.minor());
+    }
+
+    private static Map<String, ProviderMethodInvoker[]> createMethodInvokers(Object proxy, Object provider) {
+        Map<String, List<ProviderMethodInvoker>> invokersByName = new HashMap<>();
+        for (Class<?> providerInterface : proxy.getClass().getInterfaces()) {
+            // call the provider directly if possible, bypassing the reflective invocation handler of the proxy
+            Object target = providerInterface.isInstance(provider) ? provider : proxy;
+            for (Method method : providerInterface.getMethods()) {
+                List<ProviderMethodInvoker> invokers = invokersByName.get(method.getName());
+                if (invokers == null) {
+                    invokers = new ArrayList<>();
+                    invokersByName.put(method.getName(), invokers);
+                }
+                try {
+                    ProviderMethodInvoker invoker = new ProviderMethodInvoker(method, target);
+                    if (!containsMatchingInvoker(invokers, invoker)) {
+                        invokers.add(invoker);
+                    }
+                } catch (IllegalAccessException e) {
+                    logger.error("cannot access provider method {}", method, e);
+                    throw new JoynrRuntimeException("cannot access provider method " + method + ": " + e);
+                }
+            }
+        }
+        Map<String, ProviderMethodInvoker[]> methodInvokers = new HashMap<>();
+        for (Map.Entry<String, List<ProviderMethodInvoker>> entry : invokersByName.entrySet()) {
+            methodInvokers.put(entry.getKey(),
+                               entry.getValue().toArray(new ProviderMethodInvoker[entry.getValue().size()]));
+        }
+        return methodInvokers;
+    }
+
+    private static boolean containsMatchingInvoker(List<ProviderMethodInvoker> invokers, ProviderMethodInvoker invoker) {
+        for (ProviderMethodInvoker existingInvoker : invokers) {
+            if (existingInvoker.matches(invoker.getParameterDatatypeNames())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public void setContext(CallContext context) {
@@ -49,9 +106,35 @@ public class RequestCaller implements JoynrProvider {
         }
     }
 
-    public Object invoke(Method method, Object[] params) throws IllegalAccessException, IllegalArgumentException,
-                                                        InvocationTargetException {
-        return method.invoke(proxy, params);
+    /**
+     * Finds the invoker of a provider method.
+     *
+     * @param methodName the name of the method
+     * @param paramDatatypes the joynr datatype names of the method parameters
+     * @return the invoker of the method or null if the provider does not have such a method
+     */
+    public ProviderMethodInvoker getMethodInvoker(String methodName, String[] paramDatatypes) {
+        if (paramDatatypes == null) {
+            String msg = "Received RPC without parameter types list! Method overloading might cause unexpected behaviour!";
+            logger.error(msg);
+            throw new IllegalArgumentException(msg);
+        }
+        ProviderMethodInvoker[] invokers = methodInvokers.get(methodName);
+        if (invokers != null) {
+            for (ProviderMethodInvoker invoker : invokers) {
+                if (invoker.matches(paramDatatypes)) {
+                    return invoker;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the version of the provided interface, null if the interface is not annotated with {@link JoynrVersion}
+     */
+    public Version getInterfaceVersion() {
+        return interfaceVersion;
     }
 
     public Object getProxy() {
@@ -18,26 +18,20 @@
  */
 package io.joynr.dispatching;
 
-import static io.joynr.runtime.JoynrInjectionConstants.JOYNR_SCHEDULER_CLEANUP;
-
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.google.inject.name.Named;
 import io.joynr.common.ExpiryDate;
 import io.joynr.dispatching.rpc.ReplyCaller;
 import io.joynr.dispatching.rpc.ReplyCallerDirectory;
 import io.joynr.dispatching.rpc.RequestInterpreter;
 import io.joynr.dispatching.rpc.SynchronizedReplyCaller;
+import io.joynr.dispatching.subscription.TimingWheel;
 import io.joynr.exceptions.JoynrCommunicationException;
 import io.joynr.exceptions.JoynrMessageNotSentException;
 import io.joynr.exceptions.JoynrRequestInterruptedException;
@@ -61,12 +55,15 @@ import org.slf4j.LoggerFactory;
 public class RequestReplyManagerImpl implements RequestReplyManager, DirectoryListener<ProviderContainer>,
         ShutdownListener {
     private static final Logger logger = LoggerFactory.getLogger(RequestReplyManagerImpl.class);
-    private boolean running = true;
+    private volatile boolean running = true;
 
-    private List<Thread> outstandingRequestThreads = Collections.synchronizedList(new ArrayList<Thread>());
+    // threads waiting for the reply of a synchronous request; they are interrupted at shutdown
+    private Set<Thread> outstandingRequestThreads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
     private ConcurrentHashMap<String, ConcurrentLinkedQueue<ContentWithExpiryDate<Request>>> requestQueue = new ConcurrentHashMap<String, ConcurrentLinkedQueue<ContentWithExpiryDate<Request>>>();
     private ConcurrentHashMap<String, ConcurrentLinkedQueue<OneWayCallable>> oneWayRequestQueue = new ConcurrentHashMap<>();
     private ConcurrentHashMap<Request, ProviderCallback<Reply>> replyCallbacks = new ConcurrentHashMap<Request, ProviderCallback<Reply>>();
+    // expiry of queued requests and one-way requests, cancelled when they are handed over to their provider
+    private ConcurrentHashMap<Object, TimingWheel.Timeout> queuedRequestTimeouts = new ConcurrentHashMap<>();
 
     private ReplyCallerDirectory replyCallerDirectory;
     private ProviderDirectory providerDirectory;
@@ -74,7 +71,7 @@ public class RequestReplyManagerImpl implements RequestReplyManager, DirectoryLi
     private MessageSender messageSender;
     private MutableMessageFactory messageFactory;
 
-    private ScheduledExecutorService cleanupScheduler;
+    private TimingWheel timingWheel;
 
     @Inject
     public RequestReplyManagerImpl(MutableMessageFactory messageFactory,
@@ -82,14 +79,14 @@ public class RequestReplyManagerImpl implements RequestReplyManager, DirectoryLi
                                    ProviderDirectory providerDirectory,
                                    MessageSender messageSender,
                                    RequestInterpreter requestInterpreter,
-                                   @Named(JOYNR_SCHEDULER_CLEANUP) ScheduledExecutorService cleanupScheduler,
+                                   TimingWheel timingWheel,
                                    ShutdownNotifier shutdownNotifier) {
         this.messageFactory = messageFactory;
         this.replyCallerDirectory = replyCallerDirectory;
         this.providerDirectory = providerDirectory;
         this.messageSender = messageSender;
         this.requestInterpreter = requestInterpreter;
-        this.cleanupScheduler = cleanupScheduler;
+        this.timingWheel = timingWheel;
         providerDirectory.addListener(this);
         shutdownNotifier.registerForShutdown(this);
     }
@@ -138,40 +135,31 @@ public class RequestReplyManagerImpl implements RequestReplyManager, DirectoryLi
                     + System.identityHashCode(this) + ": joynr is shutting down");
         }
 
-        final ArrayList<Object> responsePayloadContainer = new ArrayList<Object>(1);
-        // the synchronizedReplyCaller will call notify on the responsePayloadContainer when a message arrives
-        synchronizedReplyCaller.setResponseContainer(responsePayloadContainer);
-
         sendRequest(fromParticipantId, toDiscoveryEntry, request, messagingQos);
 
-        long entryTime = System.currentTimeMillis();
-
+        Object response;
         // saving all calling threads so that they can be interrupted at shutdown
-        outstandingRequestThreads.add(Thread.currentThread());
-        synchronized (responsePayloadContainer) {
-            while (running && responsePayloadContainer.isEmpty()
-                    && entryTime + messagingQos.getRoundTripTtl_ms() > System.currentTimeMillis()) {
-                try {
-                    responsePayloadContainer.wait(messagingQos.getRoundTripTtl_ms());
-                } catch (InterruptedException e) {
-                    if (running) {
-                        throw new JoynrRequestInterruptedException("Request: " + request.getRequestReplyId()
-                                + " interrupted.");
-                    }
-                    throw new JoynrShutdownException("Request: " + request.getRequestReplyId()
-                            + " interrupted by shutdown");
-
-                }
+        Thread currentThread = Thread.currentThread();
+        outstandingRequestThreads.add(currentThread);
+        try {
+            if (!running) {
+                throw new JoynrShutdownException("Request: " + request.getRequestReplyId() + " interrupted by shutdown");
+            }
+            response = synchronizedReplyCaller.waitForResponse(messagingQos.getRoundTripTtl_ms());
+        } catch (InterruptedException e) {
+            if (running) {
+                throw new JoynrRequestInterruptedException("Request: " + request.getRequestReplyId() + " interrupted.");
             }
+            throw new JoynrShutdownException("Request: " + request.getRequestReplyId() + " interrupted by shutdown");
+        } finally {
+            outstandingRequestThreads.remove(currentThread);
         }
-        outstandingRequestThreads.remove(Thread.currentThread());
 
-        if (responsePayloadContainer.isEmpty()) {
+        if (response == null) {
             throw new JoynrCommunicationException("Request: " + request.getRequestReplyId()
                     + " failed. The response didn't arrive in time");
         }
 
-        Object response = responsePayloadContainer.get(0);
         if (response instanceof Throwable) {
             Throwable error = (Throwable) response;
             throw new JoynrMessageNotSentException("Request: " + request.getRequestReplyId() + " failed: "
@@ -206,6 +194,7 @@ public class RequestReplyManagerImpl implements RequestReplyManager, DirectoryLi
         ConcurrentLinkedQueue<ContentWithExpiryDate<Request>> requestList = requestQueue.remove(participantId);
         if (requestList != null) {
             for (ContentWithExpiryDate<Request> requestItem : requestList) {
+                cancelExpiryTimeout(requestItem);
                 if (!requestItem.isExpired()) {
                     Request request = requestItem.getContent();
                     handleRequest(replyCallbacks.remove(request), providerContainer.getRequestCaller(), request);
@@ -215,6 +204,7 @@ public class RequestReplyManagerImpl implements RequestReplyManager, DirectoryLi
         ConcurrentLinkedQueue<OneWayCallable> oneWayCallables = oneWayRequestQueue.remove(participantId);
         if (oneWayCallables != null) {
             for (OneWayCallable oneWayCallable : oneWayCallables) {
+                cancelExpiryTimeout(oneWayCallable);
                 oneWayCallable.call();
             }
         }
@@ -235,9 +225,10 @@ public class RequestReplyManagerImpl implements RequestReplyManager, DirectoryLi
                 return null;
             }
         };
-        OneWayCallable oneWayCallable = new OneWayCallable(requestHandler,
-                                                           ExpiryDate.fromAbsolute(expiryDate),
-                                                           String.valueOf(request));
+        final ExpiryDate oneWayExpiryDate = ExpiryDate.fromAbsolute(expiryDate);
+        final OneWayCallable oneWayCallable = new OneWayCallable(requestHandler,
+                                                                 oneWayExpiryDate,
+                                                                 String.valueOf(request));
         if (providerDirectory.contains(providerParticipantId)) {
             oneWayCallable.call();
         } else {
@@ -245,6 +236,17 @@ public class RequestReplyManagerImpl implements RequestReplyManager, DirectoryLi
                 oneWayRequestQueue.putIfAbsent(providerParticipantId, new ConcurrentLinkedQueue<OneWayCallable>());
             }
             oneWayRequestQueue.get(providerParticipantId).add(oneWayCallable);
+            scheduleExpiryTimeout(oneWayCallable, new Runnable() {
+                @Override
+                public void run() {
+                    if (removeExpired(oneWayRequestQueue, providerParticipantId, oneWayCallable)) {
+                        logger.warn("TTL DISCARD. providerParticipantId: {} one-way request {} because it has expired.",
+                                    providerParticipantId,
+                                    request);
+                    }
+                }
+            },
+                                  oneWayExpiryDate);
         }
     }
 
@@ -299,29 +301,47 @@ public class RequestReplyManagerImpl implements RequestReplyManager, DirectoryLi
         final ContentWithExpiryDate<Request> requestItem = new ContentWithExpiryDate<Request>(request, expiryDate);
         requestQueue.get(providerParticipantId).add(requestItem);
         replyCallbacks.put(request, replyCallback);
-        cleanupScheduler.schedule(new Runnable() {
+        scheduleExpiryTimeout(requestItem, new Runnable() {
 
             @Override
             public void run() {
-                requestQueue.get(providerParticipantId).remove(requestItem);
-                replyCallbacks.remove(requestItem.getContent());
-                Request request = requestItem.getContent();
-                logger.warn("TTL DISCARD. providerParticipantId: {} request method: {} because it has expired.",
-                            providerParticipantId,
-                            request.getMethodName());
-
+                if (removeExpired(requestQueue, providerParticipantId, requestItem)) {
+                    Request request = requestItem.getContent();
+                    replyCallbacks.remove(request);
+                    logger.warn("TTL DISCARD. providerParticipantId: {} request method: {} because it has expired.",
+                                providerParticipantId,
+                                request.getMethodName());
+                }
             }
-        }, expiryDate.getRelativeTtl(), TimeUnit.MILLISECONDS);
+        }, expiryDate);
+    }
+
+    private void scheduleExpiryTimeout(Object queuedItem, Runnable expiryTask, ExpiryDate expiryDate) {
+        queuedRequestTimeouts.put(queuedItem, timingWheel.schedule(expiryTask, expiryDate.getRelativeTtl()));
+    }
+
+    private void cancelExpiryTimeout(Object queuedItem) {
+        TimingWheel.Timeout timeout = queuedRequestTimeouts.remove(queuedItem);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    private <T> boolean removeExpired(ConcurrentHashMap<String, ConcurrentLinkedQueue<T>> queues,
+                                      String providerParticipantId,
+                                      T queuedItem) {
+        queuedRequestTimeouts.remove(queuedItem);
+        ConcurrentLinkedQueue<T> queue = queues.get(providerParticipantId);
+        // the queue is gone if the provider has been registered in the meantime
+        return queue != null && queue.remove(queuedItem);
     }
 
     @Override
     public void shutdown() {
         running = false;
-        synchronized (outstandingRequestThreads) {
-            for (Thread thread : outstandingRequestThreads) {
-                logger.debug("shutting down. Interrupting thread: " + thread);
-                thread.interrupt();
-            }
+        for (Thread thread : outstandingRequestThreads) {
+            logger.debug("shutting down. Interrupting thread: " + thread);
+            thread.interrupt();
         }
         providerDirectory.removeListener(this);
     }
@@ -18,29 +18,30 @@
  */
 package io.joynr.dispatching.rpc;
 
-import static io.joynr.runtime.JoynrInjectionConstants.JOYNR_SCHEDULER_CLEANUP;
 import io.joynr.common.ExpiryDate;
 import io.joynr.dispatching.Directory;
+import io.joynr.dispatching.subscription.TimingWheel;
 import io.joynr.exceptions.JoynrRuntimeException;
 import io.joynr.exceptions.JoynrShutdownException;
 import io.joynr.exceptions.JoynrTimeoutException;
 import io.joynr.runtime.ShutdownListener;
 import io.joynr.runtime.ShutdownNotifier;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.google.inject.name.Named;
 
 /**
  * Queue to store replyCallers and remove them if the round-trip TTL of the corresponding request expires.
- *
+ * <p>
+ * The expiry of all replyCallers is tracked on the shared {@link TimingWheel}; the timeout of a replyCaller is
+ * cancelled in O(1) as soon as the replyCaller is removed because its reply has arrived.
  */
 @Singleton
 public class ReplyCallerDirectory extends Directory<ReplyCaller> implements ShutdownListener {
@@ -48,12 +49,12 @@ public class ReplyCallerDirectory extends Directory<ReplyCaller> implements Shut
     private boolean shutdown = false;
     private static final Logger logger = LoggerFactory.getLogger(ReplyCallerDirectory.class);
 
-    private ScheduledExecutorService cleanupScheduler;
+    private TimingWheel timingWheel;
+    private ConcurrentMap<String, TimingWheel.Timeout> expiryTimeouts = new ConcurrentHashMap<>();
 
     @Inject
-    public ReplyCallerDirectory(@Named(JOYNR_SCHEDULER_CLEANUP) ScheduledExecutorService cleanupScheduler,
-                                ShutdownNotifier shutdownNotifier) {
-        this.cleanupScheduler = cleanupScheduler;
+    public ReplyCallerDirectory(TimingWheel timingWheel, ShutdownNotifier shutdownNotifier) {
+        this.timingWheel = timingWheel;
         shutdownNotifier.registerForShutdown(this);
     }
 
@@ -64,12 +65,17 @@ public class ReplyCallerDirectory extends Directory<ReplyCaller> implements Shut
         super.add(requestReplyId, replyCaller);
 
         try {
-            cleanupScheduler.schedule(new Runnable() {
+            TimingWheel.Timeout timeout = timingWheel.schedule(new Runnable() {
                 @Override
                 public void run() {
                     removeExpiredReplyCaller(requestReplyId);
                 }
-            }, roundTripTtlExpirationDate.getRelativeTtl(), TimeUnit.MILLISECONDS);
+            }, roundTripTtlExpirationDate.getRelativeTtl());
+            expiryTimeouts.put(requestReplyId, timeout);
+            if (!contains(requestReplyId)) {
+                // the reply arrived before the timeout was registered
+                cancelExpiryTimeout(requestReplyId);
+            }
         } catch (RejectedExecutionException e) {
             if (shutdown) {
                 throw new JoynrShutdownException("shutdown in ReplyCallerDirectory");
@@ -79,8 +85,22 @@ public class ReplyCallerDirectory extends Directory<ReplyCaller> implements Shut
 
     }
 
+    @Override
+    public ReplyCaller remove(String requestReplyId) {
+        cancelExpiryTimeout(requestReplyId);
+        return super.remove(requestReplyId);
+    }
+
+    private void cancelExpiryTimeout(String requestReplyId) {
+        TimingWheel.Timeout timeout = expiryTimeouts.remove(requestReplyId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
     private void removeExpiredReplyCaller(String requestReplyId) {
-        ReplyCaller outstandingReplyCaller = remove(requestReplyId);
+        expiryTimeouts.remove(requestReplyId);
+        ReplyCaller outstandingReplyCaller = super.remove(requestReplyId);
         if (outstandingReplyCaller == null) {
             // this happens, when a reply was already received and the replyCaller has been removed.
             return;
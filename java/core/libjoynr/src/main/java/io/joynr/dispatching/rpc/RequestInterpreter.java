@@ -21,10 +21,7 @@ package io.joynr.dispatching.rpc;
 import java.io.Serializable;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,9 +29,8 @@ import org.slf4j.LoggerFactory;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 
-import io.joynr.JoynrVersion;
 import io.joynr.context.JoynrMessageScope;
-import io.joynr.dispatcher.rpc.ReflectionUtils;
+import io.joynr.dispatching.ProviderMethodInvoker;
 import io.joynr.dispatching.RequestCaller;
 import io.joynr.exceptions.JoynrException;
 import io.joynr.messaging.JoynrMessageCreator;
@@ -44,14 +40,11 @@ import io.joynr.provider.CallContext;
 import io.joynr.provider.Promise;
 import io.joynr.provider.PromiseListener;
 import io.joynr.provider.ProviderCallback;
-import io.joynr.proxy.MethodSignature;
-import io.joynr.util.AnnotationUtil;
 import joynr.OneWayRequest;
 import joynr.Reply;
 import joynr.Request;
 import joynr.exceptions.MethodInvocationException;
 import joynr.exceptions.ProviderRuntimeException;
-import joynr.types.Version;
 
 public class RequestInterpreter {
 
@@ -72,13 +65,6 @@ public class RequestInterpreter {
         this.joynrMessageContext = joynrMessageContext;
     }
 
-    // use for caching because creation of MethodMetaInformation is expensive
-    // ConcurrentMap<ClassName, ConcurrentMap<MethodName, MethodMetaInformation>
-    // >
-    // TODO move methodMetaInformation to a central place, save metaInformations in a cache (e.g. with predefined max
-    // size)
-    private final ConcurrentMap<MethodSignature, Method> methodSignatureToMethodMap = new ConcurrentHashMap<MethodSignature, Method>();
-
     private Reply createReply(Request request, Object... response) {
         return new Reply(request.getRequestReplyId(), response);
     }
@@ -93,11 +79,8 @@ public class RequestInterpreter {
             callback.onFailure(e);
             return;
         } catch (Exception e) {
-            JoynrVersion joynrVersion = AnnotationUtil.getAnnotation(requestCaller.getProxy().getClass(),
-                                                                     JoynrVersion.class);
             MethodInvocationException methodInvocationException = new MethodInvocationException(e,
-                                                                                                new Version(joynrVersion.major(),
-                                                                                                            joynrVersion.minor()));
+                                                                                                requestCaller.getInterfaceVersion());
             logger.warn("execute request on provider failed with exception: {}, request: {}",
                         methodInvocationException,
                         request);
@@ -123,31 +106,25 @@ public class RequestInterpreter {
 
     public Object invokeMethod(RequestCaller requestCaller, OneWayRequest request) {
         // A method is identified by its defining request caller, its name and the types of its arguments
-        MethodSignature methodSignature = new MethodSignature(requestCaller,
-                                                              request.getMethodName(),
-                                                              request.getParamDatatypes());
-
-        ensureMethodMetaInformationPresent(requestCaller, request, methodSignature);
-
-        Method method = methodSignatureToMethodMap.get(methodSignature);
+        ProviderMethodInvoker invoker = requestCaller.getMethodInvoker(request.getMethodName(),
+                                                                       request.getParamDatatypes());
+        if (invoker == null) {
+            NoSuchMethodException e = new NoSuchMethodException(request.getMethodName());
+            logger.error("RequestInterpreter: Received an RPC invocation for a non existing method" + request, e);
+            throw new MethodInvocationException(e.toString(), requestCaller.getInterfaceVersion());
+        }
 
         Object[] params = null;
         try {
-            if (method.getParameterTypes().length > 0) {
+            if (invoker.getParameterCount() > 0) {
                 // method with parameters
                 params = request.getParams();
             }
             joynrMessageScope.activate();
             setContext(requestCaller, request);
 
-            logger.trace("invoke provider method {}({})", method.getName(), params == null ? "" : params);
-            return requestCaller.invoke(method, params);
-        } catch (IllegalAccessException e) {
-            logger.error("RequestInterpreter: Received an RPC invocation for a non public method {}", request);
-            JoynrVersion joynrVersion = AnnotationUtil.getAnnotation(requestCaller.getProxy().getClass(),
-                                                                     JoynrVersion.class);
-            throw new MethodInvocationException(e, new Version(joynrVersion.major(), joynrVersion.minor()));
-
+            logger.trace("invoke provider method {}({})", request.getMethodName(), params == null ? "" : params);
+            return invoker.invoke(params);
         } catch (InvocationTargetException e) {
             logger.debug("invokeMethod error", e);
             Throwable cause = e.getCause();
@@ -173,25 +150,4 @@ public class RequestInterpreter {
         callContext.setPrincipal(creatorUserId);
         requestCaller.setContext(callContext);
     }
-
-    private void ensureMethodMetaInformationPresent(RequestCaller requestCaller,
-                                                    OneWayRequest request,
-                                                    MethodSignature methodSignature) {
-        try {
-            if (!methodSignatureToMethodMap.containsKey(methodSignature)) {
-                Method method;
-                method = ReflectionUtils.findMethodByParamTypeNames(methodSignature.getRequestCaller()
-                                                                                   .getProxy()
-                                                                                   .getClass(),
-                                                                    methodSignature.getMethodName(),
-                                                                    methodSignature.getParameterTypeNames());
-                methodSignatureToMethodMap.putIfAbsent(methodSignature, method);
-            }
-        } catch (NoSuchMethodException e) {
-            logger.error("RequestInterpreter: Received an RPC invocation for a non existing method" + request, e);
-            JoynrVersion joynrVersion = AnnotationUtil.getAnnotation(requestCaller.getProxy().getClass(),
-                                                                     JoynrVersion.class);
-            throw new MethodInvocationException(e.toString(), new Version(joynrVersion.major(), joynrVersion.minor()));
-        }
-    }
 }
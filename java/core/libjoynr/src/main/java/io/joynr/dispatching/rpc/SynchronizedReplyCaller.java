@@ -18,13 +18,22 @@
  */
 package io.joynr.dispatching.rpc;
 
-import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import joynr.Reply;
 import joynr.Request;
 
+/**
+ * Reply caller of a synchronous request. The calling thread waits in {@link #waitForResponse(long)} until the reply
+ * or an error has arrived. Waiting uses a {@link Lock} rather than the object monitor, like {@link io.joynr.proxy.Future}.
+ */
 public class SynchronizedReplyCaller implements ReplyCaller {
-    private List<Object> responsePayloadContainer;
+    private final Lock responseLock = new ReentrantLock();
+    private final Condition responseArrived = responseLock.newCondition();
+    private Object response;
     final private String fromParticipantId;
     final private String requestReplyId;
     final private Request request;
@@ -37,28 +46,47 @@ public class SynchronizedReplyCaller implements ReplyCaller {
 
     @Override
     public void messageCallBack(Reply payload) {
-        if (responsePayloadContainer == null) {
-            throw new IllegalStateException("SynchronizedReplyCaller: ResponseContainer not set!");
-        }
-        synchronized (responsePayloadContainer) {
-            responsePayloadContainer.add(payload);
-            responsePayloadContainer.notify();
-        }
-
+        setResponse(payload);
     }
 
     @Override
     public void error(Throwable error) {
-        synchronized (responsePayloadContainer) {
-            responsePayloadContainer.add(error);
-            responsePayloadContainer.notify();
-        }
-
+        setResponse(error);
     }
 
-    public void setResponseContainer(List<Object> responsePayloadContainer) {
-        this.responsePayloadContainer = responsePayloadContainer;
+    private void setResponse(Object newResponse) {
+        responseLock.lock();
+        try {
+            if (response == null) {
+                response = newResponse;
+                responseArrived.signalAll();
+            }
+        } finally {
+            responseLock.unlock();
+        }
+    }
 
+    /**
+     * Waits until the reply or an error has arrived.
+     *
+     * @param timeoutMs the maximum time to wait in milliseconds
+     * @return the {@link Reply}, the error as {@link Throwable} or null if nothing has arrived in time
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public Object waitForResponse(long timeoutMs) throws InterruptedException {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        responseLock.lock();
+        try {
+            while (response == null) {
+                if (remainingNanos <= 0) {
+                    return null;
+                }
+                remainingNanos = responseArrived.awaitNanos(remainingNanos);
+            }
+            return response;
+        } finally {
+            responseLock.unlock();
+        }
     }
 
     @Override
@@ -18,22 +18,53 @@
  */
 package io.joynr.dispatching.subscription;
 
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
 import io.joynr.pubsub.publication.AttributeListener;
 
+/**
+ * Listener which is shared by all on change subscriptions of an attribute of a provider. A changed value is
+ * published to all subscriptions at once.
+ */
 public class AttributeListenerImpl implements AttributeListener {
 
-    private final String subscriptionId;
+    private final Set<String> subscriptionIds = new CopyOnWriteArraySet<>();
     private final PublicationManagerImpl publicationManagerImpl;
+    private boolean unregistered = false;
 
-    public AttributeListenerImpl(String subscriptionId, PublicationManagerImpl publicationManagerImpl) {
-        this.subscriptionId = subscriptionId;
+    public AttributeListenerImpl(PublicationManagerImpl publicationManagerImpl) {
         this.publicationManagerImpl = publicationManagerImpl;
 
     }
 
+    /**
+     * @param subscriptionId the subscription to be added
+     * @return false if the listener is already unregistered and can not be used anymore
+     */
+    public synchronized boolean addSubscriptionId(String subscriptionId) {
+        if (unregistered) {
+            return false;
+        }
+        subscriptionIds.add(subscriptionId);
+        return true;
+    }
+
+    /**
+     * @param subscriptionId the subscription to be removed
+     * @return true if the last subscription was removed and the listener has to be unregistered
+     */
+    public synchronized boolean removeSubscriptionId(String subscriptionId) {
+        if (subscriptionIds.remove(subscriptionId) && subscriptionIds.isEmpty()) {
+            unregistered = true;
+            return true;
+        }
+        return false;
+    }
+
     @Override
     public void attributeValueChanged(Object value) {
-        publicationManagerImpl.attributeValueChanged(subscriptionId, value);
+        publicationManagerImpl.attributeValueChanged(subscriptionIds, value);
 
     }
 
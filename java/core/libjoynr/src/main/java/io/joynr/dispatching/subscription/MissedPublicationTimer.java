@@ -20,8 +20,6 @@ package io.joynr.dispatching.subscription;
 
 import io.joynr.pubsub.subscription.AttributeSubscriptionListener;
 
-import java.util.TimerTask;
-
 import joynr.exceptions.PublicationMissedException;
 
 import org.slf4j.Logger;
@@ -40,8 +38,9 @@ public class MissedPublicationTimer extends PubSubTimerBase {
                                   long alertAfterInterval_ms,
                                   AttributeSubscriptionListener<?> callback,
                                   PubSubState state,
-                                  String subscrptionId) {
-        super(expiryDate, state);
+                                  String subscrptionId,
+                                  TimingWheel timingWheel) {
+        super(expiryDate, state, timingWheel);
         this.expectedInterval_ms = expectedInterval_ms;
         this.alertAfterInterval_ms = alertAfterInterval_ms;
         this.callback = callback;
@@ -49,7 +48,7 @@ public class MissedPublicationTimer extends PubSubTimerBase {
         startTimer();
     }
 
-    class MissedPublicationTask extends TimerTask {
+    class MissedPublicationTask implements Runnable {
 
         @Override
         public void run() {
@@ -78,7 +77,7 @@ public class MissedPublicationTimer extends PubSubTimerBase {
     }
 
     @Override
-    protected TimerTask getTimerTask() {
+    protected Runnable getTimerTask() {
         return new MissedPublicationTask();
     };
 
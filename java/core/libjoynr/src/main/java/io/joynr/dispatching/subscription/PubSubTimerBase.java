@@ -20,21 +20,22 @@ package io.joynr.dispatching.subscription;
 
 import io.joynr.pubsub.SubscriptionQos;
 
-import java.util.Timer;
-import java.util.TimerTask;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public abstract class PubSubTimerBase {
     protected long expiryDate;
     protected PubSubState state;
-    protected Timer timer = new Timer();
+    protected final TimingWheel timingWheel;
+    private final Object timerLock = new Object();
+    // the currently scheduled task of this timer
+    private TimingWheel.Timeout timeout;
     private static final Logger logger = LoggerFactory.getLogger(PubSubTimerBase.class);
 
-    public PubSubTimerBase(long expiryDate, PubSubState state) {
+    public PubSubTimerBase(long expiryDate, PubSubState state, TimingWheel timingWheel) {
         this.state = state;
         this.expiryDate = expiryDate;
+        this.timingWheel = timingWheel;
 
     }
 
@@ -52,19 +53,22 @@ public abstract class PubSubTimerBase {
     }
 
     public void cancel() {
-        synchronized (timer) {
+        synchronized (timerLock) {
             state.stop();
-            timer.cancel();
+            if (timeout != null) {
+                timeout.cancel();
+                timeout = null;
+            }
         }
     }
 
     protected void rescheduleTimer(long delay) {
-        synchronized (timer) {
+        synchronized (timerLock) {
             boolean isExpiredNow = isExpiredInMs(0);
             boolean isExpiredBeforeNextPublication = isExpiredInMs(delay);
             if (!isExpiredNow && !isExpiredBeforeNextPublication && !state.isStopped()) {
                 logger.trace("Rescheduling PubSubTimer with delay {}.", delay);
-                timer.schedule(getTimerTask(), delay);
+                timeout = timingWheel.schedulePublication(getTimerTask(), delay);
             } else {
                 logger.trace("Will not reschedule PubSubTimer: "
                         + (isExpiredNow ? "endDate is reached"
@@ -79,6 +83,6 @@ public abstract class PubSubTimerBase {
 
     }
 
-    protected abstract TimerTask getTimerTask();
+    protected abstract Runnable getTimerTask();
 
 }
@@ -18,8 +18,6 @@
  */
 package io.joynr.dispatching.subscription;
 
-import static io.joynr.runtime.JoynrInjectionConstants.JOYNR_SCHEDULER_CLEANUP;
-
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
@@ -29,9 +27,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.databind.JsonMappingException;
@@ -58,7 +53,6 @@ import io.joynr.provider.ProviderContainer;
 import io.joynr.provider.SubscriptionPublisherObservable;
 import io.joynr.pubsub.HeartbeatSubscriptionInformation;
 import io.joynr.pubsub.SubscriptionQos;
-import io.joynr.pubsub.publication.AttributeListener;
 import io.joynr.pubsub.publication.BroadcastFilter;
 import io.joynr.pubsub.publication.BroadcastListener;
 import io.joynr.pubsub.publication.MulticastListener;
@@ -87,17 +81,19 @@ public class PublicationManagerImpl implements PublicationManager, DirectoryList
     private final ConcurrentMap<String, PublicationInformation> subscriptionId2PublicationInformation;
     // Map SubscriptionId -> PublicationTimer
     private final ConcurrentMap<String, PublicationTimer> publicationTimers;
-    // Map SubscriptionId -> ScheduledFuture
-    private final ConcurrentMap<String, ScheduledFuture<?>> subscriptionEndFutures;
+    // Map SubscriptionId -> TimingWheel.Timeout
+    private final ConcurrentMap<String, TimingWheel.Timeout> subscriptionEndFutures;
     // Map SubscriptionId -> UnregisterAttributeListener
     private final ConcurrentMap<String, UnregisterAttributeListener> unregisterAttributeListeners;
+    // Map provider participant ID and attribute name -> AttributeListener shared by all subscriptions of the attribute
+    private final ConcurrentMap<String, AttributeListenerImpl> attributeListeners;
     // Map SubscriptionId -> UnregisterBroadcastListener
     private final ConcurrentMap<String, UnregisterBroadcastListener> unregisterBroadcastListeners;
     // Map provider participant ID -> MulticastListener
     private final ConcurrentMap<String, MulticastListener> multicastListeners;
 
     private AttributePollInterpreter attributePollInterpreter;
-    private ScheduledExecutorService cleanupScheduler;
+    private TimingWheel timingWheel;
     private Dispatcher dispatcher;
     private ProviderDirectory providerDirectory;
 
@@ -183,19 +179,20 @@ public class PublicationManagerImpl implements PublicationManager, DirectoryList
     public PublicationManagerImpl(AttributePollInterpreter attributePollInterpreter,
                                   Dispatcher dispatcher,
                                   ProviderDirectory providerDirectory,
-                                  @Named(JOYNR_SCHEDULER_CLEANUP) ScheduledExecutorService cleanupScheduler,
+                                  TimingWheel timingWheel,
                                   SubscriptionRequestStorage subscriptionRequestStorage,
                                   ShutdownNotifier shutdownNotifier) {
         super();
         this.dispatcher = dispatcher;
         this.providerDirectory = providerDirectory;
-        this.cleanupScheduler = cleanupScheduler;
+        this.timingWheel = timingWheel;
         this.subscriptionRequestStorage = subscriptionRequestStorage;
         this.queuedSubscriptionRequests = HashMultimap.create();
         this.subscriptionId2PublicationInformation = Maps.newConcurrentMap();
         this.publicationTimers = Maps.newConcurrentMap();
         this.subscriptionEndFutures = Maps.newConcurrentMap();
         this.unregisterAttributeListeners = Maps.newConcurrentMap();
+        this.attributeListeners = Maps.newConcurrentMap();
         this.unregisterBroadcastListeners = Maps.newConcurrentMap();
         this.multicastListeners = Maps.newConcurrentMap();
         this.attributePollInterpreter = attributePollInterpreter;
@@ -247,14 +244,15 @@ public class PublicationManagerImpl implements PublicationManager, DirectoryList
                                                                     method,
                                                                     providerContainer,
                                                                     this,
-                                                                    attributePollInterpreter);
+                                                                    attributePollInterpreter,
+                                                                    timingWheel);
 
                 timer.startTimer();
                 publicationTimers.put(subscriptionId, timer);
             }
 
             if (subscriptionQos instanceof OnChangeSubscriptionQos) {
-                handleOnChangeSubscription(subscriptionRequest, providerContainer, subscriptionId);
+                handleOnChangeSubscription(publicationInformation, providerContainer);
             }
 
             dispatcher.sendSubscriptionReply(publicationInformation.providerParticipantId,
@@ -280,16 +278,35 @@ public class PublicationManagerImpl implements PublicationManager, DirectoryList
         return messagingQos;
     }
 
-    private void handleOnChangeSubscription(SubscriptionRequest subscriptionRequest,
-                                            ProviderContainer providerContainer,
-                                            String subscriptionId) {
-        AttributeListener attributeListener = new AttributeListenerImpl(subscriptionId, this);
-        String attributeName = subscriptionRequest.getSubscribedToName();
+    private void handleOnChangeSubscription(PublicationInformation publicationInformation,
+                                            ProviderContainer providerContainer) {
+        String subscriptionId = publicationInformation.getSubscriptionId();
+        String attributeName = publicationInformation.getSubscribedToName();
+        String attributeListenerKey = publicationInformation.getProviderParticipantId() + "/" + attributeName;
         SubscriptionPublisherObservable subscriptionPublisher = providerContainer.getSubscriptionPublisher();
-        subscriptionPublisher.registerAttributeListener(attributeName, attributeListener);
+        // all subscriptions of an attribute share one listener, so that a changed value is serialized only once
+        AttributeListenerImpl attributeListener;
+        while (true) {
+            attributeListener = attributeListeners.get(attributeListenerKey);
+            if (attributeListener == null) {
+                AttributeListenerImpl newAttributeListener = new AttributeListenerImpl(this);
+                attributeListener = attributeListeners.putIfAbsent(attributeListenerKey, newAttributeListener);
+                if (attributeListener == null) {
+                    attributeListener = newAttributeListener;
+                    subscriptionPublisher.registerAttributeListener(attributeName, attributeListener);
+                }
+            }
+            if (attributeListener.addSubscriptionId(subscriptionId)) {
+                break;
+            }
+            // the listener has just lost its last subscription and is being unregistered
+            attributeListeners.remove(attributeListenerKey, attributeListener);
+        }
         unregisterAttributeListeners.put(subscriptionId, new UnregisterAttributeListener(subscriptionPublisher,
                                                                                          attributeName,
-                                                                                         attributeListener));
+                                                                                         attributeListenerKey,
+                                                                                         attributeListener,
+                                                                                         subscriptionId));
     }
 
     private void sendSubscriptionReplyWithError(PublicationInformation publicationInformation,
@@ -401,7 +418,7 @@ public class PublicationManagerImpl implements PublicationManager, DirectoryList
     private void addSubscriptionCleanupIfNecessary(SubscriptionRequest subscriptionRequest, long subscriptionEndDelay) {
         if (subscriptionRequest.getQos().getExpiryDateMs() != SubscriptionQos.NO_EXPIRY_DATE) {
             final String subscriptionId = subscriptionRequest.getSubscriptionId();
-            ScheduledFuture<?> subscriptionEndFuture = cleanupScheduler.schedule(new Runnable() {
+            TimingWheel.Timeout subscriptionEndFuture = timingWheel.schedule(new Runnable() {
 
                 @Override
                 public void run() {
@@ -409,7 +426,7 @@ public class PublicationManagerImpl implements PublicationManager, DirectoryList
                     removePublication(subscriptionId);
                 }
 
-            }, subscriptionEndDelay, TimeUnit.MILLISECONDS);
+            }, subscriptionEndDelay);
             subscriptionEndFutures.put(subscriptionId, subscriptionEndFuture);
         }
     }
@@ -498,14 +515,14 @@ public class PublicationManagerImpl implements PublicationManager, DirectoryList
             publicationTimer.cancel();
         }
 
-        ScheduledFuture<?> future = subscriptionEndFutures.remove(subscriptionId);
+        TimingWheel.Timeout future = subscriptionEndFutures.remove(subscriptionId);
         if (future != null) {
-            future.cancel(true);
+            future.cancel();
         }
 
         UnregisterAttributeListener unregisterAttributeListener = unregisterAttributeListeners.remove(subscriptionId);
         if (unregisterAttributeListener != null) {
-            unregisterAttributeListener.unregister();
+            unregisterAttributeListener.unregister(attributeListeners);
         }
         UnregisterBroadcastListener unregisterBroadcastListener = unregisterBroadcastListeners.remove(subscriptionId);
         if (unregisterBroadcastListener != null) {
@@ -516,19 +533,34 @@ public class PublicationManagerImpl implements PublicationManager, DirectoryList
     // Class that holds information needed to unregister attribute listener
     static class UnregisterAttributeListener {
         private final String attributeName;
-        private final AttributeListener attributeListener;
+        private final String attributeListenerKey;
+        private final AttributeListenerImpl attributeListener;
+        private final String subscriptionId;
         private final SubscriptionPublisherObservable subscriptionPublisher;
 
         public UnregisterAttributeListener(SubscriptionPublisherObservable subscriptionPublisher,
                                            String attributeName,
-                                           AttributeListener attributeListener) {
+                                           String attributeListenerKey,
+                                           AttributeListenerImpl attributeListener,
+                                           String subscriptionId) {
             this.subscriptionPublisher = subscriptionPublisher;
             this.attributeName = attributeName;
+            this.attributeListenerKey = attributeListenerKey;
             this.attributeListener = attributeListener;
-        }
-
-        public void unregister() {
-            subscriptionPublisher.unregisterAttributeListener(attributeName, attributeListener);
+            this.subscriptionId = subscriptionId;
+        }
+
+        /**
+         * Removes the subscription from the shared attribute listener and unregisters the listener once it has no
+         * subscriptions left.
+         *
+         * @param attributeListeners the shared attribute listeners by provider participant ID and attribute name
+         */
+        public void unregister(ConcurrentMap<String, AttributeListenerImpl> attributeListeners) {
+            if (attributeListener.removeSubscriptionId(subscriptionId)) {
+                attributeListeners.remove(attributeListenerKey, attributeListener);
+                subscriptionPublisher.unregisterAttributeListener(attributeName, attributeListener);
+            }
         }
     }
 
@@ -614,6 +646,25 @@ public class PublicationManagerImpl implements PublicationManager, DirectoryList
 
     @Override
     public void attributeValueChanged(String subscriptionId, Object value) {
+        attributeValueChanged(subscriptionId, Arrays.asList(value));
+    }
+
+    /**
+     * Sends the changed value of an attribute to all given subscriptions of the attribute. The value is serialized
+     * only once for all subscriptions.
+     *
+     * @param subscriptionIds the ids of the subscriptions of the attribute
+     * @param value the new value of the attribute
+     */
+    public void attributeValueChanged(Collection<String> subscriptionIds, Object value) {
+        List<Object> response = (subscriptionIds.size() > 1) ? new SharedPublicationResponse(value)
+                : Arrays.asList(value);
+        for (String subscriptionId : subscriptionIds) {
+            attributeValueChanged(subscriptionId, response);
+        }
+    }
+
+    private void attributeValueChanged(String subscriptionId, List<Object> response) {
 
         if (subscriptionId2PublicationInformation.containsKey(subscriptionId)) {
             PublicationInformation publicationInformation = subscriptionId2PublicationInformation.get(subscriptionId);
@@ -622,7 +673,7 @@ public class PublicationManagerImpl implements PublicationManager, DirectoryList
                 removePublication(subscriptionId);
             } else {
                 PublicationTimer publicationTimer = publicationTimers.get(subscriptionId);
-                SubscriptionPublication publication = prepareAttributePublication(value, subscriptionId);
+                SubscriptionPublication publication = new SubscriptionPublication(response, subscriptionId);
                 if (publicationTimer != null) {
                     // used by OnChangedWithKeepAlive
                     publicationTimer.sendPublicationNow(publication);
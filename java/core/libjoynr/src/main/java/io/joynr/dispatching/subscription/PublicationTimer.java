@@ -30,7 +30,6 @@ import io.joynr.pubsub.SubscriptionQos;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
-import java.util.TimerTask;
 
 import joynr.OnChangeSubscriptionQos;
 import joynr.SubscriptionPublication;
@@ -54,7 +53,8 @@ public class PublicationTimer extends PubSubTimerBase {
     private final long publicationTtl;
     private final long minInterval;
     private final long period;
-    private boolean pendingPublication;
+    // delayed publication waiting for the minInterval to pass
+    private TimingWheel.Timeout pendingPublication;
     private final PublicationManager publicationManager;
 
     /**
@@ -64,13 +64,15 @@ public class PublicationTimer extends PubSubTimerBase {
      * @param providerContainer request caller
      * @param publicationManager publication manager to send publication messages
      * @param attributePollInterpreter attribute poll interpreter to execute method
+     * @param timingWheel timing wheel used to schedule the publications
      */
     public PublicationTimer(PublicationInformation publicationInformation,
                             Method method,
                             ProviderContainer providerContainer,
                             PublicationManager publicationManager,
-                            AttributePollInterpreter attributePollInterpreter) {
-        super(publicationInformation.getQos().getExpiryDateMs(), publicationInformation.getState());
+                            AttributePollInterpreter attributePollInterpreter,
+                            TimingWheel timingWheel) {
+        super(publicationInformation.getQos().getExpiryDateMs(), publicationInformation.getState(), timingWheel);
         this.publicationManager = publicationManager;
 
         SubscriptionQos qos = publicationInformation.getQos();
@@ -88,10 +90,10 @@ public class PublicationTimer extends PubSubTimerBase {
         this.providerContainer = providerContainer;
         this.attributePollInterpreter = attributePollInterpreter;
         this.method = method;
-        this.pendingPublication = false;
+        this.pendingPublication = null;
     }
 
-    class PublicationTask extends TimerTask {
+    class PublicationTask implements Runnable {
 
         @Override
         public void run() {
@@ -166,35 +168,28 @@ public class PublicationTimer extends PubSubTimerBase {
                 logger.error("sendPublication error.", e);
             }
             synchronized (PublicationTimer.this) {
-                if (pendingPublication) {
-                    pendingPublication = false;
-                    PublicationTimer.this.notify();
+                if (pendingPublication != null) {
+                    pendingPublication.cancel();
+                    pendingPublication = null;
                 }
             }
             logger.trace("sent subscriptionreply @ " + state.getTimeOfLastPublication());
         } else {
             synchronized (PublicationTimer.this) {
-                if (!pendingPublication) {
-                    pendingPublication = true;
+                if (pendingPublication == null) {
                     final long timeToWait = minInterval - timeSinceLast;
                     logger.trace("TimeToWait for subscription {}: {}", publication.getSubscriptionId(), timeToWait);
-                    new Thread(new Runnable() {
+                    pendingPublication = timingWheel.schedulePublication(new Runnable() {
                         @Override
                         public void run() {
                             synchronized (PublicationTimer.this) {
-                                try {
-                                    PublicationTimer.this.wait(timeToWait);
-                                    if (pendingPublication) {
-                                        sendPublication(publication);
-                                    }
-                                } catch (InterruptedException e) {
-                                    Thread.currentThread().interrupt();
-                                    logger.trace("DelayedPublicationThread interrupted. No publication is sent.");
-                                }
+                                pendingPublication = null;
+                            }
+                            if (!state.isStopped()) {
+                                sendPublication(publication);
                             }
-
                         }
-                    }).start();
+                    }, timeToWait);
                 } else {
                     logger.trace("ignored attribute change. Mininterval {} not yet reached since timeSinceLast: {}",
                                  minInterval,
@@ -205,7 +200,7 @@ public class PublicationTimer extends PubSubTimerBase {
     }
 
     @Override
-    protected TimerTask getTimerTask() {
+    protected Runnable getTimerTask() {
         return new PublicationTask();
     }
 
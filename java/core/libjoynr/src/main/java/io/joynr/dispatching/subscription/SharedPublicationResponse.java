@@ -0,0 +1,135 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.dispatching.subscription;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.google.common.base.Charsets;
+
+import io.joynr.messaging.serialize.JsonPayloadCodec;
+import io.joynr.messaging.serialize.PayloadCodec;
+import joynr.SubscriptionPublication;
+
+/**
+ * Response of an attribute publication which is sent to several subscriptions of the same attribute.
+ * <p>
+ * For the JSON codec the publication is serialized only once: the first serialization creates a template of the
+ * payload in which only the subscriptionId is replaced for each subscription. Other codecs serialize the whole
+ * publication for each subscription.
+ */
+public class SharedPublicationResponse extends AbstractList<Object> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Object value;
+    private transient volatile PayloadTemplate jsonPayloadTemplate;
+
+    public SharedPublicationResponse(Object value) {
+        this.value = value;
+    }
+
+    @Override
+    public Object get(int index) {
+        if (index != 0) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: 1");
+        }
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return 1;
+    }
+
+    /**
+     * Serializes a publication of this response.
+     *
+     * @param subscriptionId the id of the subscription the publication is sent to
+     * @param payloadCodec the codec used to serialize the payload
+     * @return the serialized publication
+     * @throws IOException if the publication cannot be serialized
+     */
+    public byte[] serializePublication(String subscriptionId, PayloadCodec payloadCodec) throws IOException {
+        if (!JsonPayloadCodec.NAME.equals(payloadCodec.getName())) {
+            return payloadCodec.serialize(new SubscriptionPublication(this, subscriptionId));
+        }
+        PayloadTemplate payloadTemplate = jsonPayloadTemplate;
+        if (payloadTemplate == null) {
+            // concurrent callers might create the template twice, both results are equal
+            payloadTemplate = createJsonPayloadTemplate(payloadCodec);
+            jsonPayloadTemplate = payloadTemplate;
+        }
+        if (payloadTemplate.prefix == null) {
+            return payloadCodec.serialize(new SubscriptionPublication(this, subscriptionId));
+        }
+        return payloadTemplate.createPayload(subscriptionId);
+    }
+
+    private PayloadTemplate createJsonPayloadTemplate(PayloadCodec payloadCodec) throws IOException {
+        String placeholder = UUID.randomUUID().toString();
+        byte[] payload = payloadCodec.serialize(new SubscriptionPublication(this, placeholder));
+        byte[] quotedPlaceholder = ("\"" + placeholder + "\"").getBytes(Charsets.UTF_8);
+        int start = indexOf(payload, quotedPlaceholder, 0);
+        if (start < 0 || indexOf(payload, quotedPlaceholder, start + 1) >= 0) {
+            // the value contains the placeholder, fall back to serializing every publication
+            return new PayloadTemplate(null, null);
+        }
+        int end = start + quotedPlaceholder.length;
+        byte[] prefix = new byte[start + 1];
+        System.arraycopy(payload, 0, prefix, 0, prefix.length);
+        byte[] suffix = new byte[payload.length - end + 1];
+        System.arraycopy(payload, end - 1, suffix, 0, suffix.length);
+        return new PayloadTemplate(prefix, suffix);
+    }
+
+    private static int indexOf(byte[] array, byte[] target, int fromIndex) {
+        outer: for (int i = fromIndex; i <= array.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (array[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static class PayloadTemplate {
+        // prefix and suffix include the quotes of the subscriptionId string
+        private final byte[] prefix;
+        private final byte[] suffix;
+
+        PayloadTemplate(byte[] prefix, byte[] suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        byte[] createPayload(String subscriptionId) {
+            byte[] encodedSubscriptionId = JsonStringEncoder.getInstance().quoteAsUTF8(subscriptionId);
+            byte[] payload = new byte[prefix.length + encodedSubscriptionId.length + suffix.length];
+            System.arraycopy(prefix, 0, payload, 0, prefix.length);
+            System.arraycopy(encodedSubscriptionId, 0, payload, prefix.length, encodedSubscriptionId.length);
+            System.arraycopy(suffix, 0, payload, prefix.length + encodedSubscriptionId.length, suffix.length);
+            return payload;
+        }
+    }
+}
@@ -18,31 +18,24 @@
  */
 package io.joynr.dispatching.subscription;
 
-import static io.joynr.runtime.JoynrInjectionConstants.JOYNR_SCHEDULER_CLEANUP;
-
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.regex.Pattern;
 
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.google.inject.name.Named;
+import io.joynr.dispatcher.rpc.ReflectionUtils;
 import io.joynr.dispatching.Dispatcher;
 import io.joynr.exceptions.JoynrRuntimeException;
 import io.joynr.messaging.MessagingQos;
-import io.joynr.messaging.util.MulticastWildcardRegexFactory;
+import io.joynr.messaging.util.MulticastWildcardTrie;
 import io.joynr.proxy.Future;
 import io.joynr.proxy.invocation.AttributeSubscribeInvocation;
 import io.joynr.proxy.invocation.BroadcastSubscribeInvocation;
@@ -64,35 +57,37 @@ import org.slf4j.LoggerFactory;
 
 @Singleton
 public class SubscriptionManagerImpl implements SubscriptionManager {
+    private static final MethodType ON_RECEIVE_TYPE = MethodType.methodType(void.class, Object[].class);
 
     private ConcurrentMap<String, AttributeSubscriptionListener<?>> subscriptionListenerDirectory;
     private ConcurrentMap<String, BroadcastSubscriptionListener> broadcastSubscriptionListenerDirectory;
-    private ConcurrentMap<Pattern, Set<String>> multicastSubscribersDirectory;
+    private MulticastWildcardTrie<String> multicastSubscribersDirectory;
     private ConcurrentMap<String, Future<String>> subscriptionFutureMap;
     private ConcurrentMap<String, Class<?>> subscriptionTypes;
     private ConcurrentMap<String, Class<?>[]> unicastBroadcastTypes;
-    private ConcurrentMap<Pattern, Class<?>[]> multicastBroadcastTypes;
+    private ConcurrentMap<String, Class<?>[]> multicastBroadcastTypes;
+    private ConcurrentMap<String, String> multicastIds = Maps.newConcurrentMap();
     private ConcurrentMap<String, PubSubState> subscriptionStates;
     private ConcurrentMap<String, MissedPublicationTimer> missedPublicationTimers;
-    private ConcurrentMap<String, ScheduledFuture<?>> subscriptionEndFutures; // These futures will be needed if a
+    // onReceive method per broadcast listener class, resolved once instead of for every publication
+    private ConcurrentMap<Class<?>, Method> onReceiveMethods = Maps.newConcurrentMap();
+    // onReceive method handle bound to the broadcast listener per subscriptionId, created at registration
+    private ConcurrentMap<String, MethodHandle> onReceiveHandles = Maps.newConcurrentMap();
+    private ConcurrentMap<String, TimingWheel.Timeout> subscriptionEndFutures; // These futures will be needed if a
     // subscription
     // should be updated with a new end time
 
     private static final Logger logger = LoggerFactory.getLogger(SubscriptionManagerImpl.class);
-    private ScheduledExecutorService cleanupScheduler;
+    private TimingWheel timingWheel;
     private Dispatcher dispatcher;
 
-    private final MulticastWildcardRegexFactory multicastWildcardRegexFactory;
-
     @Inject
-    public SubscriptionManagerImpl(@Named(JOYNR_SCHEDULER_CLEANUP) ScheduledExecutorService cleanupScheduler,
-                                   Dispatcher dispatcher,
-                                   MulticastWildcardRegexFactory multicastWildcardRegexFactory) {
-        this.cleanupScheduler = cleanupScheduler;
+    public SubscriptionManagerImpl(TimingWheel timingWheel, Dispatcher dispatcher) {
+        this.timingWheel = timingWheel;
         this.dispatcher = dispatcher;
         this.subscriptionListenerDirectory = Maps.newConcurrentMap();
         this.broadcastSubscriptionListenerDirectory = Maps.newConcurrentMap();
-        this.multicastSubscribersDirectory = Maps.newConcurrentMap();
+        this.multicastSubscribersDirectory = new MulticastWildcardTrie<String>();
         this.subscriptionStates = Maps.newConcurrentMap();
         this.missedPublicationTimers = Maps.newConcurrentMap();
         this.subscriptionEndFutures = Maps.newConcurrentMap();
@@ -100,23 +95,21 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
         this.unicastBroadcastTypes = Maps.newConcurrentMap();
         this.multicastBroadcastTypes = Maps.newConcurrentMap();
         this.subscriptionFutureMap = Maps.newConcurrentMap();
-        this.multicastWildcardRegexFactory = multicastWildcardRegexFactory;
     }
 
     // CHECKSTYLE IGNORE ParameterNumber FOR NEXT 1 LINES
     public SubscriptionManagerImpl(ConcurrentMap<String, AttributeSubscriptionListener<?>> attributeSubscriptionDirectory,
                                    ConcurrentMap<String, BroadcastSubscriptionListener> broadcastSubscriptionDirectory,
-                                   ConcurrentMap<Pattern, Set<String>> multicastSubscribersDirectory,
+                                   MulticastWildcardTrie<String> multicastSubscribersDirectory,
                                    ConcurrentMap<String, PubSubState> subscriptionStates,
                                    ConcurrentMap<String, MissedPublicationTimer> missedPublicationTimers,
-                                   ConcurrentMap<String, ScheduledFuture<?>> subscriptionEndFutures,
+                                   ConcurrentMap<String, TimingWheel.Timeout> subscriptionEndFutures,
                                    ConcurrentMap<String, Class<?>> subscriptionAttributeTypes,
                                    ConcurrentMap<String, Class<?>[]> unicastBroadcastTypes,
-                                   ConcurrentMap<Pattern, Class<?>[]> multicastBroadcastTypes,
+                                   ConcurrentMap<String, Class<?>[]> multicastBroadcastTypes,
                                    ConcurrentMap<String, Future<String>> subscriptionFutureMap,
-                                   ScheduledExecutorService cleanupScheduler,
-                                   Dispatcher dispatcher,
-                                   MulticastWildcardRegexFactory multicastWildcardRegexFactory) {
+                                   TimingWheel timingWheel,
+                                   Dispatcher dispatcher) {
         super();
         this.subscriptionListenerDirectory = attributeSubscriptionDirectory;
         this.broadcastSubscriptionListenerDirectory = broadcastSubscriptionDirectory;
@@ -127,16 +120,15 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
         this.subscriptionTypes = subscriptionAttributeTypes;
         this.unicastBroadcastTypes = unicastBroadcastTypes;
         this.multicastBroadcastTypes = multicastBroadcastTypes;
-        this.cleanupScheduler = cleanupScheduler;
+        this.timingWheel = timingWheel;
         this.dispatcher = dispatcher;
         this.subscriptionFutureMap = subscriptionFutureMap;
-        this.multicastWildcardRegexFactory = multicastWildcardRegexFactory;
     }
 
     private void cancelExistingSubscriptionEndRunnable(String subscriptionId) {
-        ScheduledFuture<?> scheduledFuture = subscriptionEndFutures.get(subscriptionId);
+        TimingWheel.Timeout scheduledFuture = subscriptionEndFutures.get(subscriptionId);
         if (scheduledFuture != null) {
-            scheduledFuture.cancel(false);
+            scheduledFuture.cancel();
         }
     }
 
@@ -156,9 +148,8 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
 
         if (expiryDate != SubscriptionQos.NO_EXPIRY_DATE) {
             SubscriptionEndRunnable endRunnable = new SubscriptionEndRunnable(subscriptionId);
-            ScheduledFuture<?> subscriptionEndFuture = cleanupScheduler.schedule(endRunnable,
-                                                                                 expiryDate,
-                                                                                 TimeUnit.MILLISECONDS);
+            TimingWheel.Timeout subscriptionEndFuture = timingWheel.schedule(endRunnable,
+                                                                             expiryDate - System.currentTimeMillis());
             subscriptionEndFutures.put(subscriptionId, subscriptionEndFuture);
         }
     }
@@ -196,7 +187,8 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
                                                                                                     heartbeat.getAlertAfterIntervalMs(),
                                                                                                     request.getAttributeSubscriptionListener(),
                                                                                                     subscriptionStates.get(request.getSubscriptionId()),
-                                                                                                    request.getSubscriptionId()));
+                                                                                                    request.getSubscriptionId(),
+                                                                                                    timingWheel));
                                          }
                                      }
 
@@ -223,6 +215,7 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
                                      unicastBroadcastTypes.put(subscriptionId, request.getOutParameterTypes());
                                      broadcastSubscriptionListenerDirectory.put(subscriptionId,
                                                                                 request.getBroadcastSubscriptionListener());
+                                     resolveOnReceiveHandle(subscriptionId, request.getBroadcastSubscriptionListener());
                                      return new BroadcastSubscriptionRequest(request.getSubscriptionId(),
                                                                              request.getBroadcastName(),
                                                                              request.getFilterParameters(),
@@ -255,16 +248,14 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
                                      public SubscriptionRequest execute() {
                                          String subscriptionId = multicastSubscribeInvocation.getSubscriptionId();
                                          logger.trace("Multicast subscription registered with Id: " + subscriptionId);
-                                         Pattern multicastIdPattern = multicastWildcardRegexFactory.createIdPattern(multicastId);
-                                         if (!multicastSubscribersDirectory.containsKey(multicastIdPattern)) {
-                                             multicastSubscribersDirectory.putIfAbsent(multicastIdPattern,
-                                                                                       Sets.<String> newHashSet());
-                                         }
-                                         multicastSubscribersDirectory.get(multicastIdPattern).add(subscriptionId);
-                                         multicastBroadcastTypes.putIfAbsent(multicastIdPattern,
-                                                                             multicastSubscribeInvocation.getOutParameterTypes());
+                                         multicastSubscribersDirectory.put(multicastId, subscriptionId);
+                                         multicastIds.put(subscriptionId, multicastId);
+                                         multicastBroadcastTypes.put(subscriptionId,
+                                                                     multicastSubscribeInvocation.getOutParameterTypes());
                                          broadcastSubscriptionListenerDirectory.put(subscriptionId,
                                                                                     multicastSubscribeInvocation.getListener());
+                                         resolveOnReceiveHandle(subscriptionId,
+                                                                multicastSubscribeInvocation.getListener());
                                          return new MulticastSubscriptionRequest(multicastId,
                                                                                  multicastSubscribeInvocation.getSubscriptionId(),
                                                                                  multicastSubscribeInvocation.getSubscriptionName(),
@@ -328,34 +319,38 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
         BroadcastSubscriptionListener broadcastSubscriptionListener = getBroadcastSubscriptionListener(subscriptionId);
 
         try {
-            Class<?>[] broadcastTypes = getParameterTypesForBroadcastPublication(broadcastValues);
-            Method receive = broadcastSubscriptionListener.getClass().getDeclaredMethod("onReceive", broadcastTypes);
-            if (!receive.isAccessible()) {
-                receive.setAccessible(true);
+            MethodHandle receive = onReceiveHandles.get(subscriptionId);
+            if (receive == null) {
+                receive = resolveOnReceiveHandle(subscriptionId, broadcastSubscriptionListener);
+            }
+            if (receive == null) {
+                // listener with overloaded onReceive methods, select the method by the received values
+                Class<?>[] broadcastTypes = getParameterTypesForBroadcastPublication(broadcastValues);
+                Method method = broadcastSubscriptionListener.getClass().getDeclaredMethod("onReceive", broadcastTypes);
+                if (!method.isAccessible()) {
+                    method.setAccessible(true);
+                }
+                receive = createOnReceiveHandle(method, broadcastSubscriptionListener);
             }
 
             logger.debug("SUBSCRIPTION notify listener: subscriptionId: {}, broadcastValue: {}",
                          subscriptionId,
                          broadcastValues);
-            receive.invoke(broadcastSubscriptionListener, broadcastValues);
+            receive.invokeExact(broadcastValues);
 
-        } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException | SecurityException e) {
+        } catch (Throwable e) {
             logger.error("Broadcast publication could not be processed", e);
         }
     }
 
     @Override
     public void handleMulticastPublication(String multicastId, Object[] publicizedValues) {
-        for (Map.Entry<Pattern, Set<String>> entry : multicastSubscribersDirectory.entrySet()) {
-            if (entry.getKey().matcher(multicastId).matches()) {
-                for (String subscriptionId : entry.getValue()) {
-                    logger.trace("SUBSCRIPTION notify listener: subscriptionId: {}, multicastId: {}, broadcastValue: {}",
-                                 subscriptionId,
-                                 multicastId,
-                                 publicizedValues);
-                    handleBroadcastPublication(subscriptionId, publicizedValues);
-                }
-            }
+        for (String subscriptionId : multicastSubscribersDirectory.getValues(multicastId)) {
+            logger.trace("SUBSCRIPTION notify listener: subscriptionId: {}, multicastId: {}, broadcastValue: {}",
+                         subscriptionId,
+                         multicastId,
+                         publicizedValues);
+            handleBroadcastPublication(subscriptionId, publicizedValues);
         }
     }
 
@@ -470,14 +465,13 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
 
     @Override
     public Class<?>[] getMulticastPublicationOutParameterTypes(String multicastId) {
-        Class<?>[] outParamterTypes = null;
-        for (Map.Entry<Pattern, Class<?>[]> entry : multicastBroadcastTypes.entrySet()) {
-            if (entry.getKey().matcher(multicastId).matches()) {
-                outParamterTypes = entry.getValue();
-                break;
+        for (String subscriptionId : multicastSubscribersDirectory.getValues(multicastId)) {
+            Class<?>[] outParameterTypes = multicastBroadcastTypes.get(subscriptionId);
+            if (outParameterTypes != null) {
+                return outParameterTypes;
             }
         }
-        return outParamterTypes;
+        return null;
     }
 
     private void removeSubscription(String subscriptionId) {
@@ -485,22 +479,81 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
             missedPublicationTimers.get(subscriptionId).cancel();
             missedPublicationTimers.remove(subscriptionId);
         }
-        ScheduledFuture<?> future = subscriptionEndFutures.remove(subscriptionId);
+        TimingWheel.Timeout future = subscriptionEndFutures.remove(subscriptionId);
         if (future != null) {
-            future.cancel(true);
+            future.cancel();
         }
         subscriptionStates.remove(subscriptionId);
         subscriptionListenerDirectory.remove(subscriptionId);
         unicastBroadcastTypes.remove(subscriptionId);
         broadcastSubscriptionListenerDirectory.remove(subscriptionId);
-        for (Entry<Pattern, Set<String>> entry : multicastSubscribersDirectory.entrySet()) {
-            Set<String> subscriptionIds = entry.getValue();
-            subscriptionIds.remove(subscriptionId);
-            if (subscriptionIds.isEmpty()) {
-                multicastBroadcastTypes.remove(entry.getKey());
-            }
+        String multicastId = multicastIds.remove(subscriptionId);
+        if (multicastId != null) {
+            multicastSubscribersDirectory.remove(multicastId, subscriptionId);
         }
+        multicastBroadcastTypes.remove(subscriptionId);
         subscriptionTypes.remove(subscriptionId);
+        onReceiveHandles.remove(subscriptionId);
+    }
+
+    /**
+     * Creates the method handle which invokes onReceive of the listener with the published values. The handle is
+     * only cached while the listener is registered, so that it is not kept after the subscription has been removed.
+     *
+     * @return the method handle, or null if the listener class does not declare exactly one onReceive method
+     */
+    private MethodHandle resolveOnReceiveHandle(String subscriptionId, BroadcastSubscriptionListener listener) {
+        Method receive = resolveOnReceiveMethod(listener);
+        if (receive == null) {
+            return null;
+        }
+        try {
+            MethodHandle handle = createOnReceiveHandle(receive, listener);
+            onReceiveHandles.put(subscriptionId, handle);
+            // removeSubscription removes the listener before the handle: if the listener is gone now, the handle may
+            // have been cached after removeSubscription and has to be removed here
+            if (broadcastSubscriptionListenerDirectory.get(subscriptionId) != listener) {
+                onReceiveHandles.remove(subscriptionId, handle);
+            }
+            return handle;
+        } catch (IllegalAccessException e) {
+            logger.debug("onReceive of {} is not accessible: {}", listener.getClass(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static MethodHandle createOnReceiveHandle(Method receive, BroadcastSubscriptionListener listener)
+                                                                                                             throws IllegalAccessException {
+        return MethodHandles.lookup()
+                            .unreflect(receive)
+                            .bindTo(listener)
+                            .asSpreader(Object[].class, receive.getParameterTypes().length)
+                            .asType(ON_RECEIVE_TYPE);
+    }
+
+    /**
+     * Looks up the onReceive method of the listener class once, so that publications do not have to search it.
+     *
+     * @return the onReceive method, or null if the listener class does not declare exactly one onReceive method
+     */
+    private Method resolveOnReceiveMethod(BroadcastSubscriptionListener listener) {
+        Class<?> listenerClass = listener.getClass();
+        Method receive = onReceiveMethods.get(listenerClass);
+        if (receive != null) {
+            return receive;
+        }
+        try {
+            List<Method> methods = ReflectionUtils.findMethodsByName(listenerClass, "onReceive");
+            if (methods.size() != 1) {
+                return null;
+            }
+            receive = methods.get(0);
+            receive.setAccessible(true);
+        } catch (NoSuchMethodException | SecurityException e) {
+            return null;
+        }
+        onReceiveMethods.putIfAbsent(listenerClass, receive);
+        return receive;
     }
 
     private Class<?>[] getParameterTypesForBroadcastPublication(Object[] broadcastValues) {
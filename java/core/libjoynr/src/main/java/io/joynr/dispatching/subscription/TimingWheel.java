@@ -0,0 +1,350 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.dispatching.subscription;
+
+import static io.joynr.runtime.JoynrInjectionConstants.JOYNR_PUBLICATION_EXECUTOR;
+import static io.joynr.runtime.JoynrInjectionConstants.JOYNR_SCHEDULER_CLEANUP;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+import io.joynr.runtime.JoynrThreadFactory;
+import io.joynr.runtime.ShutdownListener;
+import io.joynr.runtime.ShutdownNotifier;
+
+/**
+ * Hashed timing wheel which is shared by all publication timers, missed publication timers and subscription end
+ * tasks.
+ * <p>
+ * Time is divided into ticks of {@link #DEFAULT_TICK_MS} milliseconds. Every task is put into the slot of the tick
+ * in which it is due, tasks which are due more than one revolution ahead stay in their slot until the wheel reaches
+ * their tick. Scheduling and cancelling a task are O(1). A single thread advances the wheel and hands all due tasks
+ * of a slot over to an executor; the tasks themselves never run on the wheel thread. Between two non-empty slots the
+ * wheel thread sleeps, so an almost empty wheel does not wake up every tick. Tasks are executed up to one tick later
+ * than requested.
+ * <p>
+ * Publication tasks ({@link #schedulePublication(Runnable, long)}) run on their own executor, so that slow
+ * providers or listeners do not delay the cleanup tasks scheduled with {@link #schedule(Runnable, long)}.
+ */
+@Singleton
+public class TimingWheel implements ShutdownListener {
+    private static final Logger logger = LoggerFactory.getLogger(TimingWheel.class);
+
+    public static final long DEFAULT_TICK_MS = 10;
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final Executor executor;
+    private final Executor publicationExecutor;
+    private final long tickNanos;
+    private final Slot[] wheel;
+    private final int mask;
+    private final long startTime = System.nanoTime();
+
+    private final Object lock = new Object();
+    // the next tick to be processed by the wheel thread, only modified by the wheel thread while holding the lock
+    private long currentTick = 0;
+    private int pendingTimeouts = 0;
+    private boolean idle = false;
+    // the tick the wheel thread sleeps until, -1 if it is not sleeping between two non-empty slots
+    private long wakeupTick = -1;
+    private Thread wheelThread;
+    private boolean shutdown = false;
+
+    /**
+     * Handle of a scheduled task.
+     */
+    public static final class Timeout {
+        private final Runnable task;
+        private final Executor executor;
+        private long deadlineTick;
+        private Slot slot;
+        private Timeout previous;
+        private Timeout next;
+        private boolean cancelled = false;
+        private final TimingWheel timingWheel;
+
+        private Timeout(TimingWheel timingWheel, Runnable task, Executor executor) {
+            this.timingWheel = timingWheel;
+            this.task = task;
+            this.executor = executor;
+        }
+
+        /**
+         * Cancels the task if it is not yet due.
+         *
+         * @return true if the task was cancelled, false if it is already due or has been cancelled before
+         */
+        public boolean cancel() {
+            synchronized (timingWheel.lock) {
+                if (slot == null) {
+                    return false;
+                }
+                slot.remove(this);
+                timingWheel.pendingTimeouts--;
+                cancelled = true;
+                return true;
+            }
+        }
+
+        public boolean isCancelled() {
+            synchronized (timingWheel.lock) {
+                return cancelled;
+            }
+        }
+    }
+
+    private static final class Slot {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.slot = this;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.previous == null) {
+                head = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.previous;
+            } else {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.slot = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+        boolean isEmpty() {
+            return head == null;
+        }
+
+        void expireTimeouts(long tick, List<Timeout> expiredTimeouts) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.deadlineTick <= tick) {
+                    remove(timeout);
+                    expiredTimeouts.add(timeout);
+                }
+                timeout = next;
+            }
+        }
+    }
+
+    @Inject
+    public TimingWheel(@Named(JOYNR_SCHEDULER_CLEANUP) ScheduledExecutorService executor,
+                       @Named(JOYNR_PUBLICATION_EXECUTOR) ExecutorService publicationExecutor,
+                       ShutdownNotifier shutdownNotifier) {
+        this(executor, publicationExecutor, DEFAULT_TICK_MS, DEFAULT_WHEEL_SIZE);
+        shutdownNotifier.registerForShutdown(this);
+    }
+
+    /**
+     * @param executor executes all due tasks, including publication tasks
+     * @param tickMs the duration of a tick in milliseconds
+     * @param wheelSize the number of slots of the wheel, rounded up to the next power of two
+     */
+    public TimingWheel(Executor executor, long tickMs, int wheelSize) {
+        this(executor, executor, tickMs, wheelSize);
+    }
+
+    /**
+     * @param executor executes the due tasks
+     * @param publicationExecutor executes the due publication tasks
+     * @param tickMs the duration of a tick in milliseconds
+     * @param wheelSize the number of slots of the wheel, rounded up to the next power of two
+     */
+    public TimingWheel(Executor executor, Executor publicationExecutor, long tickMs, int wheelSize) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMs and wheelSize must be positive");
+        }
+        this.executor = executor;
+        this.publicationExecutor = publicationExecutor;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.wheel = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Slot();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Schedules a task to be executed once after the given delay.
+     *
+     * @param task the task to be executed
+     * @param delayMs the delay in milliseconds
+     * @return the handle of the scheduled task which can be used to cancel it
+     */
+    public Timeout schedule(Runnable task, long delayMs) {
+        return schedule(task, delayMs, executor);
+    }
+
+    /**
+     * Schedules a publication task to be executed once after the given delay. Publication tasks call providers or
+     * subscription listeners and are therefore executed on the publication executor.
+     *
+     * @param task the task to be executed
+     * @param delayMs the delay in milliseconds
+     * @return the handle of the scheduled task which can be used to cancel it
+     */
+    public Timeout schedulePublication(Runnable task, long delayMs) {
+        return schedule(task, delayMs, publicationExecutor);
+    }
+
+    private Timeout schedule(Runnable task, long delayMs, Executor taskExecutor) {
+        long deadline = elapsedNanos() + TimeUnit.MILLISECONDS.toNanos(Math.max(delayMs, 0));
+        // the tick whose processing starts not before the deadline
+        long dueTick = (deadline + tickNanos - 1) / tickNanos;
+        Timeout timeout = new Timeout(this, task, taskExecutor);
+        synchronized (lock) {
+            if (shutdown) {
+                throw new RejectedExecutionException("TimingWheel is shut down");
+            }
+            if (idle) {
+                // the wheel thread waits without pending tasks, so the elapsed ticks can be skipped
+                currentTick = Math.max(currentTick, elapsedNanos() / tickNanos);
+            }
+            long tick = Math.max(dueTick, currentTick);
+            timeout.deadlineTick = tick;
+            wheel[(int) (tick & mask)].add(timeout);
+            pendingTimeouts++;
+            if (wheelThread == null) {
+                wheelThread = new JoynrThreadFactory("TimingWheel", true).newThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        advance();
+                    }
+                });
+                wheelThread.start();
+            } else if (idle || (wakeupTick >= 0 && tick < wakeupTick)) {
+                // wake up the wheel thread if it waits without pending tasks or sleeps beyond the new task
+                idle = false;
+                lock.notifyAll();
+            }
+        }
+        return timeout;
+    }
+
+    /**
+     * @return the number of scheduled tasks which are neither due nor cancelled
+     */
+    public int getPendingTimeouts() {
+        synchronized (lock) {
+            return pendingTimeouts;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (lock) {
+            shutdown = true;
+            lock.notifyAll();
+        }
+    }
+
+    private long elapsedNanos() {
+        return System.nanoTime() - startTime;
+    }
+
+    private void advance() {
+        List<Timeout> expiredTimeouts = new ArrayList<>();
+        try {
+            while (true) {
+                synchronized (lock) {
+                    while (!shutdown && pendingTimeouts == 0) {
+                        idle = true;
+                        lock.wait();
+                    }
+                    idle = false;
+                    if (shutdown) {
+                        return;
+                    }
+                    long nextTick = nextNonEmptyTick();
+                    long remainingNanos = nextTick * tickNanos - elapsedNanos();
+                    if (remainingNanos > 0) {
+                        // woken up early if a task is scheduled before nextTick, then the next tick is recomputed
+                        wakeupTick = nextTick;
+                        TimeUnit.NANOSECONDS.timedWait(lock, remainingNanos);
+                        wakeupTick = -1;
+                        continue;
+                    }
+                    // all slots between currentTick and nextTick are empty
+                    currentTick = nextTick;
+                    wheel[(int) (currentTick & mask)].expireTimeouts(currentTick, expiredTimeouts);
+                    pendingTimeouts -= expiredTimeouts.size();
+                    currentTick++;
+                }
+                for (Timeout timeout : expiredTimeouts) {
+                    execute(timeout);
+                }
+                expiredTimeouts.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.debug("TimingWheel interrupted");
+        }
+    }
+
+    /**
+     * @return the first tick not before currentTick whose slot contains a task, must only be called if there are
+     *         pending tasks
+     */
+    private long nextNonEmptyTick() {
+        for (int i = 0; i < wheel.length; i++) {
+            if (!wheel[(int) ((currentTick + i) & mask)].isEmpty()) {
+                return currentTick + i;
+            }
+        }
+        throw new IllegalStateException("no pending tasks");
+    }
+
+    private void execute(Timeout timeout) {
+        try {
+            timeout.executor.execute(timeout.task);
+        } catch (RejectedExecutionException e) {
+            logger.debug("TimingWheel task rejected: {}", e.getMessage());
+        }
+    }
+}
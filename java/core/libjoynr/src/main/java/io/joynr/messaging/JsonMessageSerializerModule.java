@@ -22,10 +22,16 @@ import io.joynr.messaging.serialize.JoynrArraySerializer;
 import io.joynr.messaging.serialize.JoynrEnumSerializer;
 import io.joynr.messaging.serialize.JoynrListSerializer;
 import io.joynr.messaging.serialize.JoynrUntypedObjectDeserializer;
+import io.joynr.messaging.serialize.MulticastPublicationDeserializer;
 import io.joynr.messaging.serialize.OneWayRequestDeserializer;
+import io.joynr.messaging.serialize.PayloadCodec;
 import io.joynr.messaging.serialize.RequestDeserializer;
+import io.joynr.messaging.serialize.SmilePayloadCodec;
+import io.joynr.messaging.serialize.SubscriptionPublicationDeserializer;
+import joynr.MulticastPublication;
 import joynr.OneWayRequest;
 import joynr.Request;
+import joynr.SubscriptionPublication;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.Version;
@@ -41,6 +47,7 @@ import com.fasterxml.jackson.databind.type.SimpleType;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
+import com.google.inject.multibindings.MapBinder;
 
 public class JsonMessageSerializerModule extends AbstractModule {
 
@@ -54,6 +61,16 @@ public class JsonMessageSerializerModule extends AbstractModule {
 
     public JsonMessageSerializerModule() {
         objectMapper = new ObjectMapper();
+        configureObjectMapper(objectMapper);
+    }
+
+    /**
+     * Applies the joynr specific serialization settings to an object mapper. This allows the same object mapping
+     * to be used for payload formats other than JSON.
+     *
+     * @param objectMapper the object mapper to be configured
+     */
+    public static void configureObjectMapper(ObjectMapper objectMapper) {
         objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         objectMapper.configure(SerializationFeature.WRAP_ROOT_VALUE, false);
         objectMapper.configure(DeserializationFeature.USE_JAVA_ARRAY_FOR_JSON_ARRAY, true);
@@ -77,6 +94,8 @@ public class JsonMessageSerializerModule extends AbstractModule {
 
         module.addDeserializer(Request.class, new RequestDeserializer(objectMapper));
         module.addDeserializer(OneWayRequest.class, new OneWayRequestDeserializer(objectMapper));
+        module.addDeserializer(SubscriptionPublication.class, new SubscriptionPublicationDeserializer());
+        module.addDeserializer(MulticastPublication.class, new MulticastPublicationDeserializer());
         module.addDeserializer(Object.class, new JoynrUntypedObjectDeserializer(typeDeserializer));
 
         module.setMixInAnnotation(Throwable.class, ThrowableMixIn.class);
@@ -91,6 +110,10 @@ public class JsonMessageSerializerModule extends AbstractModule {
 
     @Override
     protected void configure() {
+        MapBinder<String, PayloadCodec> payloadCodecs = MapBinder.newMapBinder(binder(),
+                                                                               String.class,
+                                                                               PayloadCodec.class);
+        payloadCodecs.addBinding(SmilePayloadCodec.NAME).to(SmilePayloadCodec.class);
     }
 
 }
@@ -22,7 +22,6 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.DelayQueue;
 import java.util.concurrent.ScheduledExecutorService;
 
 import com.google.inject.Inject;
@@ -33,6 +32,7 @@ import io.joynr.messaging.MessagingSkeletonFactory;
 import io.joynr.messaging.inprocess.InProcessAddress;
 import io.joynr.runtime.ShutdownNotifier;
 import io.joynr.runtime.SystemServicesSettings;
+import io.joynr.statusmetrics.MessageRouterMetrics;
 import io.joynr.statusmetrics.StatusReceiver;
 import joynr.ImmutableMessage;
 import joynr.Message;
@@ -86,9 +86,11 @@ public class LibJoynrMessageRouter extends AbstractMessageRouter {
                                  MessagingSkeletonFactory messagingSkeletonFactory,
                                  AddressManager addressManager,
                                  MulticastReceiverRegistry multicastReceiverRegistry,
-                                 DelayQueue<DelayableImmutableMessage> messageQueue,
+                                 MessageQueue messageQueue,
                                  ShutdownNotifier shutdownNotifier,
-                                 StatusReceiver statusReceiver) {
+                                 StatusReceiver statusReceiver,
+                                 MessageRouterMetrics messageRouterMetrics,
+                                 MessageAdmissionController messageAdmissionController) {
         // CHECKSTYLE:ON
         super(routingTable,
               scheduler,
@@ -102,7 +104,9 @@ public class LibJoynrMessageRouter extends AbstractMessageRouter {
               multicastReceiverRegistry,
               messageQueue,
               shutdownNotifier,
-              statusReceiver);
+              statusReceiver,
+              messageRouterMetrics,
+              messageAdmissionController);
         this.incomingAddress = incomingAddress;
     }
 
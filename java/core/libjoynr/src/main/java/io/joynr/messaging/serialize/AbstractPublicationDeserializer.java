@@ -0,0 +1,121 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.serialize;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import io.joynr.exceptions.JoynrRuntimeException;
+import joynr.AbstractPublication;
+
+/**
+ * Deserializer for publications that deserializes the published values directly into the out parameter types
+ * provided by the {@link PublicationTypeResolver}, instead of deserializing them generically and converting them
+ * afterwards.
+ * <p>
+ * The id of the subscription or multicast determines the types. If the response precedes the id in the payload,
+ * its tokens are buffered until the id has been read; the values are still bound only once.
+ */
+abstract class AbstractPublicationDeserializer<T extends AbstractPublication> extends JsonDeserializer<T> {
+    private static final String RESPONSE = "response";
+    private static final String ERROR = "error";
+
+    private final String idPropertyName;
+
+    AbstractPublicationDeserializer(String idPropertyName) {
+        this.idPropertyName = idPropertyName;
+    }
+
+    /**
+     * @return the types of the published values, null if they are not known
+     */
+    protected abstract JavaType[] getPublicationTypes(PublicationTypeResolver resolver,
+                                                      String id,
+                                                      DeserializationContext ctxt);
+
+    protected abstract T createPublication(String id, List<Object> response, JoynrRuntimeException error);
+
+    @Override
+    public T deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
+        String id = null;
+        List<Object> response = null;
+        TokenBuffer bufferedResponse = null;
+        JoynrRuntimeException error = null;
+
+        // called after the type id has been read, hence the parser may already point to the first property
+        JsonToken token = jp.getCurrentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = jp.nextToken();
+        }
+        for (; token == JsonToken.FIELD_NAME; token = jp.nextToken()) {
+            String propertyName = jp.getCurrentName();
+            jp.nextToken();
+            if (idPropertyName.equals(propertyName)) {
+                id = jp.getValueAsString();
+            } else if (RESPONSE.equals(propertyName)) {
+                if (id == null) {
+                    bufferedResponse = new TokenBuffer(jp, ctxt);
+                    bufferedResponse.copyCurrentStructure(jp);
+                } else {
+                    response = readResponse(jp, ctxt, id);
+                }
+            } else if (ERROR.equals(propertyName)) {
+                error = ctxt.readValue(jp, JoynrRuntimeException.class);
+            } else {
+                jp.skipChildren();
+            }
+        }
+
+        if (bufferedResponse != null) {
+            JsonParser bufferParser = bufferedResponse.asParser(jp);
+            bufferParser.nextToken();
+            response = readResponse(bufferParser, ctxt, id);
+        }
+        return createPublication(id, response, error);
+    }
+
+    private List<Object> readResponse(JsonParser jp, DeserializationContext ctxt, String id) throws IOException {
+        if (jp.getCurrentToken() != JsonToken.START_ARRAY) {
+            jp.skipChildren();
+            return null;
+        }
+        PublicationTypeResolver resolver = (PublicationTypeResolver) ctxt.getAttribute(PublicationTypeResolver.ATTRIBUTE_KEY);
+        JavaType[] types = (resolver == null || id == null) ? null : getPublicationTypes(resolver, id, ctxt);
+        JavaType untyped = ctxt.constructType(Object.class);
+
+        Object[] values = new Object[(types == null) ? 4 : types.length];
+        int count = 0;
+        while (jp.nextToken() != JsonToken.END_ARRAY) {
+            JavaType type = (types != null && count < types.length) ? types[count] : untyped;
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = (jp.getCurrentToken() == JsonToken.VALUE_NULL) ? null : ctxt.readValue(jp, type);
+        }
+        return Arrays.asList((count == values.length) ? values : Arrays.copyOf(values, count));
+    }
+}
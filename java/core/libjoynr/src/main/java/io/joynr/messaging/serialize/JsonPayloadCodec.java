@@ -0,0 +1,66 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.serialize;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.ContextAttributes;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import io.joynr.messaging.ConfigurableMessagingSettings;
+
+/**
+ * The default payload codec which encodes payloads as UTF-8 JSON using the joynr {@link ObjectMapper}.
+ */
+@Singleton
+public class JsonPayloadCodec implements PayloadCodec {
+    public static final String NAME = ConfigurableMessagingSettings.PAYLOAD_CODEC_JSON;
+
+    private final ObjectMapper objectMapper;
+
+    @Inject
+    public JsonPayloadCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] serialize(Object payload) throws IOException {
+        return objectMapper.writeValueAsBytes(payload);
+    }
+
+    @Override
+    public <T> T deserialize(byte[] payload, Class<T> type) throws IOException {
+        return objectMapper.readValue(payload, type);
+    }
+
+    @Override
+    public <T> T deserialize(byte[] payload, Class<T> type, Map<?, ?> attributes) throws IOException {
+        return objectMapper.readerFor(type)
+                           .with(ContextAttributes.getEmpty().withSharedAttributes(attributes))
+                           .readValue(payload);
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.serialize;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Encodes and decodes the payload of joynr messages, e.g. requests, replies and publications.
+ * <p>
+ * JSON is always supported by every joynr runtime. Additional codecs are contributed via a Guice MapBinder keyed by
+ * the codec name, see {@link PayloadCodecRegistry}.
+ */
+public interface PayloadCodec {
+
+    /**
+     * @return the name of the codec which is transmitted in the message headers
+     */
+    String getName();
+
+    byte[] serialize(Object payload) throws IOException;
+
+    <T> T deserialize(byte[] payload, Class<T> type) throws IOException;
+
+    /**
+     * @param attributes made available to the deserializers, e.g. a {@link PublicationTypeResolver} with key
+     *            {@link PublicationTypeResolver#ATTRIBUTE_KEY}
+     */
+    <T> T deserialize(byte[] payload, Class<T> type, Map<?, ?> attributes) throws IOException;
+}
@@ -0,0 +1,125 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.serialize;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+import io.joynr.messaging.ConfigurableMessagingSettings;
+
+/**
+ * Keeps track of the available {@link PayloadCodec}s and of the codecs accepted by remote participants.
+ * <p>
+ * The codec configured with {@link ConfigurableMessagingSettings#PROPERTY_MESSAGING_PAYLOAD_CODEC} is advertised in
+ * every outgoing message. Whenever a message with such an advertisement is received, the codec is remembered for
+ * the sending participant and used for all further payloads sent to it. Participants which did not advertise a
+ * supported codec receive JSON.
+ * <p>
+ * At most {@link ConfigurableMessagingSettings#PROPERTY_MESSAGING_PAYLOAD_CODEC_MAX_PARTICIPANTS} participants are
+ * remembered; the least recently used entry is dropped first. A participant whose entry was dropped receives JSON
+ * until its next message advertises the codec again.
+ */
+@Singleton
+public class PayloadCodecRegistry {
+
+    @Inject(optional = true)
+    @Named(ConfigurableMessagingSettings.PROPERTY_MESSAGING_PAYLOAD_CODEC)
+    private String acceptedPayloadCodec = ConfigurableMessagingSettings.DEFAULT_MESSAGING_PAYLOAD_CODEC;
+
+    @Inject(optional = true)
+    @Named(ConfigurableMessagingSettings.PROPERTY_MESSAGING_PAYLOAD_CODEC_MAX_PARTICIPANTS)
+    private int maxParticipants = ConfigurableMessagingSettings.DEFAULT_MESSAGING_PAYLOAD_CODEC_MAX_PARTICIPANTS;
+
+    private final JsonPayloadCodec jsonPayloadCodec;
+    private final Map<String, PayloadCodec> payloadCodecs;
+    // access ordered, guarded by itself
+    private final Map<String, PayloadCodec> participantPayloadCodecs = new LinkedHashMap<String, PayloadCodec>(16,
+                                                                                                               0.75f,
+                                                                                                               true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PayloadCodec> eldest) {
+            return size() > maxParticipants;
+        }
+    };
+
+    @Inject
+    public PayloadCodecRegistry(JsonPayloadCodec jsonPayloadCodec, Map<String, PayloadCodec> payloadCodecs) {
+        this.jsonPayloadCodec = jsonPayloadCodec;
+        this.payloadCodecs = payloadCodecs;
+    }
+
+    /**
+     * @param name the codec name taken from a message header, null if the header is not set
+     * @return the codec with the given name, the JSON codec if name is null or null if the codec is not supported
+     */
+    public PayloadCodec getCodec(String name) {
+        if (name == null || JsonPayloadCodec.NAME.equals(name)) {
+            return jsonPayloadCodec;
+        }
+        return payloadCodecs.get(name);
+    }
+
+    /**
+     * @param participantId the recipient of a message
+     * @return the codec accepted by the recipient, JSON if it did not advertise a supported codec
+     */
+    public PayloadCodec getCodecForRecipient(String participantId) {
+        PayloadCodec payloadCodec;
+        synchronized (participantPayloadCodecs) {
+            payloadCodec = participantPayloadCodecs.get(participantId);
+        }
+        return (payloadCodec == null) ? jsonPayloadCodec : payloadCodec;
+    }
+
+    /**
+     * @return the name of the codec which is advertised in outgoing messages, null if only JSON is accepted
+     */
+    public String getAcceptedCodecName() {
+        if (JsonPayloadCodec.NAME.equals(acceptedPayloadCodec) || !payloadCodecs.containsKey(acceptedPayloadCodec)) {
+            return null;
+        }
+        return acceptedPayloadCodec;
+    }
+
+    /**
+     * Records the codec advertised by a participant in a received message.
+     *
+     * @param participantId the sender of the message
+     * @param codecName the advertised codec, null if the message did not contain an advertisement
+     */
+    public void registerAcceptedCodec(String participantId, String codecName) {
+        if (participantId == null) {
+            return;
+        }
+        PayloadCodec payloadCodec = (codecName == null) ? null : payloadCodecs.get(codecName);
+        synchronized (participantPayloadCodecs) {
+            if (payloadCodec == null) {
+                participantPayloadCodecs.remove(participantId);
+            } else {
+                participantPayloadCodecs.put(participantId, payloadCodec);
+            }
+        }
+    }
+}
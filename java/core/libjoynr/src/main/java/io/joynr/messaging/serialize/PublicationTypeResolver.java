@@ -0,0 +1,45 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.serialize;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+/**
+ * Provides the out parameter types of incoming publications, so that the published values can be deserialized
+ * directly into the registered types. The resolver is passed to the payload codec as deserialization attribute
+ * {@link #ATTRIBUTE_KEY}; without it, publication values are deserialized generically.
+ */
+public interface PublicationTypeResolver {
+    String ATTRIBUTE_KEY = PublicationTypeResolver.class.getName();
+
+    /**
+     * @param subscriptionId the id of an attribute or broadcast subscription
+     * @param typeFactory the type factory of the deserializing object mapper
+     * @return the types of the published values, null if the subscription is not known
+     */
+    JavaType[] getSubscriptionPublicationTypes(String subscriptionId, TypeFactory typeFactory);
+
+    /**
+     * @param multicastId the id of a multicast
+     * @param typeFactory the type factory of the deserializing object mapper
+     * @return the types of the published values, null if there is no subscription for the multicast
+     */
+    JavaType[] getMulticastPublicationTypes(String multicastId, TypeFactory typeFactory);
+}
@@ -0,0 +1,68 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.serialize;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.ContextAttributes;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.inject.Singleton;
+
+import io.joynr.messaging.JsonMessageSerializerModule;
+
+/**
+ * Binary payload codec based on the Jackson Smile format. It uses the same object mapping as the JSON codec, hence
+ * every payload which can be sent as JSON can also be sent as Smile. Smile payloads are considerably smaller
+ * than their JSON counterparts and cheaper to parse.
+ */
+@Singleton
+public class SmilePayloadCodec implements PayloadCodec {
+    public static final String NAME = "smile";
+
+    private final ObjectMapper objectMapper;
+
+    public SmilePayloadCodec() {
+        objectMapper = new ObjectMapper(new SmileFactory());
+        JsonMessageSerializerModule.configureObjectMapper(objectMapper);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] serialize(Object payload) throws IOException {
+        return objectMapper.writeValueAsBytes(payload);
+    }
+
+    @Override
+    public <T> T deserialize(byte[] payload, Class<T> type) throws IOException {
+        return objectMapper.readValue(payload, type);
+    }
+
+    @Override
+    public <T> T deserialize(byte[] payload, Class<T> type, Map<?, ?> attributes) throws IOException {
+        return objectMapper.readerFor(type)
+                           .with(ContextAttributes.getEmpty().withSharedAttributes(attributes))
+                           .readValue(payload);
+    }
+}
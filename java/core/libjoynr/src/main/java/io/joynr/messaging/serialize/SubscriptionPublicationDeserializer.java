@@ -0,0 +1,54 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.serialize;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+
+import io.joynr.exceptions.JoynrRuntimeException;
+import joynr.SubscriptionPublication;
+
+/**
+ * Deserializer for SubscriptionPublications that uses the out parameter types of the subscription.
+ */
+public class SubscriptionPublicationDeserializer extends AbstractPublicationDeserializer<SubscriptionPublication> {
+
+    public SubscriptionPublicationDeserializer() {
+        super("subscriptionId");
+    }
+
+    @Override
+    protected JavaType[] getPublicationTypes(PublicationTypeResolver resolver,
+                                             String subscriptionId,
+                                             DeserializationContext ctxt) {
+        return resolver.getSubscriptionPublicationTypes(subscriptionId, ctxt.getTypeFactory());
+    }
+
+    @Override
+    protected SubscriptionPublication createPublication(String subscriptionId,
+                                                        List<Object> response,
+                                                        JoynrRuntimeException error) {
+        if (error != null) {
+            return new SubscriptionPublication(error, subscriptionId);
+        }
+        return new SubscriptionPublication(response, subscriptionId);
+    }
+}
@@ -18,8 +18,10 @@
  */
 package io.joynr.runtime;
 
+import static io.joynr.runtime.JoynrInjectionConstants.JOYNR_PUBLICATION_EXECUTOR;
 import static io.joynr.runtime.JoynrInjectionConstants.JOYNR_SCHEDULER_CLEANUP;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
 import javax.inject.Named;
@@ -76,12 +78,15 @@ import io.joynr.messaging.routing.MulticastAddressCalculator;
 import io.joynr.messaging.routing.MulticastReceiverRegistry;
 import io.joynr.messaging.routing.RoutingTable;
 import io.joynr.messaging.routing.RoutingTableImpl;
+import io.joynr.messaging.util.MessageTraceLogger;
 import io.joynr.proxy.ProxyBuilderFactory;
 import io.joynr.proxy.ProxyBuilderFactoryImpl;
 import io.joynr.proxy.ProxyInvocationHandler;
 import io.joynr.proxy.ProxyInvocationHandlerFactory;
 import io.joynr.proxy.ProxyInvocationHandlerImpl;
+import io.joynr.statusmetrics.DefaultMessageRouterMetrics;
 import io.joynr.statusmetrics.DefaultStatusReceiver;
+import io.joynr.statusmetrics.MessageRouterMetrics;
 import io.joynr.statusmetrics.StatusReceiver;
 import joynr.system.DiscoveryAsync;
 import joynr.system.RoutingTypes.Address;
@@ -99,7 +104,8 @@ abstract class AbstractRuntimeModule extends AbstractModule {
                                RpcUtils.class,
                                ArbitratorFactory.class,
                                JoynrDelayMessageException.class,
-                               JoynrAppenderManagerFactory.class);
+                               JoynrAppenderManagerFactory.class,
+                               MessageTraceLogger.class);
 
         install(new JsonMessageSerializerModule());
         install(new FactoryModuleBuilder().implement(ProxyInvocationHandler.class, ProxyInvocationHandlerImpl.class)
@@ -143,11 +149,14 @@ abstract class AbstractRuntimeModule extends AbstractModule {
         bind(ScheduledExecutorService.class).annotatedWith(Names.named(MessageRouter.SCHEDULEDTHREADPOOL))
                                             .toProvider(DefaultScheduledExecutorServiceProvider.class);
         bind(StatusReceiver.class).to(DefaultStatusReceiver.class);
+        bind(MessageRouterMetrics.class).to(DefaultMessageRouterMetrics.class);
 
         install(new StaticCapabilitiesProvisioningModule());
 
         bind(ScheduledExecutorService.class).annotatedWith(Names.named(JOYNR_SCHEDULER_CLEANUP))
                                             .toProvider(DefaultScheduledExecutorServiceProvider.class);
+        bind(ExecutorService.class).annotatedWith(Names.named(JOYNR_PUBLICATION_EXECUTOR))
+                                   .toProvider(PublicationExecutorServiceProvider.class);
         Multibinder.newSetBinder(binder(), new TypeLiteral<JoynrMessageProcessor>() {
         });
     }
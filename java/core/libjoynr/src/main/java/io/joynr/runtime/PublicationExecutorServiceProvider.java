@@ -0,0 +1,86 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.runtime;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+import io.joynr.messaging.ConfigurableMessagingSettings;
+
+/**
+ * Provides the executor which runs the publication tasks of the {@link io.joynr.dispatching.subscription.TimingWheel},
+ * i.e. attribute polling on the provider side and missed publication checks on the consumer side.
+ */
+@Singleton
+public class PublicationExecutorServiceProvider implements Provider<ExecutorService>, ShutdownListener {
+    private static final Logger logger = LoggerFactory.getLogger(PublicationExecutorServiceProvider.class);
+    private static final long TERMINATION_TIMEOUT = 5000;
+    private ThreadPoolExecutor executor;
+
+    @Inject(optional = true)
+    @Named(ConfigurableMessagingSettings.PROPERTY_PUBLICATION_THREADS)
+    private int publicationThreads = ConfigurableMessagingSettings.DEFAULT_PUBLICATION_THREADS;
+
+    @Inject
+    public PublicationExecutorServiceProvider(ShutdownNotifier shutdownNotifier) {
+        shutdownNotifier.registerForShutdown(this);
+    }
+
+    @Override
+    public synchronized ExecutorService get() {
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(publicationThreads,
+                                              publicationThreads,
+                                              100,
+                                              TimeUnit.SECONDS,
+                                              new LinkedBlockingQueue<Runnable>(),
+                                              new JoynrThreadFactory("Publication", true));
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(TERMINATION_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                logger.error("Publication executor did not shut down in time. Timed out waiting for executor service to shutdown after {}ms.",
+                             TERMINATION_TIMEOUT);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Publication executor shutdown interrupted: {}", e.getMessage());
+        }
+    }
+}
@@ -18,24 +18,33 @@
  */
 package io.joynr.capabilities;
 
+import static io.joynr.runtime.JoynrInjectionConstants.JOYNR_SCHEDULER_CLEANUP;
 import static io.joynr.runtime.SystemServicesSettings.PROPERTY_CAPABILITIES_FRESHNESS_UPDATE_INTERVAL_MS;
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
@@ -73,9 +82,18 @@ public class GlobalCapabilitiesDirectoryClientTest {
     @Mock
     private ProxyBuilderFactory proxyBuilderFactoryMock;
 
+    @Mock
+    private ScheduledExecutorService schedulerMock;
+
     @Captor
     private ArgumentCaptor<Callback<GlobalDiscoveryEntry[]>> callbackArrayOfGlobalDiscoveryEntryCaptor;
 
+    @Captor
+    private ArgumentCaptor<Callback<Void>> callbackVoidCaptor;
+
+    @Captor
+    private ArgumentCaptor<Runnable> endOfBatchWindowCaptor;
+
     private GlobalCapabilitiesDirectoryClient subject;
 
     private static final long DEFAULT_TTL_ADD_AND_REMOVE = 30L * 24L * 60L * 60L * 1000L;
@@ -98,6 +116,8 @@ public class GlobalCapabilitiesDirectoryClientTest {
             @Override
             public void configure() {
                 bind(ProxyBuilderFactory.class).toInstance(proxyBuilderFactoryMock);
+                bind(ScheduledExecutorService.class).annotatedWith(Names.named(JOYNR_SCHEDULER_CLEANUP))
+                                                    .toInstance(schedulerMock);
                 bind(GlobalDiscoveryEntry.class).annotatedWith(Names.named(MessagingPropertyKeys.CAPABILITIES_DIRECTORY_DISCOVERY_ENTRY))
                                                 .toInstance(capabilitiesDirectoryEntryMock);
             }
@@ -141,6 +161,8 @@ public class GlobalCapabilitiesDirectoryClientTest {
             @Override
             public void configure() {
                 bind(ProxyBuilderFactory.class).toInstance(proxyBuilderFactoryMock);
+                bind(ScheduledExecutorService.class).annotatedWith(Names.named(JOYNR_SCHEDULER_CLEANUP))
+                                                    .toInstance(schedulerMock);
                 bind(GlobalDiscoveryEntry.class).annotatedWith(Names.named(MessagingPropertyKeys.CAPABILITIES_DIRECTORY_DISCOVERY_ENTRY))
                                                 .toInstance(capabilitiesDirectoryEntryMock);
             }
@@ -173,6 +195,7 @@ public class GlobalCapabilitiesDirectoryClientTest {
         verify(globalCapabilitiesDirectoryProxyMock).remove(eq(callbackMock), eq(testParticipantIdToArray));
     }
 
+    @SuppressWarnings("unchecked")
     @Test
     public void testLookupParticipantId() {
         @SuppressWarnings("unchecked")
@@ -181,7 +204,11 @@ public class GlobalCapabilitiesDirectoryClientTest {
         final String testParticipantId = "testParticipantId";
         subject.lookup(callbackGlobalDiscoveryEntryMock, testParticipantId, CUSTOM_TTL);
         verify(capabilitiesProxyBuilderMock).setMessagingQos(eq(messagingQos));
-        verify(globalCapabilitiesDirectoryProxyMock).lookup(eq(callbackGlobalDiscoveryEntryMock), eq(testParticipantId));
+        ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        verify(globalCapabilitiesDirectoryProxyMock).lookup(callbackCaptor.capture(), eq(testParticipantId));
+        GlobalDiscoveryEntry result = new GlobalDiscoveryEntry();
+        callbackCaptor.getValue().onSuccess(result);
+        verify(callbackGlobalDiscoveryEntryMock).onSuccess(result);
     }
 
     private Callback<GlobalDiscoveryEntry[]> lookupDomainsHelper(Callback<List<GlobalDiscoveryEntry>> callbackListOfGlobalDiscoveryEntriesMock) {
@@ -220,6 +247,206 @@ public class GlobalCapabilitiesDirectoryClientTest {
         verify(callbackListOfGlobalDiscoveryEntriesMock, times(0)).onFailure(any(JoynrRuntimeException.class));
     }
 
+    private void endBatchWindow() {
+        verify(schedulerMock, atLeastOnce()).schedule(endOfBatchWindowCaptor.capture(), anyLong(), any(TimeUnit.class));
+        endOfBatchWindowCaptor.getValue().run();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testAddsWithinBatchWindowAreSentInOneRequest() {
+        GlobalDiscoveryEntry entry1 = mock(GlobalDiscoveryEntry.class);
+        GlobalDiscoveryEntry entry2 = mock(GlobalDiscoveryEntry.class);
+        GlobalDiscoveryEntry entry3 = mock(GlobalDiscoveryEntry.class);
+        Callback<Void> callback2 = mock(Callback.class);
+        Callback<Void> callback3 = mock(Callback.class);
+
+        subject.add(callbackMock, entry1);
+        subject.add(callback2, entry2);
+        subject.add(callback3, entry3);
+        verify(globalCapabilitiesDirectoryProxyMock).add(eq(callbackMock), eq(entry1));
+        verify(globalCapabilitiesDirectoryProxyMock, times(0)).add(any(Callback.class),
+                                                                   any(GlobalDiscoveryEntry[].class));
+
+        endBatchWindow();
+        verify(globalCapabilitiesDirectoryProxyMock).add(callbackVoidCaptor.capture(),
+                                                         eq(new GlobalDiscoveryEntry[]{ entry2, entry3 }));
+        callbackVoidCaptor.getValue().onSuccess(null);
+        verify(callback2).onSuccess(null);
+        verify(callback3).onSuccess(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testRemovesWithinBatchWindowAreSentInOneRequest() {
+        Callback<Void> callback2 = mock(Callback.class);
+        Callback<Void> callback3 = mock(Callback.class);
+
+        subject.remove(callbackMock, Arrays.asList("participant1"));
+        subject.remove(callback2, Arrays.asList("participant2"));
+        subject.remove(callback3, Arrays.asList("participant3", "participant4"));
+        verify(globalCapabilitiesDirectoryProxyMock).remove(eq(callbackMock), eq(new String[]{ "participant1" }));
+
+        endBatchWindow();
+        verify(globalCapabilitiesDirectoryProxyMock).remove(callbackVoidCaptor.capture(),
+                                                            eq(new String[]{ "participant2", "participant3",
+                                                                    "participant4" }));
+        JoynrRuntimeException error = new JoynrRuntimeException();
+        callbackVoidCaptor.getValue().onFailure(error);
+        verify(callback2).onFailure(error);
+        verify(callback3).onFailure(error);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testRemoveSendsPendingAddsFirst() {
+        GlobalDiscoveryEntry entry1 = mock(GlobalDiscoveryEntry.class);
+        GlobalDiscoveryEntry entry2 = mock(GlobalDiscoveryEntry.class);
+        Callback<Void> callback2 = mock(Callback.class);
+        Callback<Void> callback3 = mock(Callback.class);
+
+        subject.add(callbackMock, entry1);
+        subject.add(callback2, entry2);
+        subject.remove(callback3, "participant2");
+
+        InOrder inOrder = inOrder(globalCapabilitiesDirectoryProxyMock);
+        inOrder.verify(globalCapabilitiesDirectoryProxyMock).add(eq(callbackMock), eq(entry1));
+        inOrder.verify(globalCapabilitiesDirectoryProxyMock).add(eq(callback2), eq(entry2));
+        inOrder.verify(globalCapabilitiesDirectoryProxyMock).remove(eq(callback3), eq("participant2"));
+
+        // the flushed add is not sent again at the end of the batch window
+        endBatchWindow();
+        verify(globalCapabilitiesDirectoryProxyMock, times(1)).add(eq(callback2), eq(entry2));
+        verify(globalCapabilitiesDirectoryProxyMock, times(0)).add(any(Callback.class),
+                                                                   any(GlobalDiscoveryEntry[].class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testAddSendsPendingRemovesFirst() {
+        GlobalDiscoveryEntry entry = mock(GlobalDiscoveryEntry.class);
+        Callback<Void> callback2 = mock(Callback.class);
+        Callback<Void> callback3 = mock(Callback.class);
+
+        subject.remove(callbackMock, "participant1");
+        subject.remove(callback2, "participant2");
+        subject.add(callback3, entry);
+
+        InOrder inOrder = inOrder(globalCapabilitiesDirectoryProxyMock);
+        inOrder.verify(globalCapabilitiesDirectoryProxyMock).remove(eq(callbackMock), eq("participant1"));
+        inOrder.verify(globalCapabilitiesDirectoryProxyMock).remove(eq(callback2), eq("participant2"));
+        inOrder.verify(globalCapabilitiesDirectoryProxyMock).add(eq(callback3), eq(entry));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testIdenticalLookupsShareOneRequest() {
+        Callback<List<GlobalDiscoveryEntry>> callback1 = mock(Callback.class);
+        Callback<List<GlobalDiscoveryEntry>> callback2 = mock(Callback.class);
+        String interfaceName = "interfaceName";
+
+        subject.lookup(callback1, new String[]{ "domain1", "domain2" }, interfaceName, CUSTOM_TTL);
+        subject.lookup(callback2, new String[]{ "domain2", "domain1" }, interfaceName, CUSTOM_TTL);
+        endBatchWindow();
+
+        verify(globalCapabilitiesDirectoryProxyMock, times(1)).lookup(callbackArrayOfGlobalDiscoveryEntryCaptor.capture(),
+                                                                      any(String[].class),
+                                                                      eq(interfaceName));
+        GlobalDiscoveryEntry[] result = new GlobalDiscoveryEntry[]{ new GlobalDiscoveryEntry() };
+        callbackArrayOfGlobalDiscoveryEntryCaptor.getValue().onSuccess(result);
+        verify(callback1).onSuccess(Arrays.asList(result));
+        verify(callback2).onSuccess(Arrays.asList(result));
+
+        // the completed lookup is not shared with later lookups
+        subject.lookup(callback1, new String[]{ "domain1", "domain2" }, interfaceName, CUSTOM_TTL);
+        endBatchWindow();
+        verify(globalCapabilitiesDirectoryProxyMock, times(2)).lookup(any(Callback.class),
+                                                                      any(String[].class),
+                                                                      eq(interfaceName));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLookupsOfSameInterfaceWithinBatchWindowAreMerged() {
+        Callback<List<GlobalDiscoveryEntry>> callback1 = mock(Callback.class);
+        Callback<List<GlobalDiscoveryEntry>> callback2 = mock(Callback.class);
+        Callback<List<GlobalDiscoveryEntry>> callback3 = mock(Callback.class);
+        String interfaceName = "interfaceName";
+
+        subject.lookup(callback1, new String[]{ "domain1" }, interfaceName, CUSTOM_TTL);
+        subject.lookup(callback2, new String[]{ "domain2" }, interfaceName, CUSTOM_TTL);
+        subject.lookup(callback3, new String[]{ "domain2", "domain3" }, interfaceName, 2 * CUSTOM_TTL);
+        verify(globalCapabilitiesDirectoryProxyMock).lookup(any(Callback.class),
+                                                            eq(new String[]{ "domain1" }),
+                                                            eq(interfaceName));
+
+        endBatchWindow();
+        messagingQos.setTtl_ms(2 * CUSTOM_TTL);
+        verify(capabilitiesProxyBuilderMock).setMessagingQos(eq(messagingQos));
+        verify(globalCapabilitiesDirectoryProxyMock).lookup(callbackArrayOfGlobalDiscoveryEntryCaptor.capture(),
+                                                            eq(new String[]{ "domain2", "domain3" }),
+                                                            eq(interfaceName));
+        GlobalDiscoveryEntry entry2 = new GlobalDiscoveryEntry();
+        entry2.setDomain("domain2");
+        GlobalDiscoveryEntry entry3 = new GlobalDiscoveryEntry();
+        entry3.setDomain("domain3");
+        callbackArrayOfGlobalDiscoveryEntryCaptor.getValue().onSuccess(new GlobalDiscoveryEntry[]{ entry2, entry3 });
+
+        ArgumentCaptor<List<GlobalDiscoveryEntry>> resultCaptor = ArgumentCaptor.forClass((Class) List.class);
+        verify(callback2).onSuccess(resultCaptor.capture());
+        assertEquals(Arrays.asList(entry2), resultCaptor.getValue());
+        verify(callback3).onSuccess(resultCaptor.capture());
+        assertEquals(Arrays.asList(entry2, entry3), resultCaptor.getValue());
+        verify(callback1, times(0)).onSuccess(anyListOf(GlobalDiscoveryEntry.class));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Test
+    public void testResultOfMergedLookupsIsSplitUpCaseInsensitively() {
+        Callback<List<GlobalDiscoveryEntry>> callback1 = mock(Callback.class);
+        Callback<List<GlobalDiscoveryEntry>> callback2 = mock(Callback.class);
+        Callback<List<GlobalDiscoveryEntry>> callback3 = mock(Callback.class);
+        String interfaceName = "interfaceName";
+
+        subject.lookup(callback1, new String[]{ "domain1" }, interfaceName, CUSTOM_TTL);
+        subject.lookup(callback2, new String[]{ "Domain2" }, interfaceName, CUSTOM_TTL);
+        subject.lookup(callback3, new String[]{ "domain3" }, interfaceName, CUSTOM_TTL);
+
+        endBatchWindow();
+        verify(globalCapabilitiesDirectoryProxyMock).lookup(callbackArrayOfGlobalDiscoveryEntryCaptor.capture(),
+                                                            eq(new String[]{ "Domain2", "domain3" }),
+                                                            eq(interfaceName));
+        GlobalDiscoveryEntry entry2 = new GlobalDiscoveryEntry();
+        entry2.setDomain("domain2");
+        GlobalDiscoveryEntry entry3 = new GlobalDiscoveryEntry();
+        entry3.setDomain("DOMAIN3");
+        callbackArrayOfGlobalDiscoveryEntryCaptor.getValue().onSuccess(new GlobalDiscoveryEntry[]{ entry2, entry3 });
+
+        ArgumentCaptor<List<GlobalDiscoveryEntry>> resultCaptor = ArgumentCaptor.forClass((Class) List.class);
+        verify(callback2).onSuccess(resultCaptor.capture());
+        assertEquals(Arrays.asList(entry2), resultCaptor.getValue());
+        verify(callback3).onSuccess(resultCaptor.capture());
+        assertEquals(Arrays.asList(entry3), resultCaptor.getValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testIdenticalParticipantIdLookupsShareOneRequest() {
+        Callback<GlobalDiscoveryEntry> callback1 = mock(Callback.class);
+        Callback<GlobalDiscoveryEntry> callback2 = mock(Callback.class);
+        final String testParticipantId = "testParticipantId";
+
+        subject.lookup(callback1, testParticipantId, CUSTOM_TTL);
+        subject.lookup(callback2, testParticipantId, CUSTOM_TTL);
+
+        ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        verify(globalCapabilitiesDirectoryProxyMock, times(1)).lookup(callbackCaptor.capture(), eq(testParticipantId));
+        GlobalDiscoveryEntry result = new GlobalDiscoveryEntry();
+        callbackCaptor.getValue().onSuccess(result);
+        verify(callback1).onSuccess(result);
+        verify(callback2).onSuccess(result);
+    }
+
     @Test
     public void testTouch() {
         messagingQos.setTtl_ms(FRESHNESS_UPDATE_INTERVAL_MS);
@@ -20,6 +20,7 @@ package io.joynr.dispatching;
 
 import static io.joynr.runtime.JoynrInjectionConstants.JOYNR_SCHEDULER_CLEANUP;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.argThat;
@@ -29,6 +30,7 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Collections;
 import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
@@ -69,6 +71,10 @@ import io.joynr.messaging.MessagingPropertyKeys;
 import io.joynr.messaging.MessagingQos;
 import io.joynr.messaging.ReceiverStatusListener;
 import io.joynr.messaging.routing.MessageRouter;
+import io.joynr.messaging.serialize.JsonPayloadCodec;
+import io.joynr.messaging.serialize.PayloadCodec;
+import io.joynr.messaging.serialize.PayloadCodecRegistry;
+import io.joynr.messaging.serialize.SmilePayloadCodec;
 import io.joynr.messaging.sender.MessageSender;
 import io.joynr.provider.AbstractSubscriptionPublisher;
 import io.joynr.provider.ProviderCallback;
@@ -205,6 +211,56 @@ public class DispatcherImplTest {
         verify(messageSenderMock, never()).sendMessage(any(MutableMessage.class));
     }
 
+    private PayloadCodecRegistry createPayloadCodecRegistry(ObjectMapper objectMapper) {
+        return new PayloadCodecRegistry(new JsonPayloadCodec(objectMapper),
+                                        Collections.<String, PayloadCodec> emptyMap());
+    }
+
+    @Test
+    public void testReceiveSmileEncodedRequest() throws Exception {
+        Request request = new Request("methodName", new Object[]{ "param" }, new Class<?>[]{ String.class });
+        MutableMessage joynrMessage = messageFactory.createRequest("fromParticipantId",
+                                                                   "toParticipantId",
+                                                                   request,
+                                                                   new MessagingQos(1000L));
+        joynrMessage.setPayload(new SmilePayloadCodec().serialize(request));
+        joynrMessage.setPayloadCodec(SmilePayloadCodec.NAME);
+
+        fixture.messageArrived(joynrMessage.getImmutableMessage());
+
+        verify(requestReplyManagerMock).handleRequest(any(ProviderCallback.class),
+                                                      eq("toParticipantId"),
+                                                      eq(request),
+                                                      eq(joynrMessage.getTtlMs()));
+    }
+
+    @Test
+    public void testReplyUsesPayloadCodecAcceptedByRequester() throws Exception {
+        String requestReplyId = UUID.randomUUID().toString();
+        Request request = new Request("methodName", new Object[]{}, new String[]{}, requestReplyId);
+        MutableMessage joynrMessage = messageFactory.createRequest("fromParticipantId",
+                                                                   "toParticipantId",
+                                                                   request,
+                                                                   new MessagingQos(1000L));
+        assertNull(joynrMessage.getPayloadCodec());
+        joynrMessage.setAcceptedPayloadCodec(SmilePayloadCodec.NAME);
+
+        fixture.messageArrived(joynrMessage.getImmutableMessage());
+        verify(requestReplyManagerMock).handleRequest(providerCallbackReply.capture(),
+                                                      eq("toParticipantId"),
+                                                      eq(request),
+                                                      eq(joynrMessage.getTtlMs()));
+        providerCallbackReply.getValue().onSuccess(new Reply(requestReplyId, "result"));
+
+        ArgumentCaptor<MutableMessage> replyCaptor = ArgumentCaptor.forClass(MutableMessage.class);
+        verify(messageSenderMock).sendMessage(replyCaptor.capture());
+        MutableMessage replyMessage = replyCaptor.getValue();
+        assertEquals(SmilePayloadCodec.NAME, replyMessage.getPayloadCodec());
+        Reply reply = new SmilePayloadCodec().deserialize(replyMessage.getPayload(), Reply.class);
+        assertEquals(requestReplyId, reply.getRequestReplyId());
+        assertEquals("result", reply.getResponse()[0]);
+    }
+
     @Test
     public void testSendMulticastMessage() {
         MutableMessageFactory messageFactoryMock = mock(MutableMessageFactory.class);
@@ -215,7 +271,7 @@ public class DispatcherImplTest {
                                      messageRouterMock,
                                      messageSenderMock,
                                      messageFactoryMock,
-                                     objectMapperMock,
+                                     createPayloadCodecRegistry(objectMapperMock),
                                      compress);
 
         String fromParticipantId = "fromParticipantId";
@@ -242,7 +298,7 @@ public class DispatcherImplTest {
 
         MutableMessageFactory messageFactoryMock = mock(MutableMessageFactory.class);
         ObjectMapper objectMapperMock = mock(ObjectMapper.class);
-        when(objectMapperMock.readValue(anyString(), eq(SubscriptionRequest.class))).thenReturn(subscriptionRequest);
+        when(objectMapperMock.readValue(any(byte[].class), eq(SubscriptionRequest.class))).thenReturn(subscriptionRequest);
 
         fixture = new DispatcherImpl(requestReplyManagerMock,
                                      subscriptionManagerMock,
@@ -250,7 +306,7 @@ public class DispatcherImplTest {
                                      messageRouterMock,
                                      messageSenderMock,
                                      messageFactoryMock,
-                                     objectMapperMock,
+                                     createPayloadCodecRegistry(objectMapperMock),
                                      compress);
 
         fixture.messageArrived(joynrMessage.getImmutableMessage());
@@ -287,7 +343,7 @@ public class DispatcherImplTest {
             MutableMessageFactory messageFactoryMock = mock(MutableMessageFactory.class);
             ObjectMapper objectMapperMock = mock(ObjectMapper.class);
 
-            when(objectMapperMock.readValue(any(String.class), eq(Request.class))).thenReturn(request);
+            when(objectMapperMock.readValue(any(byte[].class), eq(Request.class))).thenReturn(request);
 
             fixture = new DispatcherImpl(requestReplyManagerMock,
                                          subscriptionManagerMock,
@@ -295,7 +351,7 @@ public class DispatcherImplTest {
                                          messageRouterMock,
                                          messageSenderMock,
                                          messageFactoryMock,
-                                         objectMapperMock,
+                                         createPayloadCodecRegistry(objectMapperMock),
                                          compressAllOutgoingReplies);
 
             fixture.messageArrived(outgoingMessage);
@@ -0,0 +1,137 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.dispatching;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.joynr.JoynrVersion;
+import io.joynr.provider.JoynrInterface;
+import joynr.types.Version;
+
+public class RequestCallerTest {
+
+    @JoynrInterface(provides = EchoProvider.class, provider = EchoProvider.class, name = "tests/echo")
+    @JoynrVersion(major = 1, minor = 2)
+    public interface EchoProvider {
+        String echo(String value);
+
+        Integer echo(Integer value);
+
+        int add(int first, int second);
+
+        void fail(String message);
+    }
+
+    public static class EchoProviderImpl implements EchoProvider {
+        @Override
+        public String echo(String value) {
+            return "string " + value;
+        }
+
+        @Override
+        public Integer echo(Integer value) {
+            return value + 1;
+        }
+
+        @Override
+        public int add(int first, int second) {
+            return first + second;
+        }
+
+        @Override
+        public void fail(String message) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private RequestCaller requestCaller;
+
+    @Before
+    public void setUp() {
+        requestCaller = new RequestCallerFactory().create(new EchoProviderImpl());
+    }
+
+    @Test
+    public void overloadedMethodsAreResolvedByParameterDatatypes() throws Exception {
+        ProviderMethodInvoker stringInvoker = requestCaller.getMethodInvoker("echo", new String[]{ "String" });
+        ProviderMethodInvoker integerInvoker = requestCaller.getMethodInvoker("echo", new String[]{ "Integer" });
+
+        assertEquals("string test", stringInvoker.invoke(new Object[]{ "test" }));
+        assertEquals(42, integerInvoker.invoke(new Object[]{ 41 }));
+    }
+
+    @Test
+    public void primitiveParametersAreUnboxed() throws Exception {
+        ProviderMethodInvoker invoker = requestCaller.getMethodInvoker("add", new String[]{ "int", "int" });
+
+        assertEquals(2, invoker.getParameterCount());
+        assertEquals(5, invoker.invoke(new Object[]{ 2, 3 }));
+    }
+
+    @Test
+    public void unknownMethodHasNoInvoker() {
+        assertNull(requestCaller.getMethodInvoker("unknown", new String[0]));
+        assertNull(requestCaller.getMethodInvoker("echo", new String[]{ "Boolean" }));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingParameterDatatypesAreRejected() {
+        requestCaller.getMethodInvoker("echo", null);
+    }
+
+    @Test
+    public void providerExceptionIsWrappedInInvocationTargetException() throws Exception {
+        ProviderMethodInvoker invoker = requestCaller.getMethodInvoker("fail", new String[]{ "String" });
+        try {
+            invoker.invoke(new Object[]{ "expected" });
+            fail("expected an InvocationTargetException");
+        } catch (InvocationTargetException e) {
+            assertSame(IllegalStateException.class, e.getCause().getClass());
+            assertEquals("expected", e.getCause().getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void argumentTypeMismatchIsRejected() throws Exception {
+        requestCaller.getMethodInvoker("echo", new String[]{ "String" }).invoke(new Object[]{ 1 });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullForPrimitiveParameterIsRejected() throws Exception {
+        requestCaller.getMethodInvoker("add", new String[]{ "int", "int" }).invoke(new Object[]{ 1, null });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongNumberOfArgumentsIsRejected() throws Exception {
+        requestCaller.getMethodInvoker("echo", new String[]{ "String" }).invoke(new Object[0]);
+    }
+
+    @Test
+    public void interfaceVersionIsReadFromAnnotation() {
+        assertEquals(new Version(1, 2), requestCaller.getInterfaceVersion());
+    }
+}
@@ -18,14 +18,17 @@
  */
 package io.joynr.dispatching;
 
+import static io.joynr.runtime.JoynrInjectionConstants.JOYNR_PUBLICATION_EXECUTOR;
 import static io.joynr.runtime.JoynrInjectionConstants.JOYNR_SCHEDULER_CLEANUP;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -33,9 +36,11 @@ import static org.mockito.Mockito.when;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.databind.JsonMappingException;
@@ -47,6 +52,7 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.TypeLiteral;
+import com.google.inject.multibindings.MapBinder;
 import com.google.inject.multibindings.Multibinder;
 import com.google.inject.name.Names;
 import io.joynr.common.ExpiryDate;
@@ -54,12 +60,18 @@ import io.joynr.context.JoynrMessageScopeModule;
 import io.joynr.dispatching.rpc.ReplyCaller;
 import io.joynr.dispatching.rpc.ReplyCallerDirectory;
 import io.joynr.dispatching.rpc.RpcUtils;
+import io.joynr.dispatching.rpc.SynchronizedReplyCaller;
+import io.joynr.dispatching.subscription.TimingWheel;
+import io.joynr.exceptions.JoynrCommunicationException;
 import io.joynr.exceptions.JoynrException;
 import io.joynr.exceptions.JoynrMessageNotSentException;
 import io.joynr.exceptions.JoynrSendBufferFullException;
+import io.joynr.exceptions.JoynrShutdownException;
+import io.joynr.exceptions.JoynrTimeoutException;
 import io.joynr.messaging.JoynrMessageProcessor;
 import io.joynr.messaging.MessagingQos;
 import io.joynr.messaging.routing.MessageRouter;
+import io.joynr.messaging.serialize.PayloadCodec;
 import io.joynr.messaging.sender.MessageSender;
 import io.joynr.provider.AbstractSubscriptionPublisher;
 import io.joynr.provider.ProviderCallback;
@@ -88,6 +100,7 @@ public class RequestReplyManagerTest {
     private static final long TIME_TO_LIVE = 10000L;
     private RequestReplyManager requestReplyManager;
     private ReplyCallerDirectory replyCallerDirectory;
+    private TimingWheel timingWheel;
     private ProviderDirectory providerDirectory;
     private String testSenderParticipantId;
     private String testOneWayRecipientParticipantId;
@@ -147,8 +160,11 @@ public class RequestReplyManagerTest {
                 ScheduledExecutorService cleanupExecutor = Executors.newSingleThreadScheduledExecutor(namedThreadFactory);
                 bind(ScheduledExecutorService.class).annotatedWith(Names.named(JOYNR_SCHEDULER_CLEANUP))
                                                     .toInstance(cleanupExecutor);
+                bind(ExecutorService.class).annotatedWith(Names.named(JOYNR_PUBLICATION_EXECUTOR))
+                                           .toInstance(cleanupExecutor);
                 Multibinder.newSetBinder(binder(), new TypeLiteral<JoynrMessageProcessor>() {
                 });
+                MapBinder.newMapBinder(binder(), String.class, PayloadCodec.class);
             }
         });
 
@@ -158,6 +174,7 @@ public class RequestReplyManagerTest {
         requestReplyManager = injector.getInstance(RequestReplyManager.class);
         providerDirectory = injector.getInstance(ProviderDirectory.class);
         replyCallerDirectory = injector.getInstance(ReplyCallerDirectory.class);
+        timingWheel = injector.getInstance(TimingWheel.class);
         requestReplyManager = injector.getInstance(RequestReplyManager.class);
 
         // dispatcher.addListener(testOneWayRecipientParticipantId, testListener);
@@ -188,6 +205,7 @@ public class RequestReplyManagerTest {
     public void tearDown() {
         providerDirectory.remove(testMessageResponderParticipantId);
         providerDirectory.remove(testOneWayRecipientParticipantId);
+        providerDirectory.remove(testResponderUnregisteredParticipantId);
     }
 
     @Test
@@ -224,6 +242,92 @@ public class RequestReplyManagerTest {
     private abstract class ReplyCallback extends ProviderCallback<Reply> {
     }
 
+    @Test
+    public void syncRequestReturnsReplyArrivingWhileWaiting() throws Exception {
+        final SynchronizedReplyCaller replyCaller = new SynchronizedReplyCaller(testSenderParticipantId,
+                                                                                request1.getRequestReplyId(),
+                                                                                request1);
+        final Reply reply = new Reply(request1.getRequestReplyId(), (Object) payload1);
+        Thread replyThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                replyCaller.messageCallBack(reply);
+            }
+        });
+        replyThread.start();
+
+        Object response = requestReplyManager.sendSyncRequest(testSenderParticipantId,
+                                                              testMessageResponderDiscoveryEntry,
+                                                              request1,
+                                                              replyCaller,
+                                                              new MessagingQos(TIME_TO_LIVE));
+
+        assertEquals(reply, response);
+        replyThread.join();
+    }
+
+    @Test(expected = JoynrMessageNotSentException.class)
+    public void syncRequestThrowsErrorOfReplyCaller() {
+        SynchronizedReplyCaller replyCaller = new SynchronizedReplyCaller(testSenderParticipantId,
+                                                                          request1.getRequestReplyId(),
+                                                                          request1);
+        replyCaller.error(new JoynrCommunicationException("test error"));
+
+        requestReplyManager.sendSyncRequest(testSenderParticipantId,
+                                            testMessageResponderDiscoveryEntry,
+                                            request1,
+                                            replyCaller,
+                                            new MessagingQos(TIME_TO_LIVE));
+    }
+
+    @Test(expected = JoynrCommunicationException.class)
+    public void syncRequestFailsIfReplyDoesNotArriveInTime() {
+        SynchronizedReplyCaller replyCaller = new SynchronizedReplyCaller(testSenderParticipantId,
+                                                                          request1.getRequestReplyId(),
+                                                                          request1);
+        requestReplyManager.sendSyncRequest(testSenderParticipantId,
+                                            testMessageResponderDiscoveryEntry,
+                                            request1,
+                                            replyCaller,
+                                            new MessagingQos(50));
+    }
+
+    @Test
+    public void shutdownInterruptsWaitingSyncRequest() throws Exception {
+        final SynchronizedReplyCaller replyCaller = new SynchronizedReplyCaller(testSenderParticipantId,
+                                                                                request1.getRequestReplyId(),
+                                                                                request1);
+        final AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread requestThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    requestReplyManager.sendSyncRequest(testSenderParticipantId,
+                                                        testMessageResponderDiscoveryEntry,
+                                                        request1,
+                                                        replyCaller,
+                                                        new MessagingQos(TIME_TO_LIVE));
+                } catch (Throwable e) {
+                    thrown.set(e);
+                }
+            }
+        });
+        requestThread.start();
+        while (requestThread.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(5);
+        }
+
+        requestReplyManager.shutdown();
+        requestThread.join(TIME_TO_LIVE);
+
+        assertTrue(thrown.get() instanceof JoynrShutdownException);
+    }
+
     @Test
     public void requestCallerInvokedForIncomingRequest() throws Exception {
         TestProvider testRequestCallerSpy = spy(new TestProvider(1));
@@ -302,6 +406,67 @@ public class RequestReplyManagerTest {
         testResponderUnregistered.assertReceivedPayloadsContains(payload2);
     }
 
+    @Test
+    public void queuedRequestsAreDiscardedOnExpiry() throws Exception {
+        ReplyCallback replyCallbackMock = mock(ReplyCallback.class);
+        requestReplyManager.handleRequest(replyCallbackMock,
+                                          testResponderUnregisteredParticipantId,
+                                          request1,
+                                          ExpiryDate.fromRelativeTtl(100L).getValue());
+        requestReplyManager.handleOneWayRequest(testOneWayRecipientParticipantId,
+                                                oneWay1,
+                                                ExpiryDate.fromRelativeTtl(100L).getValue());
+        assertEquals(2, timingWheel.getPendingTimeouts());
+
+        waitForPendingTimeouts(0, 1000);
+
+        TestProvider testResponder = new TestProvider(0);
+        TestOneWayRecipient oneWayRecipient = spy(new TestOneWayRecipient(0));
+        addProvider(testResponderUnregisteredParticipantId, testResponder);
+        addProvider(testOneWayRecipientParticipantId, oneWayRecipient);
+
+        testResponder.assertReceivedPayloadsContainsNot(payload1);
+        verify(oneWayRecipient, never()).fireAndForgetMethod(any(String.class));
+        verify(replyCallbackMock, never()).onSuccess(any(Reply.class));
+    }
+
+    @Test
+    public void addingProviderCancelsExpiryOfQueuedRequests() throws Exception {
+        ReplyCallback replyCallbackMock = mock(ReplyCallback.class);
+        requestReplyManager.handleRequest(replyCallbackMock,
+                                          testResponderUnregisteredParticipantId,
+                                          request1,
+                                          ExpiryDate.fromRelativeTtl(TIME_TO_LIVE).getValue());
+        requestReplyManager.handleOneWayRequest(testOneWayRecipientParticipantId,
+                                                oneWay1,
+                                                ExpiryDate.fromRelativeTtl(TIME_TO_LIVE).getValue());
+        assertEquals(2, timingWheel.getPendingTimeouts());
+
+        TestProvider testResponder = new TestProvider(1);
+        TestOneWayRecipient oneWayRecipient = new TestOneWayRecipient(1);
+        addProvider(testResponderUnregisteredParticipantId, testResponder);
+        addProvider(testOneWayRecipientParticipantId, oneWayRecipient);
+
+        assertEquals(0, timingWheel.getPendingTimeouts());
+        testResponder.assertAllPayloadsReceived((int) TIME_TO_LIVE);
+        oneWayRecipient.assertAllPayloadsReceived(TIME_TO_LIVE);
+    }
+
+    private void addProvider(String participantId, Object provider) {
+        ProviderContainer container = mock(ProviderContainer.class);
+        when(container.getRequestCaller()).thenReturn(requestCallerFactory.create(provider));
+        when(container.getSubscriptionPublisher()).thenReturn(subscriptionPublisherMock);
+        providerDirectory.add(participantId, container);
+    }
+
+    private void waitForPendingTimeouts(int expectedPendingTimeouts, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (timingWheel.getPendingTimeouts() != expectedPendingTimeouts && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expectedPendingTimeouts, timingWheel.getPendingTimeouts());
+    }
+
     @Test
     public void requestReplyMessagesRemoveCallBackByTtl() throws Exception {
         TestProvider testResponder = new TestProvider(1);
@@ -317,6 +482,31 @@ public class RequestReplyManagerTest {
         verify(replyCaller, never()).messageCallBack(any(Reply.class));
     }
 
+    @Test
+    public void replyCallerExpiresWithTimeoutError() throws Exception {
+        ReplyCaller replyCaller = mock(ReplyCaller.class);
+        replyCallerDirectory.addReplyCaller(request1.getRequestReplyId(), replyCaller, ExpiryDate.fromRelativeTtl(100L));
+
+        verify(replyCaller, timeout(1000)).error(any(JoynrTimeoutException.class));
+        assertFalse(replyCallerDirectory.contains(request1.getRequestReplyId()));
+        assertEquals(0, timingWheel.getPendingTimeouts());
+    }
+
+    @Test
+    public void replyCancelsTimeoutOfReplyCaller() throws Exception {
+        ReplyCaller replyCaller = mock(ReplyCaller.class);
+        replyCallerDirectory.addReplyCaller(request1.getRequestReplyId(), replyCaller, ExpiryDate.fromRelativeTtl(100L));
+        assertEquals(1, timingWheel.getPendingTimeouts());
+
+        Reply reply = new Reply(request1.getRequestReplyId(), payload1);
+        requestReplyManager.handleReply(reply);
+
+        assertEquals(0, timingWheel.getPendingTimeouts());
+        Thread.sleep(200);
+        verify(replyCaller).messageCallBack(reply);
+        verify(replyCaller, never()).error(any(Throwable.class));
+    }
+
     @Test
     public void sendOneWayTtl() throws JoynrMessageNotSentException, JoynrSendBufferFullException,
                                JsonGenerationException, JsonMappingException, IOException {
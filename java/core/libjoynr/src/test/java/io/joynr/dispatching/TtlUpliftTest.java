@@ -36,7 +36,6 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
@@ -54,6 +53,7 @@ import io.joynr.dispatching.subscription.FileSubscriptionRequestStorage;
 import io.joynr.dispatching.subscription.PublicationManager;
 import io.joynr.dispatching.subscription.PublicationManagerImpl;
 import io.joynr.dispatching.subscription.SubscriptionRequestStorage;
+import io.joynr.dispatching.subscription.TimingWheel;
 import io.joynr.messaging.ConfigurableMessagingSettings;
 import io.joynr.messaging.JoynrMessageProcessor;
 import io.joynr.messaging.JsonMessageSerializerModule;
@@ -112,7 +112,7 @@ public class TtlUpliftTest {
     private MutableMessageFactory messageFactoryWithTtlUplift;
 
     private ScheduledExecutorService cleanupScheduler;
-    private ScheduledExecutorService cleanupSchedulerSpy;
+    private TimingWheel timingWheelSpy;
     private RequestCaller requestCaller;
     private PublicationManagerImpl publicationManager;
     private PublicationManagerImpl publicationManagerWithTtlUplift;
@@ -142,7 +142,9 @@ public class TtlUpliftTest {
         fromParticipantId = "sender";
         toParticipantId = "receiver";
         cleanupScheduler = new ScheduledThreadPoolExecutor(1);
-        cleanupSchedulerSpy = Mockito.spy(cleanupScheduler);
+        timingWheelSpy = Mockito.spy(new TimingWheel(cleanupScheduler,
+                                                     TimingWheel.DEFAULT_TICK_MS,
+                                                     TimingWheel.DEFAULT_WHEEL_SIZE));
 
         Module defaultModule = Modules.override(new JoynrPropertiesModule(new Properties()))
                                       .with(new JsonMessageSerializerModule(), new AbstractModule() {
@@ -173,7 +175,8 @@ public class TtlUpliftTest {
                                               bind(Dispatcher.class).toInstance(dispatcher);
                                               bind(ProviderDirectory.class).toInstance(providerDirectory);
                                               bind(ScheduledExecutorService.class).annotatedWith(Names.named(JoynrInjectionConstants.JOYNR_SCHEDULER_CLEANUP))
-                                                                                  .toInstance(cleanupSchedulerSpy);
+                                                                                  .toInstance(cleanupScheduler);
+                                              bind(TimingWheel.class).toInstance(timingWheelSpy);
                                           }
 
                                       });
@@ -400,11 +403,11 @@ public class TtlUpliftTest {
                    (diff <= toleranceMs));
     }
 
-    private void verifyCleanupSchedulerDelay(long expectedDelay, long toleranceMs) {
-        verify(cleanupSchedulerSpy, times(1)).schedule(any(Runnable.class), longCaptor.capture(), any(TimeUnit.class));
+    private void verifySubscriptionEndDelay(long expectedDelay, long toleranceMs) {
+        verify(timingWheelSpy, times(1)).schedule(any(Runnable.class), longCaptor.capture());
         long capturedLong = longCaptor.getValue();
         long diff = expectedDelay - capturedLong;
-        assertTrue("Delay for cleanupScheduler=" + capturedLong + " differs " + diff + "ms (more than " + toleranceMs
+        assertTrue("Delay for subscription end=" + capturedLong + " differs " + diff + "ms (more than " + toleranceMs
                 + "ms) from the expected value=" + expectedDelay, (diff <= toleranceMs));
     }
 
@@ -429,7 +432,7 @@ public class TtlUpliftTest {
 
         verifySubscriptionReplyTtl(validityMs, toleranceMs);
 
-        verifyCleanupSchedulerDelay(validityMs, toleranceMs);
+        verifySubscriptionEndDelay(validityMs, toleranceMs);
 
         publicationManager.attributeValueChanged(SUBSCRIPTION_ID, valueToPublish);
 
@@ -467,9 +470,9 @@ public class TtlUpliftTest {
 
         verifySubscriptionReplyTtl(expectedSubscriptionReplyTtl, toleranceMs);
         if (qos.getExpiryDateMs() != SubscriptionQos.NO_EXPIRY_DATE) {
-            verifyCleanupSchedulerDelay(expectedSubscriptionReplyTtl, toleranceMs);
+            verifySubscriptionEndDelay(expectedSubscriptionReplyTtl, toleranceMs);
         } else {
-            verify(cleanupSchedulerSpy, times(0)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+            verify(timingWheelSpy, times(0)).schedule(any(Runnable.class), anyLong());
         }
 
         publicationManagerWithTtlUplift.attributeValueChanged(SUBSCRIPTION_ID, valueToPublish);
@@ -583,7 +586,7 @@ public class TtlUpliftTest {
         publicationManager.addSubscriptionRequest(PROXY_PARTICIPANT_ID, PROVIDER_PARTICIPANT_ID, subscriptionRequest);
 
         verifySubscriptionReplyTtl(validityMs, toleranceMs);
-        verifyCleanupSchedulerDelay(validityMs, toleranceMs);
+        verifySubscriptionEndDelay(validityMs, toleranceMs);
 
         publicationManager.broadcastOccurred(SUBSCRIPTION_ID, null, valueToPublish);
 
@@ -624,9 +627,9 @@ public class TtlUpliftTest {
 
         verifySubscriptionReplyTtl(expectedSubscriptionReplyTtl, toleranceMs);
         if (qos.getExpiryDateMs() != SubscriptionQos.NO_EXPIRY_DATE) {
-            verifyCleanupSchedulerDelay(expectedSubscriptionReplyTtl, toleranceMs);
+            verifySubscriptionEndDelay(expectedSubscriptionReplyTtl, toleranceMs);
         } else {
-            verify(cleanupSchedulerSpy, times(0)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+            verify(timingWheelSpy, times(0)).schedule(any(Runnable.class), anyLong());
         }
 
         publicationManagerWithTtlUplift.broadcastOccurred(SUBSCRIPTION_ID, null, valueToPublish);
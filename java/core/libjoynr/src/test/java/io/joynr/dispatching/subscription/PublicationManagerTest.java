@@ -21,6 +21,7 @@ package io.joynr.dispatching.subscription;
 import static org.hamcrest.Matchers.contains;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
@@ -58,6 +59,7 @@ import io.joynr.provider.Deferred;
 import io.joynr.provider.Promise;
 import io.joynr.provider.ProviderContainer;
 import io.joynr.pubsub.SubscriptionQos;
+import io.joynr.pubsub.publication.AttributeListener;
 import io.joynr.pubsub.publication.BroadcastFilter;
 import io.joynr.runtime.ShutdownNotifier;
 import joynr.BroadcastFilterParameters;
@@ -93,6 +95,7 @@ public class PublicationManagerTest {
     private static final String SUBSCRIPTION_ID = "PublicationTest_id";
 
     ScheduledExecutorService cleanupScheduler;
+    TimingWheel timingWheel;
     PublicationManagerImpl publicationManager;
 
     @Mock
@@ -124,10 +127,11 @@ public class PublicationManagerTest {
         Promise<Deferred<String>> valueToPublishPromise = new Promise<Deferred<String>>(valueToPublishDeferred);
 
         cleanupScheduler = new ScheduledThreadPoolExecutor(1);
+        timingWheel = new TimingWheel(cleanupScheduler, TimingWheel.DEFAULT_TICK_MS, TimingWheel.DEFAULT_WHEEL_SIZE);
         publicationManager = new PublicationManagerImpl(attributePollInterpreter,
                                                         dispatcher,
                                                         providerDirectory,
-                                                        cleanupScheduler,
+                                                        timingWheel,
                                                         Mockito.mock(SubscriptionRequestStorage.class),
                                                         shutdownNotifier);
 
@@ -164,7 +168,7 @@ public class PublicationManagerTest {
         PublicationManager publicationManager = new PublicationManagerImpl(attributePollInterpreter,
                                                                            dispatcher,
                                                                            requestCallerDirectory,
-                                                                           cleanupScheduler,
+                                                                           timingWheel,
                                                                            Mockito.mock(SubscriptionRequestStorage.class),
                                                                            shutdownNotifier);
 
@@ -220,7 +224,7 @@ public class PublicationManagerTest {
         PublicationManager publicationManager = new PublicationManagerImpl(attributePollInterpreter,
                                                                            dispatcher,
                                                                            providerDirectory,
-                                                                           cleanupScheduler,
+                                                                           timingWheel,
                                                                            Mockito.mock(SubscriptionRequestStorage.class),
                                                                            shutdownNotifier);
 
@@ -274,7 +278,7 @@ public class PublicationManagerTest {
         PublicationManager publicationManager = new PublicationManagerImpl(attributePollInterpreter,
                                                                            dispatcher,
                                                                            providerDirectory,
-                                                                           cleanupScheduler,
+                                                                           timingWheel,
                                                                            Mockito.mock(SubscriptionRequestStorage.class),
                                                                            shutdownNotifier);
 
@@ -398,6 +402,45 @@ public class PublicationManagerTest {
                                                                                         any(MessagingQos.class));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test(timeout = 3000)
+    public void onChangeSubscriptionsOfAnAttributeShareOneListenerAndResponse() throws Exception {
+        String subscriptionId1 = "subscriptionid1";
+        String subscriptionId2 = "subscriptionid2";
+        OnChangeSubscriptionQos qos = new OnChangeSubscriptionQos();
+        qos.setMinIntervalMs(0).setValidityMs(3000).setPublicationTtlMs(1000);
+        SubscriptionRequest subscriptionRequest1 = new SubscriptionRequest(subscriptionId1, "location", qos);
+        SubscriptionRequest subscriptionRequest2 = new SubscriptionRequest(subscriptionId2, "location", qos);
+
+        when(providerDirectory.get(eq(PROVIDER_PARTICIPANT_ID))).thenReturn(providerContainer);
+        when(providerDirectory.contains(eq(PROVIDER_PARTICIPANT_ID))).thenReturn(true);
+
+        publicationManager.addSubscriptionRequest(PROXY_PARTICIPANT_ID, PROVIDER_PARTICIPANT_ID, subscriptionRequest1);
+        publicationManager.addSubscriptionRequest(PROXY_PARTICIPANT_ID, PROVIDER_PARTICIPANT_ID, subscriptionRequest2);
+
+        ArgumentCaptor<AttributeListener> attributeListenerCaptor = ArgumentCaptor.forClass(AttributeListener.class);
+        verify(subscriptionPublisher, times(1)).registerAttributeListener(eq("location"),
+                                                                          attributeListenerCaptor.capture());
+        reset(dispatcher);
+
+        attributeListenerCaptor.getValue().attributeValueChanged(valueToPublish);
+
+        ArgumentCaptor<SubscriptionPublication> publicationCaptor = ArgumentCaptor.forClass(SubscriptionPublication.class);
+        verify(dispatcher, times(2)).sendSubscriptionPublication(eq(PROVIDER_PARTICIPANT_ID),
+                                                                 (Set<String>) argThat(contains(PROXY_PARTICIPANT_ID)),
+                                                                 publicationCaptor.capture(),
+                                                                 any(MessagingQos.class));
+        List<SubscriptionPublication> publications = publicationCaptor.getAllValues();
+        assertTrue(publications.get(0).getResponse() instanceof SharedPublicationResponse);
+        assertSame(publications.get(0).getResponse(), publications.get(1).getResponse());
+        assertEquals(Lists.newArrayList(valueToPublish), publications.get(0).getResponse());
+
+        publicationManager.stopPublication(subscriptionId1);
+        verify(subscriptionPublisher, never()).unregisterAttributeListener(anyString(), any(AttributeListener.class));
+        publicationManager.stopPublication(subscriptionId2);
+        verify(subscriptionPublisher).unregisterAttributeListener("location", attributeListenerCaptor.getValue());
+    }
+
     @SuppressWarnings("unchecked")
     @Test(timeout = 3000)
     public void stopAllPublicationsFromProvider() throws Exception {
@@ -502,7 +545,7 @@ public class PublicationManagerTest {
         publicationManager = new PublicationManagerImpl(attributePollInterpreter,
                                                         dispatcher,
                                                         providerDirectory,
-                                                        cleanupScheduler,
+                                                        timingWheel,
                                                         Mockito.mock(SubscriptionRequestStorage.class),
                                                         shutdownNotifier);
 
@@ -553,7 +596,7 @@ public class PublicationManagerTest {
         publicationManager = new PublicationManagerImpl(attributePollInterpreter,
                                                         dispatcher,
                                                         providerDirectory,
-                                                        cleanupScheduler,
+                                                        timingWheel,
                                                         Mockito.mock(SubscriptionRequestStorage.class),
                                                         shutdownNotifier);
 
@@ -613,7 +656,7 @@ public class PublicationManagerTest {
         publicationManager = new PublicationManagerImpl(attributePollInterpreter,
                                                         dispatcher,
                                                         providerDirectory,
-                                                        cleanupScheduler,
+                                                        timingWheel,
                                                         Mockito.mock(SubscriptionRequestStorage.class),
                                                         shutdownNotifier);
 
@@ -666,7 +709,7 @@ public class PublicationManagerTest {
         publicationManager = new PublicationManagerImpl(attributePollInterpreter,
                                                         dispatcher,
                                                         providerDirectory,
-                                                        cleanupScheduler,
+                                                        timingWheel,
                                                         Mockito.mock(SubscriptionRequestStorage.class),
                                                         shutdownNotifier);
 
@@ -715,7 +758,7 @@ public class PublicationManagerTest {
         publicationManager = new PublicationManagerImpl(attributePollInterpreter,
                                                         dispatcher,
                                                         providerDirectory,
-                                                        cleanupScheduler,
+                                                        timingWheel,
                                                         Mockito.mock(SubscriptionRequestStorage.class),
                                                         shutdownNotifier);
         int period = 200;
@@ -797,7 +840,7 @@ public class PublicationManagerTest {
         publicationManager = new PublicationManagerImpl(attributePollInterpreter,
                                                         dispatcher,
                                                         myProviderDirectory,
-                                                        cleanupScheduler,
+                                                        timingWheel,
                                                         fileSubscriptionRequestStorage,
                                                         shutdownNotifier);
 
@@ -812,7 +855,7 @@ public class PublicationManagerTest {
         publicationManager = new PublicationManagerImpl(attributePollInterpreter,
                                                         dispatcher,
                                                         myProviderDirectory,
-                                                        cleanupScheduler,
+                                                        timingWheel,
                                                         fileSubscriptionRequestStorage,
                                                         shutdownNotifier);
 
@@ -834,7 +877,7 @@ public class PublicationManagerTest {
         publicationManager = new PublicationManagerImpl(attributePollInterpreter,
                                                         dispatcher,
                                                         myProviderDirectory,
-                                                        cleanupScheduler,
+                                                        timingWheel,
                                                         fileSubscriptionRequestStorage,
                                                         shutdownNotifier);
         verifyNoMoreInteractions(dispatcher);
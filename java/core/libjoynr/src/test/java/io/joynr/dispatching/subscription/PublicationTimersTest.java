@@ -85,6 +85,9 @@ public class PublicationTimersTest {
     private AttributePollInterpreter attributePollInterpreter;
 
     private ScheduledExecutorService cleanupScheduler = Executors.newSingleThreadScheduledExecutor();
+    private TimingWheel timingWheel = new TimingWheel(cleanupScheduler,
+                                                      TimingWheel.DEFAULT_TICK_MS,
+                                                      TimingWheel.DEFAULT_WHEEL_SIZE);
 
     @Mock
     private SubscriptionTestsProviderImpl provider;
@@ -125,7 +128,7 @@ public class PublicationTimersTest {
         PublicationManager publicationManager = new PublicationManagerImpl(attributePollInterpreter,
                                                                            dispatcher,
                                                                            providerDirectory,
-                                                                           cleanupScheduler,
+                                                                           timingWheel,
                                                                            Mockito.mock(SubscriptionRequestStorage.class),
                                                                            shutdownNotifier);
 
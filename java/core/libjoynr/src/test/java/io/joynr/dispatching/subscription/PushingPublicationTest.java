@@ -91,6 +91,9 @@ public class PushingPublicationTest {
     private ShutdownNotifier shutdownNotifier;
 
     private ScheduledExecutorService cleanupScheduler = Executors.newSingleThreadScheduledExecutor();
+    private TimingWheel timingWheel = new TimingWheel(cleanupScheduler,
+                                                      TimingWheel.DEFAULT_TICK_MS,
+                                                      TimingWheel.DEFAULT_WHEEL_SIZE);
 
     private SubscriptionRequest subscriptionRequest;
     private String subscriptionId;
@@ -108,7 +111,7 @@ public class PushingPublicationTest {
         publicationManager = new PublicationManagerImpl(attributePollInterpreter,
                                                         dispatcher,
                                                         providerDirectory,
-                                                        cleanupScheduler,
+                                                        timingWheel,
                                                         Mockito.mock(SubscriptionRequestStorage.class),
                                                         shutdownNotifier);
         subscriptionId = "subscriptionId";
@@ -0,0 +1,91 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.dispatching.subscription;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Guice;
+
+import io.joynr.messaging.JsonMessageSerializerModule;
+import io.joynr.messaging.serialize.JsonPayloadCodec;
+import io.joynr.messaging.serialize.PayloadCodec;
+import io.joynr.messaging.serialize.SmilePayloadCodec;
+import joynr.SubscriptionPublication;
+import joynr.types.Version;
+
+public class SharedPublicationResponseTest {
+
+    private PayloadCodec jsonPayloadCodec;
+
+    @Before
+    public void setUp() {
+        ObjectMapper objectMapper = Guice.createInjector(new JsonMessageSerializerModule())
+                                         .getInstance(ObjectMapper.class);
+        jsonPayloadCodec = new JsonPayloadCodec(objectMapper);
+    }
+
+    private void assertSerializedLikePlainPublication(Object value, String subscriptionId, PayloadCodec payloadCodec)
+                                                                                                                     throws Exception {
+        SharedPublicationResponse response = new SharedPublicationResponse(value);
+        byte[] expected = payloadCodec.serialize(new SubscriptionPublication(Arrays.asList(value), subscriptionId));
+
+        byte[] serialized = response.serializePublication(subscriptionId, payloadCodec);
+
+        assertArrayEquals(expected, serialized);
+    }
+
+    @Test
+    public void templateIsFilledWithEachSubscriptionId() throws Exception {
+        SharedPublicationResponse response = new SharedPublicationResponse("value");
+        for (String subscriptionId : new String[]{ "subscription1", "subscription2", "subscription\"3\\" }) {
+            byte[] expected = jsonPayloadCodec.serialize(new SubscriptionPublication(Arrays.asList("value"),
+                                                                                     subscriptionId));
+            byte[] serialized = response.serializePublication(subscriptionId, jsonPayloadCodec);
+            assertArrayEquals(expected, serialized);
+            assertEquals(new SubscriptionPublication(Arrays.asList("value"), subscriptionId),
+                         jsonPayloadCodec.deserialize(serialized, SubscriptionPublication.class));
+        }
+    }
+
+    @Test
+    public void complexValuesAreSerializedLikePlainPublications() throws Exception {
+        assertSerializedLikePlainPublication(new Version(1, 2), "subscriptionId", jsonPayloadCodec);
+        assertSerializedLikePlainPublication(new Integer[]{ 1, 2, 3 }, "subscriptionId", jsonPayloadCodec);
+        assertSerializedLikePlainPublication(null, "subscriptionId", jsonPayloadCodec);
+    }
+
+    @Test
+    public void otherCodecsSerializeTheWholePublication() throws Exception {
+        assertSerializedLikePlainPublication("value", "subscriptionId", new SmilePayloadCodec());
+    }
+
+    @Test
+    public void sharedResponseEqualsPlainResponse() {
+        assertEquals(Arrays.asList("value"), new SharedPublicationResponse("value"));
+        assertEquals(new SubscriptionPublication(Arrays.asList("value"), "subscriptionId"),
+                     new SubscriptionPublication(new SharedPublicationResponse("value"), "subscriptionId"));
+    }
+}
@@ -19,8 +19,8 @@
 package io.joynr.dispatching.subscription;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.anySet;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -32,14 +32,9 @@ import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.lang.reflect.Method;
-import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
-import java.util.regex.Pattern;
 
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -52,7 +47,7 @@ import io.joynr.exceptions.JoynrMessageNotSentException;
 import io.joynr.exceptions.JoynrSendBufferFullException;
 import io.joynr.exceptions.SubscriptionException;
 import io.joynr.messaging.MessagingQos;
-import io.joynr.messaging.util.MulticastWildcardRegexFactory;
+import io.joynr.messaging.util.MulticastWildcardTrie;
 import io.joynr.proxy.Future;
 import io.joynr.proxy.invocation.AttributeSubscribeInvocation;
 import io.joynr.proxy.invocation.BroadcastSubscribeInvocation;
@@ -72,6 +67,7 @@ import joynr.types.DiscoveryEntryWithMetaInfo;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
@@ -89,15 +85,15 @@ public class SubscriptionManagerTest {
     private MessagingQos qosSettings;
 
     @Mock
-    ConcurrentMap<String, ScheduledFuture<?>> subscriptionEndFutures;
+    ConcurrentMap<String, TimingWheel.Timeout> subscriptionEndFutures;
 
     private ConcurrentMap<String, AttributeSubscriptionListener<?>> attributeSubscriptionDirectory = spy(new ConcurrentHashMap<String, AttributeSubscriptionListener<?>>());
     private ConcurrentMap<String, BroadcastSubscriptionListener> broadcastSubscriptionDirectory = spy(new ConcurrentHashMap<String, BroadcastSubscriptionListener>());
-    private ConcurrentMap<Pattern, Set<String>> multicastSubscribersDirectory = spy(new ConcurrentHashMap<Pattern, Set<String>>());
+    private MulticastWildcardTrie<String> multicastSubscribersDirectory = spy(new MulticastWildcardTrie<String>());
     private ConcurrentMap<String, PubSubState> subscriptionStates = spy(new ConcurrentHashMap<String, PubSubState>());
     private ConcurrentMap<String, MissedPublicationTimer> missedPublicationTimers = spy(new ConcurrentHashMap<String, MissedPublicationTimer>());
     private ConcurrentMap<String, Class<?>[]> unicastBroadcastTypes = spy(Maps.<String, Class<?>[]> newConcurrentMap());
-    private ConcurrentMap<Pattern, Class<?>[]> multicastBroadcastTypes = spy(Maps.<Pattern, Class<?>[]> newConcurrentMap());
+    private ConcurrentMap<String, Class<?>[]> multicastBroadcastTypes = spy(Maps.<String, Class<?>[]> newConcurrentMap());
     private ConcurrentMap<String, Future<String>> subscriptionFutureMap = spy(Maps.<String, Future<String>> newConcurrentMap());
 
     @Mock
@@ -115,14 +111,11 @@ public class SubscriptionManagerTest {
     @Mock
     private ConcurrentMap<String, Class<?>> subscriptionAttributeTypes;
     @Mock
-    private ScheduledExecutorService cleanupScheduler;
+    private TimingWheel timingWheel;
 
     @Mock
     private Dispatcher dispatcher;
 
-    @Mock
-    private MulticastWildcardRegexFactory multicastWildcardRegexFactory;
-
     @Before
     public void setUp() {
         subscriptionManager = new SubscriptionManagerImpl(attributeSubscriptionDirectory,
@@ -135,9 +128,8 @@ public class SubscriptionManagerTest {
                                                           unicastBroadcastTypes,
                                                           multicastBroadcastTypes,
                                                           subscriptionFutureMap,
-                                                          cleanupScheduler,
-                                                          dispatcher,
-                                                          multicastWildcardRegexFactory);
+                                                          timingWheel,
+                                                          dispatcher);
         subscriptionId = "testSubscription";
 
         attributeName = "testAttribute";
@@ -169,7 +161,8 @@ public class SubscriptionManagerTest {
                                                             alertInterval_ms,
                                                             attributeSubscriptionCallback,
                                                             subscriptionState,
-                                                            subscriptionId);
+                                                            subscriptionId,
+                                                            timingWheel);
 
         qosSettings = new MessagingQos();
         fromParticipantId = "fromParticipantId";
@@ -192,6 +185,7 @@ public class SubscriptionManagerTest {
                                                                                             attributeSubscriptionCallback,
                                                                                             qos,
                                                                                             future);
+        long startTime = System.currentTimeMillis();
         subscriptionManager.registerAttributeSubscription(fromParticipantId,
                                                           Sets.newHashSet(toDiscoveryEntry),
                                                           subscriptionRequest);
@@ -200,11 +194,12 @@ public class SubscriptionManagerTest {
         verify(attributeSubscriptionDirectory).put(Mockito.anyString(), Mockito.eq(attributeSubscriptionCallback));
         verify(subscriptionStates).put(Mockito.anyString(), Mockito.any(PubSubState.class));
 
-        verify(cleanupScheduler).schedule(Mockito.any(Runnable.class),
-                                          Mockito.eq(qos.getExpiryDateMs()),
-                                          Mockito.eq(TimeUnit.MILLISECONDS));
+        ArgumentCaptor<Long> delayCaptor = ArgumentCaptor.forClass(Long.class);
+        verify(timingWheel).schedule(Mockito.isA(SubscriptionManagerImpl.SubscriptionEndRunnable.class),
+                                     delayCaptor.capture());
+        assertTrue(delayCaptor.getValue() > 0 && delayCaptor.getValue() <= qos.getExpiryDateMs() - startTime);
         verify(subscriptionEndFutures, Mockito.times(1)).put(Mockito.eq(subscriptionId),
-                                                             Mockito.any(ScheduledFuture.class));
+                                                             Mockito.any(TimingWheel.Timeout.class));
 
         verify(dispatcher).sendSubscriptionRequest(eq(fromParticipantId),
                                                    eq(Sets.newHashSet(toDiscoveryEntry)),
@@ -221,6 +216,7 @@ public class SubscriptionManagerTest {
                                                                                             broadcastSubscriptionListener,
                                                                                             onChangeQos,
                                                                                             future);
+        long startTime = System.currentTimeMillis();
         subscriptionManager.registerBroadcastSubscription(fromParticipantId,
                                                           Sets.newHashSet(toDiscoveryEntry),
                                                           subscriptionRequest);
@@ -229,11 +225,12 @@ public class SubscriptionManagerTest {
         verify(broadcastSubscriptionDirectory).put(Mockito.anyString(), Mockito.eq(broadcastSubscriptionListener));
         verify(subscriptionStates).put(Mockito.anyString(), Mockito.any(PubSubState.class));
 
-        verify(cleanupScheduler).schedule(Mockito.any(Runnable.class),
-                                          Mockito.eq(onChangeQos.getExpiryDateMs()),
-                                          Mockito.eq(TimeUnit.MILLISECONDS));
+        ArgumentCaptor<Long> delayCaptor = ArgumentCaptor.forClass(Long.class);
+        verify(timingWheel).schedule(Mockito.isA(SubscriptionManagerImpl.SubscriptionEndRunnable.class),
+                                     delayCaptor.capture());
+        assertTrue(delayCaptor.getValue() > 0 && delayCaptor.getValue() <= onChangeQos.getExpiryDateMs() - startTime);
         verify(subscriptionEndFutures, Mockito.times(1)).put(Mockito.eq(subscriptionId),
-                                                             Mockito.any(ScheduledFuture.class));
+                                                             Mockito.any(TimingWheel.Timeout.class));
 
         verify(dispatcher).sendSubscriptionRequest(eq(fromParticipantId),
                                                    eq(Sets.newHashSet(toDiscoveryEntry)),
@@ -259,10 +256,9 @@ public class SubscriptionManagerTest {
         verify(attributeSubscriptionDirectory).put(Mockito.anyString(), Mockito.eq(attributeSubscriptionCallback));
         verify(subscriptionStates).put(Mockito.anyString(), Mockito.any(PubSubState.class));
 
-        verify(cleanupScheduler, never()).schedule(Mockito.any(Runnable.class),
-                                                   Mockito.anyLong(),
-                                                   Mockito.any(TimeUnit.class));
-        verify(subscriptionEndFutures, never()).put(Mockito.anyString(), Mockito.any(ScheduledFuture.class));
+        verify(timingWheel, never()).schedule(Mockito.isA(SubscriptionManagerImpl.SubscriptionEndRunnable.class),
+                                              Mockito.anyLong());
+        verify(subscriptionEndFutures, never()).put(Mockito.anyString(), Mockito.any(TimingWheel.Timeout.class));
 
         verify(dispatcher).sendSubscriptionRequest(eq(fromParticipantId),
                                                    eq(Sets.newHashSet(toDiscoveryEntry)),
@@ -314,10 +310,6 @@ public class SubscriptionManagerTest {
             args = new Object[]{ subscriptionId, listener, subscriptionQos, partitions };
         }
         String multicastId = MulticastIdUtil.createMulticastId(toParticipantId, "myMulticast", partitions);
-        Set<String> subscriptionIdSet = new HashSet<>();
-        Pattern multicastIdPattern = Pattern.compile(multicastId);
-        multicastSubscribersDirectory.put(multicastIdPattern, subscriptionIdSet);
-        when(multicastWildcardRegexFactory.createIdPattern(multicastId)).thenReturn(multicastIdPattern);
 
         MulticastSubscribeInvocation invocation = new MulticastSubscribeInvocation(method, args, future);
 
@@ -327,7 +319,8 @@ public class SubscriptionManagerTest {
                                                           Sets.newHashSet(toDiscoveryEntry),
                                                           invocation);
 
-        verify(multicastSubscribersDirectory).put(any(Pattern.class), anySet());
+        verify(multicastSubscribersDirectory).put(eq(multicastId), anyString());
+        Set<String> subscriptionIdSet = multicastSubscribersDirectory.getValues(multicastId);
         assertEquals(1, subscriptionIdSet.size());
         if (subscriptionId != null) {
             assertEquals(subscriptionId, subscriptionIdSet.iterator().next());
@@ -442,17 +435,14 @@ public class SubscriptionManagerTest {
 
     @Test
     public void testHandleMulticastSubscriptionWithWildcardSubscribers() {
-        Pattern subscriberOnePattern = Pattern.compile("one/[^/]+/three");
         String subscriberOneId = "one";
-        multicastSubscribersDirectory.putIfAbsent(subscriberOnePattern, Sets.newHashSet(subscriberOneId));
+        multicastSubscribersDirectory.put("one/+/three", subscriberOneId);
 
-        Pattern subscriberTwoPattern = Pattern.compile("one/two/three");
         String subscriberTwoId = "two";
-        multicastSubscribersDirectory.putIfAbsent(subscriberTwoPattern, Sets.newHashSet(subscriberTwoId));
+        multicastSubscribersDirectory.put("one/two/three", subscriberTwoId);
 
-        Pattern subscriberThreePattern = Pattern.compile("four/five/six");
         String subscriberThreeId = "three";
-        multicastSubscribersDirectory.putIfAbsent(subscriberThreePattern, Sets.newHashSet(subscriberThreeId));
+        multicastSubscribersDirectory.put("four/five/six", subscriberThreeId);
 
         @SuppressWarnings("rawtypes")
         Class[] types = new Class[]{ String.class };
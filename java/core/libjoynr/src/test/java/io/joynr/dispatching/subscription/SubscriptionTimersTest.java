@@ -28,7 +28,6 @@ import java.io.IOException;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 
 import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -37,7 +36,6 @@ import com.google.common.collect.Sets;
 import io.joynr.dispatching.Dispatcher;
 import io.joynr.exceptions.JoynrMessageNotSentException;
 import io.joynr.exceptions.JoynrSendBufferFullException;
-import io.joynr.messaging.util.MulticastWildcardRegexFactory;
 import io.joynr.proxy.Future;
 import io.joynr.proxy.invocation.AttributeSubscribeInvocation;
 import io.joynr.pubsub.subscription.AttributeSubscriptionListener;
@@ -61,7 +59,7 @@ public class SubscriptionTimersTest {
 
     private ScheduledExecutorService subscriptionEndScheduler;
     ConcurrentMap<String, MissedPublicationTimer> missedPublicationTimers;
-    ConcurrentMap<String, ScheduledFuture<?>> subscriptionEndFutures;
+    ConcurrentMap<String, TimingWheel.Timeout> subscriptionEndFutures;
 
     private String attributeName;
     @Mock
@@ -70,9 +68,6 @@ public class SubscriptionTimersTest {
     @Mock
     private Dispatcher dispatcher;
 
-    @Mock
-    private MulticastWildcardRegexFactory multicastWildcardRegexFactory;
-
     private String subscriptionId;
 
     private int period = 100;
@@ -91,9 +86,10 @@ public class SubscriptionTimersTest {
     @Before
     public void setUp() {
         subscriptionEndScheduler = Executors.newScheduledThreadPool(10);
-        subscriptionManager = new SubscriptionManagerImpl(subscriptionEndScheduler,
-                                                          dispatcher,
-                                                          multicastWildcardRegexFactory);
+        TimingWheel timingWheel = new TimingWheel(subscriptionEndScheduler,
+                                                  TimingWheel.DEFAULT_TICK_MS,
+                                                  TimingWheel.DEFAULT_WHEEL_SIZE);
+        subscriptionManager = new SubscriptionManagerImpl(timingWheel, dispatcher);
         attributeName = "testAttribute";
         fromParticipantId = "fromParticipantId";
         toParticipantId = "toParticipantId";
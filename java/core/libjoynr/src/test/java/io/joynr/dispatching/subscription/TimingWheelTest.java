@@ -0,0 +1,219 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.dispatching.subscription;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TimingWheelTest {
+
+    private static final long TICK_MS = 5;
+    private static final int WHEEL_SIZE = 8;
+
+    private TimingWheel timingWheel;
+
+    @Before
+    public void setUp() {
+        Executor directExecutor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+        timingWheel = new TimingWheel(directExecutor, TICK_MS, WHEEL_SIZE);
+    }
+
+    @After
+    public void tearDown() {
+        timingWheel.shutdown();
+    }
+
+    @Test(timeout = 3000)
+    public void taskIsExecutedNotBeforeItsDelay() throws Exception {
+        final long delayMs = 50;
+        final CountDownLatch executed = new CountDownLatch(1);
+        final long[] executionTime = new long[1];
+        long startTime = System.nanoTime();
+        timingWheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                executionTime[0] = System.nanoTime();
+                executed.countDown();
+            }
+        }, delayMs);
+
+        executed.await();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(executionTime[0] - startTime) >= delayMs);
+        assertEquals(0, timingWheel.getPendingTimeouts());
+    }
+
+    @Test(timeout = 3000)
+    public void taskWithDelayBeyondOneRevolutionIsExecutedInLaterRound() throws Exception {
+        final long delayMs = 3 * TICK_MS * WHEEL_SIZE + 7;
+        final CountDownLatch executed = new CountDownLatch(1);
+        final long[] executionTime = new long[1];
+        long startTime = System.nanoTime();
+        timingWheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                executionTime[0] = System.nanoTime();
+                executed.countDown();
+            }
+        }, delayMs);
+
+        executed.await();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(executionTime[0] - startTime) >= delayMs);
+    }
+
+    @Test(timeout = 3000)
+    public void cancelledTaskIsNotExecuted() throws Exception {
+        final AtomicInteger executions = new AtomicInteger();
+        final CountDownLatch laterTaskExecuted = new CountDownLatch(1);
+        TimingWheel.Timeout timeout = timingWheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                executions.incrementAndGet();
+            }
+        }, 20);
+        timingWheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                laterTaskExecuted.countDown();
+            }
+        }, 60);
+
+        assertEquals(2, timingWheel.getPendingTimeouts());
+        assertTrue(timeout.cancel());
+        assertTrue(timeout.isCancelled());
+        assertFalse(timeout.cancel());
+        assertEquals(1, timingWheel.getPendingTimeouts());
+
+        laterTaskExecuted.await();
+        assertEquals(0, executions.get());
+    }
+
+    @Test(timeout = 3000)
+    public void tasksScheduledAfterIdlePeriodAreExecutedOnTime() throws Exception {
+        final CountDownLatch firstExecuted = new CountDownLatch(1);
+        timingWheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                firstExecuted.countDown();
+            }
+        }, 0);
+        firstExecuted.await();
+        Thread.sleep(2 * TICK_MS * WHEEL_SIZE);
+
+        final long delayMs = 30;
+        final CountDownLatch secondExecuted = new CountDownLatch(1);
+        final long[] executionTime = new long[1];
+        long startTime = System.nanoTime();
+        timingWheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                executionTime[0] = System.nanoTime();
+                secondExecuted.countDown();
+            }
+        }, delayMs);
+
+        secondExecuted.await();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(executionTime[0] - startTime) >= delayMs);
+    }
+
+    @Test(timeout = 3000)
+    public void taskScheduledWhileWaitingForLaterTaskIsExecutedOnTime() throws Exception {
+        timingWheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, 2000);
+        // let the wheel thread go to sleep until the slot of the first task
+        Thread.sleep(3 * TICK_MS);
+
+        final long delayMs = 20;
+        final CountDownLatch executed = new CountDownLatch(1);
+        long startTime = System.nanoTime();
+        timingWheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                executed.countDown();
+            }
+        }, delayMs);
+
+        assertTrue(executed.await(1000, TimeUnit.MILLISECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) >= delayMs);
+        assertEquals(1, timingWheel.getPendingTimeouts());
+    }
+
+    @Test(timeout = 3000)
+    public void publicationTasksAreExecutedOnPublicationExecutor() throws Exception {
+        final AtomicInteger cleanupExecutions = new AtomicInteger();
+        final AtomicInteger publicationExecutions = new AtomicInteger();
+        final CountDownLatch executed = new CountDownLatch(2);
+        TimingWheel wheel = new TimingWheel(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                cleanupExecutions.incrementAndGet();
+                command.run();
+            }
+        }, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                publicationExecutions.incrementAndGet();
+                command.run();
+            }
+        }, TICK_MS, WHEEL_SIZE);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                executed.countDown();
+            }
+        };
+        try {
+            wheel.schedulePublication(task, 10);
+            wheel.schedule(task, 10);
+            executed.await();
+        } finally {
+            wheel.shutdown();
+        }
+        assertEquals(1, cleanupExecutions.get());
+        assertEquals(1, publicationExecutions.get());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void scheduleAfterShutdownIsRejected() {
+        timingWheel.shutdown();
+        timingWheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, 10);
+    }
+}
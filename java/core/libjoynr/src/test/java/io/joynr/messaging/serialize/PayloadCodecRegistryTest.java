@@ -0,0 +1,79 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.serialize;
+
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
+
+import io.joynr.messaging.ConfigurableMessagingSettings;
+
+public class PayloadCodecRegistryTest {
+
+    private final JsonPayloadCodec jsonPayloadCodec = new JsonPayloadCodec(new ObjectMapper());
+    private final SmilePayloadCodec smilePayloadCodec = new SmilePayloadCodec();
+    private PayloadCodecRegistry subject;
+
+    @Before
+    public void setUp() {
+        subject = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(JsonPayloadCodec.class).toInstance(jsonPayloadCodec);
+                bind(new TypeLiteral<Map<String, PayloadCodec>>() {
+                }).toInstance(Collections.<String, PayloadCodec> singletonMap(SmilePayloadCodec.NAME, smilePayloadCodec));
+                bindConstant().annotatedWith(Names.named(ConfigurableMessagingSettings.PROPERTY_MESSAGING_PAYLOAD_CODEC_MAX_PARTICIPANTS))
+                              .to(2);
+            }
+        })
+                       .getInstance(PayloadCodecRegistry.class);
+    }
+
+    @Test
+    public void testAdvertisedCodecIsUsedForRecipient() {
+        subject.registerAcceptedCodec("a", SmilePayloadCodec.NAME);
+        assertSame(smilePayloadCodec, subject.getCodecForRecipient("a"));
+        assertSame(jsonPayloadCodec, subject.getCodecForRecipient("b"));
+
+        subject.registerAcceptedCodec("a", null);
+        assertSame(jsonPayloadCodec, subject.getCodecForRecipient("a"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedParticipantIsForgotten() {
+        subject.registerAcceptedCodec("a", SmilePayloadCodec.NAME);
+        subject.registerAcceptedCodec("b", SmilePayloadCodec.NAME);
+        subject.getCodecForRecipient("a");
+        subject.registerAcceptedCodec("c", SmilePayloadCodec.NAME);
+
+        assertSame(smilePayloadCodec, subject.getCodecForRecipient("a"));
+        assertSame(jsonPayloadCodec, subject.getCodecForRecipient("b"));
+        assertSame(smilePayloadCodec, subject.getCodecForRecipient("c"));
+    }
+}
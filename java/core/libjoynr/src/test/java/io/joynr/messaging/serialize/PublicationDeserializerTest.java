@@ -0,0 +1,194 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.serialize;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.google.inject.Guice;
+
+import io.joynr.exceptions.JoynrRuntimeException;
+import io.joynr.messaging.JsonMessageSerializerModule;
+import joynr.MulticastPublication;
+import joynr.SubscriptionPublication;
+import joynr.types.ProviderScope;
+import joynr.types.Version;
+
+public class PublicationDeserializerTest {
+
+    private static final String ID = "id";
+
+    private ObjectMapper objectMapper;
+    private JsonPayloadCodec codec;
+    private Class<?>[] outTypes;
+    private TypeReference<?> outTypeReference;
+    private Map<String, PublicationTypeResolver> attributes;
+
+    @Before
+    public void setUp() {
+        objectMapper = Guice.createInjector(new JsonMessageSerializerModule()).getInstance(ObjectMapper.class);
+        codec = new JsonPayloadCodec(objectMapper);
+        attributes = Collections.<String, PublicationTypeResolver> singletonMap(PublicationTypeResolver.ATTRIBUTE_KEY,
+                                                                                new TestTypeResolver());
+    }
+
+    private class TestTypeResolver implements PublicationTypeResolver {
+        @Override
+        public JavaType[] getSubscriptionPublicationTypes(String subscriptionId, TypeFactory typeFactory) {
+            return getTypes(subscriptionId, typeFactory);
+        }
+
+        @Override
+        public JavaType[] getMulticastPublicationTypes(String multicastId, TypeFactory typeFactory) {
+            return getTypes(multicastId, typeFactory);
+        }
+    }
+
+    private JavaType[] getTypes(String id, TypeFactory typeFactory) {
+        assertEquals(ID, id);
+        if (outTypeReference != null) {
+            return new JavaType[]{ typeFactory.constructType(outTypeReference) };
+        }
+        JavaType[] types = new JavaType[outTypes.length];
+        for (int i = 0; i < outTypes.length; i++) {
+            types[i] = typeFactory.constructType(outTypes[i]);
+        }
+        return types;
+    }
+
+    private List<?> deserializePublicationValues(Class<?>[] types, Object... values) throws Exception {
+        outTypes = types;
+        byte[] payload = objectMapper.writeValueAsBytes(new SubscriptionPublication(Arrays.asList(values), ID));
+        return (List<?>) codec.deserialize(payload, SubscriptionPublication.class, attributes).getResponse();
+    }
+
+    private void assertDeserializedAs(Object value, Class<?> type) throws Exception {
+        Object deserializedValue = deserializePublicationValues(new Class<?>[]{ type }, value).get(0);
+
+        assertEquals(type, deserializedValue.getClass());
+        if (type.isArray()) {
+            assertArrayEquals((Object[]) value, (Object[]) deserializedValue);
+        } else {
+            assertEquals(value, deserializedValue);
+        }
+    }
+
+    @Test
+    public void deserializesStruct() throws Exception {
+        assertDeserializedAs(new Version(47, 11), Version.class);
+    }
+
+    @Test
+    public void deserializesEnum() throws Exception {
+        assertDeserializedAs(ProviderScope.LOCAL, ProviderScope.class);
+    }
+
+    @Test
+    public void deserializesNumbers() throws Exception {
+        assertDeserializedAs(Long.valueOf(5), Long.class);
+        assertDeserializedAs(Long.MAX_VALUE, Long.class);
+        assertDeserializedAs(Byte.valueOf((byte) -3), Byte.class);
+        assertDeserializedAs(Short.valueOf((short) 300), Short.class);
+        assertDeserializedAs(Float.valueOf(2.5f), Float.class);
+        assertDeserializedAs(Double.valueOf(0.1), Double.class);
+    }
+
+    @Test
+    public void deserializesArrays() throws Exception {
+        assertDeserializedAs(new String[]{ "a", "b" }, String[].class);
+        assertDeserializedAs(new Version[]{ new Version(1, 2), new Version(3, 4) }, Version[].class);
+        assertDeserializedAs(new ProviderScope[]{ ProviderScope.GLOBAL, ProviderScope.LOCAL }, ProviderScope[].class);
+        assertDeserializedAs(new Byte[]{ 1, 2, 3 }, Byte[].class);
+        assertDeserializedAs(new Integer[][]{ { 1 }, { 2, 3 } }, Integer[][].class);
+    }
+
+    @Test
+    public void deserializesPrimitiveArrays() throws Exception {
+        Object deserializedValue = deserializePublicationValues(new Class<?>[]{ long[].class },
+                                                                (Object) new Integer[]{ 1, 2 }).get(0);
+        assertArrayEquals(new long[]{ 1, 2 }, (long[]) deserializedValue);
+    }
+
+    @Test
+    public void deserializesMultipleValuesAndNull() throws Exception {
+        List<?> values = deserializePublicationValues(new Class<?>[]{ String.class, Version.class, Integer.class },
+                                                      "a",
+                                                      null,
+                                                      7);
+        assertEquals(Arrays.asList("a", null, 7), values);
+    }
+
+    @Test
+    public void deserializesTypeReference() throws Exception {
+        outTypeReference = new TypeReference<List<Version>>() {
+        };
+        List<?> values = deserializePublicationValues(null, Arrays.asList(new Version(1, 2)));
+        assertEquals(Arrays.asList(Arrays.asList(new Version(1, 2))), values);
+        assertEquals(Version.class, ((List<?>) values.get(0)).get(0).getClass());
+    }
+
+    @Test
+    public void deserializesMulticastPublication() throws Exception {
+        outTypes = new Class<?>[]{ Version.class };
+        byte[] payload = objectMapper.writeValueAsBytes(new MulticastPublication(Arrays.<Object> asList(new Version(1,
+                                                                                                                    2)),
+                                                                                 ID));
+        MulticastPublication publication = codec.deserialize(payload, MulticastPublication.class, attributes);
+
+        assertEquals(ID, publication.getMulticastId());
+        assertEquals(new Version(1, 2), ((List<?>) publication.getResponse()).get(0));
+    }
+
+    @Test
+    public void deserializesErrorPublication() throws Exception {
+        outTypes = new Class<?>[]{ Version.class };
+        byte[] payload = objectMapper.writeValueAsBytes(new SubscriptionPublication(new JoynrRuntimeException("failed"),
+                                                                                    ID));
+        SubscriptionPublication publication = codec.deserialize(payload, SubscriptionPublication.class, attributes);
+
+        assertEquals(ID, publication.getSubscriptionId());
+        assertNull(publication.getResponse());
+        assertEquals("failed", publication.getError().getMessage());
+    }
+
+    @Test
+    public void deserializesUntypedWithoutResolver() throws Exception {
+        byte[] payload = objectMapper.writeValueAsBytes(new SubscriptionPublication(Arrays.<Object> asList(new Version(1,
+                                                                                                                       2)),
+                                                                                    ID));
+        SubscriptionPublication publication = codec.deserialize(payload, SubscriptionPublication.class);
+
+        assertEquals(ID, publication.getSubscriptionId());
+        assertTrue(((List<?>) publication.getResponse()).get(0) instanceof Version);
+    }
+}
@@ -20,6 +20,7 @@ package io.joynr.integration.websocket;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
@@ -33,6 +34,9 @@ import io.joynr.messaging.JoynrMessageProcessor;
 import io.joynr.messaging.MessagingQos;
 import io.joynr.messaging.SuccessAction;
 import io.joynr.messaging.routing.MessageRouter;
+import io.joynr.messaging.serialize.JsonPayloadCodec;
+import io.joynr.messaging.serialize.PayloadCodec;
+import io.joynr.messaging.serialize.PayloadCodecRegistry;
 import io.joynr.messaging.websocket.WebSocketClientMessagingStubFactory;
 import io.joynr.messaging.websocket.WebSocketEndpointFactory;
 import io.joynr.messaging.websocket.WebSocketMessagingSkeleton;
@@ -102,7 +106,9 @@ public class WebSocketTest {
                 return null;
             }
         }).when(messageRouterMock).route(Mockito.any(ImmutableMessage.class));
-        messageFactory = new MutableMessageFactory(new ObjectMapper(), new HashSet<JoynrMessageProcessor>());
+        PayloadCodecRegistry payloadCodecRegistry = new PayloadCodecRegistry(new JsonPayloadCodec(new ObjectMapper()),
+                                                                             Collections.<String, PayloadCodec> emptyMap());
+        messageFactory = new MutableMessageFactory(payloadCodecRegistry, new HashSet<JoynrMessageProcessor>());
     }
 
     private void configure(int maxMessageSize,
@@ -68,6 +68,8 @@ public class JeeJoynrIntegrationModule extends AbstractModule {
                                             .toInstance(scheduledExecutorService);
         bind(ScheduledExecutorService.class).annotatedWith(Names.named(LocalCapabilitiesDirectory.JOYNR_SCHEDULER_CAPABILITIES_FRESHNESS))
                                             .toInstance(scheduledExecutorService);
+        bind(ExecutorService.class).annotatedWith(Names.named(JoynrInjectionConstants.JOYNR_PUBLICATION_EXECUTOR))
+                                   .toInstance(scheduledExecutorService);
         bind(ExecutorService.class).toInstance(scheduledExecutorService);
 
         MapBinder<Class<? extends Address>, IMessagingSkeleton> messagingSkeletonFactory;
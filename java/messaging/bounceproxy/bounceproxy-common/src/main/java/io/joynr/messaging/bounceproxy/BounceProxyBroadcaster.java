@@ -25,7 +25,6 @@ import java.util.Set;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
-import org.atmosphere.cache.UUIDBroadcasterCache;
 import org.atmosphere.cpr.AtmosphereConfig;
 import org.atmosphere.cpr.AtmosphereResource;
 import org.atmosphere.util.SimpleBroadcaster;
@@ -38,7 +37,7 @@ public class BounceProxyBroadcaster extends SimpleBroadcaster {
     public BounceProxyBroadcaster(String name, AtmosphereConfig config) {
         super(name, config);
 
-        UUIDBroadcasterCache broadcasterCache = (UUIDBroadcasterCache) bc.getBroadcasterCache();
+        BounceProxyBroadcasterCache broadcasterCache = (BounceProxyBroadcasterCache) bc.getBroadcasterCache();
         broadcasterCache.setClientIdleTime(TimeUnit.DAYS.toMillis(7));
 
         // order of filters matters
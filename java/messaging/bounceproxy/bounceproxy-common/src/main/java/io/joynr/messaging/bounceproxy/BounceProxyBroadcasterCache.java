@@ -0,0 +1,316 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.bounceproxy;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import joynr.ImmutableMessage;
+
+import org.atmosphere.cache.BroadcastMessage;
+import org.atmosphere.cache.BroadcasterCacheInspector;
+import org.atmosphere.cache.CacheMessage;
+import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.BroadcasterCache;
+import org.atmosphere.cpr.BroadcasterConfig;
+import org.atmosphere.util.ExecutorsFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Broadcaster cache which keeps the messages of every long polling client of a channel in a bounded
+ * {@link ChannelMessageBuffer}. In contrast to Atmosphere's UUIDBroadcasterCache, the cached messages of clients which
+ * are offline are limited in number and size, and expired messages are evicted from the buffers periodically and
+ * whenever a buffer is accessed.
+ * <p>
+ * The limits are read from the init parameters {@value #PROPERTY_MAX_MESSAGES_PER_CHANNEL} and
+ * {@value #PROPERTY_MAX_BYTES_PER_CHANNEL}.
+ */
+public class BounceProxyBroadcasterCache implements BroadcasterCache {
+    private static final Logger logger = LoggerFactory.getLogger(BounceProxyBroadcasterCache.class);
+
+    public static final String PROPERTY_MAX_MESSAGES_PER_CHANNEL = "joynr.bounceproxy.cache.max_messages_per_channel";
+    public static final String PROPERTY_MAX_BYTES_PER_CHANNEL = "joynr.bounceproxy.cache.max_bytes_per_channel";
+    public static final int DEFAULT_MAX_MESSAGES_PER_CHANNEL = 1000;
+    public static final long DEFAULT_MAX_BYTES_PER_CHANNEL = 4 * 1024 * 1024;
+
+    private final ConcurrentMap<String, ChannelMessageBuffer> buffers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Long> activeClients = new ConcurrentHashMap<>();
+    private final List<BroadcasterCacheInspector> inspectors = new CopyOnWriteArrayList<>();
+    private final AtomicLong messageSequence = new AtomicLong();
+    private int maxMessagesPerChannel = DEFAULT_MAX_MESSAGES_PER_CHANNEL;
+    private long maxBytesPerChannel = DEFAULT_MAX_BYTES_PER_CHANNEL;
+    private long clientIdleTime = TimeUnit.SECONDS.toMillis(60);
+    private long invalidateCacheInterval = TimeUnit.SECONDS.toMillis(30);
+    private ScheduledExecutorService taskScheduler;
+    private ScheduledFuture<?> scheduledFuture;
+    private boolean shared = true;
+
+    @Override
+    public void configure(BroadcasterConfig config) {
+        Object sharedProperty = config.getAtmosphereConfig().properties().get("shared");
+        if (sharedProperty != null) {
+            shared = Boolean.parseBoolean(sharedProperty.toString());
+        }
+        if (shared) {
+            taskScheduler = ExecutorsFactory.getScheduler(config.getAtmosphereConfig());
+        } else {
+            taskScheduler = Executors.newSingleThreadScheduledExecutor();
+        }
+
+        String maxMessages = config.getAtmosphereConfig().getInitParameter(PROPERTY_MAX_MESSAGES_PER_CHANNEL);
+        if (maxMessages != null) {
+            maxMessagesPerChannel = (int) parseLimit(PROPERTY_MAX_MESSAGES_PER_CHANNEL, maxMessages, Integer.MAX_VALUE);
+        }
+        String maxBytes = config.getAtmosphereConfig().getInitParameter(PROPERTY_MAX_BYTES_PER_CHANNEL);
+        if (maxBytes != null) {
+            maxBytesPerChannel = parseLimit(PROPERTY_MAX_BYTES_PER_CHANNEL, maxBytes, Long.MAX_VALUE);
+        }
+    }
+
+    private static long parseLimit(String property, String value, long maxValue) {
+        long limit;
+        try {
+            limit = Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(property + " must be a number, but is \"" + value + "\"", e);
+        }
+        if (limit < 1 || limit > maxValue) {
+            throw new IllegalArgumentException(property + " must be between 1 and " + maxValue + ", but is " + limit);
+        }
+        return limit;
+    }
+
+    @Override
+    public synchronized void start() {
+        scheduledFuture = taskScheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                invalidateExpiredEntries();
+            }
+        }, 0, invalidateCacheInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        cleanup();
+        if (taskScheduler != null && !shared) {
+            taskScheduler.shutdown();
+        }
+    }
+
+    @Override
+    public synchronized void cleanup() {
+        if (scheduledFuture != null) {
+            scheduledFuture.cancel(false);
+            scheduledFuture = null;
+        }
+    }
+
+    @Override
+    public CacheMessage addToCache(String broadcasterId, AtmosphereResource r, BroadcastMessage e) {
+        long now = System.currentTimeMillis();
+        CacheMessage cacheMessage = new CacheMessage(Long.toString(messageSequence.incrementAndGet()), e.message);
+        if (!inspect(e)) {
+            return cacheMessage;
+        }
+
+        long expiryDate = getExpiryDate(e.message);
+        int size = getSize(e.message);
+        if (expiryDate < now) {
+            logger.debug("not caching expired message {}", e.message);
+            return cacheMessage;
+        }
+        if (size > maxBytesPerChannel) {
+            logger.warn("not caching message {} of {} bytes: it exceeds the limit of {} bytes per channel",
+                        e.message,
+                        size,
+                        maxBytesPerChannel);
+            return cacheMessage;
+        }
+
+        if (r == null) {
+            for (String clientId : activeClients.keySet()) {
+                addMessage(clientId, cacheMessage, expiryDate, size, now);
+            }
+        } else {
+            String clientId = r.uuid();
+            activeClients.put(clientId, now);
+            addMessage(clientId, cacheMessage, expiryDate, size, now);
+        }
+        return cacheMessage;
+    }
+
+    @Override
+    public List<Object> retrieveFromCache(String broadcasterId, AtmosphereResource r) {
+        return retrieveMessages(r.uuid());
+    }
+
+    /**
+     * Removes and returns the cached messages of a client and marks the client as active.
+     *
+     * @param clientId the tracking ID of the client
+     * @return the cached messages in the order in which they have been added
+     */
+    List<Object> retrieveMessages(String clientId) {
+        long now = System.currentTimeMillis();
+        activeClients.put(clientId, now);
+        ChannelMessageBuffer buffer = buffers.get(clientId);
+        if (buffer == null) {
+            return Collections.emptyList();
+        }
+        List<Object> messages = buffer.drain(now);
+        logger.trace("retrieved {} cached messages for client {}", messages.size(), clientId);
+        return messages;
+    }
+
+    @Override
+    public void clearCache(String broadcasterId, AtmosphereResource r, CacheMessage cacheMessage) {
+        if (cacheMessage != null) {
+            clearMessage(r.uuid(), cacheMessage);
+        }
+    }
+
+    /**
+     * Removes a message which has been delivered to a client from its buffer.
+     */
+    void clearMessage(String clientId, CacheMessage cacheMessage) {
+        ChannelMessageBuffer buffer = buffers.get(clientId);
+        if (buffer != null) {
+            buffer.remove(cacheMessage);
+        }
+    }
+
+    @Override
+    public void excludeFromCache(String broadcasterId, AtmosphereResource r) {
+        activeClients.remove(r.uuid());
+    }
+
+    @Override
+    public BroadcasterCache inspector(BroadcasterCacheInspector inspector) {
+        inspectors.add(inspector);
+        return this;
+    }
+
+    /**
+     * Registers a client for which messages are cached while it is not polling.
+     *
+     * @param clientId the tracking ID of the client
+     */
+    public void addActiveClient(String clientId) {
+        activeClients.put(clientId, System.currentTimeMillis());
+    }
+
+    /**
+     * @param clientIdleTime time in ms after which a client which did not poll is considered to be gone and its cached
+     *            messages are discarded
+     */
+    public void setClientIdleTime(long clientIdleTime) {
+        this.clientIdleTime = clientIdleTime;
+    }
+
+    /**
+     * @return the number of cached messages of all clients
+     */
+    public int getCachedMessageCount() {
+        int count = 0;
+        for (ChannelMessageBuffer buffer : buffers.values()) {
+            count += buffer.size();
+        }
+        return count;
+    }
+
+    /**
+     * Discards the buffers of idle clients and evicts expired messages from all other buffers.
+     */
+    protected void invalidateExpiredEntries() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Long>> clients = activeClients.entrySet().iterator();
+        while (clients.hasNext()) {
+            Map.Entry<String, Long> client = clients.next();
+            if (now - client.getValue() > clientIdleTime) {
+                logger.trace("invalidate client {}", client.getKey());
+                clients.remove();
+            }
+        }
+
+        Iterator<Map.Entry<String, ChannelMessageBuffer>> entries = buffers.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, ChannelMessageBuffer> entry = entries.next();
+            if (!activeClients.containsKey(entry.getKey())) {
+                entries.remove();
+                continue;
+            }
+            int evicted = entry.getValue().evictExpired(now);
+            if (evicted > 0) {
+                logger.debug("evicted {} expired messages cached for client {}", evicted, entry.getKey());
+            }
+        }
+    }
+
+    private boolean inspect(BroadcastMessage message) {
+        for (BroadcasterCacheInspector inspector : inspectors) {
+            if (!inspector.inspect(message)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addMessage(String clientId, CacheMessage cacheMessage, long expiryDate, int size, long now) {
+        ChannelMessageBuffer buffer = buffers.get(clientId);
+        if (buffer == null) {
+            buffer = new ChannelMessageBuffer(maxMessagesPerChannel, maxBytesPerChannel);
+            ChannelMessageBuffer existingBuffer = buffers.putIfAbsent(clientId, buffer);
+            if (existingBuffer != null) {
+                buffer = existingBuffer;
+            }
+        }
+        int dropped = buffer.add(cacheMessage, expiryDate, size, now);
+        if (dropped > 0) {
+            logger.warn("dropped {} cached messages of client {} because its message buffer is full", dropped, clientId);
+        }
+    }
+
+    private static long getExpiryDate(Object message) {
+        if (message instanceof ImmutableMessage && ((ImmutableMessage) message).isTtlAbsolute()) {
+            return ((ImmutableMessage) message).getTtlMs();
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static int getSize(Object message) {
+        if (message instanceof ImmutableMessage) {
+            return ((ImmutableMessage) message).getMessageSize();
+        } else if (message instanceof byte[]) {
+            return ((byte[]) message).length;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.bounceproxy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.atmosphere.cache.CacheMessage;
+
+/**
+ * Bounded FIFO ring buffer for the messages cached for one long polling client. The buffer is limited both by the
+ * number of messages and by their accumulated size. If a new message does not fit, the oldest messages are dropped.
+ * <p>
+ * The earliest expiry date of all buffered messages is tracked, so expired messages are only searched for once at
+ * least one of them has actually expired; they are then removed in a single compacting pass. The backing arrays are
+ * allocated on demand and released when the buffer is drained, so idle clients hardly use any memory.
+ */
+class ChannelMessageBuffer {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final int maxMessages;
+    private final long maxBytes;
+
+    private CacheMessage[] messages;
+    private long[] expiryDates;
+    private int[] sizes;
+    private int head;
+    private int count;
+    private long bytes;
+    private long earliestExpiryDate = Long.MAX_VALUE;
+
+    ChannelMessageBuffer(int maxMessages, long maxBytes) {
+        if (maxMessages < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("limits must be positive: maxMessages=" + maxMessages + ", maxBytes="
+                    + maxBytes);
+        }
+        this.maxMessages = maxMessages;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Appends a message to the buffer. Expired messages are evicted first; if the message still does not fit, the
+     * oldest messages are dropped.
+     *
+     * @param message the message to buffer
+     * @param expiryDate absolute expiry date of the message in ms
+     * @param size size of the message in bytes; must not be greater than the byte limit of the buffer
+     * @param now the current time in ms
+     * @return the number of messages which were dropped to make room for the new message
+     */
+    synchronized int add(CacheMessage message, long expiryDate, int size, long now) {
+        evictExpired(now);
+        int dropped = 0;
+        while (count > 0 && (count >= maxMessages || bytes + size > maxBytes)) {
+            removeAt(0);
+            dropped++;
+        }
+        if (messages == null) {
+            allocate(Math.min(INITIAL_CAPACITY, maxMessages));
+        } else if (count == messages.length) {
+            allocate(Math.min(messages.length * 2, maxMessages));
+        }
+        int index = index(count);
+        messages[index] = message;
+        expiryDates[index] = expiryDate;
+        sizes[index] = size;
+        count++;
+        bytes += size;
+        if (expiryDate < earliestExpiryDate) {
+            earliestExpiryDate = expiryDate;
+        }
+        return dropped;
+    }
+
+    /**
+     * Removes the given message if it is still buffered. Messages are usually removed in the order they were added,
+     * so the oldest and the newest message are checked first.
+     *
+     * @param message the message to remove
+     * @return true if the message was buffered
+     */
+    synchronized boolean remove(CacheMessage message) {
+        if (count == 0) {
+            return false;
+        }
+        if (messages[head] == message) {
+            removeAt(0);
+            return true;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            if (messages[index(i)] == message) {
+                removeAt(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes all messages which expired before the given time.
+     *
+     * @param now the current time in ms
+     * @return the number of evicted messages
+     */
+    synchronized int evictExpired(long now) {
+        if (now <= earliestExpiryDate) {
+            return 0;
+        }
+        int kept = 0;
+        long earliest = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            int from = index(i);
+            if (expiryDates[from] < now) {
+                bytes -= sizes[from];
+            } else {
+                int to = index(kept++);
+                messages[to] = messages[from];
+                expiryDates[to] = expiryDates[from];
+                sizes[to] = sizes[from];
+                earliest = Math.min(earliest, expiryDates[to]);
+            }
+        }
+        for (int i = kept; i < count; i++) {
+            messages[index(i)] = null;
+        }
+        int evicted = count - kept;
+        count = kept;
+        earliestExpiryDate = earliest;
+        return evicted;
+    }
+
+    /**
+     * Removes all messages which have not expired yet from the buffer and returns them in the order they were added.
+     *
+     * @param now the current time in ms
+     * @return the unwrapped messages
+     */
+    synchronized List<Object> drain(long now) {
+        evictExpired(now);
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        List<Object> result = new ArrayList<Object>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(messages[index(i)].getMessage());
+        }
+        messages = null;
+        expiryDates = null;
+        sizes = null;
+        head = 0;
+        count = 0;
+        bytes = 0;
+        earliestExpiryDate = Long.MAX_VALUE;
+        return result;
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    synchronized long byteSize() {
+        return bytes;
+    }
+
+    private int index(int position) {
+        int index = head + position;
+        return index < messages.length ? index : index - messages.length;
+    }
+
+    private void removeAt(int position) {
+        int removed = index(position);
+        bytes -= sizes[removed];
+        if (position == 0) {
+            messages[removed] = null;
+            head = index(1);
+        } else {
+            for (int i = position; i < count - 1; i++) {
+                int to = index(i);
+                int from = index(i + 1);
+                messages[to] = messages[from];
+                expiryDates[to] = expiryDates[from];
+                sizes[to] = sizes[from];
+            }
+            messages[index(count - 1)] = null;
+        }
+        count--;
+    }
+
+    private void allocate(int capacity) {
+        CacheMessage[] newMessages = new CacheMessage[capacity];
+        long[] newExpiryDates = new long[capacity];
+        int[] newSizes = new int[capacity];
+        if (messages != null) {
+            for (int i = 0; i < count; i++) {
+                int from = index(i);
+                newMessages[i] = messages[from];
+                newExpiryDates[i] = expiryDates[from];
+                newSizes[i] = sizes[from];
+            }
+        }
+        messages = newMessages;
+        expiryDates = newExpiryDates;
+        sizes = newSizes;
+        head = 0;
+    }
+}
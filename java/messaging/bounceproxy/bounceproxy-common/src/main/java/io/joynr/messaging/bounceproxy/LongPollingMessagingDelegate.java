@@ -28,9 +28,11 @@ import static io.joynr.messaging.datatypes.JoynrMessagingErrorCode.JOYNRMESSAGIN
 import io.joynr.communications.exceptions.JoynrHttpException;
 import io.joynr.messaging.datatypes.JoynrMessagingErrorCode;
 import io.joynr.messaging.info.ChannelInformation;
+import io.joynr.messaging.util.Utilities;
 import io.joynr.smrf.EncodingException;
 import io.joynr.smrf.UnsuppportedVersionException;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
@@ -39,9 +41,9 @@ import javax.ws.rs.core.Response.Status;
 
 import joynr.ImmutableMessage;
 
-import org.atmosphere.cache.UUIDBroadcasterCache;
 import org.atmosphere.cpr.AtmosphereResource;
 import org.atmosphere.cpr.Broadcaster;
+import org.atmosphere.cpr.BroadcasterCache;
 import org.atmosphere.cpr.BroadcasterFactory;
 import org.atmosphere.jersey.Broadcastable;
 import org.slf4j.Logger;
@@ -75,6 +77,10 @@ public class LongPollingMessagingDelegate {
             }
 
             Integer cachedSize = null;
+            BroadcasterCache broadcasterCache = broadcaster.getBroadcasterConfig().getBroadcasterCache();
+            if (broadcasterCache instanceof BounceProxyBroadcasterCache) {
+                cachedSize = ((BounceProxyBroadcasterCache) broadcasterCache).getCachedMessageCount();
+            }
             entries.add(new ChannelInformation(name, broadcaster.getAtmosphereResources().size(), cachedSize));
         }
 
@@ -121,13 +127,11 @@ public class LongPollingMessagingDelegate {
             }
         }
 
-        UUIDBroadcasterCache broadcasterCache = (UUIDBroadcasterCache) broadcaster.getBroadcasterConfig()
-                                                                                  .getBroadcasterCache();
-        broadcasterCache.activeClients().put(atmosphereTrackingId, System.currentTimeMillis());
-
-        // BroadcasterCacheInspector is not implemented corrected in Atmosphere
-        // 1.1.0RC4
-        // broadcasterCache.inspector(new MessageExpirationInspector());
+        BounceProxyBroadcasterCache broadcasterCache = (BounceProxyBroadcasterCache) broadcaster.getBroadcasterConfig()
+                                                                                                .getBroadcasterCache();
+        // expired messages are evicted by the cache itself, so no
+        // BroadcasterCacheInspector is needed
+        broadcasterCache.addActiveClient(atmosphereTrackingId);
 
         return "/channels/" + ccid + "/";
     }
@@ -191,55 +195,61 @@ public class LongPollingMessagingDelegate {
     }
 
     /**
-     * Posts a message to a long polling channel.
+     * Posts a message to a long polling channel. The request body may contain
+     * a sequence of several SMRF messages which are posted together. Messages
+     * which have already expired are dropped and logged, the other messages of
+     * the request are broadcast nevertheless.
      *
      * @param ccid
      *            the identifier of the long polling channel
      * @param serializedMessage
-     *            the message to send serialized as a SMRF message
-     * @return the path segment for the message status. The path, appended to
-     *         the base URI of the messaging service, can be used to query the
-     *         message status
+     *            the message to send serialized as a SMRF message, or several
+     *            concatenated SMRF messages
+     * @return the path segment for the message status of the first message
+     *         which has been broadcast.
+     *         The path, appended to the base URI of the messaging service, can
+     *         be used to query the message status
      *
      * @throws JoynrHttpException
      *             if one of:
      *             <ul>
      *             <li>ccid is not set</li>
-     *             <li>the message has expired or not expiry date is set</li>
+     *             <li>all messages have expired or the expiry date of a
+     *             message is not set</li>
      *             <li>no channel registered for ccid</li>
      *             </ul>
      */
     public String postMessage(String ccid, byte[] serializedMessage) {
-        ImmutableMessage message;
+        List<ImmutableMessage> messages;
 
         try {
-            message = new ImmutableMessage(serializedMessage);
+            messages = Utilities.splitSMRF(serializedMessage);
         } catch (EncodingException | UnsuppportedVersionException e) {
             throw new JoynrHttpException(Status.BAD_REQUEST, JOYNRMESSAGINGERROR_DESERIALIZATIONFAILED);
         }
+        if (messages.isEmpty()) {
+            throw new JoynrHttpException(Status.BAD_REQUEST, JOYNRMESSAGINGERROR_DESERIALIZATIONFAILED);
+        }
 
         if (ccid == null) {
             log.error("POST message {} to cluster controller: NULL. Dropped because: channel Id was not set.",
-                      message.getId());
+                      messages.get(0).getIdWithoutDecodingHeaders());
 
             throw new JoynrHttpException(Status.BAD_REQUEST, JOYNRMESSAGINGERROR_CHANNELNOTSET);
         }
 
-        // send the message to the receiver.
-        if (message.getTtlMs() == 0) {
-            log.error("POST message {} to cluster controller: {} dropped because: expiry date not set",
-                      ccid,
-                      message.getId());
-            throw new JoynrHttpException(Status.BAD_REQUEST, JOYNRMESSAGINGERROR_EXPIRYDATENOTSET);
-        }
-
-        // Relative TTLs are not supported yet.
-        if (!message.isTtlAbsolute()) {
-            throw new JoynrHttpException(Status.BAD_REQUEST, JOYNRMESSAGINGERROR_RELATIVE_TTL_UNSPORTED);
+        List<ImmutableMessage> unexpiredMessages = new ArrayList<ImmutableMessage>(messages.size());
+        for (ImmutableMessage message : messages) {
+            validateMessage(ccid, message);
+            if (message.getTtlMs() < System.currentTimeMillis()) {
+                log.warn("POST message {} to cluster controller: {} dropped because: TTL expired",
+                         ccid,
+                         message.getIdWithoutDecodingHeaders());
+            } else {
+                unexpiredMessages.add(message);
+            }
         }
-
-        if (message.getTtlMs() < System.currentTimeMillis()) {
-            log.warn("POST message {} to cluster controller: {} dropped because: TTL expired", ccid, message.getId());
+        if (unexpiredMessages.isEmpty()) {
             throw new JoynrHttpException(Status.BAD_REQUEST, JOYNRMESSAGINGERROR_EXPIRYDATEEXPIRED);
         }
 
@@ -251,16 +261,33 @@ public class LongPollingMessagingDelegate {
             // content.
             log.error("POST message {} to cluster controller: {} dropped because: no channel found",
                       ccid,
-                      message.getId());
+                      unexpiredMessages.get(0).getIdWithoutDecodingHeaders());
             throw new JoynrHttpException(Status.BAD_REQUEST, JOYNRMESSAGINGERROR_CHANNELNOTFOUND);
         }
 
         if (ccBroadcaster.getAtmosphereResources().size() == 0) {
             log.debug("no poll currently waiting for channelId: {}", ccid);
         }
-        ccBroadcaster.broadcast(message);
+        for (ImmutableMessage message : unexpiredMessages) {
+            ccBroadcaster.broadcast(message);
+        }
+
+        return "messages/" + unexpiredMessages.get(0).getIdWithoutDecodingHeaders();
+    }
 
-        return "messages/" + message.getId();
+    private void validateMessage(String ccid, ImmutableMessage message) {
+        // send the message to the receiver.
+        if (message.getTtlMs() == 0) {
+            log.error("POST message {} to cluster controller: {} dropped because: expiry date not set",
+                      ccid,
+                      message.getIdWithoutDecodingHeaders());
+            throw new JoynrHttpException(Status.BAD_REQUEST, JOYNRMESSAGINGERROR_EXPIRYDATENOTSET);
+        }
+
+        // Relative TTLs are not supported yet.
+        if (!message.isTtlAbsolute()) {
+            throw new JoynrHttpException(Status.BAD_REQUEST, JOYNRMESSAGINGERROR_RELATIVE_TTL_UNSPORTED);
+        }
     }
 
     private void throwExceptionIfTrackingIdnotSet(String atmosphereTrackingId) {
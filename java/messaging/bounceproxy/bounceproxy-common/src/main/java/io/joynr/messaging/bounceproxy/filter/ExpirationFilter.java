@@ -47,10 +47,10 @@ public class ExpirationFilter implements BroadcastFilter {
             assert (immutableMessage.isTtlAbsolute());
             expirationDate = immutableMessage.getTtlMs();
             if (expirationDate < System.currentTimeMillis()) {
-                log.warn("message expired: msgId: {}", immutableMessage.getId());
+                log.warn("message expired: msgId: {}", immutableMessage.getIdWithoutDecodingHeaders());
                 return false;
             }
-            log.trace("message has not expired: msgId: {}", immutableMessage.getId());
+            log.trace("message has not expired: msgId: {}", immutableMessage.getIdWithoutDecodingHeaders());
             return true;
         }
 
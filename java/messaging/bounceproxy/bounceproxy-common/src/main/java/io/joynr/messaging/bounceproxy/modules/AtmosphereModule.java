@@ -19,12 +19,11 @@
 package io.joynr.messaging.bounceproxy.modules;
 
 import io.joynr.messaging.bounceproxy.BounceProxyBroadcaster;
+import io.joynr.messaging.bounceproxy.BounceProxyBroadcasterCache;
 
 import java.util.HashMap;
 import java.util.Map;
 
-import org.atmosphere.cache.UUIDBroadcasterCache;
-
 import com.google.inject.AbstractModule;
 import com.google.inject.TypeLiteral;
 import com.google.inject.name.Names;
@@ -48,12 +47,18 @@ public class AtmosphereModule extends AbstractModule {
 
         params.put("suspend.seconds", "20");
         params.put("org.atmosphere.cpr.broadcasterClass", BounceProxyBroadcaster.class.getName());
-        params.put("org.atmosphere.cpr.broadcasterCacheClass", UUIDBroadcasterCache.class.getName());
+        params.put("org.atmosphere.cpr.broadcasterCacheClass", BounceProxyBroadcasterCache.class.getName());
         params.put("org.atmosphere.useBlocking", "false");
         params.put("org.atmosphere.cpr.broadcasterLifeCyclePolicy", "NEVER");
         params.put("org.atmosphere.cpr.broadcaster.shareableThreadPool", "true");
         params.put("com.sun.jersey.config.feature.DisableWADL", "true");
         params.put("org.atmosphere.cpr.BroadcasterCache.strategy", "beforeFilter");
+        params.put(BounceProxyBroadcasterCache.PROPERTY_MAX_MESSAGES_PER_CHANNEL,
+                   System.getProperty(BounceProxyBroadcasterCache.PROPERTY_MAX_MESSAGES_PER_CHANNEL,
+                                      String.valueOf(BounceProxyBroadcasterCache.DEFAULT_MAX_MESSAGES_PER_CHANNEL)));
+        params.put(BounceProxyBroadcasterCache.PROPERTY_MAX_BYTES_PER_CHANNEL,
+                   System.getProperty(BounceProxyBroadcasterCache.PROPERTY_MAX_BYTES_PER_CHANNEL,
+                                      String.valueOf(BounceProxyBroadcasterCache.DEFAULT_MAX_BYTES_PER_CHANNEL)));
 
         bind(new TypeLiteral<Map<String, String>>() {
         }).annotatedWith(Names.named("org.atmosphere.guice.AtmosphereGuiceServlet.properties")).toInstance(params);
@@ -0,0 +1,155 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.bounceproxy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import joynr.ImmutableMessage;
+import joynr.Message;
+import joynr.MutableMessage;
+
+import org.atmosphere.cache.BroadcastMessage;
+import org.atmosphere.cache.CacheMessage;
+import org.atmosphere.cpr.AtmosphereConfig;
+import org.atmosphere.cpr.BroadcasterConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BounceProxyBroadcasterCacheTest {
+
+    private static final String CHANNEL = "channel";
+    private static final String CLIENT = "client";
+
+    private BounceProxyBroadcasterCache cache;
+
+    @Before
+    public void setUp() {
+        // AtmosphereResource is not mocked: its signatures refer to servlet classes, which cannot be loaded from the
+        // javaee-api stubs. The cache is accessed by client ID instead.
+        cache = createCache("2", null);
+    }
+
+    private static BounceProxyBroadcasterCache createCache(String maxMessagesPerChannel, String maxBytesPerChannel) {
+        AtmosphereConfig atmosphereConfig = mock(AtmosphereConfig.class);
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("shared", "false");
+        when(atmosphereConfig.properties()).thenReturn(properties);
+        when(atmosphereConfig.getInitParameter(BounceProxyBroadcasterCache.PROPERTY_MAX_MESSAGES_PER_CHANNEL)).thenReturn(maxMessagesPerChannel);
+        when(atmosphereConfig.getInitParameter(BounceProxyBroadcasterCache.PROPERTY_MAX_BYTES_PER_CHANNEL)).thenReturn(maxBytesPerChannel);
+        BroadcasterConfig broadcasterConfig = mock(BroadcasterConfig.class);
+        when(broadcasterConfig.getAtmosphereConfig()).thenReturn(atmosphereConfig);
+
+        BounceProxyBroadcasterCache cache = new BounceProxyBroadcasterCache();
+        cache.configure(broadcasterConfig);
+        return cache;
+    }
+
+    private static ImmutableMessage createMessage(long expiryDate) throws Exception {
+        MutableMessage message = new MutableMessage();
+        message.setSender("sender");
+        message.setRecipient("recipient");
+        message.setType(Message.VALUE_MESSAGE_TYPE_ONE_WAY);
+        message.setTtlAbsolute(true);
+        message.setTtlMs(expiryDate);
+        message.setPayload(new byte[]{ 1, 2, 3 });
+        return message.getImmutableMessage();
+    }
+
+    @Test
+    public void messagesAreCachedForActiveClientsOnly() throws Exception {
+        ImmutableMessage message = createMessage(System.currentTimeMillis() + 60000);
+
+        cache.addToCache(CHANNEL, null, new BroadcastMessage(message));
+        assertEquals(0, cache.getCachedMessageCount());
+
+        cache.addActiveClient(CLIENT);
+        cache.addToCache(CHANNEL, null, new BroadcastMessage(message));
+        assertEquals(1, cache.getCachedMessageCount());
+        assertEquals(Arrays.<Object> asList(message), cache.retrieveMessages(CLIENT));
+        assertEquals(0, cache.getCachedMessageCount());
+    }
+
+    @Test
+    public void deliveredMessagesAreCleared() throws Exception {
+        cache.addActiveClient(CLIENT);
+        ImmutableMessage message = createMessage(System.currentTimeMillis() + 60000);
+        CacheMessage cacheMessage = cache.addToCache(CHANNEL, null, new BroadcastMessage(message));
+
+        cache.clearMessage(CLIENT, cacheMessage);
+
+        assertTrue(cache.retrieveMessages(CLIENT).isEmpty());
+    }
+
+    @Test
+    public void expiredMessagesAreNotCached() throws Exception {
+        cache.addActiveClient(CLIENT);
+
+        cache.addToCache(CHANNEL, null, new BroadcastMessage(createMessage(System.currentTimeMillis() - 1)));
+
+        assertEquals(0, cache.getCachedMessageCount());
+    }
+
+    @Test
+    public void cachedMessagesAreLimitedPerClient() throws Exception {
+        cache.addActiveClient(CLIENT);
+        ImmutableMessage[] messages = new ImmutableMessage[3];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = createMessage(System.currentTimeMillis() + 60000);
+            cache.addToCache(CHANNEL, null, new BroadcastMessage(messages[i]));
+        }
+
+        List<Object> cachedMessages = cache.retrieveMessages(CLIENT);
+
+        assertEquals(Arrays.<Object> asList(messages[1], messages[2]), cachedMessages);
+    }
+
+    @Test
+    public void cachedMessagesOfIdleClientsAreDiscarded() throws Exception {
+        cache.addActiveClient(CLIENT);
+        cache.addToCache(CHANNEL, null, new BroadcastMessage(createMessage(System.currentTimeMillis() + 60000)));
+        cache.setClientIdleTime(-1);
+
+        cache.invalidateExpiredEntries();
+
+        assertEquals(0, cache.getCachedMessageCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroMessagesPerChannelAreRejected() {
+        createCache("0", null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeBytesPerChannelAreRejected() {
+        createCache(null, "-1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void messagesPerChannelExceedingIntAreRejected() {
+        createCache(Long.toString(Integer.MAX_VALUE + 1L), null);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.bounceproxy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.atmosphere.cache.CacheMessage;
+import org.junit.Test;
+
+public class ChannelMessageBufferTest {
+
+    private static final long NOW = 1000000L;
+    private static final long NOT_EXPIRED = NOW + 60000;
+
+    private static CacheMessage message(String content) {
+        return new CacheMessage(content, content);
+    }
+
+    @Test
+    public void drainReturnsMessagesInOrder() {
+        ChannelMessageBuffer buffer = new ChannelMessageBuffer(100, 1000);
+        for (int i = 0; i < 20; i++) {
+            buffer.add(message("m" + i), NOT_EXPIRED, 10, NOW);
+        }
+
+        assertEquals(20, buffer.size());
+        assertEquals(200, buffer.byteSize());
+        assertEquals(Arrays.<Object> asList("m0", "m1", "m2"), buffer.drain(NOW).subList(0, 3));
+        assertEquals(0, buffer.size());
+        assertEquals(0, buffer.byteSize());
+        assertEquals(Collections.emptyList(), buffer.drain(NOW));
+    }
+
+    @Test
+    public void oldestMessagesAreDroppedIfMessageLimitIsReached() {
+        ChannelMessageBuffer buffer = new ChannelMessageBuffer(3, 1000);
+        buffer.add(message("m0"), NOT_EXPIRED, 1, NOW);
+        buffer.add(message("m1"), NOT_EXPIRED, 1, NOW);
+        buffer.add(message("m2"), NOT_EXPIRED, 1, NOW);
+
+        assertEquals(1, buffer.add(message("m3"), NOT_EXPIRED, 1, NOW));
+        assertEquals(Arrays.<Object> asList("m1", "m2", "m3"), buffer.drain(NOW));
+    }
+
+    @Test
+    public void oldestMessagesAreDroppedIfByteLimitIsReached() {
+        ChannelMessageBuffer buffer = new ChannelMessageBuffer(100, 100);
+        buffer.add(message("m0"), NOT_EXPIRED, 40, NOW);
+        buffer.add(message("m1"), NOT_EXPIRED, 40, NOW);
+
+        assertEquals(2, buffer.add(message("m2"), NOT_EXPIRED, 90, NOW));
+        assertEquals(90, buffer.byteSize());
+        assertEquals(Arrays.<Object> asList("m2"), buffer.drain(NOW));
+    }
+
+    @Test
+    public void expiredMessagesAreEvictedInBulk() {
+        ChannelMessageBuffer buffer = new ChannelMessageBuffer(100, 1000);
+        buffer.add(message("m0"), NOW + 10, 1, NOW);
+        buffer.add(message("m1"), NOW + 100, 1, NOW);
+        buffer.add(message("m2"), NOW + 20, 1, NOW);
+        buffer.add(message("m3"), NOW + 200, 1, NOW);
+
+        assertEquals(0, buffer.evictExpired(NOW + 10));
+        assertEquals(2, buffer.evictExpired(NOW + 50));
+        assertEquals(2, buffer.byteSize());
+        assertEquals(Arrays.<Object> asList("m1", "m3"), buffer.drain(NOW + 50));
+    }
+
+    @Test
+    public void expiredMessagesAreEvictedBeforeDroppingValidOnes() {
+        ChannelMessageBuffer buffer = new ChannelMessageBuffer(2, 1000);
+        buffer.add(message("m0"), NOT_EXPIRED, 1, NOW);
+        buffer.add(message("m1"), NOW + 10, 1, NOW);
+
+        assertEquals(0, buffer.add(message("m2"), NOT_EXPIRED, 1, NOW + 20));
+        assertEquals(Arrays.<Object> asList("m0", "m2"), buffer.drain(NOW + 20));
+    }
+
+    @Test
+    public void removeKeepsOrderAcrossWrapAround() {
+        ChannelMessageBuffer buffer = new ChannelMessageBuffer(4, 1000);
+        CacheMessage[] messages = new CacheMessage[6];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = message("m" + i);
+            buffer.add(messages[i], NOT_EXPIRED, 1, NOW);
+        }
+
+        assertFalse(buffer.remove(messages[0]));
+        assertTrue(buffer.remove(messages[2]));
+        assertTrue(buffer.remove(messages[4]));
+        assertEquals(2, buffer.byteSize());
+        buffer.add(message("m6"), NOT_EXPIRED, 1, NOW);
+        assertEquals(Arrays.<Object> asList("m3", "m5", "m6"), buffer.drain(NOW));
+    }
+}
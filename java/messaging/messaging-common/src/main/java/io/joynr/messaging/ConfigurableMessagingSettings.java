@@ -38,6 +38,8 @@ public class ConfigurableMessagingSettings implements MessagingSettings {
     public static final String PROPERTY_DISCOVERY_RETRY_INTERVAL_MS = "joynr.discovery.defaultretryintervalms";
     public static final String PROPERTY_DISCOVERY_PROVIDER_DEFAULT_EXPIRY_TIME_MS = "joynr.discovery.provider.defaultexpirytimems";
     public static final String PROPERTY_DISCOVERY_GLOBAL_ADD_AND_REMOVE_TTL_MS = "joynr.discovery.globaladdandremovettlms";
+    public static final String PROPERTY_DISCOVERY_GLOBAL_BATCH_WINDOW_MS = "joynr.discovery.globalbatchwindowms";
+    public static final String PROPERTY_DISCOVERY_GLOBAL_MAX_BATCH_SIZE = "joynr.discovery.globalmaxbatchsize";
     public static final String PROPERTY_DOMAIN_ACCESS_CONTROLLER_PARTICIPANT_ID = "joynr.messaging.domainaccesscontrollerparticipantid";
     public static final String PROPERTY_DOMAIN_ACCESS_CONTROLLER_CHANNEL_ID = "joynr.messaging.domainaccesscontrollerchannelid";
     public static final String PROPERTY_DOMAIN_ACCESS_CONTROL_LISTEDITOR_PARTICIPANT_ID = "joynr.messaging.domainaccesscontrollisteditorparticipantid";
@@ -67,6 +69,38 @@ public class ConfigurableMessagingSettings implements MessagingSettings {
     public static final String PROPERTY_MAX_DELAY_WITH_EXPONENTIAL_BACKOFF_MS = "joynr.messaging.maxDelayWithExponentialBackoffMs";
     public static final long DEFAULT_MAX_DELAY_WITH_EXPONENTIAL_BACKOFF = -1;
 
+    public static final String PROPERTY_ROUTING_QUEUE_MODE = "joynr.messaging.routingqueuemode";
+    public static final String ROUTING_QUEUE_MODE_GLOBAL = "global";
+    public static final String ROUTING_QUEUE_MODE_PER_DESTINATION = "perdestination";
+    public static final String DEFAULT_ROUTING_QUEUE_MODE = ROUTING_QUEUE_MODE_GLOBAL;
+    public static final String PROPERTY_ROUTING_QUEUE_SHARDS = "joynr.messaging.routingqueueshards";
+    public static final int DEFAULT_ROUTING_QUEUE_SHARDS = 0;
+    public static final String PROPERTY_ROUTING_MAX_PARALLEL_SENDS_PER_DESTINATION = "joynr.messaging.routingmaxparallelsendsperdestination";
+    public static final int DEFAULT_ROUTING_MAX_PARALLEL_SENDS_PER_DESTINATION = 1;
+    public static final String PROPERTY_ROUTING_QUEUE_CAPACITY = "joynr.messaging.routingqueuecapacity";
+    public static final int DEFAULT_ROUTING_QUEUE_CAPACITY = 0;
+    public static final String PROPERTY_ROUTING_QUEUE_HIGH_WATERMARK_PERCENT = "joynr.messaging.routingqueuehighwatermarkpercent";
+    public static final int DEFAULT_ROUTING_QUEUE_HIGH_WATERMARK_PERCENT = 80;
+    public static final String PROPERTY_ROUTING_QUEUE_LOW_WATERMARK_PERCENT = "joynr.messaging.routingqueuelowwatermarkpercent";
+    public static final int DEFAULT_ROUTING_QUEUE_LOW_WATERMARK_PERCENT = 50;
+
+    public static final String PROPERTY_LONG_POLL_RECEIVER_THREADS = "joynr.messaging.longpollreceiverthreads";
+    public static final int DEFAULT_LONG_POLL_RECEIVER_THREADS = 4;
+    public static final String PROPERTY_LONG_POLL_RECEIVER_QUEUE_SIZE = "joynr.messaging.longpollreceiverqueuesize";
+    public static final int DEFAULT_LONG_POLL_RECEIVER_QUEUE_SIZE = 1000;
+
+    public static final String PROPERTY_PUBLICATION_THREADS = "joynr.messaging.publicationthreads";
+    public static final int DEFAULT_PUBLICATION_THREADS = 4;
+
+    public static final String PROPERTY_MESSAGING_PAYLOAD_CODEC = "joynr.messaging.payloadcodec";
+    public static final String PAYLOAD_CODEC_JSON = "json";
+    public static final String DEFAULT_MESSAGING_PAYLOAD_CODEC = PAYLOAD_CODEC_JSON;
+    public static final String PROPERTY_MESSAGING_PAYLOAD_CODEC_MAX_PARTICIPANTS = "joynr.messaging.payloadcodec.maxparticipants";
+    public static final int DEFAULT_MESSAGING_PAYLOAD_CODEC_MAX_PARTICIPANTS = 10000;
+
+    public static final String PROPERTY_MESSAGE_TRACE_MAX_MESSAGES_PER_SECOND = "joynr.messaging.messagetrace.maxmessagespersecond";
+    public static final int DEFAULT_MESSAGE_TRACE_MAX_MESSAGES_PER_SECOND = 0;
+
     private final BounceProxyUrl bounceProxyUrl;
     private final long createChannelRetryIntervalMs;
     private final long deleteChannelRetryIntervalMs;
@@ -0,0 +1,36 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging;
+
+/**
+ * Implemented by skeletons which are able to temporarily stop receiving new requests and one-way messages, e.g. by
+ * unsubscribing from a topic. The message router pauses these skeletons if the requests and one-way messages it
+ * processes exceed the configured high watermark and resumes them once they have fallen below the low watermark, see
+ * {@link ConfigurableMessagingSettings#PROPERTY_ROUTING_QUEUE_CAPACITY}.
+ *
+ * Pausing must neither delay replies nor lose messages: only skeletons whose paused source does not carry replies
+ * may implement this interface, and messages which are not read while the skeleton is paused have to stay at the
+ * transport (e.g. at the broker) and are received after resuming.
+ */
+public interface IPausableMessagingSkeleton extends IMessagingSkeleton {
+
+    void pauseReceiving();
+
+    void resumeReceiving();
+}
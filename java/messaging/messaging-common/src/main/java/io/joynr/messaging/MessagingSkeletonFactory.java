@@ -92,6 +92,40 @@ public class MessagingSkeletonFactory implements ShutdownListener {
         }
     }
 
+    /**
+     * Asks all skeletons which support it to stop receiving messages, see {@link IPausableMessagingSkeleton}.
+     */
+    public void pauseReceiving() {
+        for (IMessagingSkeleton messagingSkeleton : messagingSkeletons.values()) {
+            if (messagingSkeleton instanceof IPausableMessagingSkeleton) {
+                try {
+                    ((IPausableMessagingSkeleton) messagingSkeleton).pauseReceiving();
+                } catch (Exception e) {
+                    logger.error("unable to pause skeleton: {}. Reason: {}",
+                                 messagingSkeleton.getClass().getSimpleName(),
+                                 e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Asks all skeletons which have been paused by {@link #pauseReceiving()} to receive messages again.
+     */
+    public void resumeReceiving() {
+        for (IMessagingSkeleton messagingSkeleton : messagingSkeletons.values()) {
+            if (messagingSkeleton instanceof IPausableMessagingSkeleton) {
+                try {
+                    ((IPausableMessagingSkeleton) messagingSkeleton).resumeReceiving();
+                } catch (Exception e) {
+                    logger.error("unable to resume skeleton: {}. Reason: {}",
+                                 messagingSkeleton.getClass().getSimpleName(),
+                                 e.getMessage());
+                }
+            }
+        }
+    }
+
     @CheckForNull
     public IMessagingSkeleton getSkeleton(Address address) {
         if (address != null) {
@@ -23,9 +23,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.TimeZone;
-import java.util.concurrent.DelayQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Singleton;
 
@@ -48,8 +49,11 @@ import io.joynr.messaging.IMessagingSkeleton;
 import io.joynr.messaging.IMessagingStub;
 import io.joynr.messaging.MessagingSkeletonFactory;
 import io.joynr.messaging.SuccessAction;
+import io.joynr.messaging.util.MessageTraceLogger;
 import io.joynr.runtime.ShutdownListener;
 import io.joynr.runtime.ShutdownNotifier;
+import io.joynr.statusmetrics.MessageRouterMetrics;
+import io.joynr.statusmetrics.MessageRouterMetrics.DropReason;
 import io.joynr.statusmetrics.MessageWorkerStatus;
 import io.joynr.statusmetrics.StatusReceiver;
 import joynr.ImmutableMessage;
@@ -59,6 +63,7 @@ import joynr.system.RoutingTypes.RoutingTypesUtil;
 
 abstract public class AbstractMessageRouter implements MessageRouter, ShutdownListener {
     private static final Logger logger = LoggerFactory.getLogger(AbstractMessageRouter.class);
+    private static final MessageTraceLogger MESSAGE_TRACE = MessageTraceLogger.getLogger(AbstractMessageRouter.class);
     private static final FastDateFormat dateFormatter = FastDateFormat.getInstance("dd/MM/yyyy HH:mm:ss:sss z",
                                                                                    TimeZone.getTimeZone("UTC"));
     protected final RoutingTable routingTable;
@@ -77,8 +82,11 @@ abstract public class AbstractMessageRouter implements MessageRouter, ShutdownLi
     private AddressManager addressManager;
     protected final MulticastReceiverRegistry multicastReceiverRegistry;
 
-    private final DelayQueue<DelayableImmutableMessage> messageQueue;
+    private final MessageQueue messageQueue;
     private final StatusReceiver statusReceiver;
+    private final MessageRouterMetrics messageRouterMetrics;
+    private final boolean metricsEnabled;
+    private final MessageAdmissionController messageAdmissionController;
 
     private List<MessageProcessedListener> messageProcessedListeners;
     private List<MessageWorker> messageWorkers;
@@ -96,9 +104,11 @@ abstract public class AbstractMessageRouter implements MessageRouter, ShutdownLi
                                  MessagingSkeletonFactory messagingSkeletonFactory,
                                  AddressManager addressManager,
                                  MulticastReceiverRegistry multicastReceiverRegistry,
-                                 DelayQueue<DelayableImmutableMessage> messageQueue,
+                                 MessageQueue messageQueue,
                                  ShutdownNotifier shutdownNotifier,
-                                 StatusReceiver statusReceiver) {
+                                 StatusReceiver statusReceiver,
+                                 MessageRouterMetrics messageRouterMetrics,
+                                 MessageAdmissionController messageAdmissionController) {
         // CHECKSTYLE:ON
         this.routingTable = routingTable;
         this.scheduler = scheduler;
@@ -111,6 +121,9 @@ abstract public class AbstractMessageRouter implements MessageRouter, ShutdownLi
         this.multicastReceiverRegistry = multicastReceiverRegistry;
         this.messageQueue = messageQueue;
         this.statusReceiver = statusReceiver;
+        this.messageRouterMetrics = messageRouterMetrics;
+        this.metricsEnabled = messageRouterMetrics.isEnabled();
+        this.messageAdmissionController = messageAdmissionController;
         shutdownNotifier.registerForShutdown(this);
         messageProcessedListeners = new ArrayList<MessageProcessedListener>();
         startMessageWorkerThreads(maxParallelSends);
@@ -227,8 +240,14 @@ abstract public class AbstractMessageRouter implements MessageRouter, ShutdownLi
     @Override
     public void route(final ImmutableMessage message) {
         checkExpiry(message);
-        registerGlobalRoutingEntryIfRequired(message);
-        routeInternal(message, 0, 0);
+        checkAdmission(message);
+        try {
+            registerGlobalRoutingEntryIfRequired(message);
+            routeInternal(message, 0, 0);
+        } catch (RuntimeException e) {
+            messageAdmissionController.messageProcessed(message.getId());
+            throw e;
+        }
     }
 
     protected Set<Address> getAddresses(ImmutableMessage message) {
@@ -277,6 +296,9 @@ abstract public class AbstractMessageRouter implements MessageRouter, ShutdownLi
         if (maxRetryCount > -1) {
             if (retriesCount > maxRetryCount) {
                 logger.error("Max-retry-count (" + maxRetryCount + ") reached. Dropping message " + message.getId());
+                if (metricsEnabled) {
+                    messageRouterMetrics.messageDropped(message.getType(), DropReason.MAX_RETRIES);
+                }
                 callMessageProcessedListeners(message.getId());
                 return;
             }
@@ -284,9 +306,42 @@ abstract public class AbstractMessageRouter implements MessageRouter, ShutdownLi
                 logger.debug("Retry {}/{} sending message {}", retriesCount, maxRetryCount, message.getId());
             }
         }
+        if (metricsEnabled) {
+            delayableMessage.setDueTimeNs(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs));
+            if (retriesCount > 0) {
+                messageRouterMetrics.messageRetried(message.getType());
+            }
+            messageRouterMetrics.messageQueued(message.getType());
+        }
+        if (messageQueue.isPerDestination()) {
+            delayableMessage.setDestinationKey(getDestinationKey(message));
+        }
         messageQueue.put(delayableMessage);
     }
 
+    /**
+     * Participants behind the same transport address share one destination queue. The address is looked up in the
+     * local routing table only; if it is not known yet, the queue falls back to the recipient.
+     */
+    private Object getDestinationKey(ImmutableMessage message) {
+        Set<Address> addresses = addressManager.getAddresses(message);
+        if (addresses.isEmpty()) {
+            return null;
+        }
+        return addresses.size() == 1 ? addresses.iterator().next() : addresses;
+    }
+
+    private void checkAdmission(final ImmutableMessage message) {
+        if (!messageAdmissionController.admit(message)) {
+            logger.error("Message queue is full, rejecting message {}", message.getId());
+            if (metricsEnabled) {
+                messageRouterMetrics.messageDropped(message.getType(), DropReason.QUEUE_FULL);
+            }
+            callMessageProcessedListeners(message.getId());
+            throw new JoynrMessageNotSentException("Message queue is full, rejecting message " + message.getId());
+        }
+    }
+
     private void checkExpiry(final ImmutableMessage message) {
         if (!message.isTtlAbsolute()) {
             callMessageProcessedListeners(message.getId());
@@ -304,6 +359,9 @@ abstract public class AbstractMessageRouter implements MessageRouter, ShutdownLi
                                                        dateFormatter.format(ttlExpirationDateMs),
                                                        message.getId());
             logger.error(errorMessage);
+            if (metricsEnabled) {
+                messageRouterMetrics.messageDropped(message.getType(), DropReason.EXPIRED);
+            }
             callMessageProcessedListeners(message.getId());
             throw new JoynrMessageNotSentException(errorMessage);
         }
@@ -326,10 +384,15 @@ abstract public class AbstractMessageRouter implements MessageRouter, ShutdownLi
                 }
                 if (error instanceof JoynrShutdownException) {
                     logger.warn("{}", error.getMessage());
+                    messageAdmissionController.messageProcessed(messageId);
                     return;
                 } else if (error instanceof JoynrMessageNotSentException) {
                     logger.error(" ERROR SENDING:  aborting send of messageId: {}. Error: {}", new Object[]{ messageId,
                             error.getMessage() });
+                    // expired messages have already been counted by checkExpiry
+                    if (metricsEnabled && message.getTtlMs() > System.currentTimeMillis()) {
+                        messageRouterMetrics.messageDropped(message.getType(), DropReason.NOT_SENT);
+                    }
                     callMessageProcessedListeners(messageId);
                     return;
                 }
@@ -360,6 +423,7 @@ abstract public class AbstractMessageRouter implements MessageRouter, ShutdownLi
     }
 
     private void callMessageProcessedListeners(final String messageId) {
+        messageAdmissionController.messageProcessed(messageId);
         synchronized (messageProcessedListeners) {
             for (MessageProcessedListener messageProcessedListener : messageProcessedListeners) {
                 messageProcessedListener.messageProcessed(messageId);
@@ -367,14 +431,16 @@ abstract public class AbstractMessageRouter implements MessageRouter, ShutdownLi
         }
     }
 
-    private SuccessAction createMessageProcessedAction(final String messageId, final int numberOfCalls) {
+    private SuccessAction createMessageProcessedAction(final String messageId,
+                                                       final int numberOfCalls,
+                                                       final QueueSlot queueSlot) {
         final SuccessAction successAction = new SuccessAction() {
-            private int callCount = numberOfCalls;
+            private final AtomicInteger callCount = new AtomicInteger(numberOfCalls);
 
             @Override
             public void execute() {
-                callCount--;
-                if (callCount == 0) {
+                if (callCount.decrementAndGet() == 0) {
+                    queueSlot.release();
                     callMessageProcessedListeners(messageId);
                 }
             }
@@ -382,6 +448,43 @@ abstract public class AbstractMessageRouter implements MessageRouter, ShutdownLi
         return successAction;
     }
 
+    private FailureAction createReleasingFailureAction(final FailureAction failureAction, final QueueSlot queueSlot) {
+        return new FailureAction() {
+            @Override
+            public void execute(Throwable error) {
+                // release before the failure action reschedules the message
+                queueSlot.release();
+                failureAction.execute(error);
+            }
+        };
+    }
+
+    private SuccessAction createTransmitMetricsSuccessAction(final ImmutableMessage message,
+                                                             final String addressType,
+                                                             final SuccessAction successAction) {
+        final long transmitStartNs = System.nanoTime();
+        return new SuccessAction() {
+            @Override
+            public void execute() {
+                messageRouterMetrics.messageTransmitted(message.getType(), addressType, System.nanoTime()
+                        - transmitStartNs);
+                successAction.execute();
+            }
+        };
+    }
+
+    private FailureAction createTransmitMetricsFailureAction(final ImmutableMessage message,
+                                                             final String addressType,
+                                                             final FailureAction failureAction) {
+        return new FailureAction() {
+            @Override
+            public void execute(Throwable error) {
+                messageRouterMetrics.messageTransmissionFailed(message.getType(), addressType);
+                failureAction.execute(error);
+            }
+        };
+    }
+
     @Override
     public void shutdown() {
         for (MessageWorker worker : messageWorkers) {
@@ -390,16 +493,36 @@ abstract public class AbstractMessageRouter implements MessageRouter, ShutdownLi
     }
 
     private long createDelayWithExponentialBackoff(long sendMsgRetryIntervalMs, int retries) {
-        logger.trace("TRIES: " + retries);
+        logger.trace("TRIES: {}", retries);
         long millis = sendMsgRetryIntervalMs + (long) ((2 ^ (retries)) * sendMsgRetryIntervalMs * Math.random());
         if (maxDelayMs >= sendMsgRetryIntervalMs && millis > maxDelayMs) {
             millis = maxDelayMs;
-            logger.trace("set MILLIS to " + millis + " since maxDelayMs is " + maxDelayMs);
+            logger.trace("set MILLIS to {} since maxDelayMs is {}", millis, maxDelayMs);
         }
-        logger.trace("MILLIS: " + millis);
+        logger.trace("MILLIS: {}", millis);
         return millis;
     }
 
+    /**
+     * Hands a message back to the {@link MessageQueue} exactly once, when its transmission has succeeded or failed.
+     * With asynchronous messaging stubs this is later than the return of
+     * {@link IMessagingStub#transmit(ImmutableMessage, SuccessAction, FailureAction)}.
+     */
+    private class QueueSlot {
+        private final DelayableImmutableMessage delayableMessage;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        QueueSlot(DelayableImmutableMessage delayableMessage) {
+            this.delayableMessage = delayableMessage;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                messageQueue.release(delayableMessage);
+            }
+        }
+    }
+
     class MessageWorker implements Runnable {
         private Logger logger = LoggerFactory.getLogger(MessageWorker.class);
         private int number;
@@ -429,6 +552,47 @@ abstract public class AbstractMessageRouter implements MessageRouter, ShutdownLi
             }
         }
 
+        private void transmit(ImmutableMessage message, int retriesCount, QueueSlot queueSlot) {
+            MESSAGE_TRACE.log("Starting processing of message {}", message);
+            checkExpiry(message);
+
+            Set<Address> addresses = getAddresses(message);
+            checkFoundAddresses(addresses, message);
+
+            if (addresses.isEmpty()) {
+                throw new JoynrMessageNotSentException("Failed to send Message: No route for given participantId: "
+                        + message.getRecipient());
+            }
+            SuccessAction messageProcessedAction = createMessageProcessedAction(message.getId(),
+                                                                                addresses.size(),
+                                                                                queueSlot);
+            // If multiple stub calls for a multicast to multiple destination addresses fail, the failure
+            // action is called for each failing stub call. Hence, the same failureAction has to be used.
+            // Otherwise, the message is rescheduled multiple times and the message queue is flooded with
+            // entries for the same message until the transmission of every entry is successful for all
+            // recipients. Also the recipients are flooded with the same message.
+            // Open issue:
+            // If only some stub calls fail, the rescheduled message will be sent to all its recipients again,
+            // no matter if an earlier transmission attempt was already successful or not.
+            FailureAction failureAction = createReleasingFailureAction(createFailureAction(message, retriesCount),
+                                                                       queueSlot);
+            for (Address address : addresses) {
+                logger.trace(">>>>> SEND message {} to address {}", message.getId(), address);
+
+                IMessagingStub messagingStub = messagingStubFactory.create(address);
+                if (metricsEnabled) {
+                    String addressType = address.getClass().getSimpleName();
+                    messagingStub.transmit(message,
+                                           createTransmitMetricsSuccessAction(message,
+                                                                              addressType,
+                                                                              messageProcessedAction),
+                                           createTransmitMetricsFailureAction(message, addressType, failureAction));
+                } else {
+                    messagingStub.transmit(message, messageProcessedAction, failureAction);
+                }
+            }
+        }
+
         @Override
         public void run() {
             Thread.currentThread().setName("joynrMessageWorker-" + number);
@@ -436,6 +600,7 @@ abstract public class AbstractMessageRouter implements MessageRouter, ShutdownLi
             while (!stopped) {
                 ImmutableMessage message = null;
                 DelayableImmutableMessage delayableMessage;
+                QueueSlot queueSlot = null;
                 int retriesCount = 0;
 
                 try {
@@ -450,33 +615,12 @@ abstract public class AbstractMessageRouter implements MessageRouter, ShutdownLi
 
                         retriesCount = delayableMessage.getRetriesCount();
                         message = delayableMessage.getMessage();
-                        logger.trace("Starting processing of message {}", message);
-                        checkExpiry(message);
-
-                        Set<Address> addresses = getAddresses(message);
-                        checkFoundAddresses(addresses, message);
-
-                        if (addresses.isEmpty()) {
-                            throw new JoynrMessageNotSentException("Failed to send Message: No route for given participantId: "
-                                    + message.getRecipient());
-                        }
-                        SuccessAction messageProcessedAction = createMessageProcessedAction(message.getId(),
-                                                                                            addresses.size());
-                        // If multiple stub calls for a multicast to multiple destination addresses fail, the failure
-                        // action is called for each failing stub call. Hence, the same failureAction has to be used.
-                        // Otherwise, the message is rescheduled multiple times and the message queue is flooded with
-                        // entries for the same message until the transmission of every entry is successful for all
-                        // recipients. Also the recipients are flooded with the same message.
-                        // Open issue:
-                        // If only some stub calls fail, the rescheduled message will be sent to all its recipients again,
-                        // no matter if an earlier transmission attempt was already successful or not.
-                        FailureAction failureAction = createFailureAction(message, retriesCount);
-                        for (Address address : addresses) {
-                            logger.trace(">>>>> SEND message {} to address {}", message.getId(), address);
-
-                            IMessagingStub messagingStub = messagingStubFactory.create(address);
-                            messagingStub.transmit(message, messageProcessedAction, failureAction);
+                        if (metricsEnabled) {
+                            messageRouterMetrics.messageDequeued(message.getType(), System.nanoTime()
+                                    - delayableMessage.getDueTimeNs());
                         }
+                        queueSlot = new QueueSlot(delayableMessage);
+                        transmit(message, retriesCount, queueSlot);
                     }
                 } catch (InterruptedException e) {
                     logger.trace("Message Worker interrupted. Stopping.");
@@ -484,6 +628,9 @@ abstract public class AbstractMessageRouter implements MessageRouter, ShutdownLi
                     return;
                 } catch (Exception error) {
                     logger.error("error in scheduled message router thread: {}", error.getMessage());
+                    if (queueSlot != null) {
+                        queueSlot.release();
+                    }
                     FailureAction failureAction = createFailureAction(message, retriesCount);
                     failureAction.execute(error);
                 }
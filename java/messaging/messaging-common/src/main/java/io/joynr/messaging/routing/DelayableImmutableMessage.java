@@ -23,6 +23,10 @@ import joynr.ImmutableMessage;
 public class DelayableImmutableMessage extends TimedDelayed {
     private ImmutableMessage message;
     private int retriesCount = 0;
+    // only set if message router metrics are enabled
+    private long dueTimeNs;
+    // only set if messages are queued per destination
+    private Object destinationKey;
 
     DelayableImmutableMessage(ImmutableMessage message, long delayForMs) {
         super(delayForMs);
@@ -47,6 +51,22 @@ public class DelayableImmutableMessage extends TimedDelayed {
         this.retriesCount = retriesCount;
     }
 
+    public long getDueTimeNs() {
+        return dueTimeNs;
+    }
+
+    public void setDueTimeNs(long dueTimeNs) {
+        this.dueTimeNs = dueTimeNs;
+    }
+
+    Object getDestinationKey() {
+        return destinationKey;
+    }
+
+    void setDestinationKey(Object destinationKey) {
+        this.destinationKey = destinationKey;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -18,70 +18,34 @@
  */
 package io.joynr.messaging.routing;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentMap;
-import java.util.regex.Pattern;
 
-import com.google.common.collect.Maps;
-import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import io.joynr.messaging.util.MulticastWildcardRegexFactory;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import io.joynr.messaging.util.MulticastWildcardTrie;
 
 @Singleton
 public class InMemoryMulticastReceiverRegistry implements MulticastReceiverRegistry {
 
-    private static final Logger logger = LoggerFactory.getLogger(InMemoryMulticastReceiverRegistry.class);
-
-    private final MulticastWildcardRegexFactory multicastWildcardRegexFactory;
-
-    private ConcurrentMap<Pattern, Set<String>> multicastReceivers = Maps.newConcurrentMap();
-
-    @Inject
-    public InMemoryMulticastReceiverRegistry(MulticastWildcardRegexFactory multicastWildcardRegexFactory) {
-        this.multicastWildcardRegexFactory = multicastWildcardRegexFactory;
-    }
+    private final MulticastWildcardTrie<String> multicastReceivers = new MulticastWildcardTrie<String>();
 
     @Override
     public void registerMulticastReceiver(String multicastId, String participantId) {
-        Pattern idPattern = multicastWildcardRegexFactory.createIdPattern(multicastId);
-        logger.trace("Compiled pattern {} for multicast ID {}", idPattern, multicastId);
-        if (!multicastReceivers.containsKey(idPattern)) {
-            multicastReceivers.putIfAbsent(idPattern, new HashSet<String>());
-        }
-        multicastReceivers.get(idPattern).add(participantId);
+        multicastReceivers.put(multicastId, participantId);
     }
 
     @Override
     public void unregisterMulticastReceiver(String multicastId, String participantId) {
-        Set<String> participants = multicastReceivers.get(multicastWildcardRegexFactory.createIdPattern(multicastId));
-        if (participants != null) {
-            participants.remove(participantId);
-        }
+        multicastReceivers.remove(multicastId, participantId);
     }
 
     @Override
     public Set<String> getReceivers(String multicastId) {
-        Set<String> result = new HashSet<>();
-        for (Map.Entry<Pattern, Set<String>> entry : multicastReceivers.entrySet()) {
-            if (entry.getKey().matcher(multicastId).matches()) {
-                result.addAll(entry.getValue());
-            }
-        }
-        return result;
+        return multicastReceivers.getValues(multicastId);
     }
 
     @Override
     public Map<String, Set<String>> getReceivers() {
-        Map<String, Set<String>> result = new HashMap<>();
-        for (Map.Entry<Pattern, Set<String>> entry : multicastReceivers.entrySet()) {
-            result.put(entry.getKey().pattern(), Collections.unmodifiableSet(entry.getValue()));
-        }
-        return result;
+        return multicastReceivers.getAll();
     }
 }
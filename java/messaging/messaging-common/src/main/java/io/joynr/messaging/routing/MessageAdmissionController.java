@@ -0,0 +1,186 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.routing;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import io.joynr.messaging.ConfigurableMessagingSettings;
+import io.joynr.messaging.MessagingSkeletonFactory;
+import io.joynr.statusmetrics.MessageRouterMetrics;
+import joynr.ImmutableMessage;
+import joynr.Message;
+
+/**
+ * Bounds the number of new requests and one-way messages in the {@link AbstractMessageRouter}.
+ * <p>
+ * Admission control is disabled unless {@link ConfigurableMessagingSettings#PROPERTY_ROUTING_QUEUE_CAPACITY} is
+ * greater than 0. Requests and one-way messages consume a credit of the capacity when they are admitted and return
+ * it once they have been processed, i.e. transmitted or finally dropped. Retries of a message do not consume
+ * further credits. Messages are rejected once all credits are in use. All other message types (replies,
+ * publications, subscription handling) are always admitted without consuming a credit: they complete work which has
+ * already been accepted and rejecting them would only cause retries and timeouts.
+ * <p>
+ * Once the number of credits in use reaches the high watermark, the messaging skeletons are asked to stop
+ * receiving (see {@link io.joynr.messaging.IPausableMessagingSkeleton}). They are asked to resume once it has
+ * fallen to the low watermark. Both watermarks are given in percent of the capacity.
+ */
+@Singleton
+public class MessageAdmissionController {
+    private static final Logger logger = LoggerFactory.getLogger(MessageAdmissionController.class);
+
+    @Inject(optional = true)
+    @Named(ConfigurableMessagingSettings.PROPERTY_ROUTING_QUEUE_CAPACITY)
+    private int queueCapacity = ConfigurableMessagingSettings.DEFAULT_ROUTING_QUEUE_CAPACITY;
+    @Inject(optional = true)
+    @Named(ConfigurableMessagingSettings.PROPERTY_ROUTING_QUEUE_HIGH_WATERMARK_PERCENT)
+    private int highWatermarkPercent = ConfigurableMessagingSettings.DEFAULT_ROUTING_QUEUE_HIGH_WATERMARK_PERCENT;
+    @Inject(optional = true)
+    @Named(ConfigurableMessagingSettings.PROPERTY_ROUTING_QUEUE_LOW_WATERMARK_PERCENT)
+    private int lowWatermarkPercent = ConfigurableMessagingSettings.DEFAULT_ROUTING_QUEUE_LOW_WATERMARK_PERCENT;
+
+    private final MessagingSkeletonFactory messagingSkeletonFactory;
+    private final MessageRouterMetrics messageRouterMetrics;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicInteger queuedMessages = new AtomicInteger();
+    // IDs of the admitted messages which hold a credit
+    private final Set<String> admittedMessageIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    // the state requested by the queue size, applied asynchronously to the skeletons
+    private final AtomicBoolean pauseRequested = new AtomicBoolean(false);
+    private boolean receivingPaused = false;
+
+    @Inject
+    public MessageAdmissionController(MessagingSkeletonFactory messagingSkeletonFactory,
+                                      MessageRouterMetrics messageRouterMetrics,
+                                      @Named(MessageRouter.SCHEDULEDTHREADPOOL) ScheduledExecutorService scheduler) {
+        this.messagingSkeletonFactory = messagingSkeletonFactory;
+        this.messageRouterMetrics = messageRouterMetrics;
+        this.scheduler = scheduler;
+    }
+
+    public boolean isEnabled() {
+        return queueCapacity > 0;
+    }
+
+    /**
+     * Checks whether a newly received message may enter the message queue and takes a credit for it if required.
+     * The credit is returned by {@link #messageProcessed(String)}.
+     *
+     * @param message the message to be routed
+     * @return false if the message has to be rejected because all credits are in use
+     */
+    public boolean admit(ImmutableMessage message) {
+        if (!isEnabled() || !consumesCredit(message.getType()) || admittedMessageIds.contains(message.getId())) {
+            return true;
+        }
+        int queueSize;
+        do {
+            queueSize = queuedMessages.get();
+            if (queueSize >= queueCapacity) {
+                return false;
+            }
+        } while (!queuedMessages.compareAndSet(queueSize, queueSize + 1));
+
+        if (!admittedMessageIds.add(message.getId())) {
+            // admitted concurrently, the message already holds a credit
+            queuedMessages.decrementAndGet();
+            return true;
+        }
+        queueSize++;
+        if (queueSize >= getHighWatermark() && pauseRequested.compareAndSet(false, true)) {
+            logger.warn("Message queue reached its high watermark ({} messages), pausing reception of messages.",
+                        queueSize);
+            applyReceivingStateAsync();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the credit of a message once it has been transmitted or dropped. Does nothing if the message does
+     * not hold a credit.
+     *
+     * @param messageId the ID of the processed message
+     */
+    public void messageProcessed(String messageId) {
+        if (!isEnabled() || !admittedMessageIds.remove(messageId)) {
+            return;
+        }
+        int queueSize = queuedMessages.decrementAndGet();
+        if (queueSize <= getLowWatermark() && pauseRequested.compareAndSet(true, false)) {
+            logger.info("Message queue drained to its low watermark ({} messages), resuming reception of messages.",
+                        queueSize);
+            applyReceivingStateAsync();
+        }
+    }
+
+    int getQueuedMessages() {
+        return queuedMessages.get();
+    }
+
+    private int getHighWatermark() {
+        return Math.max(1, queueCapacity * highWatermarkPercent / 100);
+    }
+
+    private int getLowWatermark() {
+        return Math.min(getHighWatermark() - 1, queueCapacity * lowWatermarkPercent / 100);
+    }
+
+    private static boolean consumesCredit(String messageType) {
+        return Message.VALUE_MESSAGE_TYPE_REQUEST.equals(messageType)
+                || Message.VALUE_MESSAGE_TYPE_ONE_WAY.equals(messageType);
+    }
+
+    // Pausing may block (e.g. MQTT unsubscribe), so it must not run on the thread which routes the message.
+    private void applyReceivingStateAsync() {
+        scheduler.execute(new Runnable() {
+            @Override
+            public void run() {
+                applyReceivingState();
+            }
+        });
+    }
+
+    private synchronized void applyReceivingState() {
+        boolean pause = pauseRequested.get();
+        if (pause == receivingPaused) {
+            return;
+        }
+        receivingPaused = pause;
+        if (pause) {
+            messageRouterMetrics.highWatermarkReached(queuedMessages.get());
+            messagingSkeletonFactory.pauseReceiving();
+        } else {
+            messageRouterMetrics.lowWatermarkReached(queuedMessages.get());
+            messagingSkeletonFactory.resumeReceiving();
+        }
+    }
+}
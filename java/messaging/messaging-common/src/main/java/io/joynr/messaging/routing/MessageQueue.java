@@ -0,0 +1,247 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.routing;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import io.joynr.messaging.ConfigurableMessagingSettings;
+
+/**
+ * Queue of messages waiting to be transmitted by the message workers of the {@link AbstractMessageRouter}.
+ * <p>
+ * In the default {@link ConfigurableMessagingSettings#ROUTING_QUEUE_MODE_GLOBAL global} mode, all messages are
+ * stored in a single {@link DelayQueue}. A slow or unreachable destination can then occupy all message workers
+ * and delay the messages for every other destination.
+ * <p>
+ * In {@link ConfigurableMessagingSettings#ROUTING_QUEUE_MODE_PER_DESTINATION per destination} mode, messages are
+ * queued per destination address, as resolved by the message router when the message is queued, or per recipient
+ * if the address is not known yet (or per hashed shard of destinations if
+ * {@link ConfigurableMessagingSettings#PROPERTY_ROUTING_QUEUE_SHARDS} is greater than 0). Destinations are served in
+ * round-robin order and at most {@link ConfigurableMessagingSettings#PROPERTY_ROUTING_MAX_PARALLEL_SENDS_PER_DESTINATION}
+ * messages of the same destination are processed at the same time. Messages which are delayed for a retry are kept
+ * in a separate retry queue and only enter their destination queue once their delay has elapsed.
+ * <p>
+ * Every message returned by {@link #poll(long, TimeUnit)} has to be handed back with {@link #release(DelayableImmutableMessage)}
+ * once its transmission has succeeded or failed.
+ */
+@Singleton
+public class MessageQueue {
+    private static final Logger logger = LoggerFactory.getLogger(MessageQueue.class);
+
+    @Inject(optional = true)
+    @Named(ConfigurableMessagingSettings.PROPERTY_ROUTING_QUEUE_MODE)
+    private String routingQueueMode = ConfigurableMessagingSettings.DEFAULT_ROUTING_QUEUE_MODE;
+    @Inject(optional = true)
+    @Named(ConfigurableMessagingSettings.PROPERTY_ROUTING_QUEUE_SHARDS)
+    private int numberOfShards = ConfigurableMessagingSettings.DEFAULT_ROUTING_QUEUE_SHARDS;
+    @Inject(optional = true)
+    @Named(ConfigurableMessagingSettings.PROPERTY_ROUTING_MAX_PARALLEL_SENDS_PER_DESTINATION)
+    private int maxParallelSendsPerDestination = ConfigurableMessagingSettings.DEFAULT_ROUTING_MAX_PARALLEL_SENDS_PER_DESTINATION;
+
+    private final DelayQueue<DelayableImmutableMessage> delayQueue;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition messageAvailable = lock.newCondition();
+    private final DelayQueue<DelayableImmutableMessage> retryQueue = new DelayQueue<DelayableImmutableMessage>();
+    private final Map<Object, DestinationQueue> destinationQueues = new HashMap<Object, DestinationQueue>();
+    private final ArrayDeque<DestinationQueue> readyDestinations = new ArrayDeque<DestinationQueue>();
+    private int queuedMessages = 0;
+
+    private static class DestinationQueue {
+        private final ArrayDeque<DelayableImmutableMessage> messages = new ArrayDeque<DelayableImmutableMessage>();
+        private int messagesInProgress = 0;
+        private boolean ready = false;
+    }
+
+    @Inject
+    public MessageQueue(DelayQueue<DelayableImmutableMessage> delayQueue) {
+        this.delayQueue = delayQueue;
+    }
+
+    /**
+     * Adds a message to the queue. The message will be returned by {@link #poll(long, TimeUnit)} once its delay
+     * has elapsed.
+     *
+     * @param delayableMessage the message to be queued
+     */
+    public void put(DelayableImmutableMessage delayableMessage) {
+        if (!isPerDestination()) {
+            delayQueue.put(delayableMessage);
+            return;
+        }
+        lock.lock();
+        try {
+            if (delayableMessage.getDelay(TimeUnit.MILLISECONDS) > 0) {
+                retryQueue.put(delayableMessage);
+            } else {
+                enqueue(delayableMessage);
+            }
+            queuedMessages++;
+            // also wakes up a waiting worker in case the new retry is due earlier than the one it waits for
+            messageAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the next message which is ready to be transmitted, waiting up to the specified time if necessary.
+     *
+     * @param timeout how long to wait before giving up
+     * @param unit the time unit of the timeout argument
+     * @return the next message or null if the waiting time elapsed before a message was available
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public DelayableImmutableMessage poll(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!isPerDestination()) {
+            return delayQueue.poll(timeout, unit);
+        }
+        long remainingNanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                transferDueRetries();
+                DestinationQueue destinationQueue = readyDestinations.poll();
+                if (destinationQueue != null) {
+                    DelayableImmutableMessage delayableMessage = destinationQueue.messages.poll();
+                    destinationQueue.messagesInProgress++;
+                    destinationQueue.ready = false;
+                    // re-append to the tail so that the other destinations are served first
+                    scheduleIfReady(destinationQueue);
+                    queuedMessages--;
+                    return delayableMessage;
+                }
+                if (remainingNanos <= 0) {
+                    return null;
+                }
+                long waitNanos = remainingNanos;
+                DelayableImmutableMessage nextRetry = retryQueue.peek();
+                if (nextRetry != null) {
+                    waitNanos = Math.min(waitNanos, Math.max(nextRetry.getDelay(TimeUnit.NANOSECONDS), 0));
+                }
+                long waitedNanos = waitNanos - messageAvailable.awaitNanos(waitNanos);
+                remainingNanos -= waitedNanos;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Signals that the transmission of a message returned by {@link #poll(long, TimeUnit)} has succeeded or failed.
+     * This allows further messages for the same destination to be processed.
+     *
+     * @param delayableMessage the message which has been processed
+     */
+    public void release(DelayableImmutableMessage delayableMessage) {
+        if (!isPerDestination()) {
+            return;
+        }
+        lock.lock();
+        try {
+            Object key = getDestinationKey(delayableMessage);
+            DestinationQueue destinationQueue = destinationQueues.get(key);
+            if (destinationQueue == null) {
+                logger.warn("Released message {} has no destination queue.", delayableMessage.getMessage().getId());
+                return;
+            }
+            destinationQueue.messagesInProgress--;
+            if (destinationQueue.messagesInProgress == 0 && destinationQueue.messages.isEmpty()) {
+                destinationQueues.remove(key);
+            } else if (scheduleIfReady(destinationQueue)) {
+                messageAvailable.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of messages which are queued and not yet returned by {@link #poll(long, TimeUnit)}
+     */
+    public int size() {
+        if (!isPerDestination()) {
+            return delayQueue.size();
+        }
+        lock.lock();
+        try {
+            return queuedMessages;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isPerDestination() {
+        return ConfigurableMessagingSettings.ROUTING_QUEUE_MODE_PER_DESTINATION.equals(routingQueueMode);
+    }
+
+    private void transferDueRetries() {
+        DelayableImmutableMessage dueMessage;
+        while ((dueMessage = retryQueue.poll()) != null) {
+            enqueue(dueMessage);
+        }
+    }
+
+    private void enqueue(DelayableImmutableMessage delayableMessage) {
+        Object key = getDestinationKey(delayableMessage);
+        DestinationQueue destinationQueue = destinationQueues.get(key);
+        if (destinationQueue == null) {
+            destinationQueue = new DestinationQueue();
+            destinationQueues.put(key, destinationQueue);
+        }
+        destinationQueue.messages.add(delayableMessage);
+        scheduleIfReady(destinationQueue);
+    }
+
+    private boolean scheduleIfReady(DestinationQueue destinationQueue) {
+        if (!destinationQueue.ready && !destinationQueue.messages.isEmpty()
+                && destinationQueue.messagesInProgress < Math.max(maxParallelSendsPerDestination, 1)) {
+            destinationQueue.ready = true;
+            readyDestinations.add(destinationQueue);
+            return true;
+        }
+        return false;
+    }
+
+    private Object getDestinationKey(DelayableImmutableMessage delayableMessage) {
+        Object destination = delayableMessage.getDestinationKey();
+        if (destination == null) {
+            String recipient = delayableMessage.getMessage().getRecipient();
+            destination = (recipient == null) ? "" : recipient;
+        }
+        if (numberOfShards > 0) {
+            return (destination.hashCode() & Integer.MAX_VALUE) % numberOfShards;
+        }
+        return destination;
+    }
+}
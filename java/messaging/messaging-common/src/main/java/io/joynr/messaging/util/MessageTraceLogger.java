@@ -0,0 +1,130 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.util;
+
+import static io.joynr.messaging.ConfigurableMessagingSettings.DEFAULT_MESSAGE_TRACE_MAX_MESSAGES_PER_SECOND;
+import static io.joynr.messaging.ConfigurableMessagingSettings.PROPERTY_MESSAGE_TRACE_MAX_MESSAGES_PER_SECOND;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import joynr.ImmutableMessage;
+
+/**
+ * Logs messages passing through the messaging layers.
+ *
+ * Nothing is rendered or allocated unless the logger is enabled for DEBUG. On DEBUG, only the message headers are
+ * logged (see {@link ImmutableMessage#toString()}); on TRACE, the complete message including its payload is logged
+ * (see {@link ImmutableMessage#toLogMessage()}).
+ *
+ * The number of logged messages per second and logger can be limited with the joynr property
+ * {@value io.joynr.messaging.ConfigurableMessagingSettings#PROPERTY_MESSAGE_TRACE_MAX_MESSAGES_PER_SECOND}; a value of
+ * 0 (the default) disables the limit. The number of suppressed messages is logged when the next interval starts. The
+ * property is applied to the loggers returned by {@link #getLogger(Class)} once the runtime's injector has been created
+ * (static injection).
+ */
+public class MessageTraceLogger {
+
+    private static final long INTERVAL_MS = 1000;
+
+    @Inject(optional = true)
+    @Named(PROPERTY_MESSAGE_TRACE_MAX_MESSAGES_PER_SECOND)
+    private static volatile int configuredMaxMessagesPerSecond = DEFAULT_MESSAGE_TRACE_MAX_MESSAGES_PER_SECOND;
+
+    private final Logger logger;
+    private final boolean useConfiguredLimit;
+    private final int maxMessagesPerSecond;
+    private final AtomicLong intervalStartMs = new AtomicLong();
+    private final AtomicInteger messagesInInterval = new AtomicInteger();
+
+    /**
+     * Creates a logger which uses the configured limit of logged messages per second.
+     */
+    public MessageTraceLogger(Logger logger) {
+        this(logger, true, 0);
+    }
+
+    /**
+     * Creates a logger with a fixed limit of logged messages per second, ignoring the configured limit.
+     */
+    public MessageTraceLogger(Logger logger, int maxMessagesPerSecond) {
+        this(logger, false, maxMessagesPerSecond);
+    }
+
+    private MessageTraceLogger(Logger logger, boolean useConfiguredLimit, int maxMessagesPerSecond) {
+        this.logger = logger;
+        this.useConfiguredLimit = useConfiguredLimit;
+        this.maxMessagesPerSecond = maxMessagesPerSecond;
+    }
+
+    public static MessageTraceLogger getLogger(Class<?> clazz) {
+        return new MessageTraceLogger(LoggerFactory.getLogger(clazz));
+    }
+
+    public boolean isEnabled() {
+        return logger.isDebugEnabled();
+    }
+
+    public void incoming(ImmutableMessage message) {
+        log("<<< INCOMING <<< {}", message);
+    }
+
+    public void outgoing(ImmutableMessage message) {
+        log(">>> OUTGOING >>> {}", message);
+    }
+
+    /**
+     * @param format SLF4J format string with exactly one placeholder for the message
+     * @param message the message to log
+     */
+    public void log(String format, ImmutableMessage message) {
+        if (!logger.isDebugEnabled() || !acquire()) {
+            return;
+        }
+        if (logger.isTraceEnabled()) {
+            logger.trace(format, message.toLogMessage());
+        } else {
+            logger.debug(format, message);
+        }
+    }
+
+    private boolean acquire() {
+        int maxMessagesPerSecond = useConfiguredLimit ? configuredMaxMessagesPerSecond : this.maxMessagesPerSecond;
+        if (maxMessagesPerSecond <= 0) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        long start = intervalStartMs.get();
+        if (now - start >= INTERVAL_MS && intervalStartMs.compareAndSet(start, now)) {
+            int suppressed = messagesInInterval.getAndSet(0) - maxMessagesPerSecond;
+            if (suppressed > 0) {
+                logger.debug("{} messages were not logged because of the limit of {} messages per second",
+                             suppressed,
+                             maxMessagesPerSecond);
+            }
+        }
+        return messagesInInterval.incrementAndGet() <= maxMessagesPerSecond;
+    }
+}
@@ -39,7 +39,7 @@ public class MulticastWildcardRegexFactory {
         return Pattern.compile(patternString);
     }
 
-    private void verifyMulticastIdValid(String multicastId) {
+    static void verifyMulticastIdValid(String multicastId) {
         boolean invalid = multicastId.matches(".*.[^/]\\+.*") || multicastId.matches(".*\\+[^/]+.*")
                 || (!"*".equals(multicastId) && multicastId.contains("*") && !multicastId.matches(".*/\\*$"));
         if (invalid) {
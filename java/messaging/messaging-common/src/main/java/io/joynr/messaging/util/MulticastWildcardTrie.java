@@ -0,0 +1,160 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Index of values registered for multicast IDs, which may contain the wildcards described in
+ * {@link MulticastWildcardRegexFactory}: a '+' partition matches exactly one partition, a '*' at the
+ * end matches any number of further partitions, and '*' alone matches every multicast ID.
+ *
+ * The registered multicast IDs are stored as a trie of their partitions. Looking up the values for
+ * a multicast ID only follows the partitions of that ID and the wildcard branches on the way, so it
+ * does not depend on the total number of registered multicast IDs.
+ *
+ * Lookups do not lock, modifications are serialized.
+ *
+ * @param <V> the type of the registered values, e.g. subscription or participant IDs
+ */
+public class MulticastWildcardTrie<V> {
+
+    private static final String PARTITION_SEPARATOR = "/";
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+    private static final String MULTI_LEVEL_WILDCARD = "*";
+
+    private final Node<V> root = new Node<V>();
+
+    private static class Node<V> {
+        private final ConcurrentMap<String, Node<V>> children = new ConcurrentHashMap<String, Node<V>>();
+        private final Set<V> values = Collections.newSetFromMap(new ConcurrentHashMap<V, Boolean>());
+
+        private boolean isEmpty() {
+            return values.isEmpty() && children.isEmpty();
+        }
+    }
+
+    /**
+     * @throws io.joynr.exceptions.JoynrIllegalStateException if the multicast ID uses the wildcards
+     *             in an invalid way
+     */
+    public synchronized void put(String multicastId, V value) {
+        MulticastWildcardRegexFactory.verifyMulticastIdValid(multicastId);
+        Node<V> node = root;
+        for (String partition : split(multicastId)) {
+            Node<V> child = node.children.get(partition);
+            if (child == null) {
+                child = new Node<V>();
+                node.children.put(partition, child);
+            }
+            node = child;
+        }
+        node.values.add(value);
+    }
+
+    /**
+     * @return true if the value was registered for exactly this multicast ID
+     */
+    public synchronized boolean remove(String multicastId, V value) {
+        String[] partitions = split(multicastId);
+        List<Node<V>> path = new ArrayList<Node<V>>(partitions.length + 1);
+        Node<V> node = root;
+        path.add(node);
+        for (String partition : partitions) {
+            node = node.children.get(partition);
+            if (node == null) {
+                return false;
+            }
+            path.add(node);
+        }
+        boolean removed = node.values.remove(value);
+        // prune the branches which no longer lead to any value
+        for (int i = partitions.length; i > 0 && path.get(i).isEmpty(); i--) {
+            path.get(i - 1).children.remove(partitions[i - 1]);
+        }
+        return removed;
+    }
+
+    /**
+     * @return the values of all registered multicast IDs matching the given multicast ID
+     */
+    public Set<V> getValues(String multicastId) {
+        Set<V> result = new HashSet<V>();
+        // like the regular expressions, the wildcards never match an empty multicast ID
+        if (!multicastId.isEmpty()) {
+            collectValues(root, split(multicastId), 0, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return the registered values per registered multicast ID, including wildcards
+     */
+    public Map<String, Set<V>> getAll() {
+        Map<String, Set<V>> result = new HashMap<String, Set<V>>();
+        for (Map.Entry<String, Node<V>> child : root.children.entrySet()) {
+            collectAll(child.getValue(), child.getKey(), result);
+        }
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return root.isEmpty();
+    }
+
+    private static <V> void collectValues(Node<V> node, String[] partitions, int index, Set<V> result) {
+        Node<V> multiLevelWildcard = node.children.get(MULTI_LEVEL_WILDCARD);
+        if (multiLevelWildcard != null) {
+            result.addAll(multiLevelWildcard.values);
+        }
+        if (index == partitions.length) {
+            result.addAll(node.values);
+            return;
+        }
+        Node<V> child = node.children.get(partitions[index]);
+        if (child != null) {
+            collectValues(child, partitions, index + 1, result);
+        }
+        Node<V> singleLevelWildcard = node.children.get(SINGLE_LEVEL_WILDCARD);
+        if (singleLevelWildcard != null && singleLevelWildcard != child && !partitions[index].isEmpty()) {
+            collectValues(singleLevelWildcard, partitions, index + 1, result);
+        }
+    }
+
+    private static <V> void collectAll(Node<V> node, String multicastId, Map<String, Set<V>> result) {
+        if (!node.values.isEmpty()) {
+            result.put(multicastId, Collections.unmodifiableSet(new HashSet<V>(node.values)));
+        }
+        for (Map.Entry<String, Node<V>> child : node.children.entrySet()) {
+            collectAll(child.getValue(), multicastId + PARTITION_SEPARATOR + child.getKey(), result);
+        }
+    }
+
+    private static String[] split(String multicastId) {
+        return multicastId.split(PARTITION_SEPARATOR, -1);
+    }
+}
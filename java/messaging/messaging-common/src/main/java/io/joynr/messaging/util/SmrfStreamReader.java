@@ -0,0 +1,87 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import io.joynr.smrf.EncodingException;
+import io.joynr.smrf.MessagePrefix;
+import io.joynr.smrf.UnsuppportedVersionException;
+import joynr.ImmutableMessage;
+
+/**
+ * Reads a sequence of concatenated SMRF messages from an {@link InputStream}, e.g. the body of a long poll
+ * response. Every message is read exactly once into its own array which is then handed over to the
+ * {@link ImmutableMessage} without further copies, so messages can be dispatched while the rest of the
+ * stream is still being received.
+ */
+public class SmrfStreamReader {
+
+    private final InputStream inputStream;
+    private final byte[] prefix = new byte[MessagePrefix.SIZE];
+
+    public SmrfStreamReader(InputStream inputStream) {
+        this.inputStream = inputStream;
+    }
+
+    /**
+     * Reads the next message from the stream, blocking until it has been received completely.
+     *
+     * @return the next message or null if the stream ended after the previous message
+     * @throws IOException if reading from the stream fails
+     * @throws EncodingException if the stream ends within a message or a message prefix is invalid
+     * @throws UnsuppportedVersionException if the SMRF version of the message is not supported
+     */
+    public ImmutableMessage readMessage() throws IOException, EncodingException, UnsuppportedVersionException {
+        int prefixLength = read(prefix, 0, prefix.length);
+        if (prefixLength == 0) {
+            return null;
+        }
+        if (prefixLength < prefix.length) {
+            throw new EncodingException("SMRF stream ended within a message prefix");
+        }
+        MessagePrefix messagePrefix = new MessagePrefix(prefix);
+        if (messagePrefix.msgSize <= 0 || messagePrefix.sigSize < 0
+                || messagePrefix.msgSize > Integer.MAX_VALUE - MessagePrefix.SIZE - messagePrefix.sigSize) {
+            throw new EncodingException("invalid SMRF message size: " + messagePrefix.msgSize);
+        }
+
+        byte[] serializedMessage = new byte[MessagePrefix.SIZE + messagePrefix.msgSize + messagePrefix.sigSize];
+        System.arraycopy(prefix, 0, serializedMessage, 0, prefix.length);
+        int remaining = serializedMessage.length - prefix.length;
+        if (read(serializedMessage, prefix.length, remaining) < remaining) {
+            throw new EncodingException("SMRF stream ended within a message");
+        }
+        return new ImmutableMessage(ByteBuffer.wrap(serializedMessage));
+    }
+
+    private int read(byte[] buffer, int offset, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int count = inputStream.read(buffer, offset + total, length - total);
+            if (count < 0) {
+                break;
+            }
+            total += count;
+        }
+        return total;
+    }
+}
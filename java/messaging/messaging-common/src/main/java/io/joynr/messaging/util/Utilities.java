@@ -18,13 +18,10 @@
  */
 package io.joynr.messaging.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.List;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.util.Arrays;
-
 import com.google.common.collect.Lists;
 
 import io.joynr.smrf.EncodingException;
@@ -33,7 +30,6 @@ import io.joynr.smrf.UnsuppportedVersionException;
 import joynr.ImmutableMessage;
 
 public class Utilities {
-    private static final Logger logger = LoggerFactory.getLogger(Utilities.class);
 
     /**
      * return an array of the params, useful for logging in slf4j
@@ -94,21 +90,15 @@ public class Utilities {
     public static List<ImmutableMessage> splitSMRF(byte[] combinedSMRFMessages) throws EncodingException,
                                                                                UnsuppportedVersionException {
         List<ImmutableMessage> result = Lists.newArrayList();
-        byte[] remainingData = combinedSMRFMessages;
-
-        while (remainingData.length > 0) {
-            ImmutableMessage currentMessage = new ImmutableMessage(remainingData);
-            int currentMessageSize = currentMessage.getMessageSize();
-
-            // A message size of 0 may lead to an infinite loop
-            if (currentMessageSize <= 0) {
-                logger.error("One message in a SMRF message sequence had a size <= 0. Dropping remaining messages.");
-                break;
+        SmrfStreamReader reader = new SmrfStreamReader(new ByteArrayInputStream(combinedSMRFMessages));
+        try {
+            ImmutableMessage currentMessage;
+            while ((currentMessage = reader.readMessage()) != null) {
+                result.add(currentMessage);
             }
-
-            remainingData = Arrays.copyOfRange(remainingData, currentMessageSize, remainingData.length);
-
-            result.add(currentMessage);
+        } catch (IOException e) {
+            // not thrown when reading from a byte array
+            throw new EncodingException(e.getMessage());
         }
 
         return result;
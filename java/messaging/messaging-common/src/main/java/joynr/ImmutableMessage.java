@@ -20,6 +20,7 @@ package joynr;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -35,6 +36,7 @@ import com.google.common.base.Charsets;
 import io.joynr.smrf.EncodingException;
 import io.joynr.smrf.MessageDeserializer;
 import io.joynr.smrf.MessageDeserializerImpl;
+import io.joynr.smrf.MessagePrefix;
 import io.joynr.smrf.UnsuppportedVersionException;
 
 /**
@@ -49,19 +51,80 @@ public class ImmutableMessage extends Message {
     private final MessageDeserializer messageDeserializer;
     private final byte[] serializedMessage;
     private transient Map<String, Serializable> context = new HashMap<String, Serializable>();
-    private ObjectMapper objectMapper = null;
+    // frequently accessed headers, decoded on first access
+    private transient String type;
+    private transient String id;
     public final static String DUMMY_CREATOR_USER_ID = "creatorUserId";
+    private static final ByteBuffer HEADER_ID_KEY = headerKey(Message.HEADER_ID);
 
     public ImmutableMessage(byte[] serializedMessage) throws EncodingException, UnsuppportedVersionException {
-        this.serializedMessage = serializedMessage.clone();
+        this(ByteBuffer.wrap(serializedMessage.clone()));
+    }
+
+    /**
+     * Creates an ImmutableMessage from the remaining bytes of the given buffer. If the buffer is a writable heap
+     * buffer spanning its whole backing array, the array is used without copying it and the caller hands over the
+     * ownership, i.e. it must not modify the buffer's content afterwards. Other buffers (slices, read-only or direct
+     * buffers) are copied once because the SMRF deserializer requires a byte array.
+     *
+     * @param serializedMessage buffer containing the serialized SMRF message
+     * @throws EncodingException if the message cannot be decoded
+     * @throws UnsuppportedVersionException if the SMRF version of the message is not supported
+     */
+    public ImmutableMessage(ByteBuffer serializedMessage) throws EncodingException, UnsuppportedVersionException {
+        this.serializedMessage = toByteArray(serializedMessage);
         messageDeserializer = new MessageDeserializerImpl(this.serializedMessage);
     }
 
+    private static ByteBuffer headerKey(String key) {
+        return ByteBuffer.wrap(key.getBytes(Charsets.UTF_8)).asReadOnlyBuffer();
+    }
+
+    private String lookupHeader(ByteBuffer key) {
+        smrf.Message message = smrf.Message.getRootAsMessage(ByteBuffer.wrap(serializedMessage,
+                                                                             MessagePrefix.SIZE,
+                                                                             serializedMessage.length
+                                                                                     - MessagePrefix.SIZE));
+        smrf.Header header = new smrf.Header();
+        for (int i = 0; i < message.headersLength(); i++) {
+            message.headers(header, i);
+            ByteBuffer headerKey = header.keyAsByteBuffer();
+            if (headerKey != null && headerKey.equals(key)) {
+                return header.value();
+            }
+        }
+        return null;
+    }
+
+    private static byte[] toByteArray(ByteBuffer buffer) {
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+                && buffer.remaining() == buffer.array().length) {
+            return buffer.array();
+        }
+        byte[] result = new byte[buffer.remaining()];
+        buffer.duplicate().get(result);
+        return result;
+    }
+
+    /**
+     * @return a copy of the serialized message
+     */
     @JsonIgnore
     public byte[] getSerializedMessage() {
         return serializedMessage.clone();
     }
 
+    /**
+     * Returns a read-only view of the serialized message without copying it. Transports which can write a
+     * {@link ByteBuffer} should prefer this method over {@link #getSerializedMessage()}.
+     *
+     * @return read-only buffer containing the serialized message
+     */
+    @JsonIgnore
+    public ByteBuffer getSerializedMessageBuffer() {
+        return ByteBuffer.wrap(serializedMessage).asReadOnlyBuffer();
+    }
+
     public long getTtlMs() {
         return messageDeserializer.getTtlMs();
     }
@@ -83,13 +146,24 @@ public class ImmutableMessage extends Message {
     }
 
     public String getType() {
-        return messageDeserializer.getHeader(Message.HEADER_MSG_TYPE);
+        if (type == null) {
+            type = messageDeserializer.getHeader(Message.HEADER_MSG_TYPE);
+        }
+        return type;
     }
 
     public String getEffort() {
         return messageDeserializer.getHeader(Message.HEADER_EFFORT);
     }
 
+    public String getPayloadCodec() {
+        return messageDeserializer.getHeader(Message.HEADER_PAYLOAD_CODEC);
+    }
+
+    public String getAcceptedPayloadCodec() {
+        return messageDeserializer.getHeader(Message.HEADER_ACCEPTED_PAYLOAD_CODEC);
+    }
+
     public String getCreatorUserId() {
         return DUMMY_CREATOR_USER_ID;
     }
@@ -106,7 +180,7 @@ public class ImmutableMessage extends Message {
         Map<String, String> customHeaders = new HashMap<>();
         for (Map.Entry<String, String> entry : getHeaders().entrySet()) {
             if (entry.getKey().startsWith(Message.CUSTOM_HEADER_PREFIX)) {
-                String key = entry.getKey().replaceFirst("^" + Message.CUSTOM_HEADER_PREFIX, "");
+                String key = entry.getKey().substring(Message.CUSTOM_HEADER_PREFIX.length());
                 customHeaders.put(key, entry.getValue());
             }
         }
@@ -130,7 +204,24 @@ public class ImmutableMessage extends Message {
     }
 
     public String getId() {
-        return messageDeserializer.getHeader(Message.HEADER_ID);
+        if (id == null) {
+            id = messageDeserializer.getHeader(Message.HEADER_ID);
+        }
+        return id;
+    }
+
+    /**
+     * Reads the message ID directly from the serialized headers. {@link #getId()} decodes all headers into a map
+     * which the other header accessors share, this is wasted work for callers like the bounce proxy which only
+     * forward the message and never read any other header.
+     *
+     * @return the message ID
+     */
+    public String getIdWithoutDecodingHeaders() {
+        if (id == null) {
+            id = lookupHeader(HEADER_ID_KEY);
+        }
+        return id;
     }
 
     public boolean isEncrypted() {
@@ -150,25 +241,37 @@ public class ImmutableMessage extends Message {
         return messageDeserializer.getMessageSize();
     }
 
+    /**
+     * @return the complete message including all headers and the payload as JSON
+     */
     public String toLogMessage() {
-        if (objectMapper == null) {
-            objectMapper = new ObjectMapper();
-
-            SimpleModule module = new SimpleModule();
-            module.addSerializer(byte[].class, new PayloadSerializer(byte[].class));
-            objectMapper.registerModule(module);
-        }
-
         try {
-            return objectMapper.writeValueAsString(this);
+            return LogObjectMapperHolder.OBJECT_MAPPER.writeValueAsString(this);
         } catch (JsonProcessingException e) {
             return "";
         }
     }
 
+    /**
+     * @return a compact description of the message containing only its most important headers
+     */
     @Override
     public String toString() {
-        return toLogMessage();
+        return "ImmutableMessage [id=" + getId() + ", type=" + getType() + ", sender=" + getSender() + ", recipient="
+                + getRecipient() + ", ttlMs=" + getTtlMs() + ", ttlAbsolute=" + isTtlAbsolute() + ", size="
+                + getMessageSize() + "]";
+    }
+
+    private static class LogObjectMapperHolder {
+        private static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
+
+        private static ObjectMapper createObjectMapper() {
+            ObjectMapper objectMapper = new ObjectMapper();
+            SimpleModule module = new SimpleModule();
+            module.addSerializer(byte[].class, new PayloadSerializer(byte[].class));
+            objectMapper.registerModule(module);
+            return objectMapper;
+        }
     }
 
     private static class PayloadSerializer extends StdSerializer<byte[]> {
@@ -24,6 +24,8 @@ public abstract class Message {
     public static final String HEADER_ID = "id";
     public static final String HEADER_MSG_TYPE = "t";
     public static final String HEADER_REPLY_TO = "re";
+    public static final String HEADER_PAYLOAD_CODEC = "pc";
+    public static final String HEADER_ACCEPTED_PAYLOAD_CODEC = "apc";
 
     public static final String CUSTOM_HEADER_REQUEST_REPLY_ID = "z4";
 
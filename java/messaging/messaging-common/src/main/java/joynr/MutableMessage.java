@@ -18,6 +18,7 @@
  */
 package joynr;
 
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.UUID;
 
@@ -45,6 +46,8 @@ public class MutableMessage extends Message {
     private String type;
     private String replyTo;
     private String effort;
+    private String payloadCodec;
+    private String acceptedPayloadCodec;
     private Map<String, String> customHeaders = Maps.newHashMap();
 
     private transient boolean compressed = false;
@@ -65,7 +68,8 @@ public class MutableMessage extends Message {
         messageSerializer.setBody(getPayload());
         messageSerializer.setCompressed(compressed);
 
-        return new ImmutableMessage(messageSerializer.serialize());
+        // the serialized message is not shared with anyone else, hence it does not need to be copied
+        return new ImmutableMessage(ByteBuffer.wrap(messageSerializer.serialize()));
     }
 
     private Map<String, String> createHeader() {
@@ -81,6 +85,8 @@ public class MutableMessage extends Message {
         putIfValueNotNull(Message.HEADER_ID, id, header);
         putIfValueNotNull(Message.HEADER_REPLY_TO, replyTo, header);
         putIfValueNotNull(Message.HEADER_EFFORT, effort, header);
+        putIfValueNotNull(Message.HEADER_PAYLOAD_CODEC, payloadCodec, header);
+        putIfValueNotNull(Message.HEADER_ACCEPTED_PAYLOAD_CODEC, acceptedPayloadCodec, header);
 
         return header;
     }
@@ -165,6 +171,29 @@ public class MutableMessage extends Message {
         this.effort = effort;
     }
 
+    public String getPayloadCodec() {
+        return payloadCodec;
+    }
+
+    /**
+     * @param payloadCodec name of the codec which was used to encode the payload, or null if the payload is JSON
+     */
+    public void setPayloadCodec(String payloadCodec) {
+        this.payloadCodec = payloadCodec;
+    }
+
+    public String getAcceptedPayloadCodec() {
+        return acceptedPayloadCodec;
+    }
+
+    /**
+     * @param acceptedPayloadCodec name of the codec which the sender accepts for payloads sent to it in addition
+     * to JSON, or null if it only accepts JSON
+     */
+    public void setAcceptedPayloadCodec(String acceptedPayloadCodec) {
+        this.acceptedPayloadCodec = acceptedPayloadCodec;
+    }
+
     public Map<String, String> getCustomHeaders() {
         return customHeaders;
     }
@@ -22,35 +22,24 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
-import static org.mockito.Mockito.when;
 
 import java.util.Set;
-import java.util.regex.Pattern;
 
-import io.joynr.messaging.util.MulticastWildcardRegexFactory;
 import org.junit.Before;
 import org.junit.Test;
-import org.junit.runner.RunWith;
-import org.mockito.Mock;
-import org.mockito.runners.MockitoJUnitRunner;
 
-@RunWith(MockitoJUnitRunner.class)
 public class InMemoryMulticastReceiverRegistryTest {
 
     private InMemoryMulticastReceiverRegistry subject;
 
-    @Mock
-    private MulticastWildcardRegexFactory multicastWildcardRegexFactory;
-
     @Before
     public void setup() {
-        subject = new InMemoryMulticastReceiverRegistry(multicastWildcardRegexFactory);
+        subject = new InMemoryMulticastReceiverRegistry();
     }
 
     @Test
     public void testAddAndRetrieveAndRemove() {
         String multicastId = "multicastId";
-        when(multicastWildcardRegexFactory.createIdPattern(multicastId)).thenReturn(Pattern.compile(multicastId));
         String participantId = "participantId";
         subject.registerMulticastReceiver(multicastId, participantId);
         Set<String> result = subject.getReceivers(multicastId);
@@ -66,13 +55,10 @@ public class InMemoryMulticastReceiverRegistryTest {
     @Test
     public void testRetrieveWithSinglePartitionWildcard() {
         String wildcardId = "one/+/three";
-        when(multicastWildcardRegexFactory.createIdPattern(wildcardId)).thenReturn(Pattern.compile("one/[^/]+/three"));
 
         String partitionedId = "one/two/three";
-        when(multicastWildcardRegexFactory.createIdPattern(partitionedId)).thenReturn(Pattern.compile(partitionedId));
 
         String nonMatchingId = "four/five/six";
-        when(multicastWildcardRegexFactory.createIdPattern(nonMatchingId)).thenReturn(Pattern.compile(nonMatchingId));
 
         String participantIdOne = "123";
         String participantIdTwo = "456";
@@ -94,7 +80,6 @@ public class InMemoryMulticastReceiverRegistryTest {
     @Test
     public void testRetrieveWithMultiLevelWildcard() {
         String wildcardId = "one/two/*";
-        when(multicastWildcardRegexFactory.createIdPattern(wildcardId)).thenReturn(Pattern.compile("one/two/.*"));
 
         String partitionedId = "one/two/three/four";
         String participantId = "123";
@@ -108,4 +93,17 @@ public class InMemoryMulticastReceiverRegistryTest {
         assertEquals(participantId, result.iterator().next());
     }
 
+    @Test
+    public void testUnregisterWildcardReceiver() {
+        String wildcardId = "one/+/*";
+        String participantId = "123";
+        subject.registerMulticastReceiver(wildcardId, participantId);
+        assertEquals(1, subject.getReceivers("one/two/three").size());
+        assertEquals(1, subject.getReceivers().get(wildcardId).size());
+
+        subject.unregisterMulticastReceiver(wildcardId, participantId);
+        assertTrue(subject.getReceivers("one/two/three").isEmpty());
+        assertTrue(subject.getReceivers().isEmpty());
+    }
+
 }
@@ -0,0 +1,204 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.routing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.name.Names;
+
+import io.joynr.messaging.ConfigurableMessagingSettings;
+import io.joynr.messaging.MessagingSkeletonFactory;
+import io.joynr.statusmetrics.MessageRouterMetrics;
+import joynr.ImmutableMessage;
+import joynr.Message;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MessageAdmissionControllerTest {
+    private static final int QUEUE_CAPACITY = 10;
+
+    @Mock
+    private MessagingSkeletonFactory messagingSkeletonFactory;
+    @Mock
+    private MessageRouterMetrics messageRouterMetrics;
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    private MessageAdmissionController subject;
+    private int nextMessageId = 0;
+
+    @Before
+    public void setup() {
+        // run the asynchronous pause and resume calls immediately
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                ((Runnable) invocation.getArguments()[0]).run();
+                return null;
+            }
+        }).when(scheduler).execute(any(Runnable.class));
+        subject = createController(QUEUE_CAPACITY);
+    }
+
+    private MessageAdmissionController createController(final int queueCapacity) {
+        return Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bindConstant().annotatedWith(Names.named(ConfigurableMessagingSettings.PROPERTY_ROUTING_QUEUE_CAPACITY))
+                              .to(queueCapacity);
+                bind(MessagingSkeletonFactory.class).toInstance(messagingSkeletonFactory);
+                bind(MessageRouterMetrics.class).toInstance(messageRouterMetrics);
+                bind(ScheduledExecutorService.class).annotatedWith(Names.named(MessageRouter.SCHEDULEDTHREADPOOL))
+                                                    .toInstance(scheduler);
+            }
+        })
+                    .getInstance(MessageAdmissionController.class);
+    }
+
+    private ImmutableMessage createMessage(String type) {
+        ImmutableMessage message = mock(ImmutableMessage.class);
+        when(message.getType()).thenReturn(type);
+        when(message.getId()).thenReturn("message-" + nextMessageId++);
+        return message;
+    }
+
+    private List<ImmutableMessage> admitRequests(int count) {
+        List<ImmutableMessage> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ImmutableMessage request = createMessage(Message.VALUE_MESSAGE_TYPE_REQUEST);
+            assertTrue(subject.admit(request));
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    private void processMessages(List<ImmutableMessage> messages, int count) {
+        for (int i = 0; i < count; i++) {
+            subject.messageProcessed(messages.remove(0).getId());
+        }
+    }
+
+    @Test
+    public void testDisabledControllerAdmitsEverything() {
+        subject = createController(0);
+        assertFalse(subject.isEnabled());
+
+        admitRequests(1000);
+        assertEquals(0, subject.getQueuedMessages());
+        verify(messagingSkeletonFactory, never()).pauseReceiving();
+    }
+
+    @Test
+    public void testRequestsAreRejectedWhenCreditsAreExhausted() {
+        List<ImmutableMessage> requests = admitRequests(QUEUE_CAPACITY - 1);
+        assertTrue(subject.admit(createMessage(Message.VALUE_MESSAGE_TYPE_ONE_WAY)));
+
+        assertFalse(subject.admit(createMessage(Message.VALUE_MESSAGE_TYPE_REQUEST)));
+        assertFalse(subject.admit(createMessage(Message.VALUE_MESSAGE_TYPE_ONE_WAY)));
+
+        processMessages(requests, 1);
+        assertTrue(subject.admit(createMessage(Message.VALUE_MESSAGE_TYPE_REQUEST)));
+    }
+
+    @Test
+    public void testEachMessageConsumesOneCredit() {
+        ImmutableMessage request = createMessage(Message.VALUE_MESSAGE_TYPE_REQUEST);
+        assertTrue(subject.admit(request));
+        // routing the same message again, e.g. after it has been received twice, does not take another credit
+        assertTrue(subject.admit(request));
+        assertEquals(1, subject.getQueuedMessages());
+
+        subject.messageProcessed(request.getId());
+        subject.messageProcessed(request.getId());
+        assertEquals(0, subject.getQueuedMessages());
+    }
+
+    @Test
+    public void testProcessingMessagesWithoutCreditDoesNotReturnCredits() {
+        admitRequests(QUEUE_CAPACITY);
+        ImmutableMessage reply = createMessage(Message.VALUE_MESSAGE_TYPE_REPLY);
+        assertTrue(subject.admit(reply));
+        ImmutableMessage rejectedRequest = createMessage(Message.VALUE_MESSAGE_TYPE_REQUEST);
+        assertFalse(subject.admit(rejectedRequest));
+
+        subject.messageProcessed(reply.getId());
+        subject.messageProcessed(rejectedRequest.getId());
+
+        assertEquals(QUEUE_CAPACITY, subject.getQueuedMessages());
+    }
+
+    @Test
+    public void testRepliesAndPublicationsAreAlwaysAdmitted() {
+        admitRequests(QUEUE_CAPACITY);
+
+        assertTrue(subject.admit(createMessage(Message.VALUE_MESSAGE_TYPE_REPLY)));
+        assertTrue(subject.admit(createMessage(Message.VALUE_MESSAGE_TYPE_PUBLICATION)));
+        assertTrue(subject.admit(createMessage(Message.VALUE_MESSAGE_TYPE_MULTICAST)));
+        assertTrue(subject.admit(createMessage(Message.VALUE_MESSAGE_TYPE_SUBSCRIPTION_REQUEST)));
+        assertEquals(QUEUE_CAPACITY, subject.getQueuedMessages());
+    }
+
+    @Test
+    public void testReceivingIsPausedAndResumedAtWatermarks() {
+        final int highWatermark = QUEUE_CAPACITY
+                * ConfigurableMessagingSettings.DEFAULT_ROUTING_QUEUE_HIGH_WATERMARK_PERCENT / 100;
+        final int lowWatermark = QUEUE_CAPACITY
+                * ConfigurableMessagingSettings.DEFAULT_ROUTING_QUEUE_LOW_WATERMARK_PERCENT / 100;
+
+        List<ImmutableMessage> requests = admitRequests(highWatermark - 1);
+        verify(messagingSkeletonFactory, never()).pauseReceiving();
+
+        requests.addAll(admitRequests(1));
+        verify(messagingSkeletonFactory, times(1)).pauseReceiving();
+        verify(messageRouterMetrics).highWatermarkReached(anyInt());
+
+        processMessages(requests, highWatermark - lowWatermark - 1);
+        verify(messagingSkeletonFactory, never()).resumeReceiving();
+
+        processMessages(requests, 1);
+        verify(messagingSkeletonFactory, times(1)).resumeReceiving();
+        verify(messageRouterMetrics).lowWatermarkReached(lowWatermark);
+
+        admitRequests(highWatermark - lowWatermark);
+        verify(messagingSkeletonFactory, times(2)).pauseReceiving();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.routing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.name.Names;
+
+import io.joynr.messaging.ConfigurableMessagingSettings;
+import joynr.ImmutableMessage;
+
+public class MessageQueueTest {
+
+    private MessageQueue subject;
+
+    @Before
+    public void setup() {
+        subject = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bindConstant().annotatedWith(Names.named(ConfigurableMessagingSettings.PROPERTY_ROUTING_QUEUE_MODE))
+                              .to(ConfigurableMessagingSettings.ROUTING_QUEUE_MODE_PER_DESTINATION);
+            }
+        }).getInstance(MessageQueue.class);
+    }
+
+    private DelayableImmutableMessage createMessage(String recipient, long delayMs) {
+        ImmutableMessage message = mock(ImmutableMessage.class);
+        when(message.getRecipient()).thenReturn(recipient);
+        when(message.getId()).thenReturn(recipient + "-" + System.nanoTime());
+        return new DelayableImmutableMessage(message, delayMs, 0);
+    }
+
+    @Test
+    public void testDestinationsAreServedRoundRobin() throws Exception {
+        DelayableImmutableMessage a1 = createMessage("a", 0);
+        DelayableImmutableMessage a2 = createMessage("a", 0);
+        DelayableImmutableMessage a3 = createMessage("a", 0);
+        DelayableImmutableMessage b1 = createMessage("b", 0);
+        subject.put(a1);
+        subject.put(a2);
+        subject.put(a3);
+        subject.put(b1);
+        assertEquals(4, subject.size());
+
+        assertSame(a1, subject.poll(0, TimeUnit.MILLISECONDS));
+        subject.release(a1);
+        assertSame(b1, subject.poll(0, TimeUnit.MILLISECONDS));
+        subject.release(b1);
+        assertSame(a2, subject.poll(0, TimeUnit.MILLISECONDS));
+        subject.release(a2);
+        assertSame(a3, subject.poll(0, TimeUnit.MILLISECONDS));
+        subject.release(a3);
+        assertEquals(0, subject.size());
+    }
+
+    @Test
+    public void testBusyDestinationDoesNotBlockOtherDestinations() throws Exception {
+        DelayableImmutableMessage slow1 = createMessage("slow", 0);
+        DelayableImmutableMessage slow2 = createMessage("slow", 0);
+        DelayableImmutableMessage fast = createMessage("fast", 0);
+        subject.put(slow1);
+        subject.put(slow2);
+        subject.put(fast);
+
+        assertSame(slow1, subject.poll(0, TimeUnit.MILLISECONDS));
+        // slow1 is still being transmitted, so the next message for "slow" must wait
+        assertSame(fast, subject.poll(0, TimeUnit.MILLISECONDS));
+        assertNull(subject.poll(10, TimeUnit.MILLISECONDS));
+
+        subject.release(slow1);
+        assertSame(slow2, subject.poll(0, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testDelayedMessageIsReturnedAfterItsDelay() throws Exception {
+        final long delayMs = 100;
+        DelayableImmutableMessage retry = createMessage("a", delayMs);
+        long start = System.currentTimeMillis();
+        subject.put(retry);
+
+        assertNull(subject.poll(0, TimeUnit.MILLISECONDS));
+        assertSame(retry, subject.poll(1000, TimeUnit.MILLISECONDS));
+        long elapsed = System.currentTimeMillis() - start;
+        assertTrue(elapsed >= delayMs - 10);
+    }
+
+    @Test
+    public void testRecipientsBehindSameAddressShareDestination() throws Exception {
+        Object sharedAddress = new Object();
+        DelayableImmutableMessage x = createMessage("x", 0);
+        x.setDestinationKey(sharedAddress);
+        DelayableImmutableMessage y = createMessage("y", 0);
+        y.setDestinationKey(sharedAddress);
+        DelayableImmutableMessage z = createMessage("z", 0);
+        subject.put(x);
+        subject.put(y);
+        subject.put(z);
+
+        assertSame(x, subject.poll(0, TimeUnit.MILLISECONDS));
+        // x and y are routed to the same address, so y must wait until x has been released
+        assertSame(z, subject.poll(0, TimeUnit.MILLISECONDS));
+        assertNull(subject.poll(10, TimeUnit.MILLISECONDS));
+
+        subject.release(x);
+        assertSame(y, subject.poll(0, TimeUnit.MILLISECONDS));
+    }
+}
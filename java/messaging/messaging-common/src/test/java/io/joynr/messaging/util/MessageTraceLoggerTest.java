@@ -0,0 +1,127 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.util;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.name.Names;
+
+import io.joynr.messaging.ConfigurableMessagingSettings;
+import joynr.ImmutableMessage;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MessageTraceLoggerTest {
+
+    @Mock
+    private Logger logger;
+
+    @Mock
+    private ImmutableMessage message;
+
+    @After
+    public void tearDown() {
+        injectMaxMessagesPerSecond(ConfigurableMessagingSettings.DEFAULT_MESSAGE_TRACE_MAX_MESSAGES_PER_SECOND);
+    }
+
+    private static void injectMaxMessagesPerSecond(final int maxMessagesPerSecond) {
+        Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bindConstant().annotatedWith(Names.named(ConfigurableMessagingSettings.PROPERTY_MESSAGE_TRACE_MAX_MESSAGES_PER_SECOND))
+                              .to(maxMessagesPerSecond);
+                requestStaticInjection(MessageTraceLogger.class);
+            }
+        });
+    }
+
+    @Test
+    public void messageIsNotRenderedIfDebugIsDisabled() {
+        when(logger.isDebugEnabled()).thenReturn(false);
+        MessageTraceLogger subject = new MessageTraceLogger(logger, 0);
+
+        subject.incoming(message);
+        subject.outgoing(message);
+
+        verifyZeroInteractions(message);
+        verify(logger, never()).debug(anyString(), eq(message));
+    }
+
+    @Test
+    public void messageHeadersAreLoggedOnDebug() {
+        when(logger.isDebugEnabled()).thenReturn(true);
+        MessageTraceLogger subject = new MessageTraceLogger(logger, 0);
+
+        subject.incoming(message);
+
+        verify(logger).debug("<<< INCOMING <<< {}", message);
+        verify(message, never()).toLogMessage();
+    }
+
+    @Test
+    public void completeMessageIsLoggedOnTrace() {
+        when(logger.isDebugEnabled()).thenReturn(true);
+        when(logger.isTraceEnabled()).thenReturn(true);
+        when(message.toLogMessage()).thenReturn("logMessage");
+        MessageTraceLogger subject = new MessageTraceLogger(logger, 0);
+
+        subject.outgoing(message);
+
+        verify(logger).trace(">>> OUTGOING >>> {}", "logMessage");
+    }
+
+    @Test
+    public void numberOfLoggedMessagesIsLimited() {
+        when(logger.isDebugEnabled()).thenReturn(true);
+        MessageTraceLogger subject = new MessageTraceLogger(logger, 3);
+
+        for (int i = 0; i < 10; i++) {
+            subject.incoming(message);
+        }
+
+        verify(logger, times(3)).debug("<<< INCOMING <<< {}", message);
+    }
+
+    @Test
+    public void configuredLimitIsAppliedToExistingLoggers() {
+        when(logger.isDebugEnabled()).thenReturn(true);
+        MessageTraceLogger subject = new MessageTraceLogger(logger);
+
+        injectMaxMessagesPerSecond(2);
+        for (int i = 0; i < 10; i++) {
+            subject.outgoing(message);
+        }
+
+        verify(logger, times(2)).debug(">>> OUTGOING >>> {}", message);
+    }
+}
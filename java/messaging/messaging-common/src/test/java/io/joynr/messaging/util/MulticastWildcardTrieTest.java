@@ -0,0 +1,128 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import io.joynr.exceptions.JoynrIllegalStateException;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MulticastWildcardTrieTest {
+
+    private static final String VALUE = "value";
+
+    private MulticastWildcardTrie<String> subject;
+
+    @Before
+    public void setup() {
+        subject = new MulticastWildcardTrie<String>();
+    }
+
+    private boolean matches(String multicastId) {
+        return subject.getValues(multicastId).contains(VALUE);
+    }
+
+    @Test
+    public void testLeadingSingleLevelWildcard() {
+        subject.put("+/one/two/three", VALUE);
+        assertTrue(matches("anything/one/two/three"));
+        assertTrue(matches("_hello_!/one/two/three"));
+        assertFalse(matches("one/two/three"));
+        assertFalse(matches("one/any/two/three"));
+        assertFalse(matches("/one/two/three"));
+        assertFalse(matches("five/six/one/two/three"));
+    }
+
+    @Test
+    public void testOnlySingleLevelWildcard() {
+        subject.put("+", VALUE);
+        assertTrue(matches("onelevelhere"));
+        assertFalse(matches("one/two"));
+        assertFalse(matches("/one"));
+        assertFalse(matches("one/"));
+    }
+
+    @Test
+    public void testSingleLevelWildcardInMiddleAndAtEnd() {
+        subject.put("one/+/three", VALUE);
+        subject.put("one/two/+", "other");
+        assertTrue(matches("one/anything/three"));
+        assertFalse(matches("one/two/four/three"));
+        assertFalse(matches("one/three"));
+        assertEquals(2, subject.getValues("one/two/three").size());
+        assertTrue(subject.getValues("one/two/and another partition").contains("other"));
+        assertFalse(subject.getValues("one/two").contains("other"));
+    }
+
+    @Test
+    public void testMultiLevelWildcardAtEnd() {
+        subject.put("one/two/*", VALUE);
+        assertTrue(matches("one/two/anything"));
+        assertTrue(matches("one/two/three/four"));
+        assertTrue(matches("one/two"));
+        assertFalse(matches("one/twothree"));
+        assertFalse(matches("one"));
+        assertFalse(matches(""));
+    }
+
+    @Test
+    public void testOnlyMultiLevelWildcard() {
+        subject.put("*", VALUE);
+        assertTrue(matches("one"));
+        assertTrue(matches("one/two/three"));
+        assertFalse(matches(""));
+    }
+
+    @Test
+    public void testRemovePrunesEmptyBranches() {
+        subject.put("one/+/three", VALUE);
+        subject.put("one/two/three", VALUE);
+        assertFalse(subject.remove("one/+/four", VALUE));
+        assertTrue(subject.remove("one/+/three", VALUE));
+        assertTrue(matches("one/two/three"));
+        assertFalse(matches("one/four/three"));
+        assertTrue(subject.remove("one/two/three", VALUE));
+        assertTrue(subject.isEmpty());
+    }
+
+    @Test
+    public void testGetAll() {
+        subject.put("one/+/three", VALUE);
+        subject.put("one/two", VALUE);
+        subject.put("one/two", "other");
+        Set<String> values = subject.getAll().get("one/two");
+        assertEquals(2, values.size());
+        assertEquals(2, subject.getAll().size());
+    }
+
+    @Test(expected = JoynrIllegalStateException.class)
+    public void testAsteriskInTheMiddle() {
+        subject.put("one/*/three", VALUE);
+    }
+
+    @Test(expected = JoynrIllegalStateException.class)
+    public void testPlusAsPartOfPartition() {
+        subject.put("one/two+/three", VALUE);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.apache.commons.lang.ArrayUtils;
+import org.junit.Test;
+
+import io.joynr.smrf.EncodingException;
+import joynr.ImmutableMessage;
+import joynr.Message;
+import joynr.MutableMessage;
+
+public class SmrfStreamReaderTest {
+
+    private static byte[] createSerializedMessage(String sender) throws Exception {
+        MutableMessage message = new MutableMessage();
+        message.setType(Message.VALUE_MESSAGE_TYPE_REQUEST);
+        message.setSender(sender);
+        message.setRecipient("recipient");
+        message.setPayload(new byte[]{ 0, 1, 2 });
+        return message.getImmutableMessage().getSerializedMessage();
+    }
+
+    /**
+     * Returns at most one byte per read like a network stream delivering the data in small chunks.
+     */
+    private static InputStream createTricklingStream(byte[] data) {
+        return new ByteArrayInputStream(data) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                return super.read(buffer, offset, Math.min(length, 1));
+            }
+        };
+    }
+
+    @Test
+    public void readsMessagesDeliveredInChunks() throws Exception {
+        byte[] message1 = createSerializedMessage("sender1");
+        byte[] message2 = createSerializedMessage("sender2");
+        SmrfStreamReader reader = new SmrfStreamReader(createTricklingStream(ArrayUtils.addAll(message1, message2)));
+
+        ImmutableMessage readMessage1 = reader.readMessage();
+        ImmutableMessage readMessage2 = reader.readMessage();
+
+        assertEquals("sender1", readMessage1.getSender());
+        assertArrayEquals(message1, readMessage1.getSerializedMessage());
+        assertEquals("sender2", readMessage2.getSender());
+        assertArrayEquals(message2, readMessage2.getSerializedMessage());
+        assertNull(reader.readMessage());
+    }
+
+    @Test
+    public void returnsNullForEmptyStream() throws Exception {
+        SmrfStreamReader reader = new SmrfStreamReader(new ByteArrayInputStream(new byte[0]));
+        assertNull(reader.readMessage());
+    }
+
+    @Test(expected = EncodingException.class)
+    public void failsIfStreamEndsWithinMessage() throws Exception {
+        byte[] message = createSerializedMessage("sender");
+        SmrfStreamReader reader = new SmrfStreamReader(new ByteArrayInputStream(Arrays.copyOf(message,
+                                                                                              message.length - 1)));
+        reader.readMessage();
+    }
+
+    @Test(expected = EncodingException.class)
+    public void failsIfStreamEndsWithinPrefix() throws Exception {
+        SmrfStreamReader reader = new SmrfStreamReader(new ByteArrayInputStream(new byte[]{ 1, 0, 0 }));
+        reader.readMessage();
+    }
+}
@@ -19,7 +19,16 @@
 package joynr;
 
 import static org.hamcrest.core.StringContains.containsString;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.junit.Test;
 
@@ -60,4 +69,93 @@ public class ImmutableMessageTest {
 
         assertThat(logMessage, containsString(payload));
     }
+
+    @Test
+    public void testToStringContainsHeadersButNotPayload() throws Exception {
+        final String payload = "$=payload=$";
+        MutableMessage testMessage = new MutableMessage();
+
+        testMessage.setPayload(payload.getBytes());
+        testMessage.setRecipient("recipient");
+        testMessage.setSender("sender");
+        testMessage.setType(Message.VALUE_MESSAGE_TYPE_REQUEST);
+
+        ImmutableMessage immutableMessage = testMessage.getImmutableMessage();
+        String logMessage = immutableMessage.toString();
+
+        assertThat(logMessage, containsString("id=" + immutableMessage.getId()));
+        assertThat(logMessage, containsString("type=" + Message.VALUE_MESSAGE_TYPE_REQUEST));
+        assertThat(logMessage, containsString("sender=sender"));
+        assertThat(logMessage, containsString("recipient=recipient"));
+        assertFalse(logMessage.contains(payload));
+    }
+
+    private byte[] createSerializedMessage() throws Exception {
+        MutableMessage testMessage = new MutableMessage();
+        testMessage.setPayload("payload".getBytes());
+        testMessage.setRecipient("recipient");
+        testMessage.setSender("sender");
+        testMessage.setType(Message.VALUE_MESSAGE_TYPE_REQUEST);
+        return testMessage.getImmutableMessage().getSerializedMessage();
+    }
+
+    @Test
+    public void testCreateFromBufferSlice() throws Exception {
+        byte[] serializedMessage = createSerializedMessage();
+        byte[] paddedMessage = new byte[serializedMessage.length + 20];
+        System.arraycopy(serializedMessage, 0, paddedMessage, 10, serializedMessage.length);
+
+        ImmutableMessage immutableMessage = new ImmutableMessage(ByteBuffer.wrap(paddedMessage,
+                                                                                 10,
+                                                                                 serializedMessage.length));
+
+        assertArrayEquals(serializedMessage, immutableMessage.getSerializedMessage());
+        assertEquals("recipient", immutableMessage.getRecipient());
+        assertEquals(Message.VALUE_MESSAGE_TYPE_REQUEST, immutableMessage.getType());
+    }
+
+    @Test
+    public void testSerializedMessageBufferIsReadOnlyView() throws Exception {
+        byte[] serializedMessage = createSerializedMessage();
+        ImmutableMessage immutableMessage = new ImmutableMessage(serializedMessage);
+
+        ByteBuffer buffer = immutableMessage.getSerializedMessageBuffer();
+
+        assertTrue(buffer.isReadOnly());
+        assertEquals(serializedMessage.length, buffer.remaining());
+        byte[] content = new byte[buffer.remaining()];
+        buffer.get(content);
+        assertArrayEquals(serializedMessage, content);
+    }
+
+    @Test
+    public void testIdWithoutDecodingHeadersMatchesDecodedHeaders() throws Exception {
+        MutableMessage testMessage = new MutableMessage();
+        testMessage.setSender("sender");
+        testMessage.setRecipient("recipient");
+        testMessage.setPayload(new byte[]{ 0, 1, 2 });
+        testMessage.setType(Message.VALUE_MESSAGE_TYPE_ONE_WAY);
+        testMessage.setReplyTo("replyTo");
+        Map<String, String> customHeaders = new HashMap<>();
+        customHeaders.put("i", "shorter key");
+        customHeaders.put("idx", "longer key");
+        testMessage.setCustomHeaders(customHeaders);
+
+        ImmutableMessage immutableMessage = testMessage.getImmutableMessage();
+
+        String id = immutableMessage.getIdWithoutDecodingHeaders();
+        assertEquals(immutableMessage.getHeaders().get(Message.HEADER_ID), id);
+        assertEquals(id, immutableMessage.getId());
+        assertEquals(Message.VALUE_MESSAGE_TYPE_ONE_WAY, immutableMessage.getType());
+    }
+
+    @Test
+    public void testTypeIsNullIfNotSet() throws Exception {
+        MutableMessage testMessage = new MutableMessage();
+        testMessage.setSender("sender");
+        testMessage.setRecipient("recipient");
+        testMessage.setPayload(new byte[]{ 0, 1, 2 });
+
+        assertNull(testMessage.getImmutableMessage().getType());
+    }
 }
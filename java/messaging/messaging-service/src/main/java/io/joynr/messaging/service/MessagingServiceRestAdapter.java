@@ -25,10 +25,12 @@ import static io.joynr.messaging.datatypes.JoynrMessagingErrorCode.JOYNRMESSAGIN
 import static io.joynr.messaging.datatypes.JoynrMessagingErrorCode.JOYNRMESSAGINGERROR_EXPIRYDATENOTSET;
 import io.joynr.communications.exceptions.JoynrHttpException;
 import io.joynr.messaging.system.TimestampProvider;
+import io.joynr.messaging.util.Utilities;
 import io.joynr.smrf.EncodingException;
 import io.joynr.smrf.UnsuppportedVersionException;
 
 import java.net.URI;
+import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -85,19 +87,25 @@ public class MessagingServiceRestAdapter {
      * @param ccid
      *            channel id of the receiver.
      * @param message
-     *            the content being sent (serialized SMRF message).
-     * @return a location for querying the message status
+     *            the content being sent (serialized SMRF message, or several
+     *            concatenated SMRF messages).
+     * @return a location for querying the status of the first message which
+     *         has not expired
      */
     @POST
     @Produces({ MediaType.APPLICATION_OCTET_STREAM })
     public Response postMessage(@PathParam("ccid") String ccid, byte[] serializedMessage) {
-        ImmutableMessage message;
+        List<ImmutableMessage> messages;
 
         try {
-            message = new ImmutableMessage(serializedMessage);
+            messages = Utilities.splitSMRF(serializedMessage);
         } catch (EncodingException | UnsuppportedVersionException e) {
             throw new JoynrHttpException(Status.BAD_REQUEST, JOYNRMESSAGINGERROR_DESERIALIZATIONFAILED);
         }
+        if (messages.isEmpty()) {
+            throw new JoynrHttpException(Status.BAD_REQUEST, JOYNRMESSAGINGERROR_DESERIALIZATIONFAILED);
+        }
+        ImmutableMessage message = messages.get(0);
 
         try {
             log.debug("POST message to channel: {} message: {}", ccid, message);
@@ -109,15 +117,22 @@ public class MessagingServiceRestAdapter {
             }
 
             // send the message to the receiver.
-            if (message.getTtlMs() == 0) {
-                log.error("POST message to channel: {} message: {} dropped because: TTL not set", ccid, message);
-                throw new JoynrHttpException(Status.BAD_REQUEST, JOYNRMESSAGINGERROR_EXPIRYDATENOTSET);
+            for (ImmutableMessage postedMessage : messages) {
+                if (postedMessage.getTtlMs() == 0) {
+                    log.error("POST message to channel: {} message: {} dropped because: TTL not set",
+                              ccid,
+                              postedMessage);
+                    throw new JoynrHttpException(Status.BAD_REQUEST, JOYNRMESSAGINGERROR_EXPIRYDATENOTSET);
+                }
             }
 
-            if (message.getTtlMs() < timestampProvider.getCurrentTime()) {
+            // expired messages of a request containing several messages are dropped by the receiver; the request
+            // is only rejected if all of them have expired
+            message = getFirstUnexpiredMessage(messages);
+            if (message == null) {
                 log.warn("POST message {} to cluster controller: {} dropped because: TTL expired",
                          ccid,
-                         message.getId());
+                         messages.get(0).getId());
                 throw new JoynrHttpException(Status.BAD_REQUEST,
                                              JOYNRMESSAGINGERROR_EXPIRYDATEEXPIRED,
                                              request.getRemoteHost());
@@ -167,4 +182,14 @@ public class MessagingServiceRestAdapter {
 
     }
 
+    private ImmutableMessage getFirstUnexpiredMessage(List<ImmutableMessage> messages) {
+        long currentTime = timestampProvider.getCurrentTime();
+        for (ImmutableMessage message : messages) {
+            if (message.getTtlMs() >= currentTime) {
+                return message;
+            }
+        }
+        return null;
+    }
+
 }
@@ -25,6 +25,7 @@ import static io.joynr.messaging.datatypes.JoynrMessagingErrorCode.JOYNRMESSAGIN
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
+import java.io.ByteArrayOutputStream;
 import java.util.UUID;
 
 import org.junit.Before;
@@ -255,6 +256,79 @@ public class MessagingTest extends AbstractServiceInterfaceTest {
         Mockito.verify(mock, Mockito.never()).passMessageToReceiver("channel-123", serializedMessage);
     }
 
+    @Test
+    public void testPostSeveralMessages() throws Exception {
+        Mockito.when(mock.hasMessageReceiver("channel-123")).thenReturn(true);
+        Mockito.when(mock.isAssignedForChannel("channel-123")).thenReturn(true);
+
+        ImmutableMessage message1 = createJoynrMessage();
+        ImmutableMessage message2 = createJoynrMessage();
+        byte[] serializedMessages = concatenate(message1, message2);
+
+        Response response = //
+        given(). //
+        contentType(ContentType.BINARY)
+               .when()
+               .body(serializedMessages)
+               .post(serverUrl + "/channels/channel-123/message");
+
+        assertEquals(201 /* Created */, response.getStatusCode());
+        assertEquals(serverUrl + "/messages/" + message1.getId(), response.getHeader("Location"));
+        assertEquals(message1.getId(), response.getHeader("msgId"));
+        Mockito.verify(mock).passMessageToReceiver("channel-123", serializedMessages);
+    }
+
+    @Test
+    public void testPostSeveralMessagesWithExpiredMessage() throws Exception {
+        Mockito.when(mock.hasMessageReceiver("channel-123")).thenReturn(true);
+        Mockito.when(mock.isAssignedForChannel("channel-123")).thenReturn(true);
+
+        ImmutableMessage expiredMessage = createJoynrMessage(ExpiryDate.fromAbsolute(1));
+        ImmutableMessage message = createJoynrMessage();
+        byte[] serializedMessages = concatenate(expiredMessage, message);
+
+        Response response = //
+        given(). //
+        contentType(ContentType.BINARY)
+               .when()
+               .body(serializedMessages)
+               .post(serverUrl + "/channels/channel-123/message");
+
+        // the receiver drops the expired message and delivers the other one
+        assertEquals(201 /* Created */, response.getStatusCode());
+        assertEquals(serverUrl + "/messages/" + message.getId(), response.getHeader("Location"));
+        Mockito.verify(mock).passMessageToReceiver("channel-123", serializedMessages);
+    }
+
+    @Test
+    public void testPostSeveralMessagesAllExpired() throws Exception {
+        byte[] serializedMessages = concatenate(createJoynrMessage(ExpiryDate.fromAbsolute(1)),
+                                                createJoynrMessage(ExpiryDate.fromAbsolute(1)));
+
+        Response response = //
+        given(). //
+        contentType(ContentType.BINARY)
+               .when()
+               .body(serializedMessages)
+               .post(serverUrl + "/channels/channel-123/message");
+
+        assertEquals(400 /* Bad Request */, response.getStatusCode());
+
+        JoynrMessagingError error = objectMapper.readValue(response.getBody().asString(), JoynrMessagingError.class);
+
+        assertEquals(JOYNRMESSAGINGERROR_EXPIRYDATEEXPIRED.getCode(), error.getCode());
+        Mockito.verify(mock, Mockito.never()).passMessageToReceiver("channel-123", serializedMessages);
+    }
+
+    private byte[] concatenate(ImmutableMessage... messages) {
+        ByteArrayOutputStream serializedMessages = new ByteArrayOutputStream();
+        for (ImmutableMessage message : messages) {
+            byte[] serializedMessage = message.getSerializedMessage();
+            serializedMessages.write(serializedMessage, 0, serializedMessage.length);
+        }
+        return serializedMessages.toByteArray();
+    }
+
     private ImmutableMessage createJoynrMessage() throws Exception {
         return createJoynrMessage(ExpiryDate.fromRelativeTtl(50000));
     }
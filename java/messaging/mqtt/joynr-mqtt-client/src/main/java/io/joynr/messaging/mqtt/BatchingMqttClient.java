@@ -0,0 +1,277 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.mqtt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import io.joynr.messaging.FailureAction;
+import io.joynr.messaging.SuccessAction;
+
+/**
+ * Combines messages which are published to the same topic within a short linger time into a single MQTT message,
+ * see {@link MqttMessageContainer}.
+ *
+ * Only topics whose receivers support message containers are batched, see {@link MqttMessageContainerSupport}.
+ * A batch is published when the linger time of its first message has elapsed or when it has reached the maximum
+ * size. A batch containing a single message is published as a plain message. The success and failure actions of
+ * all messages of a batch are executed with the outcome of the publication of the batch.
+ *
+ * Completed batches and unbatched messages are queued per topic and published one after another, so the order of
+ * the messages of a topic is kept regardless of the thread which publishes them. Linger timeouts are handled by a
+ * scheduler owned by this client because publishing may block until the broker has acknowledged earlier messages.
+ */
+public class BatchingMqttClient implements JoynrMqttClient {
+
+    private final JoynrMqttClient mqttClient;
+    private final MqttMessageContainerSupport containerSupport;
+    private final ScheduledExecutorService lingerScheduler;
+    private final long lingerMs;
+    private final int maxBatchBytes;
+    // guards all TopicQueues and their batches; publishing happens while holding the monitor of the TopicQueue
+    private final Map<String, TopicQueue> topicQueues = new HashMap<>();
+
+    public BatchingMqttClient(JoynrMqttClient mqttClient,
+                              MqttMessageContainerSupport containerSupport,
+                              ScheduledExecutorService lingerScheduler,
+                              long lingerMs,
+                              int maxBatchBytes) {
+        this.mqttClient = mqttClient;
+        this.containerSupport = containerSupport;
+        this.lingerScheduler = lingerScheduler;
+        this.lingerMs = lingerMs;
+        this.maxBatchBytes = maxBatchBytes;
+    }
+
+    @Override
+    public void start() {
+        mqttClient.start();
+    }
+
+    @Override
+    public void setMessageListener(IMqttMessagingSkeleton rawMessaging) {
+        mqttClient.setMessageListener(rawMessaging);
+    }
+
+    @Override
+    public void shutdown() {
+        lingerScheduler.shutdownNow();
+        List<TopicQueue> pendingQueues;
+        synchronized (topicQueues) {
+            pendingQueues = new ArrayList<>(topicQueues.values());
+            for (TopicQueue queue : pendingQueues) {
+                queue.completeCurrentBatch();
+            }
+        }
+        for (TopicQueue queue : pendingQueues) {
+            publishReadyBatches(queue);
+        }
+        mqttClient.shutdown();
+    }
+
+    @Override
+    public void publishMessage(String topic, byte[] serializedMessage) {
+        TopicQueue queue = completeCurrentBatch(topic);
+        synchronized (queue) {
+            publishReadyBatches(queue);
+            mqttClient.publishMessage(topic, serializedMessage);
+        }
+    }
+
+    @Override
+    public void publishMessage(String topic, byte[] serializedMessage, int qosLevel) {
+        TopicQueue queue = completeCurrentBatch(topic);
+        synchronized (queue) {
+            publishReadyBatches(queue);
+            mqttClient.publishMessage(topic, serializedMessage, qosLevel);
+        }
+    }
+
+    @Override
+    public void publishMessage(String topic,
+                               byte[] serializedMessage,
+                               int qosLevel,
+                               SuccessAction successAction,
+                               FailureAction failureAction) {
+        int messageBytes = MqttMessageContainer.MESSAGE_HEADER_SIZE + serializedMessage.length;
+        boolean batchable = MqttMessageContainer.HEADER_SIZE + messageBytes <= maxBatchBytes
+                && containerSupport.isSupported(topic);
+
+        TopicQueue queue;
+        synchronized (topicQueues) {
+            queue = getTopicQueue(topic);
+            Batch batch = queue.currentBatch;
+            if (batch != null
+                    && (!batchable || batch.qosLevel != qosLevel || batch.bytes + messageBytes > maxBatchBytes)) {
+                queue.completeCurrentBatch();
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new Batch(topic, qosLevel);
+                if (batchable) {
+                    queue.currentBatch = batch;
+                    scheduleFlush(queue, batch);
+                } else {
+                    queue.readyBatches.add(batch);
+                }
+            }
+            batch.add(serializedMessage, successAction, failureAction);
+        }
+        publishReadyBatches(queue);
+    }
+
+    private TopicQueue getTopicQueue(String topic) {
+        TopicQueue queue = topicQueues.get(topic);
+        if (queue == null) {
+            queue = new TopicQueue(topic);
+            topicQueues.put(topic, queue);
+        }
+        return queue;
+    }
+
+    private TopicQueue completeCurrentBatch(String topic) {
+        synchronized (topicQueues) {
+            TopicQueue queue = getTopicQueue(topic);
+            queue.completeCurrentBatch();
+            return queue;
+        }
+    }
+
+    private void scheduleFlush(final TopicQueue queue, final Batch batch) {
+        lingerScheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (topicQueues) {
+                    if (queue.currentBatch != batch) {
+                        // already completed because it was full
+                        return;
+                    }
+                    queue.completeCurrentBatch();
+                }
+                publishReadyBatches(queue);
+            }
+        }, lingerMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publishes the completed batches of the topic in the order in which they have been completed. Only one thread at
+     * a time publishes for a topic; the queue is forgotten once it is empty.
+     */
+    private void publishReadyBatches(TopicQueue queue) {
+        synchronized (queue) {
+            while (true) {
+                Batch batch;
+                synchronized (topicQueues) {
+                    batch = queue.readyBatches.poll();
+                    if (batch == null) {
+                        if (queue.currentBatch == null && topicQueues.get(queue.topic) == queue) {
+                            topicQueues.remove(queue.topic);
+                        }
+                        return;
+                    }
+                }
+                publish(batch);
+            }
+        }
+    }
+
+    private void publish(final Batch batch) {
+        if (batch.serializedMessages.size() == 1) {
+            mqttClient.publishMessage(batch.topic,
+                                      batch.serializedMessages.get(0),
+                                      batch.qosLevel,
+                                      batch.successActions.get(0),
+                                      batch.failureActions.get(0));
+            return;
+        }
+        mqttClient.publishMessage(batch.topic,
+                                  MqttMessageContainer.pack(batch.serializedMessages),
+                                  batch.qosLevel,
+                                  new SuccessAction() {
+                                      @Override
+                                      public void execute() {
+                                          for (SuccessAction successAction : batch.successActions) {
+                                              successAction.execute();
+                                          }
+                                      }
+                                  },
+                                  new FailureAction() {
+                                      @Override
+                                      public void execute(Throwable error) {
+                                          for (FailureAction failureAction : batch.failureActions) {
+                                              failureAction.execute(error);
+                                          }
+                                      }
+                                  });
+    }
+
+    @Override
+    public void subscribe(String topic) {
+        mqttClient.subscribe(topic);
+    }
+
+    @Override
+    public void unsubscribe(String topic) {
+        mqttClient.unsubscribe(topic);
+    }
+
+    private static class TopicQueue {
+        private final String topic;
+        private final Queue<Batch> readyBatches = new ArrayDeque<>();
+        private Batch currentBatch;
+
+        TopicQueue(String topic) {
+            this.topic = topic;
+        }
+
+        void completeCurrentBatch() {
+            if (currentBatch != null) {
+                readyBatches.add(currentBatch);
+                currentBatch = null;
+            }
+        }
+    }
+
+    private static class Batch {
+        private final String topic;
+        private final int qosLevel;
+        private final List<byte[]> serializedMessages = new ArrayList<>();
+        private final List<SuccessAction> successActions = new ArrayList<>();
+        private final List<FailureAction> failureActions = new ArrayList<>();
+        private int bytes = MqttMessageContainer.HEADER_SIZE;
+
+        Batch(String topic, int qosLevel) {
+            this.topic = topic;
+            this.qosLevel = qosLevel;
+        }
+
+        void add(byte[] serializedMessage, SuccessAction successAction, FailureAction failureAction) {
+            serializedMessages.add(serializedMessage);
+            successActions.add(successAction);
+            failureActions.add(failureAction);
+            bytes += MqttMessageContainer.MESSAGE_HEADER_SIZE + serializedMessage.length;
+        }
+    }
+}
@@ -24,5 +24,12 @@ import io.joynr.messaging.IMessagingSkeleton;
 
 public interface IMqttMessagingSkeleton extends IMessagingSkeleton, IMessagingMulticastSubscriber {
 
+    /**
+     * Passes a received message to the message router.
+     *
+     * @param serializedMessage the serialized message. The skeleton takes over the ownership of the array, i.e.
+     *      the caller must not modify it afterwards.
+     * @param failureAction called if the message cannot be processed
+     */
     public void transmit(byte[] serializedMessage, FailureAction failureAction);
 }
@@ -18,6 +18,9 @@
  */
 package io.joynr.messaging.mqtt;
 
+import io.joynr.messaging.FailureAction;
+import io.joynr.messaging.SuccessAction;
+
 public interface JoynrMqttClient {
 
     public void start();
@@ -30,6 +33,16 @@ public interface JoynrMqttClient {
 
     public void publishMessage(String topic, byte[] serializedMessage, int qosLevel);
 
+    /**
+     * Publishes the message and reports the outcome via the given actions instead of throwing. Depending on the
+     * implementation, the actions may be executed after this method has returned.
+     */
+    public void publishMessage(String topic,
+                               byte[] serializedMessage,
+                               int qosLevel,
+                               SuccessAction successAction,
+                               FailureAction failureAction);
+
     public void subscribe(String topic);
 
     public void unsubscribe(String topic);
@@ -0,0 +1,98 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.mqtt;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.joynr.smrf.EncodingException;
+
+/**
+ * Format of an MQTT payload which contains several serialized joynr messages.
+ *
+ * The payload starts with a magic number followed by the number of messages. Each message is prefixed with its
+ * length. The first two bytes of a SMRF message are its version in little endian byte order, so the magic number
+ * cannot be mistaken for a SMRF message. Receivers which do not know this format reject the payload as a message
+ * of an unsupported version.
+ */
+public final class MqttMessageContainer {
+
+    private static final byte[] MAGIC = { 'J', 'M', 'B', 'C' };
+    static final int HEADER_SIZE = MAGIC.length + 4;
+    static final int MESSAGE_HEADER_SIZE = 4;
+
+    private MqttMessageContainer() {
+    }
+
+    public static boolean isContainer(byte[] payload) {
+        if (payload.length < HEADER_SIZE) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (payload[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static byte[] pack(List<byte[]> serializedMessages) {
+        int size = HEADER_SIZE;
+        for (byte[] serializedMessage : serializedMessages) {
+            size += MESSAGE_HEADER_SIZE + serializedMessage.length;
+        }
+        ByteBuffer container = ByteBuffer.allocate(size);
+        container.put(MAGIC);
+        container.putInt(serializedMessages.size());
+        for (byte[] serializedMessage : serializedMessages) {
+            container.putInt(serializedMessage.length);
+            container.put(serializedMessage);
+        }
+        return container.array();
+    }
+
+    public static List<byte[]> unpack(byte[] payload) throws EncodingException {
+        if (!isContainer(payload)) {
+            throw new EncodingException("payload is not a message container");
+        }
+        ByteBuffer container = ByteBuffer.wrap(payload);
+        container.position(MAGIC.length);
+        try {
+            int count = container.getInt();
+            if (count < 0 || count > container.remaining() / MESSAGE_HEADER_SIZE) {
+                throw new EncodingException("invalid number of messages in container: " + count);
+            }
+            List<byte[]> serializedMessages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = container.getInt();
+                if (length < 0 || length > container.remaining()) {
+                    throw new EncodingException("invalid message length in container: " + length);
+                }
+                byte[] serializedMessage = new byte[length];
+                container.get(serializedMessage);
+                serializedMessages.add(serializedMessage);
+            }
+            return serializedMessages;
+        } catch (BufferUnderflowException e) {
+            throw new EncodingException("truncated message container");
+        }
+    }
+}
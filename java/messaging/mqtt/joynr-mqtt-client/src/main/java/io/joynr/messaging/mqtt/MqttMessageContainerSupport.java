@@ -0,0 +1,104 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.mqtt;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Singleton;
+
+import io.joynr.messaging.JoynrMessageProcessor;
+import joynr.ImmutableMessage;
+import joynr.Message;
+import joynr.MutableMessage;
+import joynr.system.RoutingTypes.Address;
+import joynr.system.RoutingTypes.MqttAddress;
+import joynr.system.RoutingTypes.RoutingTypesUtil;
+
+/**
+ * Negotiates the support of {@link MqttMessageContainer}s with the peers of this joynr instance.
+ *
+ * Outgoing requests are marked with a custom header which states that this instance can receive message containers.
+ * When a marked request is received, the topic of its reply-to address is remembered. {@link BatchingMqttClient}
+ * only combines messages into containers if they are published to a topic which is known to support them. All other
+ * messages, including multicasts, are published unchanged, so batching never sends containers to older versions.
+ */
+@Singleton
+public class MqttMessageContainerSupport implements JoynrMessageProcessor {
+    public static final String CUSTOM_HEADER_ACCEPTS_MQTT_CONTAINERS = "mqttcontainers";
+    private static final String HEADER_ACCEPTS_MQTT_CONTAINERS = Message.CUSTOM_HEADER_PREFIX
+            + CUSTOM_HEADER_ACCEPTS_MQTT_CONTAINERS;
+    private static final String ACCEPTS_MQTT_CONTAINERS = "true";
+
+    private static final Logger logger = LoggerFactory.getLogger(MqttMessageContainerSupport.class);
+
+    private final Set<String> knownReplyToAddresses = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Set<String> supportingTopics = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    @Override
+    public MutableMessage processOutgoing(MutableMessage joynrMessage) {
+        if (carriesReplyTo(joynrMessage.getType())) {
+            joynrMessage.setCustomHeaders(Collections.singletonMap(CUSTOM_HEADER_ACCEPTS_MQTT_CONTAINERS,
+                                                                   ACCEPTS_MQTT_CONTAINERS));
+        }
+        return joynrMessage;
+    }
+
+    @Override
+    public ImmutableMessage processIncoming(ImmutableMessage joynrMessage) {
+        String replyTo = joynrMessage.getReplyTo();
+        if (replyTo == null || knownReplyToAddresses.contains(replyTo)
+                || !ACCEPTS_MQTT_CONTAINERS.equals(joynrMessage.getHeaders().get(HEADER_ACCEPTS_MQTT_CONTAINERS))) {
+            return joynrMessage;
+        }
+        try {
+            Address address = RoutingTypesUtil.fromAddressString(replyTo);
+            if (address instanceof MqttAddress) {
+                String topic = ((MqttAddress) address).getTopic();
+                if (supportingTopics.add(topic)) {
+                    logger.debug("MQTT topic {} accepts message containers", topic);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.debug("Unable to read reply-to address {}: {}", replyTo, e.getMessage());
+        }
+        knownReplyToAddresses.add(replyTo);
+        return joynrMessage;
+    }
+
+    /**
+     * @param publishTopic the topic to which {@link MqttMessagingStub} publishes a message.
+     * @return whether the receiver of the topic has announced that it can unpack message containers.
+     */
+    public boolean isSupported(String publishTopic) {
+        int recipientIndex = publishTopic.indexOf(MqttMessagingStub.PRIORITY_LOW);
+        return recipientIndex > 0 && supportingTopics.contains(publishTopic.substring(0, recipientIndex));
+    }
+
+    private static boolean carriesReplyTo(String messageType) {
+        return Message.VALUE_MESSAGE_TYPE_REQUEST.equals(messageType)
+                || Message.VALUE_MESSAGE_TYPE_SUBSCRIPTION_REQUEST.equals(messageType)
+                || Message.VALUE_MESSAGE_TYPE_BROADCAST_SUBSCRIPTION_REQUEST.equals(messageType)
+                || Message.VALUE_MESSAGE_TYPE_MULTICAST_SUBSCRIPTION_REQUEST.equals(messageType);
+    }
+}
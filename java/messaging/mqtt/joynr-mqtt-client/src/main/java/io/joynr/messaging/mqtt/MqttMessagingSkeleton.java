@@ -21,9 +21,11 @@ package io.joynr.messaging.mqtt;
 import static io.joynr.messaging.mqtt.settings.LimitAndBackpressureSettings.PROPERTY_MAX_INCOMING_MQTT_REQUESTS;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -42,6 +44,7 @@ import io.joynr.messaging.RawMessagingPreprocessor;
 import io.joynr.messaging.mqtt.statusmetrics.MqttStatusReceiver;
 import io.joynr.messaging.routing.MessageProcessedListener;
 import io.joynr.messaging.routing.MessageRouter;
+import io.joynr.messaging.util.MessageTraceLogger;
 import io.joynr.smrf.EncodingException;
 import io.joynr.smrf.UnsuppportedVersionException;
 import joynr.ImmutableMessage;
@@ -53,6 +56,7 @@ import joynr.system.RoutingTypes.MqttAddress;
  */
 public class MqttMessagingSkeleton implements IMqttMessagingSkeleton, MessageProcessedListener {
     private static final Logger LOG = LoggerFactory.getLogger(MqttMessagingSkeleton.class);
+    private static final MessageTraceLogger MESSAGE_TRACE = MessageTraceLogger.getLogger(MqttMessagingSkeleton.class);
 
     protected final int maxIncomingMqttRequests;
     private final MessageRouter messageRouter;
@@ -146,14 +150,32 @@ public class MqttMessagingSkeleton implements IMqttMessagingSkeleton, MessagePro
 
     @Override
     public void transmit(byte[] serializedMessage, FailureAction failureAction) {
+        if (MqttMessageContainer.isContainer(serializedMessage)) {
+            List<byte[]> serializedMessages;
+            try {
+                serializedMessages = MqttMessageContainer.unpack(serializedMessage);
+            } catch (EncodingException e) {
+                LOG.error("Message container could not be unpacked: {}", e.getMessage());
+                failureAction.execute(e);
+                return;
+            }
+            for (byte[] containedMessage : serializedMessages) {
+                transmitMessage(containedMessage, failureAction);
+            }
+            return;
+        }
+        transmitMessage(serializedMessage, failureAction);
+    }
+
+    private void transmitMessage(byte[] serializedMessage, FailureAction failureAction) {
         try {
             HashMap<String, Serializable> context = new HashMap<String, Serializable>();
             byte[] processedMessage = rawMessagingPreprocessor.process(serializedMessage, context);
 
-            ImmutableMessage message = new ImmutableMessage(processedMessage);
+            ImmutableMessage message = new ImmutableMessage(ByteBuffer.wrap(processedMessage));
             message.setContext(context);
 
-            LOG.debug("<<< INCOMING <<< {}", message);
+            MESSAGE_TRACE.incoming(message);
 
             if (messageProcessors != null) {
                 for (JoynrMessageProcessor processor : messageProcessors) {
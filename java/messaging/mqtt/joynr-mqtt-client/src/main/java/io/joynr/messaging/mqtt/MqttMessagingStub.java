@@ -18,13 +18,11 @@
  */
 package io.joynr.messaging.mqtt;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import io.joynr.messaging.FailureAction;
 import io.joynr.messaging.IMessagingStub;
 import io.joynr.messaging.MessagingQosEffort;
 import io.joynr.messaging.SuccessAction;
+import io.joynr.messaging.util.MessageTraceLogger;
 import joynr.ImmutableMessage;
 import joynr.Message;
 import joynr.system.RoutingTypes.MqttAddress;
@@ -33,12 +31,12 @@ import joynr.system.RoutingTypes.MqttAddress;
  * Messaging stub used to send messages to a MQTT Broker
  */
 public class MqttMessagingStub implements IMessagingStub {
-    private static final Logger LOG = LoggerFactory.getLogger(MqttMessagingStub.class);
+    private static final MessageTraceLogger MESSAGE_TRACE = MessageTraceLogger.getLogger(MqttMessagingStub.class);
 
     public static final int DEFAULT_QOS_LEVEL = 1;
     public static final int BEST_EFFORT_QOS_LEVEL = 0;
 
-    private static final String PRIORITY_LOW = "/low/";
+    static final String PRIORITY_LOW = "/low/";
     private MqttAddress address;
     private JoynrMqttClient mqttClient;
 
@@ -49,7 +47,7 @@ public class MqttMessagingStub implements IMessagingStub {
 
     @Override
     public void transmit(ImmutableMessage message, SuccessAction successAction, FailureAction failureAction) {
-        LOG.debug(">>> OUTGOING >>> {}", message);
+        MESSAGE_TRACE.outgoing(message);
         String topic = address.getTopic();
         if (!Message.VALUE_MESSAGE_TYPE_MULTICAST.equals(message.getType())) {
             topic += PRIORITY_LOW + message.getRecipient();
@@ -60,11 +58,6 @@ public class MqttMessagingStub implements IMessagingStub {
         if (effortHeaderValue != null && String.valueOf(MessagingQosEffort.BEST_EFFORT).equals(effortHeaderValue)) {
             qosLevel = BEST_EFFORT_QOS_LEVEL;
         }
-        try {
-            mqttClient.publishMessage(topic, message.getSerializedMessage(), qosLevel);
-            successAction.execute();
-        } catch (Exception error) {
-            failureAction.execute(error);
-        }
+        mqttClient.publishMessage(topic, message.getSerializedMessage(), qosLevel, successAction, failureAction);
     }
 }
@@ -29,6 +29,7 @@ import com.google.inject.name.Names;
 import io.joynr.messaging.AbstractMiddlewareMessagingStubFactory;
 import io.joynr.messaging.IMessagingSkeleton;
 import io.joynr.messaging.IMessagingStub;
+import io.joynr.messaging.JoynrMessageProcessor;
 import io.joynr.messaging.MessagingSkeletonFactory;
 import io.joynr.messaging.mqtt.statusmetrics.DefaultMqttStatusReceiver;
 import io.joynr.messaging.mqtt.statusmetrics.MqttStatusReceiver;
@@ -76,6 +77,17 @@ public class MqttModule extends AbstractModule {
     public static final String PROPERTY_KEY_MQTT_ENABLE_SHARED_SUBSCRIPTIONS = "joynr.messaging.mqtt.enable.sharedsubscriptions";
     public static final String PROPERTY_KEY_MQTT_MAX_MSGS_INFLIGHT = "joynr.messaging.mqtt.maxmsgsinflight";
     public static final String PROPERTY_MQTT_CLEAN_SESSION = "joynr.messaging.mqtt.cleansession";
+    public static final String PROPERTY_KEY_MQTT_ASYNC_PUBLISH = "joynr.messaging.mqtt.asyncpublish";
+    public static final String PROPERTY_KEY_MQTT_CONNECTION_POOL_SIZE = "joynr.messaging.mqtt.connectionpoolsize";
+
+    /**
+     * Set to <code>true</code> to combine messages for the same topic into a single MQTT message, see
+     * {@link BatchingMqttClient}. Messages are only combined for receivers which have announced that they
+     * understand message containers, see {@link MqttMessageContainerSupport}.
+     */
+    public static final String PROPERTY_KEY_MQTT_BATCHING_ENABLED = "joynr.messaging.mqtt.batching.enabled";
+    public static final String PROPERTY_KEY_MQTT_BATCHING_LINGER_MS = "joynr.messaging.mqtt.batching.lingerms";
+    public static final String PROPERTY_KEY_MQTT_BATCHING_MAX_BYTES = "joynr.messaging.mqtt.batching.maxbytes";
 
     @Provides
     @Named(PROPERTY_MQTT_GLOBAL_ADDRESS)
@@ -122,6 +134,9 @@ public class MqttModule extends AbstractModule {
                                                                                                        });
         multicastAddressCalculators.addBinding().to(MqttMulticastAddressCalculator.class);
 
+        Multibinder.newSetBinder(binder(), new TypeLiteral<JoynrMessageProcessor>() {
+        }).addBinding().to(MqttMessageContainerSupport.class);
+
         bind(MqttClientIdProvider.class).to(DefaultMqttClientIdProvider.class);
         bind(MqttTopicPrefixProvider.class).to(DefaultMqttTopicPrefixProvider.class);
         bind(MqttStatusReceiver.class).to(DefaultMqttStatusReceiver.class);
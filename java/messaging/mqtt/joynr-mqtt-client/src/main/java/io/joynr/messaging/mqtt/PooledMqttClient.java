@@ -0,0 +1,99 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.mqtt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.joynr.messaging.FailureAction;
+import io.joynr.messaging.SuccessAction;
+
+/**
+ * Distributes outgoing MQTT messages over several broker connections.
+ *
+ * The connection used for publishing is chosen by the topic's hash, so all messages for one recipient are sent via
+ * the same connection and keep their order. Subscriptions are only established on the first connection, which is the
+ * one using the configured client ID.
+ */
+public class PooledMqttClient implements JoynrMqttClient {
+
+    private final List<JoynrMqttClient> clients;
+
+    public PooledMqttClient(List<JoynrMqttClient> clients) {
+        if (clients.isEmpty()) {
+            throw new IllegalArgumentException("at least one MQTT client is required");
+        }
+        this.clients = Collections.unmodifiableList(new ArrayList<>(clients));
+    }
+
+    @Override
+    public void start() {
+        for (JoynrMqttClient client : clients) {
+            client.start();
+        }
+    }
+
+    @Override
+    public void setMessageListener(IMqttMessagingSkeleton rawMessaging) {
+        for (JoynrMqttClient client : clients) {
+            client.setMessageListener(rawMessaging);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        for (JoynrMqttClient client : clients) {
+            client.shutdown();
+        }
+    }
+
+    @Override
+    public void publishMessage(String topic, byte[] serializedMessage) {
+        getClientForTopic(topic).publishMessage(topic, serializedMessage);
+    }
+
+    @Override
+    public void publishMessage(String topic, byte[] serializedMessage, int qosLevel) {
+        getClientForTopic(topic).publishMessage(topic, serializedMessage, qosLevel);
+    }
+
+    @Override
+    public void publishMessage(String topic,
+                               byte[] serializedMessage,
+                               int qosLevel,
+                               SuccessAction successAction,
+                               FailureAction failureAction) {
+        getClientForTopic(topic).publishMessage(topic, serializedMessage, qosLevel, successAction, failureAction);
+    }
+
+    @Override
+    public void subscribe(String topic) {
+        clients.get(0).subscribe(topic);
+    }
+
+    @Override
+    public void unsubscribe(String topic) {
+        clients.get(0).unsubscribe(topic);
+    }
+
+    JoynrMqttClient getClientForTopic(String topic) {
+        return clients.get((topic.hashCode() & Integer.MAX_VALUE) % clients.size());
+    }
+}
@@ -35,6 +35,7 @@ import org.slf4j.LoggerFactory;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 
+import io.joynr.messaging.IPausableMessagingSkeleton;
 import io.joynr.messaging.JoynrMessageProcessor;
 import io.joynr.messaging.MessagingPropertyKeys;
 import io.joynr.messaging.RawMessagingPreprocessor;
@@ -45,16 +46,23 @@ import joynr.system.RoutingTypes.MqttAddress;
 /**
  * Overrides the standard {@link MqttMessagingSkeleton} in order to customise the topic subscription strategy in the
  * case where HiveMQ shared subscriptions are available.
+ * <p>
+ * The skeleton stops receiving requests by unsubscribing from the shared subscriptions topic, either because of its
+ * own backpressure mechanism or because the message router asks it to pause. It subscribes again once neither of
+ * them holds it back. Replies are still received on the reply-to topic while paused.
  *
  * @see io.joynr.messaging.mqtt.MqttModule#PROPERTY_KEY_MQTT_ENABLE_SHARED_SUBSCRIPTIONS
  */
-public class SharedSubscriptionsMqttMessagingSkeleton extends MqttMessagingSkeleton {
+public class SharedSubscriptionsMqttMessagingSkeleton extends MqttMessagingSkeleton implements
+        IPausableMessagingSkeleton {
     private static final Logger LOG = LoggerFactory.getLogger(SharedSubscriptionsMqttMessagingSkeleton.class);
 
     private static final String NON_ALPHA_REGEX_PATTERN = "[^a-zA-Z]";
     private final String channelId;
     private final String sharedSubscriptionsTopic;
     private final AtomicBoolean subscribedToSharedSubscriptionsTopic;
+    private final AtomicBoolean pausedByBackpressure = new AtomicBoolean(false);
+    private boolean pausedByMessageRouter = false;
     private final MqttAddress replyToAddress;
     private boolean backpressureEnabled;
     private final int backpressureIncomingMqttRequestsUpperThreshold;
@@ -157,10 +165,10 @@ public class SharedSubscriptionsMqttMessagingSkeleton extends MqttMessagingSkele
         if (backpressureEnabled && getCurrentCountOfUnprocessedMqttRequests() >= unsubscribeThreshold) {
             // count of unprocessed requests bypasses upper threshold,
             // try to stop further incoming requests
-            if (subscribedToSharedSubscriptionsTopic.compareAndSet(true, false)) {
-                getClient().unsubscribe(sharedSubscriptionsTopic);
-                LOG.info("Unsubscribed from topic {} due to enabled backpressure mechanism "
-                        + "and passed upper threshold of unprocessed MQTT requests", sharedSubscriptionsTopic);
+            if (pausedByBackpressure.compareAndSet(false, true)) {
+                LOG.info("Passed upper threshold of unprocessed MQTT requests, backpressure mechanism "
+                        + "stops receiving requests from topic {}", sharedSubscriptionsTopic);
+                updateSharedSubscription();
             }
         }
     }
@@ -172,14 +180,37 @@ public class SharedSubscriptionsMqttMessagingSkeleton extends MqttMessagingSkele
         if (backpressureEnabled && getCurrentCountOfUnprocessedMqttRequests() < resubscribeThreshold) {
             // count of unprocessed requests drops below lower threshold,
             // try to get further incoming requests
-            if (subscribedToSharedSubscriptionsTopic.compareAndSet(false, true)) {
-                getClient().subscribe(sharedSubscriptionsTopic);
-                LOG.info("Subscribed again to topic {} due to enabled backpressure mechanism "
-                        + "and passed lower threshold of unprocessed MQTT requests", sharedSubscriptionsTopic);
+            if (pausedByBackpressure.compareAndSet(true, false)) {
+                LOG.info("Passed lower threshold of unprocessed MQTT requests, backpressure mechanism "
+                        + "allows receiving requests from topic {} again", sharedSubscriptionsTopic);
+                updateSharedSubscription();
             }
         }
     }
 
+    @Override
+    public synchronized void pauseReceiving() {
+        pausedByMessageRouter = true;
+        updateSharedSubscription();
+    }
+
+    @Override
+    public synchronized void resumeReceiving() {
+        pausedByMessageRouter = false;
+        updateSharedSubscription();
+    }
+
+    private synchronized void updateSharedSubscription() {
+        boolean subscribe = !pausedByBackpressure.get() && !pausedByMessageRouter;
+        if (subscribe && subscribedToSharedSubscriptionsTopic.compareAndSet(false, true)) {
+            getClient().subscribe(sharedSubscriptionsTopic);
+            LOG.info("Subscribed again to topic {}", sharedSubscriptionsTopic);
+        } else if (!subscribe && subscribedToSharedSubscriptionsTopic.compareAndSet(true, false)) {
+            getClient().unsubscribe(sharedSubscriptionsTopic);
+            LOG.info("Unsubscribed from topic {}", sharedSubscriptionsTopic);
+        }
+    }
+
     private String createSharedSubscriptionsTopic() {
         StringBuilder sb = new StringBuilder("$share:");
         sb.append(sanitiseChannelIdForUseAsTopic());
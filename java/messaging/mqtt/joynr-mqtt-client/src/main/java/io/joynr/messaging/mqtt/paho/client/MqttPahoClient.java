@@ -23,13 +23,17 @@ import java.net.URISyntaxException;
 import java.util.HashSet;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.net.ssl.SSLHandshakeException;
 
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
 import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
 import org.eclipse.paho.client.mqttv3.MqttCallback;
-import org.eclipse.paho.client.mqttv3.MqttClient;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
@@ -44,7 +48,9 @@ import io.joynr.exceptions.JoynrDelayMessageException;
 import io.joynr.exceptions.JoynrIllegalStateException;
 import io.joynr.exceptions.JoynrMessageNotSentException;
 import io.joynr.exceptions.JoynrRuntimeException;
+import io.joynr.exceptions.JoynrShutdownException;
 import io.joynr.messaging.FailureAction;
+import io.joynr.messaging.SuccessAction;
 import io.joynr.messaging.mqtt.IMqttMessagingSkeleton;
 import io.joynr.messaging.mqtt.JoynrMqttClient;
 import io.joynr.messaging.mqtt.MqttMessagingStub;
@@ -54,7 +60,10 @@ public class MqttPahoClient implements JoynrMqttClient, MqttCallback {
 
     private static final Logger logger = LoggerFactory.getLogger(MqttPahoClient.class);
 
-    private MqttClient mqttClient;
+    private static final int SUBSCRIBE_FAILURE_QOS = 0x80;
+    private static final long INFLIGHT_SLOT_POLL_INTERVAL_MS = 100;
+
+    private MqttAsyncClient mqttClient;
     private IMqttMessagingSkeleton messagingSkeleton;
     private int reconnectSleepMs;
     private int keepAliveTimerSec;
@@ -63,6 +72,7 @@ public class MqttPahoClient implements JoynrMqttClient, MqttCallback {
     private int maxMsgsInflight;
     private int maxMsgSizeBytes;
     private boolean cleanSession;
+    private boolean asyncPublish;
     private String keyStorePath;
     private String trustStorePath;
     private String keyStorePWD;
@@ -72,11 +82,13 @@ public class MqttPahoClient implements JoynrMqttClient, MqttCallback {
     private boolean disconnecting = false;
 
     private Set<String> subscribedTopics = new HashSet<>();
+    // mirrors paho's window of unacknowledged messages, see acquireInflightSlot()
+    private final Semaphore inflightSlots;
 
     private AtomicBoolean shutdown = new AtomicBoolean(false);
 
     // CHECKSTYLE IGNORE ParameterNumber FOR NEXT 1 LINES
-    public MqttPahoClient(MqttClient mqttClient,
+    public MqttPahoClient(MqttAsyncClient mqttClient,
                           int reconnectSleepMS,
                           int keepAliveTimerSec,
                           int connectionTimeoutSec,
@@ -84,6 +96,7 @@ public class MqttPahoClient implements JoynrMqttClient, MqttCallback {
                           int maxMsgsInflight,
                           int maxMsgSizeBytes,
                           boolean cleanSession,
+                          boolean asyncPublish,
                           String keyStorePath,
                           String trustStorePath,
                           String keyStorePWD,
@@ -95,8 +108,10 @@ public class MqttPahoClient implements JoynrMqttClient, MqttCallback {
         this.connectionTimeoutSec = connectionTimeoutSec;
         this.timeToWaitMs = timeToWaitMs;
         this.maxMsgsInflight = maxMsgsInflight;
+        this.inflightSlots = new Semaphore(maxMsgsInflight);
         this.maxMsgSizeBytes = maxMsgSizeBytes;
         this.cleanSession = cleanSession;
+        this.asyncPublish = asyncPublish;
         this.keyStorePath = keyStorePath;
         this.trustStorePath = trustStorePath;
         this.keyStorePWD = keyStorePWD;
@@ -121,8 +136,7 @@ public class MqttPahoClient implements JoynrMqttClient, MqttCallback {
                 synchronized (this) {
                     logger.debug("Started MqttPahoClient");
                     mqttClient.setCallback(this);
-                    mqttClient.setTimeToWait(timeToWaitMs);
-                    mqttClient.connect(getConnectOptions());
+                    mqttClient.connect(getConnectOptions()).waitForCompletion(timeToWaitMs);
                     logger.debug("MQTT Connected client");
                     mqttStatusReceiver.notifyConnectionStatusChanged(MqttStatusReceiver.ConnectionStatus.CONNECTED);
                     reestablishSubscriptions();
@@ -211,7 +225,12 @@ public class MqttPahoClient implements JoynrMqttClient, MqttCallback {
             try {
                 synchronized (subscribedTopics) {
                     if (!subscribedTopics.contains(topic)) {
-                        mqttClient.subscribe(topic);
+                        IMqttToken subscribeToken = mqttClient.subscribe(topic, MqttMessagingStub.DEFAULT_QOS_LEVEL);
+                        subscribeToken.waitForCompletion(timeToWaitMs);
+                        int[] grantedQos = subscribeToken.getGrantedQos();
+                        if (grantedQos != null && grantedQos.length == 1 && grantedQos[0] == SUBSCRIBE_FAILURE_QOS) {
+                            throw new MqttException(MqttException.REASON_CODE_SUBSCRIBE_FAILED);
+                        }
                         subscribedTopics.add(topic);
                     }
                     subscribed = true;
@@ -259,7 +278,7 @@ public class MqttPahoClient implements JoynrMqttClient, MqttCallback {
         try {
             synchronized (subscribedTopics) {
                 if (subscribedTopics.remove(topic)) {
-                    mqttClient.unsubscribe(topic);
+                    mqttClient.unsubscribe(topic).waitForCompletion(timeToWaitMs);
                 }
             }
         } catch (MqttException e) {
@@ -291,51 +310,157 @@ public class MqttPahoClient implements JoynrMqttClient, MqttCallback {
 
     @Override
     public void publishMessage(String topic, byte[] serializedMessage, int qosLevel) {
-        if (messagingSkeleton == null) {
-            throw new JoynrDelayMessageException("MQTT Publish failed: messagingSkeleton has not been set yet");
+        MqttMessage message = createMessage(serializedMessage, qosLevel);
+        acquireInflightSlot();
+        try {
+            logger.debug("MQTT Publish to: {}", topic);
+            mqttClient.publish(topic, message).waitForCompletion(timeToWaitMs);
+        } catch (MqttException e) {
+            logger.debug("MQTT Publish failed: {}. Error code {}", e.getMessage(), e.getReasonCode(), e);
+            throw convertPublishException(e);
+        } catch (Exception e) {
+            throw new JoynrMessageNotSentException(e.getMessage(), e);
+        } finally {
+            inflightSlots.release();
         }
-        if (maxMsgSizeBytes != 0 && serializedMessage.length > maxMsgSizeBytes) {
-            throw new JoynrMessageNotSentException("MQTT Publish failed: maximum allowed message size of "
-                    + maxMsgSizeBytes + " bytes exceeded, actual size is " + serializedMessage.length + " bytes");
+
+        if (logger.isTraceEnabled()) {
+            logger.trace("Published message: {}", new String(serializedMessage, Charsets.UTF_8));
+        }
+    }
+
+    /**
+     * In asynchronous publish mode the message is handed over to the paho client without waiting for the broker's
+     * acknowledgement; the actions are completed from the delivery token's callback. Otherwise the call blocks until
+     * the message has been delivered, just like {@link #publishMessage(String, byte[], int)}.
+     * In both modes the caller waits while the window of unacknowledged messages is full.
+     */
+    @Override
+    public void publishMessage(final String topic,
+                               final byte[] serializedMessage,
+                               int qosLevel,
+                               final SuccessAction successAction,
+                               final FailureAction failureAction) {
+        if (!asyncPublish) {
+            try {
+                publishMessage(topic, serializedMessage, qosLevel);
+            } catch (Exception error) {
+                failureAction.execute(error);
+                return;
+            }
+            successAction.execute();
+            return;
         }
+
+        boolean slotAcquired = false;
         try {
-            MqttMessage message = new MqttMessage();
-            message.setPayload(serializedMessage);
-            message.setQos(qosLevel);
-            message.setRetained(false);
+            MqttMessage message = createMessage(serializedMessage, qosLevel);
+            acquireInflightSlot();
+            slotAcquired = true;
+            logger.debug("MQTT Publish (async) to: {}", topic);
+            mqttClient.publish(topic, message, null, new IMqttActionListener() {
+
+                @Override
+                public void onSuccess(IMqttToken asyncActionToken) {
+                    inflightSlots.release();
+                    if (logger.isTraceEnabled()) {
+                        logger.trace("Published message: {}", new String(serializedMessage, Charsets.UTF_8));
+                    }
+                    successAction.execute();
+                }
 
-            logger.debug("MQTT Publish to: {}", topic);
-            mqttClient.publish(topic, message);
+                @Override
+                public void onFailure(IMqttToken asyncActionToken, Throwable error) {
+                    inflightSlots.release();
+                    if (error instanceof MqttException) {
+                        MqttException mqttError = (MqttException) error;
+                        logger.debug("MQTT Publish to {} failed: {}. Error code {}",
+                                     topic,
+                                     mqttError.getMessage(),
+                                     mqttError.getReasonCode(),
+                                     mqttError);
+                        failureAction.execute(convertPublishException(mqttError));
+                    } else {
+                        failureAction.execute(new JoynrMessageNotSentException(String.valueOf(error), error));
+                    }
+                }
+            });
         } catch (MqttException e) {
             logger.debug("MQTT Publish failed: {}. Error code {}", e.getMessage(), e.getReasonCode(), e);
-            switch (e.getReasonCode()) {
-            case MqttException.REASON_CODE_CLIENT_EXCEPTION:
-                Throwable cause = e.getCause();
-                if (cause != null) {
-                    throw new JoynrDelayMessageException("MqttException: " + cause.getMessage());
-                } else {
-                    throw new JoynrDelayMessageException("MqttException: " + e.getMessage());
+            releaseInflightSlotIf(slotAcquired);
+            failureAction.execute(convertPublishException(e));
+        } catch (JoynrRuntimeException e) {
+            releaseInflightSlotIf(slotAcquired);
+            failureAction.execute(e);
+        } catch (Exception e) {
+            releaseInflightSlotIf(slotAcquired);
+            failureAction.execute(new JoynrMessageNotSentException(e.getMessage(), e));
+        }
+    }
+
+    /**
+     * Waits until the number of unacknowledged messages is below maxMsgsInflight. Paho rejects a publish with
+     * REASON_CODE_MAX_INFLIGHT once its window is full; waiting here instead of reporting that error keeps the
+     * message in order and does not use up one of its retries.
+     */
+    private void acquireInflightSlot() {
+        try {
+            while (!inflightSlots.tryAcquire(INFLIGHT_SLOT_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                if (shutdown.get()) {
+                    throw new JoynrShutdownException("MQTT Publish failed: client is shutting down");
                 }
-            case MqttException.REASON_CODE_BROKER_UNAVAILABLE:
-            case MqttException.REASON_CODE_CLIENT_DISCONNECTING:
-            case MqttException.REASON_CODE_CLIENT_NOT_CONNECTED:
-            case MqttException.REASON_CODE_CLIENT_TIMEOUT:
-            case MqttException.REASON_CODE_CONNECTION_LOST:
-            case MqttException.REASON_CODE_MAX_INFLIGHT:
-            case MqttException.REASON_CODE_NO_MESSAGE_IDS_AVAILABLE:
-            case MqttException.REASON_CODE_SERVER_CONNECT_ERROR:
-            case MqttException.REASON_CODE_UNEXPECTED_ERROR:
-            case MqttException.REASON_CODE_WRITE_TIMEOUT:
-            case MqttException.REASON_CODE_CONNECT_IN_PROGRESS:
-                throw new JoynrDelayMessageException("MqttException: " + e.getMessage());
-            default:
-                throw new JoynrMessageNotSentException(e.getMessage());
             }
-        } catch (Exception e) {
-            throw new JoynrMessageNotSentException(e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JoynrMessageNotSentException("MQTT Publish failed: interrupted while waiting for inflight window");
+        }
+    }
+
+    private void releaseInflightSlotIf(boolean slotAcquired) {
+        if (slotAcquired) {
+            inflightSlots.release();
+        }
+    }
+
+    private MqttMessage createMessage(byte[] serializedMessage, int qosLevel) {
+        if (messagingSkeleton == null) {
+            throw new JoynrDelayMessageException("MQTT Publish failed: messagingSkeleton has not been set yet");
+        }
+        if (maxMsgSizeBytes != 0 && serializedMessage.length > maxMsgSizeBytes) {
+            throw new JoynrMessageNotSentException("MQTT Publish failed: maximum allowed message size of "
+                    + maxMsgSizeBytes + " bytes exceeded, actual size is " + serializedMessage.length + " bytes");
         }
+        MqttMessage message = new MqttMessage();
+        message.setPayload(serializedMessage);
+        message.setQos(qosLevel);
+        message.setRetained(false);
+        return message;
+    }
 
-        logger.debug("Published message: " + new String(serializedMessage, Charsets.UTF_8));
+    private JoynrRuntimeException convertPublishException(MqttException e) {
+        switch (e.getReasonCode()) {
+        case MqttException.REASON_CODE_CLIENT_EXCEPTION:
+            Throwable cause = e.getCause();
+            if (cause != null) {
+                return new JoynrDelayMessageException("MqttException: " + cause.getMessage());
+            } else {
+                return new JoynrDelayMessageException("MqttException: " + e.getMessage());
+            }
+        case MqttException.REASON_CODE_BROKER_UNAVAILABLE:
+        case MqttException.REASON_CODE_CLIENT_DISCONNECTING:
+        case MqttException.REASON_CODE_CLIENT_NOT_CONNECTED:
+        case MqttException.REASON_CODE_CLIENT_TIMEOUT:
+        case MqttException.REASON_CODE_CONNECTION_LOST:
+        case MqttException.REASON_CODE_MAX_INFLIGHT:
+        case MqttException.REASON_CODE_NO_MESSAGE_IDS_AVAILABLE:
+        case MqttException.REASON_CODE_SERVER_CONNECT_ERROR:
+        case MqttException.REASON_CODE_UNEXPECTED_ERROR:
+        case MqttException.REASON_CODE_WRITE_TIMEOUT:
+        case MqttException.REASON_CODE_CONNECT_IN_PROGRESS:
+            return new JoynrDelayMessageException("MqttException: " + e.getMessage());
+        default:
+            return new JoynrMessageNotSentException(e.getMessage());
+        }
     }
 
     @Override
@@ -412,7 +537,7 @@ public class MqttPahoClient implements JoynrMqttClient, MqttCallback {
         if (!disconnecting) {
             disconnecting = true;
             try {
-                mqttClient.disconnect();
+                mqttClient.disconnect().waitForCompletion();
             } catch (Exception e) {
                 logger.trace("Problem while attempting disconnect.", e);
                 try {
@@ -434,10 +559,14 @@ public class MqttPahoClient implements JoynrMqttClient, MqttCallback {
 
     @Override
     public void messageArrived(String topic, MqttMessage mqttMessage) throws Exception {
-        logger.debug("MQTT message received: id {}, topic {}, payload\n{}",
-                     mqttMessage.getId(),
-                     topic,
-                     new String(mqttMessage.getPayload(), Charsets.UTF_8));
+        if (logger.isTraceEnabled()) {
+            logger.trace("MQTT message received: id {}, topic {}, payload\n{}",
+                         mqttMessage.getId(),
+                         topic,
+                         new String(mqttMessage.getPayload(), Charsets.UTF_8));
+        } else {
+            logger.debug("MQTT message received: id {}, topic {}", mqttMessage.getId(), topic);
+        }
         if (messagingSkeleton == null) {
             logger.error("MQTT message not processed: messagingSkeleton has not been set yet");
             return;
@@ -18,22 +18,30 @@
  */
 package io.joynr.messaging.mqtt.paho.client;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 
-import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
 import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.ScheduledExecutorPingSender;
 import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 
+import io.joynr.messaging.mqtt.BatchingMqttClient;
 import io.joynr.messaging.mqtt.JoynrMqttClient;
 import io.joynr.messaging.mqtt.MqttClientFactory;
 import io.joynr.messaging.mqtt.MqttClientIdProvider;
+import io.joynr.messaging.mqtt.MqttMessageContainerSupport;
 import io.joynr.messaging.mqtt.MqttModule;
+import io.joynr.messaging.mqtt.PooledMqttClient;
 import io.joynr.messaging.mqtt.statusmetrics.MqttStatusReceiver;
 import io.joynr.messaging.routing.MessageRouter;
 import joynr.system.RoutingTypes.MqttAddress;
@@ -53,6 +61,7 @@ public class MqttPahoClientFactory implements MqttClientFactory {
     private ScheduledExecutorService scheduledExecutorService;
     private MqttClientIdProvider clientIdProvider;
     private MqttStatusReceiver mqttStatusReceiver;
+    private MqttMessageContainerSupport containerSupport;
     private boolean cleanSession;
 
     @Inject(optional = true)
@@ -71,6 +80,26 @@ public class MqttPahoClientFactory implements MqttClientFactory {
     @Named(MqttModule.PROPERTY_KEY_MQTT_TRUSTSTORE_PWD)
     private String trustStorePWD = "";
 
+    @Inject(optional = true)
+    @Named(MqttModule.PROPERTY_KEY_MQTT_ASYNC_PUBLISH)
+    private boolean asyncPublish = false;
+
+    @Inject(optional = true)
+    @Named(MqttModule.PROPERTY_KEY_MQTT_CONNECTION_POOL_SIZE)
+    private int connectionPoolSize = 1;
+
+    @Inject(optional = true)
+    @Named(MqttModule.PROPERTY_KEY_MQTT_BATCHING_ENABLED)
+    private boolean batchingEnabled = false;
+
+    @Inject(optional = true)
+    @Named(MqttModule.PROPERTY_KEY_MQTT_BATCHING_LINGER_MS)
+    private long batchingLingerMs = 2;
+
+    @Inject(optional = true)
+    @Named(MqttModule.PROPERTY_KEY_MQTT_BATCHING_MAX_BYTES)
+    private int batchingMaxBytes = 64 * 1024;
+
     @Inject
     // CHECKSTYLE IGNORE ParameterNumber FOR NEXT 1 LINES
     public MqttPahoClientFactory(@Named(MqttModule.PROPERTY_MQTT_GLOBAL_ADDRESS) MqttAddress ownAddress,
@@ -83,12 +112,14 @@ public class MqttPahoClientFactory implements MqttClientFactory {
                                  @Named(MqttModule.PROPERTY_MQTT_CLEAN_SESSION) boolean cleanSession,
                                  @Named(MessageRouter.SCHEDULEDTHREADPOOL) ScheduledExecutorService scheduledExecutorService,
                                  MqttClientIdProvider mqttClientIdProvider,
-                                 MqttStatusReceiver mqttStatusReceiver) {
+                                 MqttStatusReceiver mqttStatusReceiver,
+                                 MqttMessageContainerSupport containerSupport) {
         this.ownAddress = ownAddress;
         this.reconnectSleepMs = reconnectSleepMs;
         this.scheduledExecutorService = scheduledExecutorService;
         this.clientIdProvider = mqttClientIdProvider;
         this.mqttStatusReceiver = mqttStatusReceiver;
+        this.containerSupport = containerSupport;
         this.keepAliveTimerSec = keepAliveTimerSec;
         this.connectionTimeoutSec = connectionTimeoutSec;
         this.timeToWaitMs = timeToWaitMs;
@@ -106,16 +137,48 @@ public class MqttPahoClientFactory implements MqttClientFactory {
     }
 
     private JoynrMqttClient createInternal() {
+        JoynrMqttClient client = createConnections();
+        if (client == null || !batchingEnabled) {
+            return client;
+        }
+        int maxBatchBytes = batchingMaxBytes;
+        if (maxMsgSizeBytes > 0 && maxMsgSizeBytes < maxBatchBytes) {
+            maxBatchBytes = maxMsgSizeBytes;
+        }
+        logger.info("Batching MQTT messages: linger time {} ms, maximum size {} bytes", batchingLingerMs, maxBatchBytes);
+        ScheduledExecutorService lingerScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("joynr.MqttBatching-%d")
+                                                                                                                        .build());
+        return new BatchingMqttClient(client, containerSupport, lingerScheduler, batchingLingerMs, maxBatchBytes);
+    }
+
+    private JoynrMqttClient createConnections() {
+        String clientId = clientIdProvider.getClientId();
+        if (connectionPoolSize <= 1) {
+            return createPahoClient(clientId);
+        }
+
+        logger.info("Creating pool of {} MQTT connections", connectionPoolSize);
+        List<JoynrMqttClient> clients = new ArrayList<>(connectionPoolSize);
+        clients.add(createPahoClient(clientId));
+        for (int i = 1; i < connectionPoolSize; i++) {
+            clients.add(createPahoClient(clientId + "-" + i));
+        }
+        if (clients.contains(null)) {
+            return null;
+        }
+        return new PooledMqttClient(clients);
+    }
 
+    private MqttPahoClient createPahoClient(String clientId) {
         MqttPahoClient pahoClient = null;
         try {
             logger.debug("Create Mqtt Client. Address: {}", ownAddress);
 
-            String clientId = clientIdProvider.getClientId();
-            MqttClient mqttClient = new MqttClient(ownAddress.getBrokerUri(),
-                                                   clientId,
-                                                   new MemoryPersistence(),
-                                                   scheduledExecutorService);
+            MqttAsyncClient mqttClient = new MqttAsyncClient(ownAddress.getBrokerUri(),
+                                                             clientId,
+                                                             new MemoryPersistence(),
+                                                             new ScheduledExecutorPingSender(scheduledExecutorService),
+                                                             scheduledExecutorService);
             logger.info("Creating MQTT Paho client using MQTT client ID: {}", clientId);
             pahoClient = new MqttPahoClient(mqttClient,
                                             reconnectSleepMs,
@@ -125,6 +188,7 @@ public class MqttPahoClientFactory implements MqttClientFactory {
                                             maxMsgsInflight,
                                             maxMsgSizeBytes,
                                             cleanSession,
+                                            asyncPublish,
                                             keyStorePath,
                                             trustStorePath,
                                             keyStorePWD,
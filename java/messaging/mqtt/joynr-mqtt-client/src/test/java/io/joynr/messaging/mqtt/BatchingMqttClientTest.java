@@ -0,0 +1,253 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.mqtt;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import io.joynr.messaging.FailureAction;
+import io.joynr.messaging.SuccessAction;
+
+/**
+ * Unit tests for {@link BatchingMqttClient}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class BatchingMqttClientTest {
+
+    private static final String TOPIC = "topic/low/recipient";
+    private static final long LINGER_MS = 5;
+    private static final int MAX_BATCH_BYTES = 100;
+
+    @Mock
+    private JoynrMqttClient mqttClient;
+    @Mock
+    private MqttMessageContainerSupport containerSupport;
+    @Mock
+    private ScheduledExecutorService scheduler;
+    @Mock
+    private SuccessAction successAction1;
+    @Mock
+    private SuccessAction successAction2;
+    @Mock
+    private FailureAction failureAction1;
+    @Mock
+    private FailureAction failureAction2;
+
+    private BatchingMqttClient subject;
+
+    @Before
+    public void setup() {
+        when(containerSupport.isSupported(anyString())).thenReturn(true);
+        subject = new BatchingMqttClient(mqttClient, containerSupport, scheduler, LINGER_MS, MAX_BATCH_BYTES);
+    }
+
+    private Runnable captureScheduledFlush(int times) {
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(times)).schedule(captor.capture(), eq(LINGER_MS), eq(TimeUnit.MILLISECONDS));
+        return captor.getValue();
+    }
+
+    @Test
+    public void messagesForSameTopicArePublishedAsContainer() throws Exception {
+        byte[] message1 = { 1, 2 };
+        byte[] message2 = { 3 };
+        subject.publishMessage(TOPIC, message1, 1, successAction1, failureAction1);
+        subject.publishMessage(TOPIC, message2, 1, successAction2, failureAction2);
+        verify(mqttClient, never()).publishMessage(anyString(),
+                                                   any(byte[].class),
+                                                   anyInt(),
+                                                   any(SuccessAction.class),
+                                                   any(FailureAction.class));
+
+        captureScheduledFlush(1).run();
+
+        ArgumentCaptor<byte[]> payloadCaptor = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<SuccessAction> successCaptor = ArgumentCaptor.forClass(SuccessAction.class);
+        verify(mqttClient).publishMessage(eq(TOPIC),
+                                          payloadCaptor.capture(),
+                                          eq(1),
+                                          successCaptor.capture(),
+                                          any(FailureAction.class));
+        List<byte[]> messages = MqttMessageContainer.unpack(payloadCaptor.getValue());
+        assertEquals(2, messages.size());
+        assertArrayEquals(message1, messages.get(0));
+        assertArrayEquals(message2, messages.get(1));
+
+        successCaptor.getValue().execute();
+        verify(successAction1).execute();
+        verify(successAction2).execute();
+    }
+
+    @Test
+    public void failureOfContainerIsReportedForAllMessages() {
+        subject.publishMessage(TOPIC, new byte[]{ 1 }, 1, successAction1, failureAction1);
+        subject.publishMessage(TOPIC, new byte[]{ 2 }, 1, successAction2, failureAction2);
+        captureScheduledFlush(1).run();
+
+        ArgumentCaptor<FailureAction> failureCaptor = ArgumentCaptor.forClass(FailureAction.class);
+        verify(mqttClient).publishMessage(eq(TOPIC),
+                                          any(byte[].class),
+                                          eq(1),
+                                          any(SuccessAction.class),
+                                          failureCaptor.capture());
+        RuntimeException error = new RuntimeException();
+        failureCaptor.getValue().execute(error);
+        verify(failureAction1).execute(error);
+        verify(failureAction2).execute(error);
+    }
+
+    @Test
+    public void singleMessageIsPublishedWithoutContainer() {
+        byte[] message = { 1, 2 };
+        subject.publishMessage(TOPIC, message, 0, successAction1, failureAction1);
+
+        captureScheduledFlush(1).run();
+
+        verify(mqttClient).publishMessage(TOPIC, message, 0, successAction1, failureAction1);
+    }
+
+    @Test
+    public void fullBatchIsPublishedBeforeLingerTimeElapsed() {
+        byte[] message = new byte[40];
+        subject.publishMessage(TOPIC, message, 1, successAction1, failureAction1);
+        subject.publishMessage(TOPIC, message, 1, successAction1, failureAction1);
+        subject.publishMessage(TOPIC, message, 1, successAction2, failureAction2);
+
+        // the third message does not fit into the first batch
+        ArgumentCaptor<byte[]> payloadCaptor = ArgumentCaptor.forClass(byte[].class);
+        verify(mqttClient).publishMessage(eq(TOPIC),
+                                          payloadCaptor.capture(),
+                                          eq(1),
+                                          any(SuccessAction.class),
+                                          any(FailureAction.class));
+        assertTrue(MqttMessageContainer.isContainer(payloadCaptor.getValue()));
+
+        // the outdated flush of the first batch does not publish the second one
+        ArgumentCaptor<Runnable> flushCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(2)).schedule(flushCaptor.capture(), eq(LINGER_MS), eq(TimeUnit.MILLISECONDS));
+        flushCaptor.getAllValues().get(0).run();
+        flushCaptor.getAllValues().get(1).run();
+        verify(mqttClient).publishMessage(TOPIC, message, 1, successAction2, failureAction2);
+    }
+
+    @Test
+    public void messageLargerThanBatchIsPublishedImmediately() {
+        byte[] message = new byte[MAX_BATCH_BYTES];
+        subject.publishMessage(TOPIC, message, 1, successAction1, failureAction1);
+
+        verify(mqttClient).publishMessage(TOPIC, message, 1, successAction1, failureAction1);
+        verify(scheduler, never()).schedule(any(Runnable.class), any(Long.class), any(TimeUnit.class));
+    }
+
+    @Test
+    public void messagesForDifferentTopicsAreBatchedSeparately() {
+        byte[] message = { 1 };
+        subject.publishMessage(TOPIC, message, 1, successAction1, failureAction1);
+        subject.publishMessage("otherTopic", message, 1, successAction2, failureAction2);
+
+        ArgumentCaptor<Runnable> flushCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(2)).schedule(flushCaptor.capture(), eq(LINGER_MS), eq(TimeUnit.MILLISECONDS));
+        for (Runnable flush : flushCaptor.getAllValues()) {
+            flush.run();
+        }
+        verify(mqttClient).publishMessage(TOPIC, message, 1, successAction1, failureAction1);
+        verify(mqttClient).publishMessage("otherTopic", message, 1, successAction2, failureAction2);
+    }
+
+    @Test
+    public void pendingBatchIsPublishedBeforeMessageWithoutActions() {
+        byte[] message1 = { 1 };
+        byte[] message2 = { 2 };
+        subject.publishMessage(TOPIC, message1, 1, successAction1, failureAction1);
+        subject.publishMessage(TOPIC, message2, 1);
+
+        verify(mqttClient).publishMessage(TOPIC, message1, 1, successAction1, failureAction1);
+        verify(mqttClient).publishMessage(TOPIC, message2, 1);
+    }
+
+    @Test
+    public void shutdownPublishesPendingBatches() {
+        byte[] message = { 1 };
+        subject.publishMessage(TOPIC, message, 1, successAction1, failureAction1);
+
+        subject.shutdown();
+
+        verify(mqttClient).publishMessage(TOPIC, message, 1, successAction1, failureAction1);
+        verify(mqttClient).shutdown();
+        verify(scheduler).shutdownNow();
+    }
+
+    @Test
+    public void messagesAreNotBatchedIfReceiverDoesNotSupportContainers() {
+        when(containerSupport.isSupported(TOPIC)).thenReturn(false);
+        byte[] message1 = { 1 };
+        byte[] message2 = { 2 };
+        subject.publishMessage(TOPIC, message1, 1, successAction1, failureAction1);
+        subject.publishMessage(TOPIC, message2, 1, successAction2, failureAction2);
+
+        InOrder inOrder = inOrder(mqttClient);
+        inOrder.verify(mqttClient).publishMessage(TOPIC, message1, 1, successAction1, failureAction1);
+        inOrder.verify(mqttClient).publishMessage(TOPIC, message2, 1, successAction2, failureAction2);
+        verify(scheduler, never()).schedule(any(Runnable.class), any(Long.class), any(TimeUnit.class));
+    }
+
+    @Test
+    public void pendingBatchIsPublishedBeforeLargeMessage() {
+        byte[] message1 = { 1 };
+        byte[] message2 = { 2 };
+        byte[] largeMessage = new byte[MAX_BATCH_BYTES];
+        subject.publishMessage(TOPIC, message1, 1, successAction1, failureAction1);
+        subject.publishMessage(TOPIC, message2, 1, successAction1, failureAction1);
+        subject.publishMessage(TOPIC, largeMessage, 1, successAction2, failureAction2);
+
+        // the linger timeout of the completed batch does not publish anything
+        captureScheduledFlush(1).run();
+
+        ArgumentCaptor<byte[]> payloadCaptor = ArgumentCaptor.forClass(byte[].class);
+        verify(mqttClient, times(2)).publishMessage(eq(TOPIC),
+                                                    payloadCaptor.capture(),
+                                                    eq(1),
+                                                    any(SuccessAction.class),
+                                                    any(FailureAction.class));
+        assertTrue(MqttMessageContainer.isContainer(payloadCaptor.getAllValues().get(0)));
+        assertArrayEquals(largeMessage, payloadCaptor.getAllValues().get(1));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.mqtt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import joynr.ImmutableMessage;
+import joynr.Message;
+import joynr.MutableMessage;
+import joynr.system.RoutingTypes.MqttAddress;
+import joynr.system.RoutingTypes.RoutingTypesUtil;
+
+/**
+ * Unit tests for {@link MqttMessageContainerSupport}.
+ */
+public class MqttMessageContainerSupportTest {
+
+    private static final String PEER_TOPIC = "peerTopic";
+    private static final String PUBLISH_TOPIC = PEER_TOPIC + "/low/recipient";
+
+    private MqttMessageContainerSupport subject;
+
+    @Before
+    public void setup() {
+        subject = new MqttMessageContainerSupport();
+    }
+
+    private ImmutableMessage createIncomingMessage(String replyToTopic, boolean acceptsContainers) {
+        Map<String, String> headers = new HashMap<>();
+        if (acceptsContainers) {
+            headers.put(Message.CUSTOM_HEADER_PREFIX
+                    + MqttMessageContainerSupport.CUSTOM_HEADER_ACCEPTS_MQTT_CONTAINERS, "true");
+        }
+        ImmutableMessage message = mock(ImmutableMessage.class);
+        when(message.getHeaders()).thenReturn(headers);
+        if (replyToTopic != null) {
+            when(message.getReplyTo()).thenReturn(RoutingTypesUtil.toAddressString(new MqttAddress("tcp://broker:1883",
+                                                                                                   replyToTopic)));
+        }
+        return message;
+    }
+
+    @Test
+    public void outgoingRequestsAnnounceContainerSupport() {
+        MutableMessage request = new MutableMessage();
+        request.setType(Message.VALUE_MESSAGE_TYPE_REQUEST);
+
+        subject.processOutgoing(request);
+
+        assertEquals("true",
+                     request.getCustomHeaders().get(MqttMessageContainerSupport.CUSTOM_HEADER_ACCEPTS_MQTT_CONTAINERS));
+    }
+
+    @Test
+    public void outgoingRepliesAreNotMarked() {
+        MutableMessage reply = new MutableMessage();
+        reply.setType(Message.VALUE_MESSAGE_TYPE_REPLY);
+
+        subject.processOutgoing(reply);
+
+        assertNull(reply.getCustomHeaders().get(MqttMessageContainerSupport.CUSTOM_HEADER_ACCEPTS_MQTT_CONTAINERS));
+    }
+
+    @Test
+    public void topicIsSupportedAfterMarkedMessageWasReceived() {
+        assertFalse(subject.isSupported(PUBLISH_TOPIC));
+
+        subject.processIncoming(createIncomingMessage(PEER_TOPIC, true));
+
+        assertTrue(subject.isSupported(PUBLISH_TOPIC));
+        assertFalse(subject.isSupported("otherTopic/low/recipient"));
+    }
+
+    @Test
+    public void topicIsNotSupportedAfterUnmarkedMessageWasReceived() {
+        subject.processIncoming(createIncomingMessage(PEER_TOPIC, false));
+
+        assertFalse(subject.isSupported(PUBLISH_TOPIC));
+    }
+
+    @Test
+    public void messagesWithoutReplyToAreIgnored() {
+        ImmutableMessage message = createIncomingMessage(null, true);
+
+        assertTrue(message == subject.processIncoming(message));
+        assertFalse(subject.isSupported(PUBLISH_TOPIC));
+    }
+
+    @Test
+    public void multicastTopicsAreNeverSupported() {
+        subject.processIncoming(createIncomingMessage(PEER_TOPIC, true));
+
+        assertFalse(subject.isSupported(PEER_TOPIC));
+    }
+}
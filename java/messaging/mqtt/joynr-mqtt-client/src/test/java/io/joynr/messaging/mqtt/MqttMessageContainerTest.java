@@ -0,0 +1,67 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.mqtt;
+
+import static io.joynr.messaging.mqtt.MqttMessagingSkeletonTestUtil.createTestRequestMessage;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.joynr.smrf.EncodingException;
+
+/**
+ * Unit tests for {@link MqttMessageContainer}.
+ */
+public class MqttMessageContainerTest {
+
+    @Test
+    public void unpackReturnsPackedMessages() throws Exception {
+        byte[] message1 = { 1, 2, 3 };
+        byte[] message2 = {};
+        byte[] message3 = { 4 };
+
+        byte[] container = MqttMessageContainer.pack(Arrays.asList(message1, message2, message3));
+
+        assertTrue(MqttMessageContainer.isContainer(container));
+        List<byte[]> messages = MqttMessageContainer.unpack(container);
+        assertEquals(3, messages.size());
+        assertArrayEquals(message1, messages.get(0));
+        assertArrayEquals(message2, messages.get(1));
+        assertArrayEquals(message3, messages.get(2));
+    }
+
+    @Test
+    public void serializedMessageIsNoContainer() throws Exception {
+        assertFalse(MqttMessageContainer.isContainer(createTestRequestMessage().getSerializedMessage()));
+        assertFalse(MqttMessageContainer.isContainer(new byte[0]));
+    }
+
+    @Test(expected = EncodingException.class)
+    public void unpackRejectsTruncatedContainer() throws Exception {
+        byte[] container = MqttMessageContainer.pack(Arrays.asList(new byte[]{ 1, 2, 3 }, new byte[]{ 4, 5 }));
+
+        MqttMessageContainer.unpack(Arrays.copyOf(container, container.length - 1));
+    }
+}
@@ -35,6 +35,7 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.concurrent.Semaphore;
 
@@ -279,6 +280,21 @@ public class MqttMessagingSkeletonTest {
         verify(messageRouter, times(maxIncomingMqttRequests + 1)).route(any(ImmutableMessage.class));
     }
 
+    @Test
+    public void testMessagesOfContainerAreRoutedSeparately() throws Exception {
+        ImmutableMessage rqMessage = createTestRequestMessage();
+        ImmutableMessage replyMessage = createTestMessage(Message.VALUE_MESSAGE_TYPE_REPLY);
+        byte[] container = MqttMessageContainer.pack(Arrays.asList(rqMessage.getSerializedMessage(),
+                                                                   replyMessage.getSerializedMessage()));
+
+        subject.transmit(container, failIfCalledAction);
+
+        ArgumentCaptor<ImmutableMessage> captor = ArgumentCaptor.forClass(ImmutableMessage.class);
+        verify(messageRouter, times(2)).route(captor.capture());
+        assertEquals(rqMessage.getId(), captor.getAllValues().get(0).getId());
+        assertEquals(replyMessage.getId(), captor.getAllValues().get(1).getId());
+    }
+
     @Test
     public void testNoMessagesAreDroppedWhenNoMaxForIncomingMqttRequestsIsSet() throws Exception {
         final int maxIncomingMqttRequestsNoLimit = 0;
@@ -22,7 +22,7 @@ import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
 import io.joynr.exceptions.JoynrRuntimeException;
@@ -36,7 +36,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
 /**
  * Unit tests for {@link MqttMessagingStub}.
@@ -74,7 +76,9 @@ public class MqttMessagingStubTest {
 
         Mockito.verify(mqttClient).publishMessage(anyString(),
                                                   any(byte[].class),
-                                                  eq(MqttMessagingStub.DEFAULT_QOS_LEVEL));
+                                                  eq(MqttMessagingStub.DEFAULT_QOS_LEVEL),
+                                                  any(SuccessAction.class),
+                                                  any(FailureAction.class));
     }
 
     @Test
@@ -85,26 +89,51 @@ public class MqttMessagingStubTest {
 
         Mockito.verify(mqttClient).publishMessage(anyString(),
                                                   any(byte[].class),
-                                                  eq(MqttMessagingStub.BEST_EFFORT_QOS_LEVEL));
+                                                  eq(MqttMessagingStub.BEST_EFFORT_QOS_LEVEL),
+                                                  any(SuccessAction.class),
+                                                  any(FailureAction.class));
     }
 
     @Test
     public void testSuccessActionCalled() {
         when(joynrMessage.getEffort()).thenReturn(String.valueOf(MessagingQosEffort.NORMAL));
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                ((SuccessAction) invocation.getArguments()[3]).execute();
+                return null;
+            }
+        }).when(mqttClient).publishMessage(anyString(),
+                                           any(byte[].class),
+                                           anyInt(),
+                                           eq(successAction),
+                                           eq(failureAction));
 
         subject.transmit(joynrMessage, successAction, failureAction);
 
         Mockito.verify(successAction).execute();
+        Mockito.verify(failureAction, Mockito.never()).execute(any(Throwable.class));
     }
 
     @Test
     public void testFailureActionCalled() {
         when(joynrMessage.getEffort()).thenReturn(String.valueOf(MessagingQosEffort.NORMAL));
-        JoynrRuntimeException exception = new JoynrRuntimeException("testException");
-        doThrow(exception).when(mqttClient).publishMessage(anyString(), any(byte[].class), anyInt());
+        final JoynrRuntimeException exception = new JoynrRuntimeException("testException");
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                ((FailureAction) invocation.getArguments()[4]).execute(exception);
+                return null;
+            }
+        }).when(mqttClient).publishMessage(anyString(),
+                                           any(byte[].class),
+                                           anyInt(),
+                                           eq(successAction),
+                                           eq(failureAction));
 
         subject.transmit(joynrMessage, successAction, failureAction);
 
         Mockito.verify(failureAction).execute(exception);
+        Mockito.verify(successAction, Mockito.never()).execute();
     }
 }
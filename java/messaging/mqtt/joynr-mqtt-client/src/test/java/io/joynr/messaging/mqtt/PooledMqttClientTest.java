@@ -0,0 +1,121 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.mqtt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import io.joynr.messaging.FailureAction;
+import io.joynr.messaging.SuccessAction;
+
+/**
+ * Unit tests for {@link PooledMqttClient}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PooledMqttClientTest {
+
+    @Mock
+    private JoynrMqttClient client0;
+    @Mock
+    private JoynrMqttClient client1;
+    @Mock
+    private JoynrMqttClient client2;
+    @Mock
+    private IMqttMessagingSkeleton messagingSkeleton;
+    @Mock
+    private SuccessAction successAction;
+    @Mock
+    private FailureAction failureAction;
+
+    private PooledMqttClient subject;
+
+    @Before
+    public void setup() {
+        subject = new PooledMqttClient(Arrays.asList(client0, client1, client2));
+    }
+
+    @Test
+    public void sameTopicAlwaysUsesSameClient() {
+        JoynrMqttClient client = subject.getClientForTopic("topic/low/recipient");
+        for (int i = 0; i < 10; i++) {
+            assertSame(client, subject.getClientForTopic("topic/low/recipient"));
+        }
+    }
+
+    @Test
+    public void topicsAreDistributedOverAllClients() {
+        Set<JoynrMqttClient> usedClients = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            usedClients.add(subject.getClientForTopic("topic/low/recipient" + i));
+        }
+        assertEquals(3, usedClients.size());
+    }
+
+    @Test
+    public void publishUsesClientForTopic() {
+        String topic = "topic/low/recipient";
+        byte[] payload = new byte[]{ 1, 2, 3 };
+        JoynrMqttClient client = subject.getClientForTopic(topic);
+
+        subject.publishMessage(topic, payload, MqttMessagingStub.DEFAULT_QOS_LEVEL, successAction, failureAction);
+
+        verify(client).publishMessage(topic, payload, MqttMessagingStub.DEFAULT_QOS_LEVEL, successAction, failureAction);
+    }
+
+    @Test
+    public void subscriptionsOnlyUseFirstClient() {
+        subject.subscribe("topic/#");
+        subject.unsubscribe("topic/#");
+
+        verify(client0).subscribe("topic/#");
+        verify(client0).unsubscribe("topic/#");
+        for (JoynrMqttClient client : Arrays.asList(client1, client2)) {
+            assertNotSame(client0, client);
+            verify(client, never()).subscribe(anyString());
+            verify(client, never()).unsubscribe(anyString());
+        }
+    }
+
+    @Test
+    public void lifecycleIsForwardedToAllClients() {
+        subject.setMessageListener(messagingSkeleton);
+        subject.start();
+        subject.shutdown();
+
+        for (JoynrMqttClient client : Arrays.asList(client0, client1, client2)) {
+            verify(client).setMessageListener(messagingSkeleton);
+            verify(client).start();
+            verify(client).shutdown();
+        }
+    }
+}
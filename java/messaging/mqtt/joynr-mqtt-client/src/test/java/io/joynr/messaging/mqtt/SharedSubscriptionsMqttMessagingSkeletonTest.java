@@ -238,4 +238,45 @@ public class SharedSubscriptionsMqttMessagingSkeletonTest {
                                                                                  expectedTotalSubscribeCallCount);
         }
     }
+
+    @Test
+    public void testPauseReceivingUnsubscribesFromSharedSubscriptionsTopicOnly() {
+        when(replyToAddress.getTopic()).thenReturn("replyToAddressTopic");
+        createAndInitSkeleton("channelIdPause");
+
+        subject.pauseReceiving();
+        subject.pauseReceiving();
+        verify(mqttClient).unsubscribe(startsWith("$share:channelIdPause:"));
+        verify(mqttClient, times(0)).unsubscribe(startsWith("replyToAddressTopic"));
+
+        subject.resumeReceiving();
+        verify(mqttClient, times(2)).subscribe(startsWith("$share:channelIdPause:"));
+    }
+
+    @Test
+    public void testResumeReceivingWaitsForBackpressure() throws Exception {
+        backpressureEnabled = true;
+        createAndInitSkeleton("channelIdPauseBackpressure");
+        final String expectedTopicPrefix = "$share:channelIdPauseBackpressure:";
+        final int mqttRequestsToHitUpperThreshold = (maxMqttMessagesInQueue * backpressureIncomingMqttRequestsUpperThreshold) / 100;
+
+        List<String> messageIds = feedMqttSkeletonWithRequests(subject, mqttRequestsToHitUpperThreshold + 1);
+        subject.pauseReceiving();
+        verify(mqttClient, times(1)).unsubscribe(startsWith(expectedTopicPrefix));
+
+        // still held back by the backpressure mechanism
+        subject.resumeReceiving();
+        verify(mqttClient, times(1)).subscribe(startsWith(expectedTopicPrefix));
+
+        subject.pauseReceiving();
+        for (String messageId : messageIds) {
+            subject.messageProcessed(messageId);
+        }
+        // still held back by the message router
+        verify(mqttClient, times(1)).subscribe(startsWith(expectedTopicPrefix));
+
+        subject.resumeReceiving();
+        verify(mqttClient, times(2)).subscribe(startsWith(expectedTopicPrefix));
+        verify(mqttClient, times(1)).unsubscribe(startsWith(expectedTopicPrefix));
+    }
 }
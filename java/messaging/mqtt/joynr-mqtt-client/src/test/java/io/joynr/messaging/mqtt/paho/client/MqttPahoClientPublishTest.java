@@ -0,0 +1,218 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.mqtt.paho.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import io.joynr.exceptions.JoynrDelayMessageException;
+import io.joynr.exceptions.JoynrMessageNotSentException;
+import io.joynr.messaging.FailureAction;
+import io.joynr.messaging.SuccessAction;
+import io.joynr.messaging.mqtt.IMqttMessagingSkeleton;
+import io.joynr.messaging.mqtt.MqttMessagingStub;
+import io.joynr.messaging.mqtt.statusmetrics.MqttStatusReceiver;
+
+/**
+ * Unit tests for the publish paths of {@link MqttPahoClient} which do not require a running broker.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class MqttPahoClientPublishTest {
+
+    private static final String TOPIC = "testTopic";
+    private static final byte[] PAYLOAD = "testPayload".getBytes();
+
+    @Mock
+    private MqttAsyncClient mqttAsyncClient;
+    @Mock
+    private IMqttDeliveryToken deliveryToken;
+    @Mock
+    private IMqttMessagingSkeleton messagingSkeleton;
+    @Mock
+    private MqttStatusReceiver mqttStatusReceiver;
+    @Mock
+    private SuccessAction successAction;
+    @Mock
+    private FailureAction failureAction;
+
+    private MqttPahoClient createClient(boolean asyncPublish, int maxMsgSizeBytes) throws MqttException {
+        return createClient(asyncPublish, maxMsgSizeBytes, 100);
+    }
+
+    private MqttPahoClient createClient(boolean asyncPublish, int maxMsgSizeBytes, int maxMsgsInflight)
+                                                                                                       throws MqttException {
+        when(mqttAsyncClient.getServerURI()).thenReturn("tcp://localhost:1883");
+        MqttPahoClient client = new MqttPahoClient(mqttAsyncClient,
+                                                   100,
+                                                   60,
+                                                   30,
+                                                   -1,
+                                                   maxMsgsInflight,
+                                                   maxMsgSizeBytes,
+                                                   false,
+                                                   asyncPublish,
+                                                   "",
+                                                   "",
+                                                   "",
+                                                   "",
+                                                   mqttStatusReceiver);
+        client.setMessageListener(messagingSkeleton);
+        return client;
+    }
+
+    private IMqttActionListener publishAsyncAndCaptureListener(MqttPahoClient client) throws MqttException {
+        client.publishMessage(TOPIC, PAYLOAD, MqttMessagingStub.DEFAULT_QOS_LEVEL, successAction, failureAction);
+
+        ArgumentCaptor<MqttMessage> messageCaptor = ArgumentCaptor.forClass(MqttMessage.class);
+        ArgumentCaptor<IMqttActionListener> listenerCaptor = ArgumentCaptor.forClass(IMqttActionListener.class);
+        verify(mqttAsyncClient).publish(eq(TOPIC), messageCaptor.capture(), isNull(), listenerCaptor.capture());
+        assertEquals(MqttMessagingStub.DEFAULT_QOS_LEVEL, messageCaptor.getValue().getQos());
+        return listenerCaptor.getValue();
+    }
+
+    @Test
+    public void asyncPublishDoesNotCompleteActionsBeforeDelivery() throws Exception {
+        MqttPahoClient client = createClient(true, 0);
+
+        publishAsyncAndCaptureListener(client);
+
+        verify(deliveryToken, never()).waitForCompletion(any(Long.class));
+        verify(successAction, never()).execute();
+        verify(failureAction, never()).execute(any(Throwable.class));
+    }
+
+    @Test
+    public void asyncPublishExecutesSuccessActionOnDelivery() throws Exception {
+        MqttPahoClient client = createClient(true, 0);
+
+        IMqttActionListener listener = publishAsyncAndCaptureListener(client);
+        listener.onSuccess(deliveryToken);
+
+        verify(successAction).execute();
+        verify(failureAction, never()).execute(any(Throwable.class));
+    }
+
+    @Test
+    public void asyncPublishExecutesFailureActionOnRecoverableError() throws Exception {
+        MqttPahoClient client = createClient(true, 0);
+
+        IMqttActionListener listener = publishAsyncAndCaptureListener(client);
+        listener.onFailure(deliveryToken, new MqttException(MqttException.REASON_CODE_CONNECTION_LOST));
+
+        ArgumentCaptor<Throwable> errorCaptor = ArgumentCaptor.forClass(Throwable.class);
+        verify(failureAction).execute(errorCaptor.capture());
+        assertTrue(errorCaptor.getValue() instanceof JoynrDelayMessageException);
+        verify(successAction, never()).execute();
+    }
+
+    @Test
+    public void asyncPublishWaitsWhileInflightWindowIsFull() throws Exception {
+        final MqttPahoClient client = createClient(true, 0, 1);
+        ArgumentCaptor<IMqttActionListener> listenerCaptor = ArgumentCaptor.forClass(IMqttActionListener.class);
+
+        client.publishMessage(TOPIC, PAYLOAD, MqttMessagingStub.DEFAULT_QOS_LEVEL, successAction, failureAction);
+        verify(mqttAsyncClient).publish(eq(TOPIC), any(MqttMessage.class), isNull(), listenerCaptor.capture());
+
+        Thread secondPublisher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                client.publishMessage(TOPIC, PAYLOAD, MqttMessagingStub.DEFAULT_QOS_LEVEL, successAction, failureAction);
+            }
+        });
+        secondPublisher.start();
+        Thread.sleep(300);
+        verify(mqttAsyncClient, times(1)).publish(anyString(),
+                                                  any(MqttMessage.class),
+                                                  any(),
+                                                  any(IMqttActionListener.class));
+
+        listenerCaptor.getValue().onSuccess(deliveryToken);
+        secondPublisher.join(1000);
+
+        verify(mqttAsyncClient, times(2)).publish(anyString(),
+                                                  any(MqttMessage.class),
+                                                  any(),
+                                                  any(IMqttActionListener.class));
+        verify(failureAction, never()).execute(any(Throwable.class));
+    }
+
+    @Test
+    public void asyncPublishReleasesInflightSlotIfPublishIsRejected() throws Exception {
+        MqttPahoClient client = createClient(true, 0, 1);
+        when(mqttAsyncClient.publish(anyString(), any(MqttMessage.class), any(), any(IMqttActionListener.class))).thenThrow(new MqttException(MqttException.REASON_CODE_CLIENT_NOT_CONNECTED))
+                                                                                                                 .thenReturn(deliveryToken);
+
+        client.publishMessage(TOPIC, PAYLOAD, MqttMessagingStub.DEFAULT_QOS_LEVEL, successAction, failureAction);
+        verify(failureAction).execute(any(JoynrDelayMessageException.class));
+
+        client.publishMessage(TOPIC, PAYLOAD, MqttMessagingStub.DEFAULT_QOS_LEVEL, successAction, failureAction);
+        verify(mqttAsyncClient, times(2)).publish(anyString(),
+                                                  any(MqttMessage.class),
+                                                  any(),
+                                                  any(IMqttActionListener.class));
+    }
+
+    @Test
+    public void asyncPublishExecutesFailureActionIfMessageTooLarge() throws Exception {
+        MqttPahoClient client = createClient(true, PAYLOAD.length - 1);
+
+        client.publishMessage(TOPIC, PAYLOAD, MqttMessagingStub.DEFAULT_QOS_LEVEL, successAction, failureAction);
+
+        verify(failureAction).execute(any(JoynrMessageNotSentException.class));
+        verify(mqttAsyncClient, never()).publish(anyString(),
+                                                 any(MqttMessage.class),
+                                                 any(),
+                                                 any(IMqttActionListener.class));
+    }
+
+    @Test
+    public void syncPublishWaitsForDeliveryBeforeSuccessAction() throws Exception {
+        MqttPahoClient client = createClient(false, 0, 1);
+        when(mqttAsyncClient.publish(eq(TOPIC), any(MqttMessage.class))).thenReturn(deliveryToken);
+
+        client.publishMessage(TOPIC, PAYLOAD, MqttMessagingStub.DEFAULT_QOS_LEVEL, successAction, failureAction);
+
+        verify(deliveryToken).waitForCompletion(-1);
+        verify(successAction).execute();
+        verify(failureAction, never()).execute(any(Throwable.class));
+
+        // the inflight slot has been returned after delivery
+        client.publishMessage(TOPIC, PAYLOAD, MqttMessagingStub.DEFAULT_QOS_LEVEL, successAction, failureAction);
+        verify(successAction, times(2)).execute();
+    }
+}
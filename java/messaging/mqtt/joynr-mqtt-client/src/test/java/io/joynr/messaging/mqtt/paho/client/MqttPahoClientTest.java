@@ -38,8 +38,9 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
-import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
 import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.ScheduledExecutorPingSender;
 import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -435,8 +436,13 @@ public class MqttPahoClientTest {
         int maxMsgsInflight = 100;
         int maxMsgSizeBytes = 0;
         boolean cleanSession = true;
+        boolean asyncPublish = false;
 
-        MqttClient mqttClient = new MqttClient(brokerUri, clientId, new MemoryPersistence(), scheduledExecutorService);
+        MqttAsyncClient mqttClient = new MqttAsyncClient(brokerUri,
+                                                         clientId,
+                                                         new MemoryPersistence(),
+                                                         new ScheduledExecutorPingSender(scheduledExecutorService),
+                                                         scheduledExecutorService);
         joynrMqttClient = new MqttPahoClient(mqttClient,
                                              reconnectSleepMs,
                                              keepAliveTimerSec,
@@ -445,6 +451,7 @@ public class MqttPahoClientTest {
                                              maxMsgsInflight,
                                              maxMsgSizeBytes,
                                              cleanSession,
+                                             asyncPublish,
                                              "",
                                              "",
                                              "",
@@ -456,7 +463,7 @@ public class MqttPahoClientTest {
         joynrMqttClient.subscribe(ownTopic.getTopic());
 
         // manually call disconnect and connectionLost
-        mqttClient.disconnect(500);
+        mqttClient.disconnect(500).waitForCompletion();
         MqttException exeption = new MqttException(MqttException.REASON_CODE_CLIENT_TIMEOUT);
         MqttPahoClient mqttPahoClient = (MqttPahoClient) joynrMqttClient;
         mqttPahoClient.connectionLost(exeption);
@@ -21,7 +21,6 @@ package io.joynr.messaging.websocket.jetty.client;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ExecutionException;
@@ -49,6 +48,7 @@ import io.joynr.messaging.FailureAction;
 import io.joynr.messaging.SuccessAction;
 import io.joynr.messaging.websocket.IWebSocketMessagingSkeleton;
 import io.joynr.messaging.websocket.JoynrWebSocketEndpoint;
+import io.joynr.messaging.websocket.WebSocketPayloads;
 import joynr.system.RoutingTypes.Address;
 import joynr.system.RoutingTypes.WebSocketAddress;
 import joynr.system.RoutingTypes.WebSocketClientAddress;
@@ -63,7 +63,7 @@ public class WebSocketJettyClient extends WebSocketAdapter implements JoynrWebSo
     private WebSocketClient jettyClient;
     private int maxMessageSize;
     private long websocketIdleTimeout;
-    Future<Session> sessionFuture;
+    volatile Future<Session> sessionFuture;
     private WebSocketAddress serverAddress;
     private IWebSocketMessagingSkeleton messageListener;
     private ObjectMapper objectMapper;
@@ -96,8 +96,16 @@ public class WebSocketJettyClient extends WebSocketAdapter implements JoynrWebSo
 
         try {
             jettyClient.start();
-            sessionFuture = jettyClient.connect(this, toUrl(serverAddress));
-            sendInitializationMessage();
+            // the session is only published to writers once the server knows the address of this client, so that no
+            // message is sent before the initialization message
+            Future<Session> newSessionFuture = jettyClient.connect(this, toUrl(serverAddress));
+            try {
+                sendInitializationMessage(newSessionFuture);
+            } catch (JoynrCommunicationException e) {
+                closeSession(newSessionFuture);
+                throw e;
+            }
+            sessionFuture = newSessionFuture;
         } catch (JoynrShutdownException | JoynrIllegalStateException e) {
             logger.error("unrecoverable error starting WebSocket client: {}", e);
             return;
@@ -116,14 +124,15 @@ public class WebSocketJettyClient extends WebSocketAdapter implements JoynrWebSo
                     @Override
                     public void run() {
                         reconnectTimerRunning.set(false);
-                        start();
+                        reconnect();
                     }
                 }, reconnectDelay);
             }
         }
     }
 
-    private void sendInitializationMessage() throws InterruptedException, JoynrCommunicationException {
+    private void sendInitializationMessage(Future<Session> newSessionFuture) throws InterruptedException,
+                                                                            JoynrCommunicationException {
         String serializedAddress;
         try {
             serializedAddress = objectMapper.writeValueAsString(ownAddress);
@@ -132,9 +141,9 @@ public class WebSocketJettyClient extends WebSocketAdapter implements JoynrWebSo
         }
 
         try {
-            sessionFuture.get(30, TimeUnit.SECONDS)
-                         .getRemote()
-                         .sendBytes(ByteBuffer.wrap(serializedAddress.getBytes(CHARSET)));
+            newSessionFuture.get(30, TimeUnit.SECONDS)
+                            .getRemote()
+                            .sendBytes(ByteBuffer.wrap(serializedAddress.getBytes(CHARSET)));
         } catch (IOException | ExecutionException | TimeoutException e) {
             throw new JoynrCommunicationException(e.getMessage(), e);
         }
@@ -169,13 +178,21 @@ public class WebSocketJettyClient extends WebSocketAdapter implements JoynrWebSo
     }
 
     private void closeSession() {
+        if (sessionFuture != null) {
+            closeSession(sessionFuture);
+            sessionFuture = null;
+        }
+    }
+
+    private void closeSession(Future<Session> futureToClose) {
+        if (futureToClose.cancel(true)) {
+            // the connection was not yet established
+            return;
+        }
         try {
-            if (sessionFuture != null) {
-                Session session = sessionFuture.get();
-                if (session != null) {
-                    session.close();
-                }
-                sessionFuture = null;
+            Session session = futureToClose.get();
+            if (session != null) {
+                session.close();
             }
         } catch (InterruptedException | ExecutionException e) {
             logger.error("Error while closing websocket connection: ", e);
@@ -207,8 +224,13 @@ public class WebSocketJettyClient extends WebSocketAdapter implements JoynrWebSo
 
     @Override
     public void onWebSocketBinary(byte[] payload, int offset, int len) {
-        logger.trace(this.getClass().getSimpleName() + ": Received message: " + new String(payload, CHARSET));
-        messageListener.transmit(Arrays.copyOfRange(payload, offset, offset + len), new FailureAction() {
+        if (logger.isTraceEnabled()) {
+            logger.trace("{}: Received message: {}", this.getClass().getSimpleName(), new String(payload,
+                                                                                                 offset,
+                                                                                                 len,
+                                                                                                 CHARSET));
+        }
+        messageListener.transmit(WebSocketPayloads.toMessageArray(payload, offset, len), new FailureAction() {
 
             @Override
             public void execute(Throwable error) {
@@ -217,28 +239,39 @@ public class WebSocketJettyClient extends WebSocketAdapter implements JoynrWebSo
         });
     }
 
+    // Not synchronized: only reconnecting requires the lock. Jetty queues concurrent asynchronous writes of a session,
+    // but does not allow them to overlap a blocking write; the only blocking write, the initialization message, is
+    // sent by start() before the session is published in sessionFuture.
     @Override
-    public synchronized void writeBytes(Address to,
-                                        byte[] message,
-                                        long timeout,
-                                        TimeUnit unit,
-                                        final SuccessAction successAction,
-                                        final FailureAction failureAction) {
+    public void writeBytes(Address to,
+                           ByteBuffer message,
+                           long timeout,
+                           TimeUnit unit,
+                           final SuccessAction successAction,
+                           final FailureAction failureAction) {
         if (messageListener == null) {
             throw new JoynrDelayMessageException(20, "WebSocket write failed: receiver has not been set yet");
         }
 
-        if (sessionFuture == null) {
+        Future<Session> currentSessionFuture = sessionFuture;
+        if (currentSessionFuture == null) {
             try {
                 reconnect();
             } catch (Exception e) {
                 throw new JoynrDelayMessageException(10, "WebSocket reconnect failed. Will try later", e);
             }
+            currentSessionFuture = sessionFuture;
+            if (currentSessionFuture == null) {
+                throw new JoynrDelayMessageException(10, "WebSocket reconnect failed. Will try later");
+            }
         }
 
         try {
-            Session session = sessionFuture.get(timeout, unit);
-            session.getRemote().sendBytes(ByteBuffer.wrap(message), new WriteCallback() {
+            Session session = currentSessionFuture.get(timeout, unit);
+            // Jetty masks the payload of client frames in place, hence the shared message buffer has to be copied
+            ByteBuffer payload = ByteBuffer.allocate(message.remaining());
+            payload.put(message.duplicate()).flip();
+            session.getRemote().sendBytes(payload, new WriteCallback() {
 
                 @Override
                 public void writeSuccess() {
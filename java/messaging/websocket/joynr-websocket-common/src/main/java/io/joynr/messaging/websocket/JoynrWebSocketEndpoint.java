@@ -18,6 +18,7 @@
  */
 package io.joynr.messaging.websocket;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
@@ -36,8 +37,19 @@ public interface JoynrWebSocketEndpoint {
 
     public void shutdown();
 
+    /**
+     * Writes a serialized joynr message to the given address.
+     *
+     * @param to the address of the receiver
+     * @param message read-only buffer containing the serialized message. The buffer is shared with the message and
+     *      must neither be modified nor kept by the endpoint after the write has completed.
+     * @param timeout how long to wait for the connection before giving up
+     * @param unit the time unit of the timeout argument
+     * @param successAction called when the message has been written
+     * @param failureAction called if writing the message failed
+     */
     public void writeBytes(Address to,
-                           byte[] message,
+                           ByteBuffer message,
                            long timeout,
                            TimeUnit unit,
                            SuccessAction successAction,
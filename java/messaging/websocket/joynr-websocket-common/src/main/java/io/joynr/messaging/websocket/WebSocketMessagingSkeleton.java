@@ -18,6 +18,7 @@
  */
 package io.joynr.messaging.websocket;
 
+import java.nio.ByteBuffer;
 import java.util.Set;
 
 import org.eclipse.jetty.websocket.api.WebSocketAdapter;
@@ -30,12 +31,14 @@ import com.google.inject.name.Named;
 import io.joynr.messaging.FailureAction;
 import io.joynr.messaging.JoynrMessageProcessor;
 import io.joynr.messaging.routing.MessageRouter;
+import io.joynr.messaging.util.MessageTraceLogger;
 import joynr.ImmutableMessage;
 import joynr.Message;
 import joynr.system.RoutingTypes.WebSocketAddress;
 
 public class WebSocketMessagingSkeleton extends WebSocketAdapter implements IWebSocketMessagingSkeleton {
     private static final Logger LOG = LoggerFactory.getLogger(WebSocketMessagingSkeleton.class);
+    private static final MessageTraceLogger MESSAGE_TRACE = MessageTraceLogger.getLogger(WebSocketMessagingSkeleton.class);
 
     public final static String WEBSOCKET_IS_MAIN_TRANSPORT = "io.joynr.websocket.is.main.transport";
 
@@ -87,9 +90,9 @@ public class WebSocketMessagingSkeleton extends WebSocketAdapter implements IWeb
     @Override
     public void transmit(byte[] serializedMessage, FailureAction failureAction) {
         try {
-            ImmutableMessage message = new ImmutableMessage(serializedMessage);
+            ImmutableMessage message = new ImmutableMessage(ByteBuffer.wrap(serializedMessage));
 
-            LOG.debug("<<< INCOMING <<< {}", message);
+            MESSAGE_TRACE.incoming(message);
 
             if (messageProcessors != null) {
                 for (JoynrMessageProcessor processor : messageProcessors) {
@@ -20,18 +20,16 @@ package io.joynr.messaging.websocket;
 
 import java.util.concurrent.TimeUnit;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import io.joynr.exceptions.JoynrRuntimeException;
 import io.joynr.messaging.FailureAction;
 import io.joynr.messaging.IMessagingStub;
 import io.joynr.messaging.SuccessAction;
+import io.joynr.messaging.util.MessageTraceLogger;
 import joynr.ImmutableMessage;
 import joynr.system.RoutingTypes.Address;
 
 public class WebSocketMessagingStub implements IMessagingStub {
-    private static final Logger logger = LoggerFactory.getLogger(WebSocketMessagingStub.class);
+    private static final MessageTraceLogger MESSAGE_TRACE = MessageTraceLogger.getLogger(WebSocketMessagingStub.class);
 
     private JoynrWebSocketEndpoint webSocketEndpoint;
 
@@ -44,17 +42,15 @@ public class WebSocketMessagingStub implements IMessagingStub {
 
     @Override
     public void transmit(ImmutableMessage message, SuccessAction successAction, FailureAction failureAction) {
-        logger.debug(">>> OUTGOING >>> {}", message);
+        MESSAGE_TRACE.outgoing(message);
 
         if (!message.isTtlAbsolute()) {
             throw new JoynrRuntimeException("Relative TTL not supported");
         }
 
         long timeout = message.getTtlMs() - System.currentTimeMillis();
-        byte[] serializedMessage = message.getSerializedMessage();
-
         webSocketEndpoint.writeBytes(toAddress,
-                                     serializedMessage,
+                                     message.getSerializedMessageBuffer(),
                                      timeout,
                                      TimeUnit.MILLISECONDS,
                                      successAction,
@@ -0,0 +1,71 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.websocket;
+
+import java.util.Arrays;
+
+/**
+ * Helpers for the payload of received binary WebSocket messages.
+ */
+public final class WebSocketPayloads {
+
+    private WebSocketPayloads() {
+    }
+
+    /**
+     * Returns the received message as an array which can be handed over to
+     * {@link IWebSocketMessagingSkeleton#transmit(byte[], io.joynr.messaging.FailureAction)}.
+     * <p>
+     * Jetty assembles every complete binary message into a new array which it does not use anymore once the
+     * listener has returned. If the message spans the whole array, the array is therefore passed on without
+     * copying it.
+     *
+     * @param payload the array passed to onWebSocketBinary
+     * @param offset the offset of the message in the array
+     * @param len the length of the message
+     * @return an array containing exactly the message
+     */
+    public static byte[] toMessageArray(byte[] payload, int offset, int len) {
+        if (offset == 0 && len == payload.length) {
+            return payload;
+        }
+        return Arrays.copyOfRange(payload, offset, offset + len);
+    }
+
+    /**
+     * Checks whether the received message starts with the given prefix without decoding the message.
+     *
+     * @param payload the array passed to onWebSocketBinary
+     * @param offset the offset of the message in the array
+     * @param len the length of the message
+     * @param prefix the expected prefix
+     * @return true if the message starts with the prefix
+     */
+    public static boolean startsWith(byte[] payload, int offset, int len, byte[] prefix) {
+        if (len < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (payload[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.websocket;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class WebSocketPayloadsTest {
+
+    private static final byte[] PREFIX = new byte[]{ 1, 2, 3 };
+
+    @Test
+    public void toMessageArrayReturnsArraySpannedByMessage() {
+        byte[] payload = new byte[]{ 1, 2, 3, 4 };
+
+        assertSame(payload, WebSocketPayloads.toMessageArray(payload, 0, payload.length));
+    }
+
+    @Test
+    public void toMessageArrayCopiesMessageAtOffset() {
+        byte[] payload = new byte[]{ 0, 1, 2, 3, 4 };
+
+        byte[] message = WebSocketPayloads.toMessageArray(payload, 1, 3);
+
+        assertNotSame(payload, message);
+        assertArrayEquals(new byte[]{ 1, 2, 3 }, message);
+    }
+
+    @Test
+    public void toMessageArrayCopiesMessageShorterThanArray() {
+        byte[] payload = new byte[]{ 1, 2, 3, 4 };
+
+        assertArrayEquals(new byte[]{ 1, 2 }, WebSocketPayloads.toMessageArray(payload, 0, 2));
+    }
+
+    @Test
+    public void startsWithMatchesPrefix() {
+        assertTrue(WebSocketPayloads.startsWith(new byte[]{ 1, 2, 3, 4 }, 0, 4, PREFIX));
+        assertTrue(WebSocketPayloads.startsWith(new byte[]{ 1, 2, 3 }, 0, 3, PREFIX));
+    }
+
+    @Test
+    public void startsWithHonoursOffset() {
+        byte[] payload = new byte[]{ 9, 1, 2, 3, 4 };
+
+        assertTrue(WebSocketPayloads.startsWith(payload, 1, 4, PREFIX));
+        assertFalse(WebSocketPayloads.startsWith(payload, 0, 5, PREFIX));
+    }
+
+    @Test
+    public void startsWithRejectsDifferentPrefix() {
+        assertFalse(WebSocketPayloads.startsWith(new byte[]{ 1, 2, 4, 4 }, 0, 4, PREFIX));
+    }
+
+    @Test
+    public void startsWithRejectsMessageShorterThanPrefix() {
+        // the array itself is long enough, but the message ends before the prefix
+        assertFalse(WebSocketPayloads.startsWith(new byte[]{ 1, 2, 3, 4 }, 0, 2, PREFIX));
+    }
+}
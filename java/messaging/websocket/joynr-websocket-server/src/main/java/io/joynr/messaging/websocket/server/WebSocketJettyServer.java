@@ -21,9 +21,9 @@ package io.joynr.messaging.websocket.server;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jetty.http.HttpVersion;
@@ -53,6 +53,7 @@ import io.joynr.messaging.FailureAction;
 import io.joynr.messaging.SuccessAction;
 import io.joynr.messaging.websocket.IWebSocketMessagingSkeleton;
 import io.joynr.messaging.websocket.JoynrWebSocketEndpoint;
+import io.joynr.messaging.websocket.WebSocketPayloads;
 import joynr.system.RoutingTypes.Address;
 import joynr.system.RoutingTypes.WebSocketAddress;
 import joynr.system.RoutingTypes.WebSocketClientAddress;
@@ -60,11 +61,13 @@ import joynr.system.RoutingTypes.WebSocketProtocol;
 
 public class WebSocketJettyServer implements JoynrWebSocketEndpoint, WebSocketMessageArrivedListener {
     private static final Logger logger = LoggerFactory.getLogger(WebSocketJettyServer.class);
+    // the first message of a libjoynr instance is its serialized WebSocketClientAddress
+    private static final byte[] INITIALIZATION_MESSAGE_PREFIX = "{\"_typeName\":\"joynr.system.RoutingTypes.WebSocketClientAddress\"".getBytes(CHARSET);
 
     private Server server;
     private WebSocketAddress address;
     private int maxMessageSize;
-    private Map<String, Session> sessionMap = new HashMap<>();
+    private Map<String, Session> sessionMap = new ConcurrentHashMap<>();
     private List<CCWebSocketMessagingSkeletonSocket> openSockets = new ArrayList<>();
 
     public ObjectMapper objectMapper;
@@ -126,7 +129,9 @@ public class WebSocketJettyServer implements JoynrWebSocketEndpoint, WebSocketMe
                     public Object createWebSocket(ServletUpgradeRequest servletUpgradeRequest,
                                                   ServletUpgradeResponse servletUpgradeResponse) {
                         CCWebSocketMessagingSkeletonSocket socket = new CCWebSocketMessagingSkeletonSocket(WebSocketJettyServer.this);
-                        openSockets.add(socket);
+                        synchronized (openSockets) {
+                            openSockets.add(socket);
+                        }
                         return socket;
                     }
                 });
@@ -164,13 +169,15 @@ public class WebSocketJettyServer implements JoynrWebSocketEndpoint, WebSocketMe
         }
     }
 
+    // Not synchronized: Jetty serializes the writes of each session and coalesces frames which are queued while
+    // a write is in progress into a single gathering write.
     @Override
-    public synchronized void writeBytes(Address toAddress,
-                                        byte[] message,
-                                        long timeout,
-                                        TimeUnit unit,
-                                        final SuccessAction successAction,
-                                        final FailureAction failureAction) {
+    public void writeBytes(Address toAddress,
+                           ByteBuffer message,
+                           long timeout,
+                           TimeUnit unit,
+                           final SuccessAction successAction,
+                           final FailureAction failureAction) {
         if (!(toAddress instanceof WebSocketClientAddress)) {
             throw new JoynrIllegalStateException("Web Socket Server can only send to WebSocketClientAddresses");
         }
@@ -183,7 +190,7 @@ public class WebSocketJettyServer implements JoynrWebSocketEndpoint, WebSocketMe
                     + toClientAddress.getId());
         }
         try {
-            session.getRemote().sendBytes(ByteBuffer.wrap(message), new WriteCallback() {
+            session.getRemote().sendBytes(message, new WriteCallback() {
                 @Override
                 public void writeSuccess() {
                     successAction.execute();
@@ -211,6 +218,10 @@ public class WebSocketJettyServer implements JoynrWebSocketEndpoint, WebSocketMe
         // Server is not responsible for reconnect. In case of connection loss, the server expects a reconnect from the client.
     }
 
+    static boolean isInitializationMessage(byte[] payload, int offset, int len) {
+        return WebSocketPayloads.startsWith(payload, offset, len, INITIALIZATION_MESSAGE_PREFIX);
+    }
+
     /**
      * Inner class which handles incoming requests and represents a websocket session. Delegates to the singleton skeleton
      */
@@ -224,8 +235,8 @@ public class WebSocketJettyServer implements JoynrWebSocketEndpoint, WebSocketMe
 
         @Override
         public void onWebSocketBinary(byte[] payload, int offset, int len) {
-            String serializedMessage = new String(payload, offset, len, CHARSET);
-            if (isInitializationMessage(serializedMessage)) {
+            if (isInitializationMessage(payload, offset, len)) {
+                String serializedMessage = new String(payload, offset, len, CHARSET);
                 try {
                     WebSocketClientAddress webSocketClientAddress = objectMapper.readValue(serializedMessage,
                                                                                            WebSocketClientAddress.class);
@@ -235,22 +246,16 @@ public class WebSocketJettyServer implements JoynrWebSocketEndpoint, WebSocketMe
                     logger.error("Error parsing WebSocketClientAddress: ", e);
                 }
             } else {
-                messageArrivedListener.messageArrived(payload);
+                messageArrivedListener.messageArrived(WebSocketPayloads.toMessageArray(payload, offset, len));
             }
         }
 
         @Override
         public void onWebSocketClose(int statusCode, String reason) {
             super.onWebSocketClose(statusCode, reason);
-            openSockets.remove(CCWebSocketMessagingSkeletonSocket.this);
+            synchronized (openSockets) {
+                openSockets.remove(CCWebSocketMessagingSkeletonSocket.this);
+            }
         }
     }
-
-    /*
-     * Checks if the message contains a WebSockeClientAddress of a libjoynr instance.
-     * @return true if the json object's _typeName field contains joynr.system.WebSocketClientAddress
-     */
-    private boolean isInitializationMessage(String json) {
-        return json.startsWith("{\"_typeName\":\"joynr.system.RoutingTypes.WebSocketClientAddress\"");
-    }
 }
@@ -0,0 +1,70 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.websocket.server;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class WebSocketJettyServerTest {
+
+    private static final String SERIALIZED_CLIENT_ADDRESS = "{\"_typeName\":\"joynr.system.RoutingTypes.WebSocketClientAddress\",\"id\":\"clientId\"}";
+
+    @Test
+    public void serializedClientAddressIsInitializationMessage() {
+        byte[] payload = SERIALIZED_CLIENT_ADDRESS.getBytes(StandardCharsets.UTF_8);
+
+        assertTrue(WebSocketJettyServer.isInitializationMessage(payload, 0, payload.length));
+    }
+
+    @Test
+    public void initializationMessageIsDetectedAtOffset() {
+        byte[] address = SERIALIZED_CLIENT_ADDRESS.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[address.length + 2];
+        System.arraycopy(address, 0, payload, 2, address.length);
+
+        assertTrue(WebSocketJettyServer.isInitializationMessage(payload, 2, address.length));
+        assertFalse(WebSocketJettyServer.isInitializationMessage(payload, 0, payload.length));
+    }
+
+    @Test
+    public void otherSerializedTypeIsNoInitializationMessage() {
+        byte[] payload = "{\"_typeName\":\"joynr.system.RoutingTypes.WebSocketAddress\",\"host\":\"localhost\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertFalse(WebSocketJettyServer.isInitializationMessage(payload, 0, payload.length));
+    }
+
+    @Test
+    public void binaryMessageIsNoInitializationMessage() {
+        // SMRF messages start with the version byte of the format
+        byte[] payload = new byte[]{ 1, 0, 0, 0, 0, 0, 0, 0 };
+
+        assertFalse(WebSocketJettyServer.isInitializationMessage(payload, 0, payload.length));
+    }
+
+    @Test
+    public void truncatedInitializationMessageIsNoInitializationMessage() {
+        byte[] payload = SERIALIZED_CLIENT_ADDRESS.getBytes(StandardCharsets.UTF_8);
+
+        assertFalse(WebSocketJettyServer.isInitializationMessage(payload, 0, 20));
+    }
+}
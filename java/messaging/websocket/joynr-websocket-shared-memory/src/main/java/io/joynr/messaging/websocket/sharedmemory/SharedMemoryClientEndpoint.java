@@ -0,0 +1,123 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.websocket.sharedmemory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.joynr.exceptions.JoynrDelayMessageException;
+import io.joynr.exceptions.JoynrMessageNotSentException;
+import io.joynr.messaging.FailureAction;
+import io.joynr.messaging.SuccessAction;
+import io.joynr.messaging.websocket.IWebSocketMessagingSkeleton;
+import io.joynr.messaging.websocket.JoynrWebSocketEndpoint;
+import joynr.system.RoutingTypes.Address;
+import joynr.system.RoutingTypes.WebSocketClientAddress;
+
+/**
+ * Endpoint of a libjoynr runtime which exchanges messages with its cluster controller through a
+ * {@link SharedMemoryConnection} instead of a WebSocket connection.
+ */
+public class SharedMemoryClientEndpoint implements JoynrWebSocketEndpoint {
+    private static final Logger logger = LoggerFactory.getLogger(SharedMemoryClientEndpoint.class);
+
+    static final long RING_BUFFER_FULL_RETRY_DELAY_MS = 10;
+
+    private final File directory;
+    private final WebSocketClientAddress ownAddress;
+    private final int ringBufferSize;
+    private final SharedMemoryReceiver receiver;
+    private volatile SharedMemoryConnection connection;
+    private boolean shutdown = false;
+
+    public SharedMemoryClientEndpoint(File directory,
+                                      WebSocketClientAddress ownAddress,
+                                      int ringBufferSize,
+                                      long maxIdleWaitUs) {
+        this.directory = directory;
+        this.ownAddress = ownAddress;
+        this.ringBufferSize = ringBufferSize;
+        this.receiver = new SharedMemoryReceiver("joynrSharedMemoryClientReceiver", maxIdleWaitUs);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (shutdown || connection != null) {
+            return;
+        }
+        try {
+            connection = SharedMemoryConnection.create(directory, ownAddress.getId(), ringBufferSize);
+            receiver.addConnection(connection);
+            receiver.start();
+            logger.info("Connected to cluster controller through shared memory in {}", directory);
+        } catch (IOException e) {
+            logger.error("Error creating shared memory connection in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    @Override
+    public void setMessageListener(IWebSocketMessagingSkeleton messaging) {
+        receiver.setMessageListener(messaging);
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        shutdown = true;
+        receiver.stop();
+        if (connection != null) {
+            connection.closeAndDelete();
+            connection = null;
+        }
+    }
+
+    @Override
+    public void writeBytes(Address to,
+                           ByteBuffer message,
+                           long timeout,
+                           TimeUnit unit,
+                           SuccessAction successAction,
+                           FailureAction failureAction) {
+        SharedMemoryConnection currentConnection = connection;
+        if (currentConnection == null) {
+            reconnect();
+            throw new JoynrDelayMessageException(10, "Shared memory connection not available yet. Will try later");
+        }
+        if (message.remaining() > currentConnection.getMaxMessageSize()) {
+            throw new JoynrMessageNotSentException("Message of " + message.remaining()
+                    + " bytes exceeds the shared memory ring buffer size");
+        }
+        if (!currentConnection.write(message)) {
+            throw new JoynrDelayMessageException(RING_BUFFER_FULL_RETRY_DELAY_MS,
+                                                 "Shared memory ring buffer to the cluster controller is full");
+        }
+        successAction.execute();
+    }
+
+    @Override
+    public synchronized void reconnect() {
+        if (connection == null) {
+            start();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.websocket.sharedmemory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+import io.joynr.messaging.websocket.JoynrWebSocketEndpoint;
+import io.joynr.messaging.websocket.WebSocketEndpointFactory;
+import io.joynr.messaging.websocket.WebsocketModule;
+import joynr.system.RoutingTypes.WebSocketAddress;
+import joynr.system.RoutingTypes.WebSocketClientAddress;
+
+@Singleton
+public class SharedMemoryClientFactory implements WebSocketEndpointFactory {
+
+    @Inject(optional = true)
+    @Named(SharedMemorySettings.PROPERTY_SHARED_MEMORY_DIRECTORY)
+    private String directory = SharedMemorySettings.DEFAULT_SHARED_MEMORY_DIRECTORY;
+
+    @Inject(optional = true)
+    @Named(SharedMemorySettings.PROPERTY_SHARED_MEMORY_RING_BUFFER_SIZE)
+    private int ringBufferSize = SharedMemorySettings.DEFAULT_SHARED_MEMORY_RING_BUFFER_SIZE;
+
+    @Inject(optional = true)
+    @Named(SharedMemorySettings.PROPERTY_SHARED_MEMORY_MAX_IDLE_WAIT_US)
+    private long maxIdleWaitUs = SharedMemorySettings.DEFAULT_SHARED_MEMORY_MAX_IDLE_WAIT_US;
+
+    private WebSocketClientAddress ownAddress;
+    private Map<WebSocketAddress, JoynrWebSocketEndpoint> endpointsMap = new HashMap<WebSocketAddress, JoynrWebSocketEndpoint>();
+
+    @Inject
+    public SharedMemoryClientFactory(@Named(WebsocketModule.WEBSOCKET_CLIENT_ADDRESS) WebSocketClientAddress ownAddress) {
+        this.ownAddress = ownAddress;
+    }
+
+    @Override
+    public synchronized JoynrWebSocketEndpoint create(WebSocketAddress serverAddress) {
+        if (!endpointsMap.containsKey(serverAddress)) {
+            JoynrWebSocketEndpoint endpoint = new SharedMemoryClientEndpoint(SharedMemoryConnection.getDirectory(directory,
+                                                                                                                 serverAddress),
+                                                                             ownAddress,
+                                                                             ringBufferSize,
+                                                                             maxIdleWaitUs);
+            endpointsMap.put(serverAddress, endpoint);
+        }
+        return endpointsMap.get(serverAddress);
+    }
+}
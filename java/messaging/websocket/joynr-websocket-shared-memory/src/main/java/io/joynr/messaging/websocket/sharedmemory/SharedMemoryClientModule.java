@@ -0,0 +1,40 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.websocket.sharedmemory;
+
+import com.google.inject.AbstractModule;
+
+import io.joynr.messaging.websocket.WebSocketEndpointFactory;
+
+/**
+ * Connects a libjoynr runtime to a cluster controller on the same host through shared memory instead of a
+ * WebSocket connection. The addresses and the remaining configuration of the WebSocket runtime are used
+ * unchanged, hence the module overrides the WebSocket client of the runtime module:
+ * <pre>
+ * Modules.override(new LibjoynrWebSocketRuntimeModule()).with(new SharedMemoryClientModule())
+ * </pre>
+ * The cluster controller has to use the {@link SharedMemoryServerModule}.
+ */
+public class SharedMemoryClientModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        bind(WebSocketEndpointFactory.class).to(SharedMemoryClientFactory.class);
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.websocket.sharedmemory;
+
+import static io.joynr.messaging.websocket.sharedmemory.SharedMemorySettings.FROM_CLUSTER_CONTROLLER_SUFFIX;
+import static io.joynr.messaging.websocket.sharedmemory.SharedMemorySettings.LOCK_SUFFIX;
+import static io.joynr.messaging.websocket.sharedmemory.SharedMemorySettings.TO_CLUSTER_CONTROLLER_SUFFIX;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import joynr.system.RoutingTypes.WebSocketAddress;
+
+/**
+ * Connection between a libjoynr runtime and its cluster controller which consists of one
+ * {@link SharedMemoryRingBuffer} per direction.
+ * <p>
+ * The libjoynr runtime creates the files "&lt;clientId&gt;.fromcc" and "&lt;clientId&gt;.tocc" in the directory of
+ * the cluster controller, the latter one last. The cluster controller opens the connection once it finds the
+ * "tocc" file. The libjoynr runtime marks the ring buffers as closed and deletes the files on shutdown.
+ * <p>
+ * Before creating the ring buffers, the libjoynr runtime locks the file "&lt;clientId&gt;.lock" for its lifetime.
+ * The operating system releases the lock when the process terminates, so the cluster controller detects a libjoynr
+ * runtime which terminated without closing its connection by acquiring the lock.
+ */
+class SharedMemoryConnection {
+    private static final Logger logger = LoggerFactory.getLogger(SharedMemoryConnection.class);
+
+    private final String clientId;
+    private final SharedMemoryRingBuffer incoming;
+    private final SharedMemoryRingBuffer outgoing;
+    private final File toClusterControllerFile;
+    private final File lockFile;
+    // only set in the libjoynr runtime, holds the lock on the lock file
+    private final FileChannel lockChannel;
+    private final Object fileKey;
+
+    private SharedMemoryConnection(String clientId,
+                                   SharedMemoryRingBuffer incoming,
+                                   SharedMemoryRingBuffer outgoing,
+                                   File toClusterControllerFile,
+                                   FileChannel lockChannel) throws IOException {
+        this.clientId = clientId;
+        this.incoming = incoming;
+        this.outgoing = outgoing;
+        this.toClusterControllerFile = toClusterControllerFile;
+        this.lockFile = new File(toClusterControllerFile.getParentFile(), clientId + LOCK_SUFFIX);
+        this.lockChannel = lockChannel;
+        this.fileKey = Files.readAttributes(toClusterControllerFile.toPath(), BasicFileAttributes.class).fileKey();
+    }
+
+    /**
+     * @param configuredDirectory the value of {@link SharedMemorySettings#PROPERTY_SHARED_MEMORY_DIRECTORY}
+     * @param serverAddress the WebSocket address of the cluster controller
+     * @return the directory containing the connections of the cluster controller
+     */
+    static File getDirectory(String configuredDirectory, WebSocketAddress serverAddress) {
+        File baseDirectory;
+        if (configuredDirectory == null || configuredDirectory.isEmpty()) {
+            baseDirectory = getDefaultBaseDirectory();
+        } else {
+            baseDirectory = new File(configuredDirectory);
+        }
+        return new File(baseDirectory, String.valueOf(serverAddress.getPort()));
+    }
+
+    static File getDefaultBaseDirectory() {
+        return new File(System.getProperty("java.io.tmpdir"), SharedMemorySettings.DIRECTORY_NAME);
+    }
+
+    /**
+     * Creates the connection of a libjoynr runtime. Existing files of a previous connection with the same client
+     * ID are replaced.
+     */
+    static SharedMemoryConnection create(File directory, String clientId, int capacity) throws IOException {
+        SharedMemoryFiles.createDirectory(directory);
+        FileChannel lockChannel = lock(new File(directory, clientId + LOCK_SUFFIX));
+        try {
+            SharedMemoryRingBuffer fromClusterController = SharedMemoryRingBuffer.create(new File(directory, clientId
+                    + FROM_CLUSTER_CONTROLLER_SUFFIX), capacity);
+            File toClusterControllerFile = new File(directory, clientId + TO_CLUSTER_CONTROLLER_SUFFIX);
+            SharedMemoryRingBuffer toClusterController = SharedMemoryRingBuffer.create(toClusterControllerFile,
+                                                                                       capacity);
+            return new SharedMemoryConnection(clientId,
+                                              fromClusterController,
+                                              toClusterController,
+                                              toClusterControllerFile,
+                                              lockChannel);
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    private static FileChannel lock(File lockFile) throws IOException {
+        try {
+            SharedMemoryFiles.createFile(lockFile);
+        } catch (FileAlreadyExistsException e) {
+            // left behind by a previous connection with the same client ID
+        }
+        FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.WRITE);
+        try {
+            if (channel.tryLock() != null) {
+                return channel;
+            }
+        } catch (OverlappingFileLockException e) {
+            // locked by this process
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        channel.close();
+        throw new IOException("Shared memory connection " + lockFile + " is in use by another runtime");
+    }
+
+    /**
+     * Opens the connection of a libjoynr runtime in the cluster controller.
+     *
+     * @param toClusterControllerFile the "tocc" file of the connection
+     * @return the connection or null if the libjoynr runtime has not finished creating it yet
+     */
+    static SharedMemoryConnection open(File toClusterControllerFile) throws IOException {
+        String fileName = toClusterControllerFile.getName();
+        String clientId = fileName.substring(0, fileName.length() - TO_CLUSTER_CONTROLLER_SUFFIX.length());
+        SharedMemoryRingBuffer toClusterController = SharedMemoryRingBuffer.open(toClusterControllerFile);
+        if (toClusterController == null) {
+            return null;
+        }
+        File fromClusterControllerFile = new File(toClusterControllerFile.getParentFile(), clientId
+                + FROM_CLUSTER_CONTROLLER_SUFFIX);
+        SharedMemoryRingBuffer fromClusterController = SharedMemoryRingBuffer.open(fromClusterControllerFile);
+        if (fromClusterController == null) {
+            return null;
+        }
+        return new SharedMemoryConnection(clientId,
+                                          toClusterController,
+                                          fromClusterController,
+                                          toClusterControllerFile,
+                                          null);
+    }
+
+    String getClientId() {
+        return clientId;
+    }
+
+    /**
+     * @return true if the files of this connection have been replaced by a new connection of the same client
+     */
+    boolean isReplaced() {
+        try {
+            Object currentFileKey = Files.readAttributes(toClusterControllerFile.toPath(), BasicFileAttributes.class)
+                                         .fileKey();
+            return fileKey != null && !fileKey.equals(currentFileKey);
+        } catch (IOException e) {
+            // the file has been deleted
+            return true;
+        }
+    }
+
+    /**
+     * Checks whether the libjoynr runtime of this connection is still running. Only called by the cluster
+     * controller.
+     *
+     * @return false if the libjoynr runtime terminated without closing the connection
+     */
+    boolean isClientAlive() {
+        try (FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.WRITE)) {
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                return true;
+            }
+            lock.release();
+            return false;
+        } catch (OverlappingFileLockException e) {
+            // the libjoynr runtime runs in the same process
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            logger.debug("Unable to check the lock of shared memory connection {}: {}", clientId, e.getMessage());
+            return true;
+        }
+    }
+
+    boolean isClosed() {
+        return incoming.isClosed() || outgoing.isClosed();
+    }
+
+    int getMaxMessageSize() {
+        return outgoing.getMaxMessageSize();
+    }
+
+    /**
+     * Writes a message. May be called by several threads.
+     *
+     * @return false if the ring buffer is full
+     */
+    synchronized boolean write(ByteBuffer message) {
+        return outgoing.write(message);
+    }
+
+    /**
+     * Reads the next message. Must only be called by the receiver thread.
+     *
+     * @return the message or null if there is none
+     */
+    byte[] read() {
+        return incoming.read();
+    }
+
+    /**
+     * Marks the ring buffers as closed and deletes their files. Called by the libjoynr runtime on shutdown and by
+     * the cluster controller if the libjoynr runtime has terminated without closing the connection.
+     */
+    void closeAndDelete() {
+        incoming.close();
+        outgoing.close();
+        deleteFile(outgoing.getFile());
+        deleteFile(incoming.getFile());
+        deleteFile(lockFile);
+        if (lockChannel != null) {
+            try {
+                // releases the lock
+                lockChannel.close();
+            } catch (IOException e) {
+                logger.debug("Error closing lock of shared memory connection {}: {}", clientId, e.getMessage());
+            }
+        }
+    }
+
+    private static void deleteFile(File file) {
+        if (file.exists() && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.websocket.sharedmemory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Set;
+
+/**
+ * Creates the directories and files of the shared memory transport so that only the user running the cluster
+ * controller and its libjoynr runtimes can access them.
+ * <p>
+ * On file systems without POSIX permissions the files are created with the default permissions.
+ */
+final class SharedMemoryFiles {
+    private static final Set<PosixFilePermission> DIRECTORY_PERMISSIONS = PosixFilePermissions.fromString("rwx------");
+    private static final Set<PosixFilePermission> FILE_PERMISSIONS = PosixFilePermissions.fromString("rw-------");
+    private static final boolean POSIX = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+
+    private SharedMemoryFiles() {
+    }
+
+    /**
+     * Creates the directory and its missing parents with permissions 0700. The directory itself and, if it is
+     * located in the default directory in java.io.tmpdir, the default directory have to be owned by the current
+     * user; their permissions are set to 0700.
+     *
+     * @throws IOException if the directory cannot be created or is owned by another user
+     */
+    static void createDirectory(File directory) throws IOException {
+        Path path = directory.toPath();
+        if (!Files.isDirectory(path)) {
+            if (POSIX) {
+                Files.createDirectories(path, PosixFilePermissions.asFileAttribute(DIRECTORY_PERMISSIONS));
+            } else {
+                Files.createDirectories(path);
+            }
+        }
+        File parent = directory.getAbsoluteFile().getParentFile();
+        if (parent != null && parent.equals(SharedMemoryConnection.getDefaultBaseDirectory().getAbsoluteFile())) {
+            restrictAccess(parent.toPath());
+        }
+        restrictAccess(path);
+    }
+
+    /**
+     * Creates a new file with permissions 0600. Fails if the file exists already, e.g. as a link placed by another
+     * user.
+     */
+    static void createFile(File file) throws IOException {
+        if (POSIX) {
+            FileAttribute<Set<PosixFilePermission>> permissions = PosixFilePermissions.asFileAttribute(FILE_PERMISSIONS);
+            Files.createFile(file.toPath(), permissions);
+        } else {
+            Files.createFile(file.toPath());
+        }
+    }
+
+    private static void restrictAccess(Path directory) throws IOException {
+        checkOwner(directory);
+        if (POSIX) {
+            // the permissions passed on creation are restricted by the umask and do not apply to existing directories
+            Files.setPosixFilePermissions(directory, DIRECTORY_PERMISSIONS);
+        }
+    }
+
+    private static void checkOwner(Path directory) throws IOException {
+        UserPrincipal owner;
+        UserPrincipal currentUser;
+        try {
+            owner = Files.getOwner(directory);
+            currentUser = directory.getFileSystem()
+                                   .getUserPrincipalLookupService()
+                                   .lookupPrincipalByName(System.getProperty("user.name"));
+        } catch (UnsupportedOperationException e) {
+            // the file system does not support owners
+            return;
+        }
+        if (!owner.equals(currentUser)) {
+            throw new IOException("Shared memory directory " + directory + " is owned by " + owner.getName()
+                    + " instead of " + currentUser.getName());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.websocket.sharedmemory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.joynr.messaging.FailureAction;
+import io.joynr.messaging.websocket.IWebSocketMessagingSkeleton;
+
+/**
+ * Thread which reads the messages of all connections of an endpoint and passes them to the messaging skeleton.
+ * <p>
+ * The thread polls the ring buffers. After a short busy spin it yields and then sleeps with an exponentially
+ * increasing wait time up to the configured maximum until a new message arrives.
+ */
+class SharedMemoryReceiver implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(SharedMemoryReceiver.class);
+
+    private static final int SPIN_ITERATIONS = 1000;
+    private static final int YIELD_ITERATIONS = 100;
+    private static final long MIN_IDLE_WAIT_NS = TimeUnit.MICROSECONDS.toNanos(10);
+    // limits the messages read from one connection in a row so that a busy connection does not starve the others
+    private static final int MAX_MESSAGES_PER_CONNECTION = 64;
+
+    private static final FailureAction FAILURE_ACTION = new FailureAction() {
+        @Override
+        public void execute(Throwable error) {
+            logger.error("Shared memory message not processed: {}", error.getMessage());
+        }
+    };
+
+    private final List<SharedMemoryConnection> connections = new CopyOnWriteArrayList<>();
+    private final long maxIdleWaitNs;
+    private final String threadName;
+    private volatile IWebSocketMessagingSkeleton messageListener;
+    private volatile boolean stopped = false;
+    private volatile Thread thread;
+
+    SharedMemoryReceiver(String threadName, long maxIdleWaitUs) {
+        this.threadName = threadName;
+        this.maxIdleWaitNs = Math.max(MIN_IDLE_WAIT_NS, TimeUnit.MICROSECONDS.toNanos(maxIdleWaitUs));
+    }
+
+    void setMessageListener(IWebSocketMessagingSkeleton messageListener) {
+        this.messageListener = messageListener;
+    }
+
+    void addConnection(SharedMemoryConnection connection) {
+        connections.add(connection);
+        LockSupport.unpark(thread);
+    }
+
+    void removeConnection(SharedMemoryConnection connection) {
+        connections.remove(connection);
+    }
+
+    synchronized void start() {
+        if (thread == null) {
+            thread = new Thread(this, threadName);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    synchronized void stop() {
+        stopped = true;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void run() {
+        int idleIterations = 0;
+        long idleWaitNs = MIN_IDLE_WAIT_NS;
+        while (!stopped) {
+            if (receiveMessages() > 0) {
+                idleIterations = 0;
+                idleWaitNs = MIN_IDLE_WAIT_NS;
+            } else if (idleIterations < SPIN_ITERATIONS) {
+                idleIterations++;
+            } else if (idleIterations < SPIN_ITERATIONS + YIELD_ITERATIONS) {
+                idleIterations++;
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(this, idleWaitNs);
+                idleWaitNs = Math.min(2 * idleWaitNs, maxIdleWaitNs);
+            }
+        }
+    }
+
+    private int receiveMessages() {
+        IWebSocketMessagingSkeleton listener = messageListener;
+        if (listener == null) {
+            return 0;
+        }
+        int receivedMessages = 0;
+        for (SharedMemoryConnection connection : connections) {
+            for (int i = 0; i < MAX_MESSAGES_PER_CONNECTION; i++) {
+                byte[] message;
+                try {
+                    message = connection.read();
+                } catch (RuntimeException e) {
+                    logger.error("Error reading from shared memory connection of {}, closing it: {}",
+                                 connection.getClientId(),
+                                 e.getMessage());
+                    connections.remove(connection);
+                    break;
+                }
+                if (message == null) {
+                    break;
+                }
+                listener.transmit(message, FAILURE_ACTION);
+                receivedMessages++;
+            }
+        }
+        return receivedMessages;
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.websocket.sharedmemory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single producer, single consumer queue of messages in a memory-mapped file which is shared between two
+ * processes.
+ * <p>
+ * The file consists of a header followed by the data area. Read and write position are stored in separate cache
+ * lines of the header and only ever increase, the position in the data area is the position modulo the capacity.
+ * Each record consists of the length of the message followed by the message and is aligned to 4 bytes. If a record
+ * does not fit before the end of the data area, the remaining bytes are skipped with a padding record.
+ * <p>
+ * Only one thread may write and only one thread may read at the same time. Callers have to ensure this.
+ */
+public class SharedMemoryRingBuffer implements Closeable {
+    private static final int MAGIC = 0x4a6f796e; // "Joyn"
+    private static final int VERSION = 1;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int CLOSED_OFFSET = 12;
+    private static final int WRITE_POSITION_OFFSET = 64;
+    private static final int READ_POSITION_OFFSET = 128;
+    private static final int DATA_OFFSET = 192;
+
+    private static final int RECORD_HEADER_SIZE = 4;
+    private static final int PADDING = -1;
+
+    // The Java memory model does not cover memory which is shared with another process. Accessing a volatile
+    // variable between writing a message and publishing the new write position (and between reading the write
+    // position and reading the message) prevents the JIT and the CPU from reordering these accesses.
+    private static final AtomicInteger FENCE = new AtomicInteger();
+
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private long writePosition;
+    private long readPosition;
+
+    private SharedMemoryRingBuffer(File file, MappedByteBuffer buffer, int capacity) {
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.writePosition = buffer.getLong(WRITE_POSITION_OFFSET);
+        this.readPosition = buffer.getLong(READ_POSITION_OFFSET);
+    }
+
+    /**
+     * Creates a new, empty ring buffer which is only accessible by the current user. An existing file is replaced.
+     *
+     * @param file the file which is mapped
+     * @param capacity the size of the data area in bytes, rounded up to a multiple of 4
+     * @return the ring buffer
+     * @throws IOException if the file cannot be created
+     */
+    public static SharedMemoryRingBuffer create(File file, int capacity) throws IOException {
+        int alignedCapacity = align(capacity);
+        // remove a file which may still be mapped by a reader, so that the reader does not see the new content
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Unable to delete existing ring buffer file " + file);
+        }
+        SharedMemoryFiles.createFile(file);
+        MappedByteBuffer buffer = map(file, DATA_OFFSET + alignedCapacity);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(CAPACITY_OFFSET, alignedCapacity);
+        buffer.putInt(CLOSED_OFFSET, 0);
+        buffer.putLong(WRITE_POSITION_OFFSET, 0);
+        buffer.putLong(READ_POSITION_OFFSET, 0);
+        storeFence();
+        // the magic number marks the header as complete
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        return new SharedMemoryRingBuffer(file, buffer, alignedCapacity);
+    }
+
+    /**
+     * Opens a ring buffer which has been created by another process.
+     *
+     * @param file the file which is mapped
+     * @return the ring buffer or null if the file has not been initialized completely yet
+     * @throws IOException if the file cannot be opened or has an unsupported format
+     */
+    public static SharedMemoryRingBuffer open(File file) throws IOException {
+        long fileLength = file.length();
+        if (fileLength < DATA_OFFSET) {
+            return null;
+        }
+        MappedByteBuffer buffer = map(file, fileLength);
+        if (buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+            return null;
+        }
+        loadFence();
+        if (buffer.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("Unsupported version " + buffer.getInt(VERSION_OFFSET) + " of ring buffer file "
+                    + file);
+        }
+        int capacity = buffer.getInt(CAPACITY_OFFSET);
+        if (capacity <= 0 || DATA_OFFSET + (long) capacity != fileLength) {
+            throw new IOException("Invalid capacity " + capacity + " of ring buffer file " + file);
+        }
+        return new SharedMemoryRingBuffer(file, buffer, capacity);
+    }
+
+    private static MappedByteBuffer map(File file, long size) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+                FileChannel channel = randomAccessFile.getChannel()) {
+            // the mapping stays valid after the channel has been closed
+            return channel.map(MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static void storeFence() {
+        FENCE.set(0);
+    }
+
+    private static void loadFence() {
+        FENCE.get();
+    }
+
+    private static int align(int size) {
+        return (size + 3) & ~3;
+    }
+
+    /**
+     * A message at the end of the data area which does not fit into the remaining bytes is written to the start of
+     * the data area. Limiting messages to half of the capacity ensures that each message fits into the ring buffer
+     * once the reader has caught up, independent of the current position.
+     *
+     * @return the largest message which can be written into this ring buffer
+     */
+    public int getMaxMessageSize() {
+        return (capacity / 2 & ~3) - RECORD_HEADER_SIZE;
+    }
+
+    /**
+     * Appends a message.
+     *
+     * @param message the remaining bytes of the buffer are written, its position is not changed
+     * @return false if there is currently not enough free space for the message
+     * @throws IllegalArgumentException if the message is larger than {@link #getMaxMessageSize()}
+     */
+    public boolean write(ByteBuffer message) {
+        int length = message.remaining();
+        if (length > getMaxMessageSize()) {
+            throw new IllegalArgumentException("Message of " + length + " bytes exceeds the maximum message size of "
+                    + getMaxMessageSize() + " bytes");
+        }
+        int recordSize = align(RECORD_HEADER_SIZE + length);
+        int index = (int) (writePosition % capacity);
+        int bytesUntilEnd = capacity - index;
+        int paddingSize = bytesUntilEnd < recordSize ? bytesUntilEnd : 0;
+
+        long currentReadPosition = buffer.getLong(READ_POSITION_OFFSET);
+        if (writePosition + paddingSize + recordSize - currentReadPosition > capacity) {
+            return false;
+        }
+        // the reader must have finished reading the space which is overwritten now
+        loadFence();
+        if (paddingSize > 0) {
+            buffer.putInt(DATA_OFFSET + index, PADDING);
+            index = 0;
+        }
+        ByteBuffer target = buffer.duplicate();
+        target.position(DATA_OFFSET + index + RECORD_HEADER_SIZE);
+        target.put(message.duplicate());
+        buffer.putInt(DATA_OFFSET + index, length);
+
+        writePosition += paddingSize + recordSize;
+        storeFence();
+        buffer.putLong(WRITE_POSITION_OFFSET, writePosition);
+        return true;
+    }
+
+    /**
+     * Removes the next message.
+     *
+     * @return a new array containing the message or null if the ring buffer is empty
+     */
+    public byte[] read() {
+        while (true) {
+            long currentWritePosition = buffer.getLong(WRITE_POSITION_OFFSET);
+            if (readPosition == currentWritePosition) {
+                return null;
+            }
+            loadFence();
+            int index = (int) (readPosition % capacity);
+            int length = buffer.getInt(DATA_OFFSET + index);
+            if (length == PADDING) {
+                readPosition += capacity - index;
+                continue;
+            }
+            byte[] message = new byte[length];
+            ByteBuffer source = buffer.duplicate();
+            source.position(DATA_OFFSET + index + RECORD_HEADER_SIZE);
+            source.get(message);
+
+            readPosition += align(RECORD_HEADER_SIZE + length);
+            storeFence();
+            buffer.putLong(READ_POSITION_OFFSET, readPosition);
+            return message;
+        }
+    }
+
+    /**
+     * Marks the ring buffer as closed for the other process.
+     */
+    public void markClosed() {
+        buffer.putInt(CLOSED_OFFSET, 1);
+    }
+
+    public boolean isClosed() {
+        return buffer.getInt(CLOSED_OFFSET) != 0;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Releases the ring buffer. The mapping itself is released by the garbage collector.
+     */
+    @Override
+    public void close() {
+        markClosed();
+    }
+}
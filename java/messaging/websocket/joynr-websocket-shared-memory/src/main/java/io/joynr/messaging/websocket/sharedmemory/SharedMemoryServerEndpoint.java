@@ -0,0 +1,195 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.websocket.sharedmemory;
+
+import static io.joynr.messaging.websocket.sharedmemory.SharedMemorySettings.TO_CLUSTER_CONTROLLER_SUFFIX;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.joynr.exceptions.JoynrDelayMessageException;
+import io.joynr.exceptions.JoynrMessageNotSentException;
+import io.joynr.messaging.FailureAction;
+import io.joynr.messaging.SuccessAction;
+import io.joynr.messaging.websocket.IWebSocketMessagingSkeleton;
+import io.joynr.messaging.websocket.JoynrWebSocketEndpoint;
+import joynr.system.RoutingTypes.Address;
+import joynr.system.RoutingTypes.WebSocketClientAddress;
+
+/**
+ * Endpoint of the cluster controller which serves libjoynr runtimes connected through shared memory in addition
+ * to the ones connected through the WebSocket server it wraps.
+ * <p>
+ * The directory of the cluster controller is checked periodically for new connections and for connections of
+ * libjoynr runtimes which terminated without closing them. Messages to a
+ * {@link WebSocketClientAddress} are written to the shared memory connection of the client if there is one and
+ * are sent through the WebSocket server otherwise.
+ */
+public class SharedMemoryServerEndpoint implements JoynrWebSocketEndpoint {
+    private static final Logger logger = LoggerFactory.getLogger(SharedMemoryServerEndpoint.class);
+
+    private static final FilenameFilter CONNECTION_FILE_FILTER = new FilenameFilter() {
+        @Override
+        public boolean accept(File dir, String name) {
+            return name.endsWith(TO_CLUSTER_CONTROLLER_SUFFIX);
+        }
+    };
+
+    private final JoynrWebSocketEndpoint webSocketEndpoint;
+    private final File directory;
+    private final ScheduledExecutorService scheduler;
+    private final long connectionScanIntervalMs;
+    private final SharedMemoryReceiver receiver;
+    private final ConcurrentMap<String, SharedMemoryConnection> connections = new ConcurrentHashMap<>();
+    private ScheduledFuture<?> connectionScanFuture;
+
+    public SharedMemoryServerEndpoint(JoynrWebSocketEndpoint webSocketEndpoint,
+                                      File directory,
+                                      ScheduledExecutorService scheduler,
+                                      long connectionScanIntervalMs,
+                                      long maxIdleWaitUs) {
+        this.webSocketEndpoint = webSocketEndpoint;
+        this.directory = directory;
+        this.scheduler = scheduler;
+        this.connectionScanIntervalMs = connectionScanIntervalMs;
+        this.receiver = new SharedMemoryReceiver("joynrSharedMemoryServerReceiver", maxIdleWaitUs);
+    }
+
+    @Override
+    public synchronized void start() {
+        webSocketEndpoint.start();
+        if (connectionScanFuture != null) {
+            return;
+        }
+        try {
+            SharedMemoryFiles.createDirectory(directory);
+        } catch (IOException e) {
+            logger.error("Unable to create shared memory directory {}: {}", directory, e.getMessage());
+            return;
+        }
+        receiver.start();
+        connectionScanFuture = scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                scanConnections();
+            }
+        }, 0, connectionScanIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Accepting shared memory connections in {}", directory);
+    }
+
+    void scanConnections() {
+        for (SharedMemoryConnection connection : connections.values()) {
+            if (connection.isClosed() || connection.isReplaced()) {
+                logger.info("Shared memory connection of {} closed", connection.getClientId());
+                receiver.removeConnection(connection);
+                connections.remove(connection.getClientId(), connection);
+            } else if (!connection.isClientAlive()) {
+                logger.warn("Shared memory client {} terminated without closing its connection",
+                            connection.getClientId());
+                receiver.removeConnection(connection);
+                connections.remove(connection.getClientId(), connection);
+                connection.closeAndDelete();
+            }
+        }
+        File[] files = directory.listFiles(CONNECTION_FILE_FILTER);
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            try {
+                SharedMemoryConnection connection = SharedMemoryConnection.open(file);
+                if (connection == null || connection.isClosed() || connections.containsKey(connection.getClientId())) {
+                    // not initialized yet, already closed or already known
+                    continue;
+                }
+                if (!connection.isClientAlive()) {
+                    logger.info("Removing shared memory connection of terminated client {}", connection.getClientId());
+                    connection.closeAndDelete();
+                    continue;
+                }
+                if (connections.putIfAbsent(connection.getClientId(), connection) != null) {
+                    continue;
+                }
+                logger.info("Shared memory connection of {} opened", connection.getClientId());
+                receiver.addConnection(connection);
+            } catch (IOException e) {
+                logger.error("Error opening shared memory connection {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void setMessageListener(IWebSocketMessagingSkeleton messaging) {
+        webSocketEndpoint.setMessageListener(messaging);
+        receiver.setMessageListener(messaging);
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (connectionScanFuture != null) {
+            connectionScanFuture.cancel(false);
+        }
+        receiver.stop();
+        // the files are owned by the libjoynr runtimes; a restarted cluster controller continues reading them
+        connections.clear();
+        webSocketEndpoint.shutdown();
+    }
+
+    @Override
+    public void writeBytes(Address to,
+                           ByteBuffer message,
+                           long timeout,
+                           TimeUnit unit,
+                           SuccessAction successAction,
+                           FailureAction failureAction) {
+        SharedMemoryConnection connection = null;
+        if (to instanceof WebSocketClientAddress) {
+            connection = connections.get(((WebSocketClientAddress) to).getId());
+        }
+        if (connection == null) {
+            webSocketEndpoint.writeBytes(to, message, timeout, unit, successAction, failureAction);
+            return;
+        }
+        if (message.remaining() > connection.getMaxMessageSize()) {
+            throw new JoynrMessageNotSentException("Message of " + message.remaining()
+                    + " bytes exceeds the shared memory ring buffer size");
+        }
+        if (!connection.write(message)) {
+            throw new JoynrDelayMessageException(SharedMemoryClientEndpoint.RING_BUFFER_FULL_RETRY_DELAY_MS,
+                                                 "Shared memory ring buffer to " + connection.getClientId()
+                                                         + " is full");
+        }
+        successAction.execute();
+    }
+
+    @Override
+    public void reconnect() {
+        webSocketEndpoint.reconnect();
+    }
+}
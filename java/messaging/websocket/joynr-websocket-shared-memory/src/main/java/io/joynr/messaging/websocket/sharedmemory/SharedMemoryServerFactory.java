@@ -0,0 +1,71 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.websocket.sharedmemory;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+import io.joynr.messaging.routing.MessageRouter;
+import io.joynr.messaging.websocket.JoynrWebSocketEndpoint;
+import io.joynr.messaging.websocket.WebSocketEndpointFactory;
+import io.joynr.messaging.websocket.server.WebSocketJettyServerFactory;
+import joynr.system.RoutingTypes.WebSocketAddress;
+
+@Singleton
+public class SharedMemoryServerFactory implements WebSocketEndpointFactory {
+
+    @Inject(optional = true)
+    @Named(SharedMemorySettings.PROPERTY_SHARED_MEMORY_DIRECTORY)
+    private String directory = SharedMemorySettings.DEFAULT_SHARED_MEMORY_DIRECTORY;
+
+    @Inject(optional = true)
+    @Named(SharedMemorySettings.PROPERTY_SHARED_MEMORY_MAX_IDLE_WAIT_US)
+    private long maxIdleWaitUs = SharedMemorySettings.DEFAULT_SHARED_MEMORY_MAX_IDLE_WAIT_US;
+
+    @Inject(optional = true)
+    @Named(SharedMemorySettings.PROPERTY_SHARED_MEMORY_CONNECTION_SCAN_INTERVAL_MS)
+    private long connectionScanIntervalMs = SharedMemorySettings.DEFAULT_SHARED_MEMORY_CONNECTION_SCAN_INTERVAL_MS;
+
+    private WebSocketJettyServerFactory webSocketServerFactory;
+    private ScheduledExecutorService scheduler;
+    private SharedMemoryServerEndpoint serverEndpoint;
+
+    @Inject
+    public SharedMemoryServerFactory(WebSocketJettyServerFactory webSocketServerFactory,
+                                     @Named(MessageRouter.SCHEDULEDTHREADPOOL) ScheduledExecutorService scheduler) {
+        this.webSocketServerFactory = webSocketServerFactory;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public synchronized JoynrWebSocketEndpoint create(WebSocketAddress serverAddress) {
+        if (serverEndpoint == null) {
+            serverEndpoint = new SharedMemoryServerEndpoint(webSocketServerFactory.create(serverAddress),
+                                                            SharedMemoryConnection.getDirectory(directory,
+                                                                                                serverAddress),
+                                                            scheduler,
+                                                            connectionScanIntervalMs,
+                                                            maxIdleWaitUs);
+        }
+        return serverEndpoint;
+    }
+}
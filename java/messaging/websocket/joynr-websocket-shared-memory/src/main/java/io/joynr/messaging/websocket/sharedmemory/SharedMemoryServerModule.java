@@ -0,0 +1,38 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.websocket.sharedmemory;
+
+import com.google.inject.AbstractModule;
+
+import io.joynr.messaging.websocket.WebSocketEndpointFactory;
+
+/**
+ * Accepts connections of libjoynr runtimes using the {@link SharedMemoryClientModule} in addition to WebSocket
+ * connections. The module overrides the WebSocket server of the cluster controller runtime module:
+ * <pre>
+ * Modules.override(new CCWebSocketRuntimeModule()).with(new SharedMemoryServerModule())
+ * </pre>
+ */
+public class SharedMemoryServerModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        bind(WebSocketEndpointFactory.class).to(SharedMemoryServerFactory.class);
+    }
+}
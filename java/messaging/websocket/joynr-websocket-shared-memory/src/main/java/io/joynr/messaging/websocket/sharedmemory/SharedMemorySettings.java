@@ -0,0 +1,65 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.websocket.sharedmemory;
+
+/**
+ * Properties of the shared memory transport, see {@link SharedMemoryClientModule} and
+ * {@link SharedMemoryServerModule}.
+ */
+public final class SharedMemorySettings {
+    /**
+     * The directory in which the ring buffer files are created. It has to be the same for the cluster controller
+     * and its libjoynr runtimes. Each cluster controller uses a subdirectory named after its WebSocket port. If the
+     * directory is empty, "joynr-shm" in the temporary directory (java.io.tmpdir) is used. On Linux, a directory
+     * in /dev/shm avoids writing the ring buffers to disk.
+     * <p>
+     * The subdirectories and files are only accessible by their owner, hence the cluster controller and its
+     * libjoynr runtimes have to run as the same user.
+     */
+    public static final String PROPERTY_SHARED_MEMORY_DIRECTORY = "joynr.messaging.sharedmemory.directory";
+    public static final String DEFAULT_SHARED_MEMORY_DIRECTORY = "";
+
+    /**
+     * The size of the data area of each ring buffer in bytes. Each libjoynr runtime uses one ring buffer per
+     * direction. A single message may use at most half of the ring buffer.
+     */
+    public static final String PROPERTY_SHARED_MEMORY_RING_BUFFER_SIZE = "joynr.messaging.sharedmemory.ringbuffersize";
+    public static final int DEFAULT_SHARED_MEMORY_RING_BUFFER_SIZE = 8 * 1024 * 1024;
+
+    /**
+     * The maximum time in microseconds a reader sleeps between two checks for new messages once it has become idle.
+     * Lower values reduce the latency of the first message after an idle period at the expense of CPU load.
+     */
+    public static final String PROPERTY_SHARED_MEMORY_MAX_IDLE_WAIT_US = "joynr.messaging.sharedmemory.maxidlewaitus";
+    public static final long DEFAULT_SHARED_MEMORY_MAX_IDLE_WAIT_US = 1000;
+
+    /**
+     * The interval in milliseconds in which the cluster controller checks for new or closed connections.
+     */
+    public static final String PROPERTY_SHARED_MEMORY_CONNECTION_SCAN_INTERVAL_MS = "joynr.messaging.sharedmemory.connectionscanintervalms";
+    public static final long DEFAULT_SHARED_MEMORY_CONNECTION_SCAN_INTERVAL_MS = 100;
+
+    static final String DIRECTORY_NAME = "joynr-shm";
+    static final String TO_CLUSTER_CONTROLLER_SUFFIX = ".tocc";
+    static final String FROM_CLUSTER_CONTROLLER_SUFFIX = ".fromcc";
+    static final String LOCK_SUFFIX = ".lock";
+
+    private SharedMemorySettings() {
+    }
+}
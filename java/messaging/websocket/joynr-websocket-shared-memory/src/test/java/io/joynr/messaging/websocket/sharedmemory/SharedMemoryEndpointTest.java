@@ -0,0 +1,234 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.websocket.sharedmemory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import io.joynr.exceptions.JoynrDelayMessageException;
+import io.joynr.messaging.FailureAction;
+import io.joynr.messaging.SuccessAction;
+import io.joynr.messaging.websocket.IWebSocketMessagingSkeleton;
+import io.joynr.messaging.websocket.JoynrWebSocketEndpoint;
+import joynr.system.RoutingTypes.WebSocketAddress;
+import joynr.system.RoutingTypes.WebSocketClientAddress;
+import joynr.system.RoutingTypes.WebSocketProtocol;
+
+/**
+ * Unit tests for {@link SharedMemoryClientEndpoint} and {@link SharedMemoryServerEndpoint}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SharedMemoryEndpointTest {
+
+    private static final int RING_BUFFER_SIZE = 1024;
+    private static final long MAX_IDLE_WAIT_US = 100;
+    private static final int VERIFY_TIMEOUT_MS = 1000;
+
+    @Mock
+    private JoynrWebSocketEndpoint webSocketServer;
+    @Mock
+    private ScheduledExecutorService scheduler;
+    @Mock
+    private IWebSocketMessagingSkeleton clientSkeleton;
+    @Mock
+    private IWebSocketMessagingSkeleton serverSkeleton;
+    @Mock
+    private SuccessAction successAction;
+    @Mock
+    private FailureAction failureAction;
+
+    private File directory;
+    private WebSocketAddress serverAddress;
+    private WebSocketClientAddress clientAddress;
+    private SharedMemoryClientEndpoint client;
+    private SharedMemoryServerEndpoint server;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("joynr-shm", "");
+        directory.delete();
+        serverAddress = new WebSocketAddress(WebSocketProtocol.WS, "localhost", 4242, "");
+        clientAddress = new WebSocketClientAddress("client1");
+
+        server = new SharedMemoryServerEndpoint(webSocketServer, directory, scheduler, 100, MAX_IDLE_WAIT_US);
+        server.setMessageListener(serverSkeleton);
+        server.start();
+        client = new SharedMemoryClientEndpoint(directory, clientAddress, RING_BUFFER_SIZE, MAX_IDLE_WAIT_US);
+        client.setMessageListener(clientSkeleton);
+        client.start();
+        server.scanConnections();
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.shutdown();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private static ByteBuffer message(String content) {
+        return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void serverStartsWebSocketServerAndConnectionScan() {
+        verify(webSocketServer).start();
+        verify(webSocketServer).setMessageListener(serverSkeleton);
+        verify(scheduler).scheduleWithFixedDelay(any(Runnable.class), eq(0L), eq(100L), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void messageFromClientIsReceivedByServer() {
+        client.writeBytes(serverAddress, message("request"), 1, TimeUnit.SECONDS, successAction, failureAction);
+
+        verify(successAction).execute();
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(serverSkeleton, timeout(VERIFY_TIMEOUT_MS)).transmit(captor.capture(), any(FailureAction.class));
+        assertArrayEquals("request".getBytes(StandardCharsets.UTF_8), captor.getValue());
+    }
+
+    @Test
+    public void messageToSharedMemoryClientIsNotSentThroughWebSocket() {
+        server.writeBytes(clientAddress, message("reply"), 1, TimeUnit.SECONDS, successAction, failureAction);
+
+        verify(successAction).execute();
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(clientSkeleton, timeout(VERIFY_TIMEOUT_MS)).transmit(captor.capture(), any(FailureAction.class));
+        assertArrayEquals("reply".getBytes(StandardCharsets.UTF_8), captor.getValue());
+        verify(webSocketServer, never()).writeBytes(any(WebSocketClientAddress.class),
+                                                    any(ByteBuffer.class),
+                                                    anyLong(),
+                                                    any(TimeUnit.class),
+                                                    any(SuccessAction.class),
+                                                    any(FailureAction.class));
+    }
+
+    @Test
+    public void messageToOtherClientIsSentThroughWebSocket() {
+        WebSocketClientAddress otherClientAddress = new WebSocketClientAddress("client2");
+        ByteBuffer message = message("reply");
+
+        server.writeBytes(otherClientAddress, message, 1, TimeUnit.SECONDS, successAction, failureAction);
+
+        verify(webSocketServer).writeBytes(otherClientAddress,
+                                           message,
+                                           1,
+                                           TimeUnit.SECONDS,
+                                           successAction,
+                                           failureAction);
+    }
+
+    @Test(expected = JoynrDelayMessageException.class)
+    public void writeIsDelayedIfRingBufferIsFull() {
+        ByteBuffer message = ByteBuffer.allocate(RING_BUFFER_SIZE / 4);
+        // without a listener the client does not read its ring buffer
+        client.setMessageListener(null);
+        for (int i = 0; i < 5; i++) {
+            server.writeBytes(clientAddress, message, 1, TimeUnit.SECONDS, successAction, failureAction);
+        }
+    }
+
+    @Test
+    public void connectionIsRemovedAfterClientShutdown() {
+        client.shutdown();
+        server.scanConnections();
+        ByteBuffer message = message("reply");
+
+        server.writeBytes(clientAddress, message, 1, TimeUnit.SECONDS, successAction, failureAction);
+
+        verify(webSocketServer).writeBytes(clientAddress, message, 1, TimeUnit.SECONDS, successAction, failureAction);
+        assertFalse(new File(directory, "client1" + SharedMemorySettings.TO_CLUSTER_CONTROLLER_SUFFIX).exists());
+    }
+
+    @Test
+    public void filesAreOnlyAccessibleByOwner() throws IOException {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(directory.toPath())));
+        for (String suffix : new String[]{ SharedMemorySettings.TO_CLUSTER_CONTROLLER_SUFFIX,
+                SharedMemorySettings.FROM_CLUSTER_CONTROLLER_SUFFIX, SharedMemorySettings.LOCK_SUFFIX }) {
+            File file = new File(directory, "client1" + suffix);
+            assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file.toPath())));
+        }
+    }
+
+    @Test
+    public void connectionOfTerminatedClientIsRemoved() throws IOException {
+        // files of a client which terminated without closing them, hence its lock has been released
+        File toClusterControllerFile = new File(directory, "client2"
+                + SharedMemorySettings.TO_CLUSTER_CONTROLLER_SUFFIX);
+        SharedMemoryRingBuffer.create(new File(directory, "client2"
+                + SharedMemorySettings.FROM_CLUSTER_CONTROLLER_SUFFIX), RING_BUFFER_SIZE);
+        SharedMemoryRingBuffer.create(toClusterControllerFile, RING_BUFFER_SIZE);
+        WebSocketClientAddress terminatedClientAddress = new WebSocketClientAddress("client2");
+        ByteBuffer message = message("reply");
+
+        server.scanConnections();
+        server.writeBytes(terminatedClientAddress, message, 1, TimeUnit.SECONDS, successAction, failureAction);
+
+        verify(webSocketServer).writeBytes(terminatedClientAddress,
+                                           message,
+                                           1,
+                                           TimeUnit.SECONDS,
+                                           successAction,
+                                           failureAction);
+        assertFalse(toClusterControllerFile.exists());
+    }
+
+    @Test
+    public void connectionOfRunningClientIsKept() {
+        server.scanConnections();
+
+        server.writeBytes(clientAddress, message("reply"), 1, TimeUnit.SECONDS, successAction, failureAction);
+
+        verify(clientSkeleton, timeout(VERIFY_TIMEOUT_MS)).transmit(any(byte[].class), any(FailureAction.class));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.messaging.websocket.sharedmemory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link SharedMemoryRingBuffer}.
+ */
+public class SharedMemoryRingBufferTest {
+
+    private static final int CAPACITY = 64;
+
+    private File file;
+    private SharedMemoryRingBuffer writer;
+    private SharedMemoryRingBuffer reader;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("ringbuffer", ".tocc");
+        writer = SharedMemoryRingBuffer.create(file, CAPACITY);
+        // a second mapping of the same file, as used by the other process
+        reader = SharedMemoryRingBuffer.open(file);
+        assertNotNull(reader);
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    private static ByteBuffer message(int length, int seed) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (seed + i);
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+
+    @Test
+    public void readReturnsWrittenMessagesInOrder() {
+        assertNull(reader.read());
+        assertTrue(writer.write(message(5, 1)));
+        assertTrue(writer.write(message(0, 2)));
+        assertTrue(writer.write(message(12, 3)));
+
+        assertArrayEquals(message(5, 1).array(), reader.read());
+        assertArrayEquals(new byte[0], reader.read());
+        assertArrayEquals(message(12, 3).array(), reader.read());
+        assertNull(reader.read());
+    }
+
+    @Test
+    public void writeDoesNotChangePositionOfMessage() {
+        ByteBuffer message = message(10, 0);
+        message.position(2);
+        assertTrue(writer.write(message));
+        assertEquals(2, message.position());
+        assertEquals(8, reader.read().length);
+    }
+
+    @Test
+    public void writeFailsIfRingBufferIsFull() {
+        // each record takes 4 bytes of header and 20 bytes of data
+        assertTrue(writer.write(message(20, 0)));
+        assertTrue(writer.write(message(20, 1)));
+        assertFalse(writer.write(message(20, 2)));
+
+        assertNotNull(reader.read());
+        assertTrue(writer.write(message(20, 2)));
+    }
+
+    @Test
+    public void messagesWrapAroundEndOfRingBuffer() {
+        for (int i = 0; i < 100; i++) {
+            ByteBuffer message = message(1 + i % writer.getMaxMessageSize(), i);
+            assertTrue(writer.write(message));
+            assertArrayEquals(message.array(), reader.read());
+        }
+        assertNull(reader.read());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void writeRejectsMessageLargerThanRingBuffer() {
+        writer.write(message(writer.getMaxMessageSize() + 1, 0));
+    }
+
+    @Test
+    public void messageOfMaximumSizeFitsIntoDrainedRingBuffer() {
+        // move the positions so that the message has to be wrapped to the start of the data area
+        for (int i = 0; i < 5; i++) {
+            assertTrue(writer.write(message(3, i)));
+            assertNotNull(reader.read());
+        }
+        ByteBuffer message = message(writer.getMaxMessageSize(), 0);
+        assertTrue(writer.write(message));
+        assertArrayEquals(message.array(), reader.read());
+    }
+
+    @Test
+    public void closedStateIsVisibleToOtherMapping() {
+        assertFalse(reader.isClosed());
+        writer.close();
+        assertTrue(reader.isClosed());
+    }
+
+    @Test
+    public void openReturnsNullForUninitializedFile() throws IOException {
+        File emptyFile = File.createTempFile("ringbuffer", ".tocc");
+        try {
+            assertNull(SharedMemoryRingBuffer.open(emptyFile));
+        } finally {
+            emptyFile.delete();
+        }
+    }
+}
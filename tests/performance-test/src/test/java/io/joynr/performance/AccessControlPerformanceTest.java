@@ -0,0 +1,231 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.performance;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import io.joynr.accesscontrol.AccessControlAlgorithm;
+import io.joynr.accesscontrol.DefaultDomainAccessControlProvisioning;
+import io.joynr.accesscontrol.DomainAccessControlStore;
+import io.joynr.accesscontrol.DomainAccessControlStoreEhCache;
+import io.joynr.accesscontrol.LocalDomainAccessController;
+import io.joynr.accesscontrol.LocalDomainAccessControllerImpl;
+import io.joynr.proxy.ProxyBuilderFactory;
+import joynr.infrastructure.DacTypes.MasterAccessControlEntry;
+import joynr.infrastructure.DacTypes.OwnerAccessControlEntry;
+import joynr.infrastructure.DacTypes.Permission;
+import joynr.infrastructure.DacTypes.TrustLevel;
+import joynr.types.GlobalDiscoveryEntry;
+import net.sf.ehcache.CacheManager;
+
+/**
+ * Measures consumer permission checks per second, once with the three store lookups plus the
+ * access control algorithm which are done for every uncached check, and once through the
+ * LocalDomainAccessController which memoizes the decisions.
+ */
+@RunWith(Parameterized.class)
+public class AccessControlPerformanceTest {
+
+    private static final int NUM_INTERFACES = 100;
+    private static final int NUM_USERS = 10;
+    private static final int NUM_CHECKS_PER_THREAD = 100000;
+    private static final String DOMAIN = "domain";
+    private static final String OPERATION = "operation";
+
+    private CacheManager cacheManager;
+    private DomainAccessControlStore store;
+    private LocalDomainAccessController localDomainAccessController;
+    private AccessControlAlgorithm accessControlAlgorithm = new AccessControlAlgorithm();
+    private ExecutorService executor;
+    private int numThreads = 1;
+    private String testName = "";
+    private int numRuns = 1;
+
+    private final static int NUM_WARMUP_RUNS = 3;
+    private final static int NUM_RUNS = 5;
+
+    public AccessControlPerformanceTest(Integer numThreads, Integer numRuns, String testName) {
+        this.numThreads = numThreads.intValue();
+        this.numRuns = numRuns.intValue();
+        this.testName = testName;
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{ { new Integer(1), new Integer(NUM_WARMUP_RUNS), "Warmup" },
+                { new Integer(1), new Integer(NUM_RUNS), "1 thread" },
+                { new Integer(4), new Integer(NUM_RUNS), "4 threads" } });
+    }
+
+    public interface ITestCase {
+        void run() throws Exception;
+    }
+
+    private interface PermissionCheck {
+        Permission check(String uid, String interfaceName);
+    }
+
+    @Before
+    public void setUp() {
+        cacheManager = CacheManager.create();
+        store = new DomainAccessControlStoreEhCache(cacheManager, new DefaultDomainAccessControlProvisioning());
+        for (int i = 0; i < NUM_INTERFACES; i++) {
+            String interfaceName = "interface" + i;
+            store.updateMasterAccessControlEntry(new MasterAccessControlEntry("*",
+                                                                              DOMAIN,
+                                                                              interfaceName,
+                                                                              TrustLevel.LOW,
+                                                                              new TrustLevel[]{ TrustLevel.LOW,
+                                                                                      TrustLevel.HIGH },
+                                                                              TrustLevel.LOW,
+                                                                              new TrustLevel[]{ TrustLevel.LOW,
+                                                                                      TrustLevel.HIGH },
+                                                                              "*",
+                                                                              Permission.NO,
+                                                                              new Permission[]{ Permission.NO,
+                                                                                      Permission.YES }));
+            for (int user = 0; user < NUM_USERS; user++) {
+                store.updateOwnerAccessControlEntry(new OwnerAccessControlEntry("user" + user,
+                                                                                DOMAIN,
+                                                                                interfaceName,
+                                                                                TrustLevel.LOW,
+                                                                                TrustLevel.LOW,
+                                                                                OPERATION,
+                                                                                Permission.YES));
+            }
+        }
+        GlobalDiscoveryEntry capabilitiesDirectoryEntry = new GlobalDiscoveryEntry();
+        capabilitiesDirectoryEntry.setDomain("discoveryDirectoryDomain");
+        localDomainAccessController = new LocalDomainAccessControllerImpl(capabilitiesDirectoryEntry,
+                                                                          store,
+                                                                          mock(ProxyBuilderFactory.class),
+                                                                          "systemServicesDomain");
+        executor = Executors.newFixedThreadPool(numThreads);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+        cacheManager.removeAllCaches();
+    }
+
+    @Test
+    public void storeLookups() throws Exception {
+        runPermissionChecks("store lookups", new PermissionCheck() {
+            @Override
+            public Permission check(String uid, String interfaceName) {
+                MasterAccessControlEntry masterAce = store.getMasterAccessControlEntry(uid,
+                                                                                       DOMAIN,
+                                                                                       interfaceName,
+                                                                                       OPERATION);
+                MasterAccessControlEntry mediatorAce = store.getMediatorAccessControlEntry(uid,
+                                                                                           DOMAIN,
+                                                                                           interfaceName,
+                                                                                           OPERATION);
+                OwnerAccessControlEntry ownerAce = store.getOwnerAccessControlEntry(uid,
+                                                                                    DOMAIN,
+                                                                                    interfaceName,
+                                                                                    OPERATION);
+                return accessControlAlgorithm.getConsumerPermission(masterAce, mediatorAce, ownerAce, TrustLevel.HIGH);
+            }
+        });
+    }
+
+    @Test
+    public void localDomainAccessController() throws Exception {
+        runPermissionChecks("LocalDomainAccessController", new PermissionCheck() {
+            @Override
+            public Permission check(String uid, String interfaceName) {
+                return localDomainAccessController.getConsumerPermission(uid,
+                                                                         DOMAIN,
+                                                                         interfaceName,
+                                                                         OPERATION,
+                                                                         TrustLevel.HIGH);
+            }
+        });
+    }
+
+    private void runPermissionChecks(String name, final PermissionCheck permissionCheck) throws Exception {
+        final String[] interfaceNames = new String[NUM_INTERFACES];
+        for (int i = 0; i < NUM_INTERFACES; i++) {
+            interfaceNames[i] = "interface" + i;
+        }
+        final String[] uids = new String[NUM_USERS];
+        for (int i = 0; i < NUM_USERS; i++) {
+            uids[i] = "user" + i;
+        }
+        runBenchmarkTest(String.format("%s, %s", name, testName), new ITestCase() {
+            @Override
+            public void run() throws Exception {
+                List<Future<?>> checks = new ArrayList<>();
+                for (int thread = 0; thread < numThreads; thread++) {
+                    checks.add(executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() {
+                            for (int i = 0; i < NUM_CHECKS_PER_THREAD; i++) {
+                                if (permissionCheck.check(uids[i % NUM_USERS], interfaceNames[i % NUM_INTERFACES]) != Permission.YES) {
+                                    throw new IllegalStateException("unexpected permission");
+                                }
+                            }
+                            return null;
+                        }
+                    }));
+                }
+                for (Future<?> check : checks) {
+                    check.get();
+                }
+            }
+        });
+    }
+
+    public void runBenchmarkTest(String name, ITestCase testCase) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < numRuns; i++) {
+            testCase.run();
+        }
+        long end = System.nanoTime();
+
+        double deltaMs = (double) (end - start) / 1000000.0;
+        double averageRunMs = deltaMs / (double) numRuns;
+        double checksPerSecond = (double) numRuns * numThreads * NUM_CHECKS_PER_THREAD / (deltaMs / 1000.0);
+
+        System.out.println(String.format("Test case %s: %d runs, average %.3f ms, total %.3f ms, %.0f checks/s",
+                                         name,
+                                         numRuns,
+                                         averageRunMs,
+                                         deltaMs,
+                                         checksPerSecond));
+    }
+}
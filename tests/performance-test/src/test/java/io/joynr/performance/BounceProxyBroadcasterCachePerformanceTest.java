@@ -0,0 +1,153 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.performance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.atmosphere.cache.BroadcastMessage;
+import org.atmosphere.cache.UUIDBroadcasterCache;
+import org.atmosphere.cpr.BroadcasterCache;
+import org.junit.Test;
+
+import io.joynr.messaging.bounceproxy.BounceProxyBroadcasterCache;
+import joynr.ImmutableMessage;
+import joynr.Message;
+import joynr.MutableMessage;
+
+/**
+ * Compares Atmosphere's UUIDBroadcasterCache with the {@link BounceProxyBroadcasterCache} of the bounce proxy. Each
+ * channel has its own cache with one client which is not polling, so that all posted messages are cached. Several
+ * producer threads post messages to all channels round robin. The test reports the throughput of the producers and
+ * the heap retained by the caches per cached message, excluding the messages themselves.
+ * <p>
+ * With the defaults, the channels are filled with 100 messages each, which is below the message limit of the
+ * {@link BounceProxyBroadcasterCache}. Set joynr.performance.bounceproxy.messagesPerChannel to a value above
+ * {@value BounceProxyBroadcasterCache#DEFAULT_MAX_MESSAGES_PER_CHANNEL} to compare the caches once the limit applies;
+ * UUIDBroadcasterCache then needs a correspondingly large heap.
+ */
+public class BounceProxyBroadcasterCachePerformanceTest {
+
+    private static final int NUM_CHANNELS = Integer.getInteger("joynr.performance.bounceproxy.channels", 10000);
+    private static final int NUM_MESSAGES_PER_CHANNEL = Integer.getInteger("joynr.performance.bounceproxy.messagesPerChannel",
+                                                                           100);
+    private static final int NUM_PRODUCERS = Integer.getInteger("joynr.performance.bounceproxy.producers", 8);
+    private static final int PAYLOAD_SIZE = 1024;
+    // messages are shared between the channels so that only the memory of the caches is measured
+    private static final int NUM_DISTINCT_MESSAGES = 64;
+    private static final long TTL_MS = TimeUnit.MINUTES.toMillis(10);
+
+    private interface CacheFactory {
+        BroadcasterCache create(String clientId);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static ImmutableMessage[] createMessages() throws Exception {
+        ImmutableMessage[] messages = new ImmutableMessage[NUM_DISTINCT_MESSAGES];
+        for (int i = 0; i < messages.length; i++) {
+            MutableMessage message = new MutableMessage();
+            message.setSender("sender");
+            message.setRecipient("recipient");
+            message.setType(Message.VALUE_MESSAGE_TYPE_ONE_WAY);
+            message.setTtlAbsolute(true);
+            message.setTtlMs(System.currentTimeMillis() + TTL_MS);
+            message.setPayload(new byte[PAYLOAD_SIZE]);
+            messages[i] = message.getImmutableMessage();
+        }
+        return messages;
+    }
+
+    private void runTest(String name, CacheFactory cacheFactory) throws Exception {
+        final ImmutableMessage[] messages = createMessages();
+        final List<BroadcasterCache> caches = new ArrayList<>(NUM_CHANNELS);
+        long memoryBefore = usedMemory();
+        for (int i = 0; i < NUM_CHANNELS; i++) {
+            caches.add(cacheFactory.create("client-" + i));
+        }
+
+        final AtomicInteger nextMessage = new AtomicInteger();
+        final long totalMessages = (long) NUM_CHANNELS * NUM_MESSAGES_PER_CHANNEL;
+        final CountDownLatch producersFinished = new CountDownLatch(NUM_PRODUCERS);
+        long start = System.nanoTime();
+        for (int p = 0; p < NUM_PRODUCERS; p++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long messageIndex;
+                    while ((messageIndex = nextMessage.getAndIncrement()) < totalMessages) {
+                        int channel = (int) (messageIndex % NUM_CHANNELS);
+                        caches.get(channel)
+                              .addToCache("channel-" + channel,
+                                          null,
+                                          new BroadcastMessage(messages[(int) (messageIndex % messages.length)]));
+                    }
+                    producersFinished.countDown();
+                }
+            }, "producer-" + p).start();
+        }
+        producersFinished.await();
+        long end = System.nanoTime();
+        long memoryAfter = usedMemory();
+
+        System.out.println(String.format("Test case %s: %d channels, %d messages per channel, %d producers: "
+                                                 + "%.0f msgs/s, %.0f bytes retained per message",
+                                         name,
+                                         NUM_CHANNELS,
+                                         NUM_MESSAGES_PER_CHANNEL,
+                                         NUM_PRODUCERS,
+                                         totalMessages / ((end - start) / 1e9),
+                                         (double) (memoryAfter - memoryBefore) / totalMessages));
+        // keep the caches reachable until the memory has been measured
+        caches.clear();
+    }
+
+    @Test
+    public void uuidBroadcasterCache() throws Exception {
+        runTest("UUIDBroadcasterCache", new CacheFactory() {
+            @Override
+            public BroadcasterCache create(String clientId) {
+                UUIDBroadcasterCache cache = new UUIDBroadcasterCache();
+                cache.activeClients().put(clientId, System.currentTimeMillis());
+                return cache;
+            }
+        });
+    }
+
+    @Test
+    public void bounceProxyBroadcasterCache() throws Exception {
+        runTest("BounceProxyBroadcasterCache", new CacheFactory() {
+            @Override
+            public BroadcasterCache create(String clientId) {
+                BounceProxyBroadcasterCache cache = new BounceProxyBroadcasterCache();
+                cache.addActiveClient(clientId);
+                return cache;
+            }
+        });
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.performance;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.cfg.ContextAttributes;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.google.inject.Guice;
+
+import io.joynr.messaging.JsonMessageSerializerModule;
+import io.joynr.messaging.serialize.PublicationTypeResolver;
+import joynr.SubscriptionPublication;
+import joynr.types.ProviderScope;
+import joynr.types.Version;
+
+/**
+ * Compares delivering broadcast publications to a listener by converting the generically deserialized values with
+ * ObjectMapper.convertValue and looking up onReceive for every publication with deserializing the values directly
+ * into the types provided by a PublicationTypeResolver and invoking a method handle of onReceive created once.
+ */
+@RunWith(Parameterized.class)
+public class BroadcastPublicationPerformanceTest {
+
+    private static final int NUM_PUBLICATIONS = 10000;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader typedPublicationReader;
+    private byte[] payload;
+    private Object[] values;
+    private Class<?>[] outParameterTypes;
+    private Object listener;
+    private String testName = "";
+    private int numRuns = 1;
+
+    private final static int NUM_WARMUP_RUNS = 10;
+    private final static int NUM_RUNS = 20;
+
+    public static class StructListener {
+        public void onReceive(Version version) {
+        }
+    }
+
+    public static class EnumArrayLongListener {
+        public void onReceive(ProviderScope scope, String[] names, Long count) {
+        }
+    }
+
+    public static class StructArrayListener {
+        public void onReceive(Version[] versions, Double value) {
+        }
+    }
+
+    public BroadcastPublicationPerformanceTest(Object[] values, Object listener, Integer numRuns, String testName) {
+        this.values = values;
+        this.listener = listener;
+        this.numRuns = numRuns.intValue();
+        this.testName = testName;
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        Object[] enumArrayLong = new Object[]{ ProviderScope.LOCAL, new String[]{ "a", "b", "c" }, 5L };
+        return Arrays.asList(new Object[][]{
+                { enumArrayLong, new EnumArrayLongListener(), new Integer(NUM_WARMUP_RUNS), "Warmup" },
+                { new Object[]{ new Version(47, 11) }, new StructListener(), new Integer(NUM_RUNS), "struct" },
+                { enumArrayLong, new EnumArrayLongListener(), new Integer(NUM_RUNS), "enum, array and long" },
+                { new Object[]{ new Version[]{ new Version(1, 2), new Version(3, 4) }, 2.5 },
+                        new StructArrayListener(), new Integer(NUM_RUNS), "struct array and double" } });
+    }
+
+    public interface ITestCase {
+        void run() throws Exception;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        objectMapper = Guice.createInjector(new JsonMessageSerializerModule()).getInstance(ObjectMapper.class);
+        payload = objectMapper.writeValueAsBytes(new SubscriptionPublication(Arrays.asList(values), "subscriptionId"));
+        for (Method method : listener.getClass().getDeclaredMethods()) {
+            if (method.getName().equals("onReceive")) {
+                outParameterTypes = method.getParameterTypes();
+            }
+        }
+        PublicationTypeResolver resolver = new PublicationTypeResolver() {
+            @Override
+            public JavaType[] getSubscriptionPublicationTypes(String subscriptionId, TypeFactory typeFactory) {
+                JavaType[] types = new JavaType[outParameterTypes.length];
+                for (int i = 0; i < outParameterTypes.length; i++) {
+                    types[i] = typeFactory.constructType(outParameterTypes[i]);
+                }
+                return types;
+            }
+
+            @Override
+            public JavaType[] getMulticastPublicationTypes(String multicastId, TypeFactory typeFactory) {
+                return null;
+            }
+        };
+        typedPublicationReader = objectMapper.readerFor(SubscriptionPublication.class)
+                                             .with(ContextAttributes.getEmpty()
+                                                                    .withSharedAttribute(PublicationTypeResolver.ATTRIBUTE_KEY,
+                                                                                         resolver));
+    }
+
+    @Test
+    public void deliverPublications() throws Exception {
+        runBenchmarkTest(String.format("convertValue and onReceive lookup, %s", testName), new ITestCase() {
+            @Override
+            public void run() throws Exception {
+                for (int i = 0; i < NUM_PUBLICATIONS; i++) {
+                    List<?> response = (List<?>) objectMapper.readValue(payload, SubscriptionPublication.class)
+                                                             .getResponse();
+                    Object[] publicizedValues = new Object[outParameterTypes.length];
+                    Class<?>[] types = new Class<?>[outParameterTypes.length];
+                    for (int j = 0; j < outParameterTypes.length; j++) {
+                        publicizedValues[j] = objectMapper.convertValue(response.get(j), outParameterTypes[j]);
+                        types[j] = publicizedValues[j].getClass();
+                    }
+                    Method receive = listener.getClass().getDeclaredMethod("onReceive", types);
+                    if (!receive.isAccessible()) {
+                        receive.setAccessible(true);
+                    }
+                    receive.invoke(listener, publicizedValues);
+                }
+            }
+        });
+        Method receiveMethod = listener.getClass().getDeclaredMethod("onReceive", outParameterTypes);
+        final MethodHandle receive = MethodHandles.lookup()
+                                                  .unreflect(receiveMethod)
+                                                  .bindTo(listener)
+                                                  .asSpreader(Object[].class, outParameterTypes.length)
+                                                  .asType(MethodType.methodType(void.class, Object[].class));
+        runBenchmarkTest(String.format("typed deserialization and onReceive method handle, %s", testName),
+                         new ITestCase() {
+                             @Override
+                             public void run() throws Exception {
+                                 for (int i = 0; i < NUM_PUBLICATIONS; i++) {
+                                     SubscriptionPublication publication = typedPublicationReader.readValue(payload);
+                                     Object[] publicizedValues = ((List<?>) publication.getResponse()).toArray();
+                                     try {
+                                         receive.invokeExact(publicizedValues);
+                                     } catch (Throwable e) {
+                                         throw new Exception(e);
+                                     }
+                                 }
+                             }
+                         });
+    }
+
+    public void runBenchmarkTest(String name, ITestCase testCase) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < numRuns; i++) {
+            testCase.run();
+        }
+        long end = System.nanoTime();
+
+        double deltaMs = (double) (end - start) / 1000000.0;
+        double averageRunMs = deltaMs / (double) numRuns;
+
+        System.out.println(String.format("Test case %s: %d runs, average %.3f ms, total %.3f ms",
+                                         name,
+                                         numRuns,
+                                         averageRunMs,
+                                         deltaMs));
+    }
+}
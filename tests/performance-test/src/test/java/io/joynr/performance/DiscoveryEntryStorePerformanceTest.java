@@ -0,0 +1,172 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.performance;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import io.joynr.capabilities.CapabilitiesProvisioning;
+import io.joynr.capabilities.DiscoveryEntryStore;
+import io.joynr.capabilities.DiscoveryEntryStoreInMemory;
+import joynr.types.DiscoveryEntry;
+import joynr.types.ProviderQos;
+import joynr.types.Version;
+
+/**
+ * Measures concurrent lookups in the DiscoveryEntryStoreInMemory, optionally while another thread keeps adding and
+ * removing entries.
+ */
+@RunWith(Parameterized.class)
+public class DiscoveryEntryStorePerformanceTest {
+
+    private static final String INTERFACE_NAME = "test/Interface";
+    private static final int NUM_DOMAINS = 100;
+    private static final int NUM_LOOKUPS_PER_THREAD = 100000;
+
+    private DiscoveryEntryStore store;
+    private ExecutorService executor;
+    private int numLookupThreads = 1;
+    private boolean withWriter;
+    private String testName = "";
+    private int numRuns = 1;
+
+    private final static int NUM_WARMUP_RUNS = 5;
+    private final static int NUM_RUNS = 10;
+
+    public DiscoveryEntryStorePerformanceTest(Integer numLookupThreads,
+                                              Boolean withWriter,
+                                              Integer numRuns,
+                                              String testName) {
+        this.numLookupThreads = numLookupThreads.intValue();
+        this.withWriter = withWriter.booleanValue();
+        this.numRuns = numRuns.intValue();
+        this.testName = testName;
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{ { new Integer(4), Boolean.TRUE, new Integer(NUM_WARMUP_RUNS), "Warmup" },
+                { new Integer(1), Boolean.FALSE, new Integer(NUM_RUNS), "1 lookup thread" },
+                { new Integer(4), Boolean.FALSE, new Integer(NUM_RUNS), "4 lookup threads" },
+                { new Integer(4), Boolean.TRUE, new Integer(NUM_RUNS), "4 lookup threads, 1 add/remove thread" } });
+    }
+
+    public interface ITestCase {
+        void run() throws Exception;
+    }
+
+    @Before
+    public void setUp() {
+        store = new DiscoveryEntryStoreInMemory(mock(CapabilitiesProvisioning.class));
+        for (int i = 0; i < NUM_DOMAINS; i++) {
+            store.add(createDiscoveryEntry("Domain" + i, "participant" + i));
+        }
+        executor = Executors.newFixedThreadPool(numLookupThreads + 1);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    private static DiscoveryEntry createDiscoveryEntry(String domain, String participantId) {
+        return new DiscoveryEntry(new Version(1, 0),
+                                  domain,
+                                  INTERFACE_NAME,
+                                  participantId,
+                                  new ProviderQos(),
+                                  System.currentTimeMillis(),
+                                  Long.MAX_VALUE,
+                                  "publicKeyId");
+    }
+
+    @Test
+    public void lookup() throws Exception {
+        runBenchmarkTest(String.format("DiscoveryEntryStoreInMemory lookup, %s", testName), new ITestCase() {
+            @Override
+            public void run() throws Exception {
+                List<Future<?>> lookups = new ArrayList<>();
+                for (int thread = 0; thread < numLookupThreads; thread++) {
+                    lookups.add(executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() {
+                            for (int i = 0; i < NUM_LOOKUPS_PER_THREAD; i++) {
+                                int domainIndex = i % NUM_DOMAINS;
+                                store.lookup(new String[]{ "Domain" + domainIndex }, INTERFACE_NAME);
+                                store.lookup("participant" + domainIndex, Long.MAX_VALUE);
+                            }
+                            return null;
+                        }
+                    }));
+                }
+                Future<?> writer = null;
+                if (withWriter) {
+                    writer = executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() {
+                            for (int i = 0; i < NUM_LOOKUPS_PER_THREAD / 10; i++) {
+                                store.add(createDiscoveryEntry("Domain" + (i % NUM_DOMAINS), "writer"));
+                                store.remove("writer");
+                            }
+                            return null;
+                        }
+                    });
+                }
+                for (Future<?> lookup : lookups) {
+                    lookup.get();
+                }
+                if (writer != null) {
+                    writer.get();
+                }
+            }
+        });
+    }
+
+    public void runBenchmarkTest(String name, ITestCase testCase) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < numRuns; i++) {
+            testCase.run();
+        }
+        long end = System.nanoTime();
+
+        double deltaMs = (double) (end - start) / 1000000.0;
+        double averageRunMs = deltaMs / (double) numRuns;
+
+        System.out.println(String.format("Test case %s: %d runs, average %.3f ms, total %.3f ms",
+                                         name,
+                                         numRuns,
+                                         averageRunMs,
+                                         deltaMs));
+    }
+}
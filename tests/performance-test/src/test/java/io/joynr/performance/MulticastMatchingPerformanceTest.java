@@ -0,0 +1,138 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.performance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import io.joynr.messaging.util.MulticastWildcardRegexFactory;
+import io.joynr.messaging.util.MulticastWildcardTrie;
+
+/**
+ * Compares matching incoming multicast IDs against every registered wildcard regular expression
+ * with the lookup in the MulticastWildcardTrie.
+ */
+@RunWith(Parameterized.class)
+public class MulticastMatchingPerformanceTest {
+
+    private static final int NUM_PROVIDERS = 100;
+    private static final int NUM_LOOKUPS = 1000;
+
+    private final List<Pattern> patterns = new ArrayList<Pattern>();
+    private final MulticastWildcardTrie<String> trie = new MulticastWildcardTrie<String>();
+    private final String[] multicastIds = new String[NUM_LOOKUPS];
+    private int numSubscriptions = 1;
+    private String testName = "";
+    private int numRuns = 1;
+
+    private final static int NUM_WARMUP_RUNS = 5;
+    private final static int NUM_RUNS = 10;
+
+    public MulticastMatchingPerformanceTest(Integer numSubscriptions, Integer numRuns, String testName) {
+        this.numSubscriptions = numSubscriptions.intValue();
+        this.numRuns = numRuns.intValue();
+        this.testName = testName;
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{ { new Integer(10000), new Integer(NUM_WARMUP_RUNS), "Warmup" },
+                { new Integer(1000), new Integer(NUM_RUNS), "1000 wildcard subscriptions" },
+                { new Integer(10000), new Integer(NUM_RUNS), "10000 wildcard subscriptions" } });
+    }
+
+    public interface ITestCase {
+        void run() throws Exception;
+    }
+
+    @Before
+    public void setUp() {
+        MulticastWildcardRegexFactory regexFactory = new MulticastWildcardRegexFactory();
+        for (int i = 0; i < numSubscriptions; i++) {
+            // single level wildcards for the first partition, every tenth subscription also for the rest
+            String multicastId = "provider" + (i % NUM_PROVIDERS) + "/broadcast/+/area" + i + (i % 10 == 0 ? "/*" : "");
+            patterns.add(regexFactory.createIdPattern(multicastId));
+            trie.put(multicastId, "subscription" + i);
+        }
+        for (int i = 0; i < NUM_LOOKUPS; i++) {
+            int area = (i * 7919) % numSubscriptions;
+            multicastIds[i] = "provider" + (area % NUM_PROVIDERS) + "/broadcast/vehicle" + i + "/area" + area;
+        }
+    }
+
+    @Test
+    public void matchMulticastIds() throws Exception {
+        runBenchmarkTest(String.format("Regular expressions, %s", testName), new ITestCase() {
+            @Override
+            public void run() throws Exception {
+                int matches = 0;
+                for (String multicastId : multicastIds) {
+                    for (Pattern pattern : patterns) {
+                        if (pattern.matcher(multicastId).matches()) {
+                            matches++;
+                        }
+                    }
+                }
+                checkMatches(matches);
+            }
+        });
+        runBenchmarkTest(String.format("MulticastWildcardTrie, %s", testName), new ITestCase() {
+            @Override
+            public void run() throws Exception {
+                int matches = 0;
+                for (String multicastId : multicastIds) {
+                    matches += trie.getValues(multicastId).size();
+                }
+                checkMatches(matches);
+            }
+        });
+    }
+
+    private void checkMatches(int matches) {
+        if (matches != NUM_LOOKUPS) {
+            throw new IllegalStateException("unexpected number of matches: " + matches);
+        }
+    }
+
+    public void runBenchmarkTest(String name, ITestCase testCase) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < numRuns; i++) {
+            testCase.run();
+        }
+        long end = System.nanoTime();
+
+        double deltaMs = (double) (end - start) / 1000000.0;
+        double averageRunMs = deltaMs / (double) numRuns;
+
+        System.out.println(String.format("Test case %s: %d runs, average %.3f ms, total %.3f ms",
+                                         name,
+                                         numRuns,
+                                         averageRunMs,
+                                         deltaMs));
+    }
+}
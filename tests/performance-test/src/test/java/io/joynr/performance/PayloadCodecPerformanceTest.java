@@ -0,0 +1,167 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.performance;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import io.joynr.messaging.JsonMessageSerializerModule;
+import io.joynr.messaging.serialize.JsonPayloadCodec;
+import io.joynr.messaging.serialize.PayloadCodec;
+import io.joynr.messaging.serialize.SmilePayloadCodec;
+import joynr.MulticastPublication;
+import joynr.Reply;
+import joynr.Request;
+import joynr.SubscriptionPublication;
+
+/**
+ * Compares payload size and (de)serialization throughput of the JSON and the Smile payload codec.
+ */
+@RunWith(Parameterized.class)
+public class PayloadCodecPerformanceTest {
+
+    private PayloadCodec jsonPayloadCodec;
+    private PayloadCodec smilePayloadCodec;
+    private int numElements = 0;
+    private String testName = "";
+    private int numRuns = 1;
+    private Map<Class<?>, Object> payloads;
+
+    private final static int NUM_WARMUP_RUNS = 1000;
+    private final static int NUM_RUNS = 1000;
+
+    public PayloadCodecPerformanceTest(Integer numElements, Integer numRuns, String testName) {
+        this.numElements = numElements.intValue();
+        this.numRuns = numRuns.intValue();
+        this.testName = testName;
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{ { new Integer(100), new Integer(NUM_WARMUP_RUNS), "Warmup" },
+                { new Integer(10), new Integer(NUM_RUNS), "10 elements" },
+                { new Integer(100), new Integer(NUM_RUNS), "100 elements" },
+                { new Integer(1000), new Integer(NUM_RUNS), "1000 elements" } });
+    }
+
+    public interface ITestCase {
+        void run() throws Exception;
+    }
+
+    @Before
+    public void setUp() {
+        Injector injector = Guice.createInjector(new JsonMessageSerializerModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                requestStaticInjection(Request.class);
+            }
+        });
+
+        jsonPayloadCodec = new JsonPayloadCodec(injector.getInstance(ObjectMapper.class));
+        smilePayloadCodec = new SmilePayloadCodec();
+
+        Double[] values = new Double[numElements];
+        String[] names = new String[numElements];
+        for (int i = 0; i < numElements; i++) {
+            values[i] = i / 3.0;
+            names[i] = "element" + i;
+        }
+
+        payloads = new LinkedHashMap<Class<?>, Object>();
+        payloads.put(Request.class, new Request("setValues", new Object[]{ names, values }, new Class<?>[]{
+                String[].class, Double[].class }));
+        payloads.put(Reply.class, new Reply("requestReplyId", (Object) names));
+        payloads.put(SubscriptionPublication.class, new SubscriptionPublication(Arrays.asList((Object) values),
+                                                                                "subscriptionId"));
+        payloads.put(MulticastPublication.class, new MulticastPublication(Arrays.asList(names, values), "multicastId"));
+    }
+
+    @Test
+    public void serializePayloads() throws Exception {
+        for (final Object payload : payloads.values()) {
+            String name = payload.getClass().getSimpleName();
+            for (final PayloadCodec payloadCodec : Arrays.asList(jsonPayloadCodec, smilePayloadCodec)) {
+                int size = payloadCodec.serialize(payload).length;
+                runSerializationBenchmarkTest(String.format("%s %s - encode (%d bytes), %s",
+                                                            name,
+                                                            payloadCodec.getName(),
+                                                            size,
+                                                            testName),
+                                              new ITestCase() {
+                                                  @Override
+                                                  public void run() throws Exception {
+                                                      payloadCodec.serialize(payload);
+                                                  }
+                                              });
+            }
+        }
+    }
+
+    @Test
+    public void deserializePayloads() throws Exception {
+        for (Map.Entry<Class<?>, Object> entry : payloads.entrySet()) {
+            final Class<?> payloadType = entry.getKey();
+            String name = payloadType.getSimpleName();
+            for (final PayloadCodec payloadCodec : Arrays.asList(jsonPayloadCodec, smilePayloadCodec)) {
+                final byte[] serializedPayload = payloadCodec.serialize(entry.getValue());
+                runSerializationBenchmarkTest(String.format("%s %s - decode (%d bytes), %s",
+                                                            name,
+                                                            payloadCodec.getName(),
+                                                            serializedPayload.length,
+                                                            testName),
+                                              new ITestCase() {
+                                                  @Override
+                                                  public void run() throws Exception {
+                                                      payloadCodec.deserialize(serializedPayload, payloadType);
+                                                  }
+                                              });
+            }
+        }
+    }
+
+    public void runSerializationBenchmarkTest(String name, ITestCase testCase) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < numRuns; i++) {
+            testCase.run();
+        }
+        long end = System.nanoTime();
+
+        double deltaMs = (double) (end - start) / 1000000.0;
+        double averageRunMs = deltaMs / (double) numRuns;
+
+        System.out.println(String.format("Test case %s: %d runs, average %.3f ms, total %.3f ms",
+                                         name,
+                                         numRuns,
+                                         averageRunMs,
+                                         deltaMs));
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.performance;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Charsets;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import io.joynr.messaging.JsonMessageSerializerModule;
+import joynr.MulticastPublication;
+import joynr.Reply;
+import joynr.Request;
+import joynr.SubscriptionPublication;
+
+/**
+ * Compares the String based payload (de)serialization which was formerly used by MutableMessageFactory and
+ * DispatcherImpl with the byte based pipeline which is used now. Besides the run time, the bytes allocated per
+ * run are printed if the JVM supports thread allocation accounting.
+ */
+@RunWith(Parameterized.class)
+public class PayloadSerializationPerformanceTest {
+
+    private ObjectMapper objectMapper;
+    private int payloadSize = 0;
+    private String testName = "";
+    private int numRuns = 1;
+    private Map<Class<?>, Object> payloads;
+
+    private final static int NUM_WARMUP_RUNS = 1000;
+    private final static int NUM_RUNS = 1000;
+
+    public PayloadSerializationPerformanceTest(Integer payloadSize, Integer numRuns, String testName) {
+        this.payloadSize = payloadSize.intValue();
+        this.numRuns = numRuns.intValue();
+        this.testName = testName;
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{ { new Integer(1000), new Integer(NUM_WARMUP_RUNS), "Warmup" },
+                { new Integer(100), new Integer(NUM_RUNS), "100 chars" },
+                { new Integer(1000), new Integer(NUM_RUNS), "1k chars" },
+                { new Integer(10000), new Integer(NUM_RUNS), "10k chars" },
+                { new Integer(100000), new Integer(NUM_RUNS), "100k chars" } });
+    }
+
+    public interface ITestCase {
+        void run() throws Exception;
+    }
+
+    @Before
+    public void setUp() {
+        Injector injector = Guice.createInjector(new JsonMessageSerializerModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                requestStaticInjection(Request.class);
+            }
+        });
+
+        objectMapper = injector.getInstance(ObjectMapper.class);
+
+        char[] chars = new char[payloadSize];
+        Arrays.fill(chars, 'x');
+        String text = new String(chars);
+
+        payloads = new LinkedHashMap<Class<?>, Object>();
+        payloads.put(Request.class, new Request("methodWithStrings", new Object[]{ text, 42, true }, new Class<?>[]{
+                String.class, Integer.class, Boolean.class }));
+        payloads.put(Reply.class, new Reply("requestReplyId", text));
+        payloads.put(SubscriptionPublication.class, new SubscriptionPublication(Arrays.asList(text), "subscriptionId"));
+        payloads.put(MulticastPublication.class, new MulticastPublication(Arrays.asList(text, 3.14d), "multicastId"));
+    }
+
+    @Test
+    public void serializePayloads() throws Exception {
+        for (final Object payload : payloads.values()) {
+            String name = payload.getClass().getSimpleName();
+            runSerializationBenchmarkTest(String.format("%s String - encode, %s", name, testName), new ITestCase() {
+                @Override
+                public void run() throws Exception {
+                    objectMapper.writeValueAsString(payload).getBytes(Charsets.UTF_8);
+                }
+            });
+            runSerializationBenchmarkTest(String.format("%s bytes - encode, %s", name, testName), new ITestCase() {
+                @Override
+                public void run() throws Exception {
+                    objectMapper.writeValueAsBytes(payload);
+                }
+            });
+        }
+    }
+
+    @Test
+    public void deserializePayloads() throws Exception {
+        for (Map.Entry<Class<?>, Object> entry : payloads.entrySet()) {
+            final Class<?> payloadType = entry.getKey();
+            final byte[] body = objectMapper.writeValueAsBytes(entry.getValue());
+            String name = payloadType.getSimpleName();
+            runSerializationBenchmarkTest(String.format("%s String - decode, %s", name, testName), new ITestCase() {
+                @Override
+                public void run() throws Exception {
+                    objectMapper.readValue(new String(body, Charsets.UTF_8), payloadType);
+                }
+            });
+            runSerializationBenchmarkTest(String.format("%s bytes - decode, %s", name, testName), new ITestCase() {
+                @Override
+                public void run() throws Exception {
+                    objectMapper.readValue(body, payloadType);
+                }
+            });
+        }
+    }
+
+    public void runSerializationBenchmarkTest(String name, ITestCase testCase) throws Exception {
+        long allocatedBefore = getAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < numRuns; i++) {
+            testCase.run();
+        }
+        long end = System.nanoTime();
+        long allocatedAfter = getAllocatedBytes();
+
+        double deltaMs = (double) (end - start) / 1000000.0;
+        double averageRunMs = deltaMs / (double) numRuns;
+        String allocated = (allocatedBefore < 0 || allocatedAfter < 0) ? "n/a"
+                : String.valueOf((allocatedAfter - allocatedBefore) / numRuns);
+
+        System.out.println(String.format("Test case %s: %d runs, average %.3f ms, total %.3f ms, allocated %s bytes/run",
+                                         name,
+                                         numRuns,
+                                         averageRunMs,
+                                         deltaMs,
+                                         allocated));
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread()
+                                                                                                  .getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.performance;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Guice;
+
+import io.joynr.dispatching.subscription.SharedPublicationResponse;
+import io.joynr.messaging.JsonMessageSerializerModule;
+import io.joynr.messaging.serialize.JsonPayloadCodec;
+import joynr.SubscriptionPublication;
+
+/**
+ * Compares serializing an attribute publication separately for each subscription with serializing it once and
+ * filling in the subscriptionId per subscription.
+ */
+@RunWith(Parameterized.class)
+public class PublicationFanOutPerformanceTest {
+
+    private JsonPayloadCodec payloadCodec;
+    private Object value;
+    private int numSubscriptions = 1;
+    private String testName = "";
+    private int numRuns = 1;
+
+    private final static int NUM_SUBSCRIPTIONS = 1000;
+    private final static int NUM_WARMUP_RUNS = 10;
+    private final static int NUM_RUNS = 100;
+
+    public PublicationFanOutPerformanceTest(Integer numSubscriptions, Integer numRuns, String testName) {
+        this.numSubscriptions = numSubscriptions.intValue();
+        this.numRuns = numRuns.intValue();
+        this.testName = testName;
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                { new Integer(NUM_SUBSCRIPTIONS), new Integer(NUM_WARMUP_RUNS), "Warmup" },
+                { new Integer(10), new Integer(NUM_RUNS), "10 subscriptions" },
+                { new Integer(100), new Integer(NUM_RUNS), "100 subscriptions" },
+                { new Integer(NUM_SUBSCRIPTIONS), new Integer(NUM_RUNS), "1000 subscriptions" } });
+    }
+
+    public interface ITestCase {
+        void run() throws Exception;
+    }
+
+    @Before
+    public void setUp() {
+        payloadCodec = new JsonPayloadCodec(Guice.createInjector(new JsonMessageSerializerModule())
+                                                 .getInstance(ObjectMapper.class));
+        Double[] doubles = new Double[1000];
+        for (int i = 0; i < doubles.length; i++) {
+            doubles[i] = i / 3.0;
+        }
+        value = doubles;
+    }
+
+    @Test
+    public void publishAttributeValue() throws Exception {
+        runSerializationBenchmarkTest(String.format("serialize per subscription, %s", testName), new ITestCase() {
+            @Override
+            public void run() throws Exception {
+                for (int i = 0; i < numSubscriptions; i++) {
+                    payloadCodec.serialize(new SubscriptionPublication(Arrays.asList(value), "subscription" + i));
+                }
+            }
+        });
+        runSerializationBenchmarkTest(String.format("shared response, %s", testName), new ITestCase() {
+            @Override
+            public void run() throws Exception {
+                SharedPublicationResponse response = new SharedPublicationResponse(value);
+                for (int i = 0; i < numSubscriptions; i++) {
+                    response.serializePublication("subscription" + i, payloadCodec);
+                }
+            }
+        });
+    }
+
+    public void runSerializationBenchmarkTest(String name, ITestCase testCase) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < numRuns; i++) {
+            testCase.run();
+        }
+        long end = System.nanoTime();
+
+        double deltaMs = (double) (end - start) / 1000000.0;
+        double averageRunMs = deltaMs / (double) numRuns;
+
+        System.out.println(String.format("Test case %s: %d runs, average %.3f ms, total %.3f ms",
+                                         name,
+                                         numRuns,
+                                         averageRunMs,
+                                         deltaMs));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.performance;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.google.inject.Guice;
+
+import io.joynr.context.JoynrMessageScopeModule;
+import io.joynr.dispatcher.rpc.ReflectionUtils;
+import io.joynr.dispatching.RequestCaller;
+import io.joynr.dispatching.RequestCallerFactory;
+import io.joynr.dispatching.rpc.RequestInterpreter;
+import joynr.Request;
+
+/**
+ * Compares the reflective provider method lookup and invocation which was formerly used by RequestInterpreter with
+ * the precompiled method invokers of the RequestCaller.
+ */
+@RunWith(Parameterized.class)
+public class RequestInterpreterPerformanceTest {
+
+    private RequestCaller requestCaller;
+    private RequestInterpreter requestInterpreter;
+    private int numRuns = 1;
+    private String testName = "";
+
+    private final static int NUM_WARMUP_RUNS = 10000;
+    private final static int NUM_RUNS = 100000;
+
+    public RequestInterpreterPerformanceTest(Integer numRuns, String testName) {
+        this.numRuns = numRuns.intValue();
+        this.testName = testName;
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{ { new Integer(NUM_WARMUP_RUNS), "Warmup" },
+                { new Integer(NUM_RUNS), "Measurement" } });
+    }
+
+    public interface ITestCase {
+        void run() throws Exception;
+    }
+
+    @Before
+    public void setUp() {
+        requestCaller = new RequestCallerFactory().create(new EchoProviderImpl());
+        requestInterpreter = Guice.createInjector(new JoynrMessageScopeModule()).getInstance(RequestInterpreter.class);
+    }
+
+    @Test
+    public void invokeEchoString() throws Exception {
+        runInvocationBenchmarks("echoString", new Request("echoString",
+                                                          new Object[]{ "test" },
+                                                          new Class<?>[]{ String.class }));
+    }
+
+    @Test
+    public void invokeEchoByteArray() throws Exception {
+        runInvocationBenchmarks("echoByteArray", new Request("echoByteArray",
+                                                             new Object[]{ new Byte[]{ 1, 2, 3 } },
+                                                             new Class<?>[]{ Byte[].class }));
+    }
+
+    private void runInvocationBenchmarks(String name, final Request request) throws Exception {
+        runSerializationBenchmarkTest(String.format("%s reflection, %s", name, testName), new ITestCase() {
+            @Override
+            public void run() throws Exception {
+                // lookup and invocation as done by the former implementation for each request
+                for (Method method : requestCaller.getProxy().getClass().getInterfaces()[0].getMethods()) {
+                    if (method.getName().equals(request.getMethodName())
+                            && Arrays.equals(ReflectionUtils.toDatatypeNames(method.getParameterTypes()),
+                                             request.getParamDatatypes())) {
+                        method.invoke(requestCaller.getProxy(), request.getParams());
+                        return;
+                    }
+                }
+            }
+        });
+        runSerializationBenchmarkTest(String.format("%s method invoker, %s", name, testName), new ITestCase() {
+            @Override
+            public void run() throws Exception {
+                requestInterpreter.invokeMethod(requestCaller, request);
+            }
+        });
+    }
+
+    public void runSerializationBenchmarkTest(String name, ITestCase testCase) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < numRuns; i++) {
+            testCase.run();
+        }
+        long end = System.nanoTime();
+
+        double deltaMs = (double) (end - start) / 1000000.0;
+        double averageRunMs = deltaMs / (double) numRuns;
+
+        System.out.println(String.format("Test case %s: %d runs, average %.3f ms, total %.3f ms",
+                                         name,
+                                         numRuns,
+                                         averageRunMs,
+                                         deltaMs));
+    }
+}
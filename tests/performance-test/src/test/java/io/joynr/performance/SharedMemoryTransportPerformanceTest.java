@@ -0,0 +1,274 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.performance;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Guice;
+
+import io.joynr.exceptions.JoynrDelayMessageException;
+import io.joynr.messaging.FailureAction;
+import io.joynr.messaging.JsonMessageSerializerModule;
+import io.joynr.messaging.SuccessAction;
+import io.joynr.messaging.websocket.IWebSocketMessagingSkeleton;
+import io.joynr.messaging.websocket.JoynrWebSocketEndpoint;
+import io.joynr.messaging.websocket.jetty.client.WebSocketJettyClient;
+import io.joynr.messaging.websocket.server.WebSocketJettyServer;
+import io.joynr.messaging.websocket.sharedmemory.SharedMemoryClientEndpoint;
+import io.joynr.messaging.websocket.sharedmemory.SharedMemoryServerEndpoint;
+import io.joynr.messaging.websocket.sharedmemory.SharedMemorySettings;
+import joynr.system.RoutingTypes.Address;
+import joynr.system.RoutingTypes.WebSocketAddress;
+import joynr.system.RoutingTypes.WebSocketClientAddress;
+import joynr.system.RoutingTypes.WebSocketProtocol;
+
+/**
+ * Compares round trip latency and throughput of the WebSocket and the shared memory transport between a libjoynr
+ * runtime and a cluster controller on the same host. The cluster controller endpoint echoes each message.
+ */
+public class SharedMemoryTransportPerformanceTest {
+
+    private static final int PORT = 4299;
+    private static final int MAX_MESSAGE_SIZE = 4 * 1024 * 1024;
+    private static final int[] MESSAGE_SIZES = { 256, 4096, 65536 };
+    private static final int[] THROUGHPUT_MESSAGE_SIZES = { 256, 4096 };
+    private static final int NUM_WARMUP_RUNS = 2000;
+    private static final int NUM_LATENCY_RUNS = 10000;
+    private static final int NUM_THROUGHPUT_MESSAGES = 50000;
+    private static final long CONNECT_TIMEOUT_MS = 10000;
+
+    private static final SuccessAction SUCCESS_ACTION = new SuccessAction() {
+        @Override
+        public void execute() {
+        }
+    };
+
+    private ObjectMapper objectMapper;
+    private ScheduledExecutorService scheduler;
+    private WebSocketAddress serverAddress;
+    private WebSocketClientAddress clientAddress;
+    private File sharedMemoryDirectory;
+    private JoynrWebSocketEndpoint server;
+    private JoynrWebSocketEndpoint client;
+    private final Semaphore receivedMessages = new Semaphore(0);
+    // a message which is not sent is never echoed, hence the test fails instead of waiting for it
+    private final AtomicReference<Throwable> sendError = new AtomicReference<Throwable>();
+    private final FailureAction failureAction = new FailureAction() {
+        @Override
+        public void execute(Throwable error) {
+            sendError.compareAndSet(null, error);
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        objectMapper = Guice.createInjector(new JsonMessageSerializerModule()).getInstance(ObjectMapper.class);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        serverAddress = new WebSocketAddress(WebSocketProtocol.WS, "localhost", PORT, "");
+        clientAddress = new WebSocketClientAddress("performanceTestClient");
+        sharedMemoryDirectory = File.createTempFile("joynr-shm", "");
+        sharedMemoryDirectory.delete();
+    }
+
+    @After
+    public void tearDown() {
+        stopEndpoints();
+        scheduler.shutdownNow();
+        File[] files = sharedMemoryDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        sharedMemoryDirectory.delete();
+    }
+
+    @Test
+    public void webSocketTransport() throws Exception {
+        startEndpoints(new WebSocketJettyServer(serverAddress, objectMapper, MAX_MESSAGE_SIZE),
+                       new WebSocketJettyClient(serverAddress,
+                                                clientAddress,
+                                                MAX_MESSAGE_SIZE,
+                                                100,
+                                                60000,
+                                                objectMapper));
+        runBenchmarks("WebSocket");
+    }
+
+    @Test
+    public void sharedMemoryTransport() throws Exception {
+        WebSocketJettyServer webSocketServer = new WebSocketJettyServer(serverAddress, objectMapper, MAX_MESSAGE_SIZE);
+        startEndpoints(new SharedMemoryServerEndpoint(webSocketServer,
+                                                      sharedMemoryDirectory,
+                                                      scheduler,
+                                                      SharedMemorySettings.DEFAULT_SHARED_MEMORY_CONNECTION_SCAN_INTERVAL_MS,
+                                                      SharedMemorySettings.DEFAULT_SHARED_MEMORY_MAX_IDLE_WAIT_US),
+                       new SharedMemoryClientEndpoint(sharedMemoryDirectory,
+                                                      clientAddress,
+                                                      SharedMemorySettings.DEFAULT_SHARED_MEMORY_RING_BUFFER_SIZE,
+                                                      SharedMemorySettings.DEFAULT_SHARED_MEMORY_MAX_IDLE_WAIT_US));
+        runBenchmarks("SharedMemory");
+    }
+
+    private void startEndpoints(final JoynrWebSocketEndpoint server, JoynrWebSocketEndpoint client) throws Exception {
+        this.server = server;
+        this.client = client;
+        server.setMessageListener(new BenchmarkSkeleton() {
+            @Override
+            public void transmit(byte[] serializedMessage, FailureAction failureAction) {
+                send(server, clientAddress, ByteBuffer.wrap(serializedMessage));
+            }
+        });
+        client.setMessageListener(new BenchmarkSkeleton() {
+            @Override
+            public void transmit(byte[] serializedMessage, FailureAction failureAction) {
+                receivedMessages.release();
+            }
+        });
+        server.start();
+        client.start();
+
+        // wait until the server is able to send replies to the client
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MS;
+        ByteBuffer message = ByteBuffer.allocate(16);
+        while (true) {
+            send(client, serverAddress, message);
+            if (receivedMessages.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                break;
+            }
+            checkSendError();
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Endpoints not connected");
+            }
+        }
+        Thread.sleep(200);
+        receivedMessages.drainPermits();
+    }
+
+    private void stopEndpoints() {
+        if (client != null) {
+            client.shutdown();
+        }
+        if (server != null) {
+            server.shutdown();
+        }
+    }
+
+    private void send(JoynrWebSocketEndpoint endpoint, Address to, ByteBuffer message) {
+        while (true) {
+            try {
+                endpoint.writeBytes(to, message.duplicate(), 1, TimeUnit.SECONDS, SUCCESS_ACTION, failureAction);
+                return;
+            } catch (JoynrDelayMessageException e) {
+                // not connected yet or the ring buffer is full
+                Thread.yield();
+            }
+        }
+    }
+
+    private void awaitMessages(int numMessages) throws InterruptedException {
+        while (!receivedMessages.tryAcquire(numMessages, 100, TimeUnit.MILLISECONDS)) {
+            checkSendError();
+        }
+    }
+
+    private void checkSendError() {
+        Throwable error = sendError.get();
+        if (error != null) {
+            throw new AssertionError("Message not sent: " + error, error);
+        }
+    }
+
+    private void runBenchmarks(String transport) throws Exception {
+        measureLatency(transport + " warmup", MESSAGE_SIZES[0], NUM_WARMUP_RUNS);
+        for (int messageSize : MESSAGE_SIZES) {
+            measureLatency(transport, messageSize, NUM_LATENCY_RUNS);
+        }
+        for (int messageSize : THROUGHPUT_MESSAGE_SIZES) {
+            measureThroughput(transport, messageSize, NUM_THROUGHPUT_MESSAGES);
+        }
+    }
+
+    private void measureLatency(String transport, int messageSize, int numRuns) throws Exception {
+        ByteBuffer message = ByteBuffer.allocate(messageSize);
+        long start = System.nanoTime();
+        for (int i = 0; i < numRuns; i++) {
+            send(client, serverAddress, message);
+            awaitMessages(1);
+        }
+        long end = System.nanoTime();
+
+        double deltaMs = (double) (end - start) / 1000000.0;
+        System.out.println(String.format("Test case %s round trip (%d bytes): %d runs, average %.1f us, total %.3f ms",
+                                         transport,
+                                         messageSize,
+                                         numRuns,
+                                         deltaMs * 1000.0 / numRuns,
+                                         deltaMs));
+    }
+
+    private void measureThroughput(String transport, final int messageSize, final int numMessages) throws Exception {
+        final ByteBuffer message = ByteBuffer.allocate(messageSize);
+        final AtomicInteger sentMessages = new AtomicInteger();
+        long start = System.nanoTime();
+        Thread sender = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < numMessages; i++) {
+                    send(client, serverAddress, message);
+                    sentMessages.incrementAndGet();
+                }
+            }
+        });
+        sender.start();
+        awaitMessages(numMessages);
+        long end = System.nanoTime();
+        sender.join();
+
+        double deltaMs = (double) (end - start) / 1000000.0;
+        System.out.println(String.format("Test case %s echo throughput (%d bytes): %d messages, %.0f messages/s, %.1f MB/s",
+                                         transport,
+                                         messageSize,
+                                         sentMessages.get(),
+                                         numMessages * 1000.0 / deltaMs,
+                                         (double) numMessages * messageSize / 1000.0 / deltaMs));
+    }
+
+    private abstract static class BenchmarkSkeleton implements IWebSocketMessagingSkeleton {
+        @Override
+        public void init() {
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.performance;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.joynr.dispatching.MutableMessageFactory;
+import io.joynr.dispatching.ProviderDirectory;
+import io.joynr.dispatching.RequestReplyManagerImpl;
+import io.joynr.dispatching.rpc.ReplyCallerDirectory;
+import io.joynr.dispatching.rpc.RequestInterpreter;
+import io.joynr.dispatching.rpc.SynchronizedReplyCaller;
+import io.joynr.dispatching.subscription.TimingWheel;
+import io.joynr.messaging.MessagingQos;
+import io.joynr.messaging.sender.MessageSender;
+import io.joynr.runtime.ShutdownNotifier;
+import joynr.Reply;
+import joynr.Request;
+import joynr.types.DiscoveryEntryWithMetaInfo;
+
+/**
+ * Issues many concurrent synchronous requests via {@link RequestReplyManagerImpl} and measures the memory used while
+ * all of them are waiting for their replies as well as the time until all replies have been delivered. The test fails
+ * unless every call has returned its reply.
+ */
+public class SyncRequestPerformanceTest {
+
+    private static final int NUM_CONCURRENT_CALLS = Integer.getInteger("joynr.performance.syncCalls", 50000);
+    // small stacks keep the memory of the many waiting caller threads bounded
+    private static final long CALLER_STACK_SIZE = 128 * 1024;
+    private static final long TTL_MS = 120000;
+
+    private final ConcurrentMap<String, SynchronizedReplyCaller> replyCallers = new ConcurrentHashMap<>();
+    private final BlockingQueue<Request> sentRequests = new LinkedBlockingQueue<>();
+    private ScheduledExecutorService cleanupScheduler;
+    private ShutdownNotifier shutdownNotifier;
+    private RequestReplyManagerImpl requestReplyManager;
+
+    @Before
+    public void setUp() {
+        cleanupScheduler = Executors.newSingleThreadScheduledExecutor();
+        shutdownNotifier = new ShutdownNotifier();
+        TimingWheel timingWheel = new TimingWheel(cleanupScheduler, cleanupScheduler, shutdownNotifier);
+        requestReplyManager = new RequestReplyManagerImpl(mock(MutableMessageFactory.class),
+                                                          new ReplyCallerDirectory(timingWheel, shutdownNotifier),
+                                                          new ProviderDirectory(),
+                                                          mock(MessageSender.class),
+                                                          mock(RequestInterpreter.class),
+                                                          timingWheel,
+                                                          shutdownNotifier) {
+            @Override
+            public void sendRequest(String fromParticipantId,
+                                    DiscoveryEntryWithMetaInfo toDiscoveryEntry,
+                                    Request request,
+                                    MessagingQos messagingQos) {
+                sentRequests.add(request);
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        shutdownNotifier.shutdown();
+        cleanupScheduler.shutdown();
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Test
+    public void concurrentSyncRequests() throws Exception {
+        final DiscoveryEntryWithMetaInfo providerEntry = new DiscoveryEntryWithMetaInfo();
+        providerEntry.setParticipantId("providerParticipantId");
+        final AtomicInteger failedCalls = new AtomicInteger();
+        final CountDownLatch callsFinished = new CountDownLatch(NUM_CONCURRENT_CALLS);
+        long memoryBefore = usedMemory();
+
+        long start = System.nanoTime();
+        List<Thread> callers = new ArrayList<>(NUM_CONCURRENT_CALLS);
+        for (int i = 0; i < NUM_CONCURRENT_CALLS; i++) {
+            final Request request = new Request("method", new Object[0], new Class<?>[0]);
+            final SynchronizedReplyCaller replyCaller = new SynchronizedReplyCaller("proxyParticipantId",
+                                                                                    request.getRequestReplyId(),
+                                                                                    request);
+            replyCallers.put(request.getRequestReplyId(), replyCaller);
+            Thread caller = new Thread(null, new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        requestReplyManager.sendSyncRequest("proxyParticipantId",
+                                                            providerEntry,
+                                                            request,
+                                                            replyCaller,
+                                                            new MessagingQos(TTL_MS));
+                    } catch (RuntimeException e) {
+                        failedCalls.incrementAndGet();
+                    } finally {
+                        callsFinished.countDown();
+                    }
+                }
+            }, "syncCaller-" + i, CALLER_STACK_SIZE);
+            caller.start();
+            callers.add(caller);
+        }
+        while (sentRequests.size() < NUM_CONCURRENT_CALLS) {
+            Thread.sleep(10);
+        }
+        long allWaiting = System.nanoTime();
+        long memoryWaiting = usedMemory();
+
+        long replyStart = System.nanoTime();
+        Request request;
+        while ((request = sentRequests.poll()) != null) {
+            replyCallers.remove(request.getRequestReplyId()).messageCallBack(new Reply(request.getRequestReplyId(),
+                                                                                       (Object) "result"));
+        }
+        callsFinished.await();
+        long end = System.nanoTime();
+        for (Thread caller : callers) {
+            caller.join();
+        }
+
+        System.out.println(String.format("Test case %d concurrent sync calls: all waiting after %.1f ms, "
+                                                 + "heap %.0f bytes per waiting call, all replies delivered in %.1f ms, %d failed",
+                                         NUM_CONCURRENT_CALLS,
+                                         (allWaiting - start) / 1000000.0,
+                                         (double) (memoryWaiting - memoryBefore) / NUM_CONCURRENT_CALLS,
+                                         (end - replyStart) / 1000000.0,
+                                         failedCalls.get()));
+        assertEquals(0, failedCalls.get());
+    }
+}
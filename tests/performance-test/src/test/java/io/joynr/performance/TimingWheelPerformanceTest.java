@@ -0,0 +1,139 @@
+/*
+ * #%L
+ * %%
+ * Copyright (C) 2018 BMW Car IT GmbH
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package io.joynr.performance;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import io.joynr.dispatching.subscription.TimingWheel;
+
+/**
+ * Compares scheduling and cancelling subscription timeouts on a ScheduledThreadPoolExecutor with the shared
+ * TimingWheel.
+ */
+@RunWith(Parameterized.class)
+public class TimingWheelPerformanceTest {
+
+    private static final long DELAY_MS = 60000;
+    private static final Runnable NOOP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private ScheduledThreadPoolExecutor scheduledExecutor;
+    private ScheduledExecutorService wheelExecutor;
+    private TimingWheel timingWheel;
+    private int numTimeouts = 1;
+    private String testName = "";
+    private int numRuns = 1;
+
+    private final static int NUM_WARMUP_RUNS = 10;
+    private final static int NUM_RUNS = 20;
+
+    public TimingWheelPerformanceTest(Integer numTimeouts, Integer numRuns, String testName) {
+        this.numTimeouts = numTimeouts.intValue();
+        this.numRuns = numRuns.intValue();
+        this.testName = testName;
+    }
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{ { new Integer(100000), new Integer(NUM_WARMUP_RUNS), "Warmup" },
+                { new Integer(10000), new Integer(NUM_RUNS), "10000 timeouts" },
+                { new Integer(100000), new Integer(NUM_RUNS), "100000 timeouts" },
+                { new Integer(1000000), new Integer(NUM_WARMUP_RUNS), "1000000 timeouts" } });
+    }
+
+    public interface ITestCase {
+        void run() throws Exception;
+    }
+
+    @Before
+    public void setUp() {
+        scheduledExecutor = new ScheduledThreadPoolExecutor(1);
+        scheduledExecutor.setRemoveOnCancelPolicy(true);
+        wheelExecutor = Executors.newSingleThreadScheduledExecutor();
+        timingWheel = new TimingWheel(wheelExecutor, TimingWheel.DEFAULT_TICK_MS, TimingWheel.DEFAULT_WHEEL_SIZE);
+    }
+
+    @After
+    public void tearDown() {
+        timingWheel.shutdown();
+        wheelExecutor.shutdown();
+        scheduledExecutor.shutdown();
+    }
+
+    @Test
+    public void scheduleAndCancelTimeouts() throws Exception {
+        final ScheduledFuture<?>[] futures = new ScheduledFuture<?>[numTimeouts];
+        runBenchmarkTest(String.format("ScheduledThreadPoolExecutor, %s", testName), new ITestCase() {
+            @Override
+            public void run() throws Exception {
+                for (int i = 0; i < numTimeouts; i++) {
+                    futures[i] = scheduledExecutor.schedule(NOOP, DELAY_MS + i, TimeUnit.MILLISECONDS);
+                }
+                for (int i = 0; i < numTimeouts; i++) {
+                    futures[i].cancel(false);
+                }
+            }
+        });
+        final TimingWheel.Timeout[] timeouts = new TimingWheel.Timeout[numTimeouts];
+        runBenchmarkTest(String.format("TimingWheel, %s", testName), new ITestCase() {
+            @Override
+            public void run() throws Exception {
+                for (int i = 0; i < numTimeouts; i++) {
+                    timeouts[i] = timingWheel.schedule(NOOP, DELAY_MS + i);
+                }
+                for (int i = 0; i < numTimeouts; i++) {
+                    timeouts[i].cancel();
+                }
+            }
+        });
+    }
+
+    public void runBenchmarkTest(String name, ITestCase testCase) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < numRuns; i++) {
+            testCase.run();
+        }
+        long end = System.nanoTime();
+
+        double deltaMs = (double) (end - start) / 1000000.0;
+        double averageRunMs = deltaMs / (double) numRuns;
+
+        System.out.println(String.format("Test case %s: %d runs, average %.3f ms, total %.3f ms",
+                                         name,
+                                         numRuns,
+                                         averageRunMs,
+                                         deltaMs));
+    }
+}